@@ -0,0 +1,60 @@
+package itson.timbiriche;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide cuánto cuesta guardar y cargar con {@link ArchivoPartida} una partida a la
+ * mitad, en memoria (sin el disco), en varios tamaños de tablero.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ArchivoPartidaBenchmark {
+
+    /** Número de puntos por lado. */
+    @Param({"11", "51", "201"})
+    public int tamaño;
+
+    private TableroModelo modelo;
+    private byte[] guardada;
+
+    @Setup
+    public void preparar() {
+        TableroBits geometria = new TableroBits(tamaño);
+        int[] orden = TableroModeloBenchmark.ordenAleatorio(geometria.getNumLineas(), new SplittableRandom(42));
+        modelo = TableroModeloBenchmark.nuevoModelo(tamaño);
+        for (int i = 0; i < orden.length / 2; i++) {
+            modelo.agregarLinea(geometria.filaDeLinea(orden[i]), geometria.colDeLinea(orden[i]), geometria.esHorizontal(orden[i]));
+        }
+        guardada = ArchivoPartida.codificar(modelo);
+    }
+
+    @Benchmark
+    public byte[] guardar() {
+        return ArchivoPartida.codificar(modelo);
+    }
+
+    @Benchmark
+    public TableroModelo cargar() throws IOException {
+        return ArchivoPartida.decodificar(guardada);
+    }
+}
@@ -0,0 +1,64 @@
+package itson.timbiriche;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide el arranque completo del juego, como lo ve quien lo abre: cada operación lanza
+ * una JVM nueva con {@code --medir-arranque} y espera a que termine, ya sea al pintar
+ * la primera ventana o al tener el tablero listo para jugar (la configuración se acepta
+ * sola). El tiempo incluye arrancar y terminar la JVM.
+ * <p>
+ * Necesita una pantalla: sin ella el juego no puede abrir ventanas. Para ver cuánto
+ * tarda cada fase se puede ejecutar el juego directamente con {@code --medir-arranque}.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ArranqueBenchmark {
+
+    /** Cuánto esperar a que el juego termine antes de darlo por colgado. */
+    private static final long LIMITE_SEGUNDOS = 60;
+
+    @Benchmark
+    public int primerCuadro() throws IOException, InterruptedException {
+        return arrancar("primer-cuadro");
+    }
+
+    @Benchmark
+    public int tableroInteractivo() throws IOException, InterruptedException {
+        return arrancar("tablero");
+    }
+
+    private static int arrancar(String hasta) throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process juego = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                Timbiriche.class.getName(), "--medir-arranque", hasta)
+                .redirectErrorStream(true)
+                .redirectOutput(Redirect.DISCARD)
+                .start();
+        if (!juego.waitFor(LIMITE_SEGUNDOS, TimeUnit.SECONDS)) {
+            juego.destroyForcibly();
+            throw new IllegalStateException("El juego no terminó de arrancar en " + LIMITE_SEGUNDOS + " s");
+        }
+        if (juego.exitValue() != 0) throw new IllegalStateException("El juego terminó con código " + juego.exitValue());
+        return juego.exitValue();
+    }
+}
@@ -0,0 +1,126 @@
+package itson.timbiriche;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide cuánto tarda {@link BusquedaParalela} en llegar a una profundidad fija según su
+ * número de hilos, para saber si en esta máquina le gana a un solo hilo. {@code N} son
+ * tantos hilos como núcleos, lo que usa el juego.
+ * <p>
+ * Cada llamada busca las mismas {@value #POSICIONES} posiciones de media partida en un
+ * tablero de {@value #TAMAÑO}x{@value #TAMAÑO}, generadas con una semilla fija, con un
+ * motor nuevo (y su tabla de transposición vacía) para que ninguna búsqueda aproveche lo
+ * que guardó la anterior. Con un hilo el motor es prácticamente un
+ * {@link BusquedaAlfaBeta}; solo si los demás valores tardan menos hay ganancia real.
+ * <p>
+ * {@link #buscar} da el tiempo hasta la profundidad; {@link #nodosPorSegundo} hace lo
+ * mismo en modo de rendimiento y su contador {@code nodos} da los nodos por segundo que
+ * visitan todos los hilos juntos. Más nodos por segundo sin menos tiempo solo significa
+ * que los hilos repiten trabajo.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BusquedaParalelaBenchmark {
+
+    private static final int TAMAÑO = 10;
+    private static final int POSICIONES = 4;
+    /** Cuántas líneas tiene cada posición: un poco menos de la mitad de las 180 del tablero. */
+    private static final int LINEAS_PUESTAS = 80;
+    private static final long SEMILLA = 20240601L;
+    private static final int MEGABYTES_TABLA = 16;
+
+    /** Cuántos hilos usa el motor; {@code N} es {@link Runtime#availableProcessors()}. */
+    @Param({"1", "2", "4", "N"})
+    public String hilos;
+
+    /** La profundidad a la que se detiene cada búsqueda. */
+    @Param({"6"})
+    public int profundidad;
+
+    private final TableroBits[] posiciones = new TableroBits[POSICIONES];
+    private final TableroBits[] copias = new TableroBits[POSICIONES];
+    private BusquedaParalela motor;
+
+    @Setup(Level.Trial)
+    public void prepararPosiciones() {
+        SplittableRandom random = new SplittableRandom(SEMILLA);
+        for (int i = 0; i < POSICIONES; i++) {
+            // Jugadas cuidadosas, para que la posición no quede llena de cuadros regalados.
+            TableroBits tablero = new TableroBits(TAMAÑO);
+            int turno = 1;
+            while (tablero.getLineasPuestas() < LINEAS_PUESTAS) {
+                if (tablero.colocar(PoliticaJugada.CUIDADOSA.elegir(tablero, random), turno) == 0) turno = 3 - turno;
+            }
+            posiciones[i] = tablero;
+            copias[i] = new TableroBits(tablero);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepararMotor() {
+        int n = hilos.equals("N") ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(hilos);
+        motor = new BusquedaParalela(n, MEGABYTES_TABLA);
+        motor.setProfundidadMaxima(profundidad);
+        for (int i = 0; i < POSICIONES; i++) copias[i].copiarDe(posiciones[i]);
+    }
+
+    @TearDown(Level.Invocation)
+    public void cerrarMotor() {
+        motor.cerrar();
+    }
+
+    /** Los nodos que visitó el motor, que JMH reporta por segundo. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodos {
+        public long nodos;
+
+        @Setup(Level.Iteration)
+        public void reiniciar() {
+            nodos = 0;
+        }
+    }
+
+    /** Busca todas las posiciones hasta {@link #profundidad}, sin límite de tiempo. */
+    @Benchmark
+    public int buscar() {
+        int suma = 0;
+        for (TableroBits tablero : copias) suma += motor.elegirJugada(tablero, Long.MAX_VALUE / 2);
+        return suma;
+    }
+
+    /** Lo mismo que {@link #buscar}, contando los nodos de cada búsqueda. */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int nodosPorSegundo(Nodos contador) {
+        int suma = 0;
+        for (TableroBits tablero : copias) {
+            suma += motor.elegirJugada(tablero, Long.MAX_VALUE / 2);
+            contador.nodos += motor.getUltimasEstadisticas().nodos();
+        }
+        return suma;
+    }
+}
@@ -0,0 +1,331 @@
+package itson.timbiriche;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Prueba de carga del {@link ServidorJuego} o del {@link ServidorVirtual} en conexiones
+ * locales: {@link #clientes} clientes juegan a la vez, en parejas, tan rápido como el
+ * servidor les contesta.
+ * <p>
+ * El servidor corre en otro proceso. Un hilo de este proceso mueve a todos los
+ * clientes de carga con un {@link Selector}: cada uno manda su jugada en cuanto le
+ * toca y mide cuánto tarda en volver su delta. Al terminar cada iteración se imprimen
+ * las jugadas por segundo de la carga y su mediana y percentil 99.
+ * <p>
+ * El benchmark en sí es una jugada más, de una partida aparte, hecha mientras corre
+ * la carga: su distribución (modo de muestreo) es la latencia que vería un jugador
+ * en un servidor con esa carga.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CargaServidorBenchmark {
+
+    /** Un tablero con jugadas de sobra (19 800) para todas las iteraciones, y pequeño en memoria. */
+    private static final int TAMAÑO = 100;
+    /** Los números de las partidas medidas empiezan después de los de la carga. */
+    private static final int PRIMERA_PARTIDA_MEDIDA = 1_000_000;
+
+    /** El servidor: {@code nio} ({@link ServidorJuego}) o {@code virtual} ({@link ServidorVirtual}). */
+    @Param({"nio", "virtual"})
+    public String servidor;
+
+    /** Cuántos clientes de carga hay conectados (la mitad de partidas). */
+    @Param({"100", "1000"})
+    public int clientes;
+
+    private Process proceso;
+    private int puerto;
+    private int siguientePartida = PRIMERA_PARTIDA_MEDIDA;
+    private TableroBits geometria;
+    private Carga carga;
+
+    private SocketChannel[] jugadores;
+    private final ByteBuffer salida = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+    private final ByteBuffer entrada = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+    private final MensajeRed mensaje = new MensajeRed();
+    private MotorTimbiriche espejo;
+    private int siguienteLinea;
+
+    @Setup(Level.Trial)
+    public void arrancar() throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Class<?> clase = switch (servidor) {
+            case "nio" -> ServidorJuego.class;
+            case "virtual" -> ServidorVirtual.class;
+            default -> throw new IllegalArgumentException("Servidor desconocido: " + servidor);
+        };
+        // Todos los clientes de carga vienen de la misma dirección.
+        proceso = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), clase.getName(), "0",
+                "--en-espera-por-direccion", String.valueOf(clientes)).redirectErrorStream(true).start();
+        BufferedReader salidaServidor = new BufferedReader(new InputStreamReader(proceso.getInputStream()));
+        Matcher m = Pattern.compile("puerto (\\d+)").matcher(salidaServidor.readLine());
+        if (!m.find()) throw new IOException("No se pudo leer el puerto del servidor");
+        puerto = Integer.parseInt(m.group(1));
+        // El servidor sigue imprimiendo estadísticas; se descartan para que no se llene el tubo.
+        Thread descarte = new Thread(() -> {
+            try {
+                while (salidaServidor.readLine() != null) {
+                    // Nada que hacer con ellas.
+                }
+            } catch (IOException e) {
+                // El servidor ya terminó.
+            }
+        });
+        descarte.setDaemon(true);
+        descarte.start();
+        geometria = new TableroBits(TAMAÑO);
+        carga = new Carga(puerto, clientes, geometria);
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() throws IOException {
+        carga.cerrar();
+        proceso.destroy();
+    }
+
+    @Setup(Level.Iteration)
+    public void prepararPartida() throws IOException {
+        int idPartida = siguientePartida++;
+        jugadores = new SocketChannel[2];
+        for (int i = 0; i < 2; i++) {
+            jugadores[i] = SocketChannel.open(new InetSocketAddress("127.0.0.1", puerto));
+            jugadores[i].socket().setTcpNoDelay(true);
+            salida.clear();
+            ProtocoloRed.escribirUnirse(salida, idPartida, TAMAÑO, 2);
+            enviar(jugadores[i]);
+            esperar(jugadores[i], ProtocoloRed.BIENVENIDA);
+        }
+        for (SocketChannel j : jugadores) esperar(j, ProtocoloRed.INICIO);
+        espejo = new MotorTimbiriche(TAMAÑO, 1, 2);
+        siguienteLinea = 0;
+        carga.reiniciar();
+    }
+
+    @TearDown(Level.Iteration)
+    public void cerrarPartida() throws IOException {
+        System.out.println(carga.resumen());
+        for (SocketChannel j : jugadores) j.close();
+    }
+
+    /** Una jugada de la partida medida, hasta que los dos jugadores recibieron su delta. */
+    @Benchmark
+    public int jugada() throws IOException {
+        int linea = siguienteLinea++;
+        int jugada = Jugada.codificar(geometria.filaDeLinea(linea), geometria.colDeLinea(linea), geometria.esHorizontal(linea));
+        SocketChannel quienJuega = jugadores[espejo.getJugadorActualIdx()];
+        DeltaEstado delta = espejo.aplicar(jugada);
+        salida.clear();
+        ProtocoloRed.escribirJugada(salida, jugada);
+        enviar(quienJuega);
+        for (SocketChannel j : jugadores) esperar(j, ProtocoloRed.DELTAS);
+        return delta.secuencia();
+    }
+
+    private void enviar(SocketChannel canal) throws IOException {
+        salida.flip();
+        while (salida.hasRemaining()) canal.write(salida);
+    }
+
+    /** Lee tramas de un jugador hasta recibir una del tipo indicado. */
+    private void esperar(SocketChannel canal, byte tipo) throws IOException {
+        do {
+            entrada.clear().limit(2);
+            while (entrada.hasRemaining()) if (canal.read(entrada) < 0) throw new EOFException();
+            entrada.limit(2 + (entrada.getShort(0) & 0xFFFF));
+            while (entrada.hasRemaining()) if (canal.read(entrada) < 0) throw new EOFException();
+            entrada.flip();
+            ProtocoloRed.leer(entrada, mensaje);
+        } while (mensaje.tipo != tipo);
+    }
+
+    /**
+     * Los clientes de carga y el hilo que los mueve. Las partidas ponen sus líneas en
+     * orden de id, así que ninguna jugada se rechaza y no hace falta un tablero por cliente.
+     */
+    private static final class Carga implements Runnable {
+        private final Selector selector = Selector.open();
+        private final List<SocketChannel> canales = new ArrayList<>();
+        private final Thread hilo = new Thread(this, "carga");
+        private final TableroBits geometria;
+        private final MensajeRed mensaje = new MensajeRed();
+        private final ByteBuffer salida = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+        private volatile boolean activo = true;
+        private volatile Exception error;
+
+        // Las latencias de la iteración actual, en nanosegundos; se toman con el candado.
+        private long[] latencias = new long[1 << 16];
+        private int numLatencias;
+        private long inicioNanos;
+
+        /** Una partida de carga: sus dos clientes y su siguiente línea. */
+        private static final class Partida {
+            final Cliente[] clientes = new Cliente[2];
+            int siguienteLinea;
+            long enviadaNanos;
+        }
+
+        /** Lo que lleva leído un cliente de carga. */
+        private static final class Cliente {
+            final Partida partida;
+            final SocketChannel canal;
+            final ByteBuffer entrada = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA * 4);
+            int jugadorId;
+
+            Cliente(Partida partida, SocketChannel canal) {
+                this.partida = partida;
+                this.canal = canal;
+            }
+        }
+
+        Carga(int puerto, int total, TableroBits geometria) throws IOException {
+            this.geometria = geometria;
+            ByteBuffer peticion = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+            for (int i = 0; i < total / 2; i++) {
+                Partida partida = new Partida();
+                peticion.clear();
+                ProtocoloRed.escribirUnirse(peticion, i + 1, geometria.getTamaño(), 2);
+                peticion.flip();
+                for (int j = 0; j < 2; j++) {
+                    SocketChannel canal = SocketChannel.open(new InetSocketAddress("127.0.0.1", puerto));
+                    canales.add(canal);
+                    canal.socket().setTcpNoDelay(true);
+                    ByteBuffer b = peticion.duplicate();
+                    while (b.hasRemaining()) canal.write(b);
+                    canal.configureBlocking(false);
+                    partida.clientes[j] = new Cliente(partida, canal);
+                    canal.register(selector, SelectionKey.OP_READ, partida.clientes[j]);
+                }
+            }
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (activo) {
+                    selector.select();
+                    for (SelectionKey clave : selector.selectedKeys()) {
+                        Cliente c = (Cliente) clave.attachment();
+                        if (c.canal.read(c.entrada) < 0) throw new EOFException("El servidor cerró un cliente de carga");
+                        c.entrada.flip();
+                        while (ProtocoloRed.tramaCompleta(c.entrada) > 0) {
+                            ProtocoloRed.leer(c.entrada, mensaje);
+                            procesar(c);
+                        }
+                        c.entrada.compact();
+                    }
+                    selector.selectedKeys().clear();
+                }
+            } catch (IOException | RuntimeException e) {
+                if (activo) {
+                    error = e;
+                    System.err.println("Falló la carga: " + e);
+                }
+            }
+        }
+
+        private void procesar(Cliente c) throws IOException {
+            switch (mensaje.tipo) {
+                case ProtocoloRed.BIENVENIDA -> c.jugadorId = mensaje.jugadorId;
+                case ProtocoloRed.INICIO -> {
+                    if (c.jugadorId == 1) jugar(c);
+                }
+                case ProtocoloRed.DELTAS -> {
+                    while (ProtocoloRed.siguienteDelta(c.entrada, mensaje)) {
+                        if (mensaje.jugadorId == c.jugadorId) registrar(System.nanoTime() - c.partida.enviadaNanos);
+                        if (!mensaje.terminado && mensaje.siguienteJugadorId == c.jugadorId) jugar(c);
+                    }
+                }
+                case ProtocoloRed.RECHAZO -> throw new IOException("Jugada de carga rechazada: " + ProtocoloRed.motivo(mensaje.motivo));
+                case ProtocoloRed.ABANDONO -> throw new IOException("Un cliente de carga abandonó la partida");
+                default -> { }
+            }
+        }
+
+        private void jugar(Cliente c) throws IOException {
+            int linea = c.partida.siguienteLinea++;
+            salida.clear();
+            ProtocoloRed.escribirJugada(salida, Jugada.codificar(geometria.filaDeLinea(linea),
+                    geometria.colDeLinea(linea), geometria.esHorizontal(linea)));
+            salida.flip();
+            c.partida.enviadaNanos = System.nanoTime();
+            while (salida.hasRemaining()) c.canal.write(salida);
+        }
+
+        private synchronized void registrar(long nanos) {
+            if (numLatencias == latencias.length) latencias = Arrays.copyOf(latencias, 2 * latencias.length);
+            latencias[numLatencias++] = nanos;
+        }
+
+        /** Empieza a contar de nuevo, al principio de una iteración. */
+        synchronized void reiniciar() throws IOException {
+            if (error != null) throw new IOException("Falló la carga", error);
+            numLatencias = 0;
+            inicioNanos = System.nanoTime();
+        }
+
+        /** Las jugadas por segundo y la latencia de la carga desde {@link #reiniciar()}. */
+        synchronized String resumen() {
+            double segundos = (System.nanoTime() - inicioNanos) / 1e9;
+            long[] ordenadas = Arrays.copyOf(latencias, numLatencias);
+            if (ordenadas.length == 0) return "carga: ninguna jugada en " + canales.size() + " clientes";
+            Arrays.sort(ordenadas);
+            return String.format("carga: %d clientes, %.0f jugadas/s, p50 %.2f ms, p99 %.2f ms",
+                    canales.size(), numLatencias / segundos,
+                    ResumenGrabacion.percentil(ordenadas, 0.50) / 1e6, ResumenGrabacion.percentil(ordenadas, 0.99) / 1e6);
+        }
+
+        void cerrar() throws IOException {
+            activo = false;
+            selector.wakeup();
+            try {
+                hilo.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            selector.close();
+            for (SocketChannel canal : canales) {
+                // Sin TIME_WAIT, para no agotar los puertos locales.
+                canal.setOption(StandardSocketOptions.SO_LINGER, 0);
+                canal.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package itson.timbiriche;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide la latencia de punta a punta de una jugada con espectadores: desde que un
+ * jugador la envía hasta que el último espectador recibe el delta.
+ * <p>
+ * El {@link ServidorJuego} corre en otro proceso con dos bucles, así que los
+ * espectadores quedan en el bucle que no atiende a los jugadores y cada proceso
+ * necesita un descriptor de archivo por conexión, no dos. Cada iteración usa una
+ * partida nueva con espectadores nuevos en conexiones locales; un solo hilo los lee
+ * a todos con un {@link Selector}.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EspectadoresBenchmark {
+
+    /** Un tablero con jugadas de sobra para cualquier iteración. */
+    private static final int TAMAÑO = 300;
+
+    @Param({"10", "1000", "10000"})
+    public int espectadores;
+
+    private Process servidor;
+    private int puerto;
+    private int siguientePartida = 1;
+
+    private SocketChannel[] jugadores;
+    private final ByteBuffer salida = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+    private final ByteBuffer entrada = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+    private final MensajeRed mensaje = new MensajeRed();
+    private MotorTimbiriche espejo;
+    private TableroBits geometria;
+    private int siguienteLinea;
+
+    private Lector lector;
+
+    @Setup(Level.Trial)
+    public void arrancarServidor() throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        servidor = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                ServidorJuego.class.getName(), "0", "2", "--tablero-maximo", String.valueOf(TAMAÑO))
+                .redirectErrorStream(true).start();
+        BufferedReader salidaServidor = new BufferedReader(new InputStreamReader(servidor.getInputStream()));
+        Matcher m = Pattern.compile("puerto (\\d+)").matcher(salidaServidor.readLine());
+        if (!m.find()) throw new IOException("No se pudo leer el puerto del servidor");
+        puerto = Integer.parseInt(m.group(1));
+        // El servidor sigue imprimiendo estadísticas; se descartan para que no se llene el tubo.
+        Thread descarte = new Thread(() -> {
+            try {
+                while (salidaServidor.readLine() != null) {
+                    // Nada que hacer con ellas.
+                }
+            } catch (IOException e) {
+                // El servidor ya terminó.
+            }
+        });
+        descarte.setDaemon(true);
+        descarte.start();
+        geometria = new TableroBits(TAMAÑO);
+    }
+
+    @TearDown(Level.Trial)
+    public void detenerServidor() {
+        servidor.destroy();
+    }
+
+    @Setup(Level.Iteration)
+    public void prepararPartida() throws IOException {
+        int idPartida = siguientePartida++;
+        jugadores = new SocketChannel[2];
+        for (int i = 0; i < 2; i++) {
+            jugadores[i] = SocketChannel.open(new InetSocketAddress("127.0.0.1", puerto));
+            jugadores[i].socket().setTcpNoDelay(true);
+            salida.clear();
+            ProtocoloRed.escribirUnirse(salida, idPartida, TAMAÑO, 2);
+            enviar(jugadores[i]);
+            esperar(jugadores[i], ProtocoloRed.BIENVENIDA);
+        }
+        for (SocketChannel j : jugadores) esperar(j, ProtocoloRed.INICIO);
+        espejo = new MotorTimbiriche(TAMAÑO, 1, 2);
+        siguienteLinea = 0;
+        lector = new Lector(puerto, idPartida, espectadores);
+        lector.esperar();
+    }
+
+    @TearDown(Level.Iteration)
+    public void cerrarPartida() throws IOException {
+        lector.cerrar();
+        for (SocketChannel j : jugadores) j.close();
+    }
+
+    /** Una jugada, hasta que los jugadores y todos los espectadores recibieron su delta. */
+    @Benchmark
+    public int jugada() throws IOException {
+        int linea = siguienteLinea++;
+        int jugada = Jugada.codificar(geometria.filaDeLinea(linea), geometria.colDeLinea(linea), geometria.esHorizontal(linea));
+        SocketChannel quienJuega = jugadores[espejo.getJugadorActualIdx()];
+        DeltaEstado delta = espejo.aplicar(jugada);
+        lector.objetivo = delta.secuencia();
+        salida.clear();
+        ProtocoloRed.escribirJugada(salida, jugada);
+        enviar(quienJuega);
+        for (SocketChannel j : jugadores) esperar(j, ProtocoloRed.DELTAS);
+        lector.esperar();
+        return delta.secuencia();
+    }
+
+    private void enviar(SocketChannel canal) throws IOException {
+        salida.flip();
+        while (salida.hasRemaining()) canal.write(salida);
+    }
+
+    /** Lee tramas de un jugador hasta recibir una del tipo indicado. */
+    private void esperar(SocketChannel canal, byte tipo) throws IOException {
+        do {
+            entrada.clear().limit(2);
+            while (entrada.hasRemaining()) if (canal.read(entrada) < 0) throw new EOFException();
+            entrada.limit(2 + (entrada.getShort(0) & 0xFFFF));
+            while (entrada.hasRemaining()) if (canal.read(entrada) < 0) throw new EOFException();
+            entrada.flip();
+            ProtocoloRed.leer(entrada, mensaje);
+        } while (mensaje.tipo != tipo);
+    }
+
+    /**
+     * Los espectadores de una partida y el hilo que los lee. Cuenta cuántos ya vieron la
+     * jugada {@link #objetivo} y despierta al hilo del benchmark cuando son todos.
+     */
+    private static final class Lector implements Runnable {
+        /** Cuánto esperar a que todos los espectadores vean una jugada antes de darse por vencido. */
+        private static final long PLAZO_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+        private final Selector selector = Selector.open();
+        private final List<SocketChannel> canales = new ArrayList<>();
+        private final Thread hilo = new Thread(this, "espectadores");
+        /** El hilo del benchmark, para despertarlo. */
+        private volatile Thread esperando;
+        private final int total;
+        private final MensajeRed mensaje = new MensajeRed();
+        /** La secuencia que deben alcanzar todos; 0 es la bienvenida. */
+        volatile int objetivo;
+        /** El último objetivo que ya alcanzaron todos. */
+        private volatile int alcanzado = -1;
+        private volatile boolean activo = true;
+        private volatile Exception error;
+        // Solo los toca el hilo lector.
+        private int objetivoContado;
+        private int alDia;
+
+        /** Lo que lleva visto cada espectador. */
+        private static final class Espectador {
+            final ByteBuffer entrada = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA * 4);
+            int vistas = -1;
+            int contadoPara = -1;
+        }
+
+        Lector(int puerto, int idPartida, int total) throws IOException {
+            this.total = total;
+            ByteBuffer peticion = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+            ProtocoloRed.escribirEspectar(peticion, idPartida);
+            peticion.flip();
+            for (int i = 0; i < total; i++) {
+                SocketChannel canal = SocketChannel.open(new InetSocketAddress("127.0.0.1", puerto));
+                canales.add(canal);
+                canal.socket().setTcpNoDelay(true);
+                ByteBuffer b = peticion.duplicate();
+                while (b.hasRemaining()) canal.write(b);
+                canal.configureBlocking(false);
+                canal.register(selector, SelectionKey.OP_READ, new Espectador());
+            }
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (activo) {
+                    selector.select();
+                    for (SelectionKey clave : selector.selectedKeys()) {
+                        Espectador e = (Espectador) clave.attachment();
+                        if (((SocketChannel) clave.channel()).read(e.entrada) < 0) throw new EOFException("El servidor cerró un espectador");
+                        e.entrada.flip();
+                        while (ProtocoloRed.tramaCompleta(e.entrada) > 0) {
+                            ProtocoloRed.leer(e.entrada, mensaje);
+                            switch (mensaje.tipo) {
+                                case ProtocoloRed.BIENVENIDA -> e.vistas = Math.max(e.vistas, 0);
+                                case ProtocoloRed.HISTORIA -> {
+                                    while (ProtocoloRed.siguienteJugada(e.entrada, mensaje)) {
+                                        // Solo importa hasta dónde llega.
+                                    }
+                                    e.vistas = Math.max(e.vistas, mensaje.secuencia);
+                                }
+                                case ProtocoloRed.DELTAS -> {
+                                    while (ProtocoloRed.siguienteDelta(e.entrada, mensaje)) e.vistas = mensaje.secuencia;
+                                }
+                                case ProtocoloRed.RECHAZO -> throw new IOException("Espectador rechazado: " + ProtocoloRed.motivo(mensaje.motivo));
+                                default -> { }
+                            }
+                            contar(e);
+                        }
+                        e.entrada.compact();
+                    }
+                    selector.selectedKeys().clear();
+                }
+            } catch (IOException | RuntimeException e) {
+                if (activo) {
+                    error = e;
+                    despertar();
+                }
+            }
+        }
+
+        private void contar(Espectador e) {
+            int o = objetivo;
+            if (o != objetivoContado) {
+                objetivoContado = o;
+                alDia = 0;
+            }
+            if (e.vistas >= o && e.contadoPara != o) {
+                e.contadoPara = o;
+                if (++alDia == total) {
+                    alcanzado = o;
+                    despertar();
+                }
+            }
+        }
+
+        private void despertar() {
+            Thread t = esperando;
+            if (t != null) LockSupport.unpark(t);
+        }
+
+        /** Espera a que todos los espectadores hayan visto la jugada {@link #objetivo}. */
+        void esperar() throws IOException {
+            esperando = Thread.currentThread();
+            long limite = System.nanoTime() + PLAZO_NANOS;
+            while (alcanzado != objetivo) {
+                if (error != null) throw new IOException("Falló la lectura de los espectadores", error);
+                if (System.nanoTime() > limite) throw new IOException("Los espectadores no vieron la jugada " + objetivo);
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+
+        void cerrar() throws IOException {
+            activo = false;
+            selector.wakeup();
+            try {
+                hilo.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            selector.close();
+            for (SocketChannel canal : canales) {
+                // Sin TIME_WAIT, para no agotar los puertos locales entre iteraciones.
+                canal.setOption(StandardSocketOptions.SO_LINGER, 0);
+                canal.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package itson.timbiriche;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide partidas aleatorias completas, de principio a fin.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PartidaBenchmark {
+
+    /** Número de puntos por lado. */
+    @Param({"5", "10", "20"})
+    public int tamaño;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private SimuladorPartidas simulador;
+    private TableroBits geometria;
+    private TableroBits vacio;
+    private TableroBits tablero;
+    private int[] orden;
+
+    @Setup
+    public void preparar() {
+        simulador = new SimuladorPartidas(tamaño, PoliticaJugada.ALEATORIA, PoliticaJugada.ALEATORIA);
+        geometria = new TableroBits(tamaño);
+        vacio = new TableroBits(tamaño);
+        tablero = new TableroBits(tamaño);
+        orden = TableroModeloBenchmark.ordenAleatorio(geometria.getNumLineas(), random);
+    }
+
+    /** Una partida con un {@link TableroModelo} nuevo y las líneas en orden aleatorio. */
+    @Benchmark
+    public int[] partidaModelo() {
+        TableroModeloBenchmark.barajar(orden, random);
+        TableroModelo modelo = TableroModeloBenchmark.nuevoModelo(tamaño);
+        for (int linea : orden) {
+            modelo.agregarLinea(geometria.filaDeLinea(linea), geometria.colDeLinea(linea), geometria.esHorizontal(linea));
+        }
+        return modelo.getPuntajes();
+    }
+
+    /** Una partida como las del {@link SimuladorPartidas}, con la política aleatoria. */
+    @Benchmark
+    public int partidaSimulador() {
+        tablero.copiarDe(vacio);
+        return simulador.jugar(tablero, 1, random);
+    }
+}
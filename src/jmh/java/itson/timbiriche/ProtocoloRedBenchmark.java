@@ -0,0 +1,113 @@
+package itson.timbiriche;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide cuánto cuesta codificar y decodificar con el {@link ProtocoloRed} todas las
+ * jugadas de una partida aleatoria completa.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ProtocoloRedBenchmark {
+
+    /** Número de puntos por lado. */
+    @Param({"5", "10", "20"})
+    public int tamaño;
+
+    private final List<DeltaEstado> deltas = new ArrayList<>();
+    private final MensajeRed mensaje = new MensajeRed();
+    private ByteBuffer buffer;
+    /** La partida ya codificada, un delta por trama, para los benchmarks de lectura. */
+    private ByteBuffer codificadaUnoPorUno;
+    /** La partida ya codificada en lotes. */
+    private ByteBuffer codificadaEnLotes;
+
+    @Setup
+    public void preparar() {
+        SplittableRandom random = new SplittableRandom(42);
+        TableroBits geometria = new TableroBits(tamaño);
+        MotorTimbiriche motor = new MotorTimbiriche(tamaño, 1, 2);
+        for (int linea : TableroModeloBenchmark.ordenAleatorio(geometria.getNumLineas(), random)) {
+            deltas.add(motor.aplicar(geometria.filaDeLinea(linea), geometria.colDeLinea(linea), geometria.esHorizontal(linea)));
+        }
+        buffer = ByteBuffer.allocate(deltas.size() * ProtocoloRed.MAX_TRAMA);
+        codificadaUnoPorUno = ByteBuffer.allocate(buffer.capacity());
+        codificadaEnLotes = ByteBuffer.allocate(buffer.capacity());
+        for (DeltaEstado d : deltas) ProtocoloRed.escribirDelta(codificadaUnoPorUno, d);
+        codificarEnLotes(codificadaEnLotes);
+        codificadaUnoPorUno.flip();
+        codificadaEnLotes.flip();
+    }
+
+    /** Cada jugada como una trama {@code JUGADA}, como las manda el cliente. */
+    @Benchmark
+    public int codificarJugadas() {
+        buffer.clear();
+        for (DeltaEstado d : deltas) ProtocoloRed.escribirJugada(buffer, d.jugada());
+        return buffer.position();
+    }
+
+    /** Cada delta en su propia trama, como los manda el servidor al aceptar cada jugada. */
+    @Benchmark
+    public int codificarDeltas() {
+        buffer.clear();
+        for (DeltaEstado d : deltas) ProtocoloRed.escribirDelta(buffer, d);
+        return buffer.position();
+    }
+
+    /** Toda la partida en lotes de {@link ProtocoloRed#MAX_DELTAS_POR_LOTE} deltas. */
+    @Benchmark
+    public int codificarLotes() {
+        buffer.clear();
+        codificarEnLotes(buffer);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public int decodificarDeltas() {
+        return decodificar(codificadaUnoPorUno.duplicate());
+    }
+
+    @Benchmark
+    public int decodificarLotes() {
+        return decodificar(codificadaEnLotes.duplicate());
+    }
+
+    private void codificarEnLotes(ByteBuffer b) {
+        for (int i = 0; i < deltas.size(); i += ProtocoloRed.MAX_DELTAS_POR_LOTE) {
+            ProtocoloRed.escribirDeltas(b, deltas, i, Math.min(deltas.size(), i + ProtocoloRed.MAX_DELTAS_POR_LOTE));
+        }
+    }
+
+    /** Lee todas las tramas como lo hace el cliente. @return La suma de los puntajes, para que no se descarte el trabajo. */
+    private int decodificar(ByteBuffer b) {
+        int suma = 0;
+        while (ProtocoloRed.tramaCompleta(b) > 0) {
+            ProtocoloRed.leer(b, mensaje);
+            while (ProtocoloRed.siguienteDelta(b, mensaje)) suma += mensaje.puntaje;
+        }
+        return suma;
+    }
+}
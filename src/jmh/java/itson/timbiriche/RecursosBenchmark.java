@@ -0,0 +1,69 @@
+package itson.timbiriche;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.swing.ImageIcon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide la búsqueda de avatares en el classpath y la carga y escalado de una imagen,
+ * que es lo que hacen el selector de avatares y el panel lateral al abrirse. La carga
+ * se mide de dos formas: {@link #loadScaledAvatar} cuando el avatar ya está en
+ * {@link CacheAvatares}, y {@link #decodificar} cuando hay que sacarlo de
+ * {@link PaqueteAvatares} (o de la imagen original, si el paquete no se generó).
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RecursosBenchmark {
+
+    private String avatar;
+
+    /** El tamaño de la imagen escalada, separado para no repetir la búsqueda por cada tamaño. */
+    @State(Scope.Thread)
+    public static class Escala {
+        /** Lado en píxeles del avatar escalado: 50 en el panel lateral, 80 en el selector. */
+        @Param({"50", "80"})
+        public int lado;
+    }
+
+    @Setup
+    public void preparar() {
+        List<String> avatares = Recursos.getAvataresDisponibles();
+        if (avatares.isEmpty()) throw new IllegalStateException("No hay avatares en /avatars");
+        avatar = avatares.get(0);
+    }
+
+    @Benchmark
+    public List<String> getAvataresDisponibles() {
+        return Recursos.getAvataresDisponibles();
+    }
+
+    @Benchmark
+    public ImageIcon loadScaledAvatar(Escala escala) {
+        return Recursos.loadScaledAvatar(avatar, escala.lado, escala.lado);
+    }
+
+    @Benchmark
+    public BufferedImage decodificar(Escala escala) throws IOException {
+        return CacheAvatares.decodificar(avatar, escala.lado, escala.lado);
+    }
+}
@@ -0,0 +1,92 @@
+package itson.timbiriche;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide cuántas jugadas por segundo puede guardar el {@link RegistroJugadas} con cada
+ * {@link RegistroJugadas.Sincronizacion}. Las jugadas son las de una partida aleatoria
+ * ya aplicada, para medir solo el registro. Cada iteración escribe en un directorio
+ * temporal nuevo que se borra al terminar.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RegistroJugadasBenchmark {
+
+    private static final int TAMAÑO = 20;
+
+    @Param({"POR_JUGADA", "AGRUPADA", "SISTEMA"})
+    public RegistroJugadas.Sincronizacion sincronizacion;
+
+    /** Cada cuánto sincroniza {@link RegistroJugadas.Sincronizacion#AGRUPADA}. */
+    @Param({"10"})
+    public long intervaloMs;
+
+    private DeltaEstado[] deltas;
+    private Path directorio;
+    private RegistroJugadas registro;
+    private int siguiente;
+    private int idPartida;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        TableroBits geometria = new TableroBits(TAMAÑO);
+        MotorTimbiriche motor = new MotorTimbiriche(TAMAÑO, 1, 2);
+        int[] orden = TableroModeloBenchmark.ordenAleatorio(geometria.getNumLineas(), new SplittableRandom(42));
+        deltas = new DeltaEstado[orden.length];
+        for (int i = 0; i < orden.length; i++) {
+            deltas[i] = motor.aplicar(geometria.filaDeLinea(orden[i]), geometria.colDeLinea(orden[i]), geometria.esHorizontal(orden[i]));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void abrir() throws IOException {
+        directorio = Files.createTempDirectory("timbiriche-registro");
+        registro = new RegistroJugadas(directorio, sincronizacion, intervaloMs);
+        siguiente = deltas.length;
+    }
+
+    @TearDown(Level.Iteration)
+    public void cerrar() throws IOException {
+        registro.close();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            for (Path p : archivos.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    /** Una jugada; al acabarse la partida se anuncia otra con la siguiente jugada. */
+    @Benchmark
+    public int registrarJugada() {
+        if (siguiente == deltas.length) {
+            registro.registrarPartida(++idPartida, TAMAÑO, 2);
+            siguiente = 0;
+        }
+        registro.registrarJugada(idPartida, deltas[siguiente++]);
+        return siguiente;
+    }
+}
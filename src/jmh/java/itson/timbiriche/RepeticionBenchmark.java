@@ -0,0 +1,64 @@
+package itson.timbiriche;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide cuánto cuesta saltar a una jugada al azar de la repetición de una partida
+ * completa: con las fotos de {@link ArchivoRepeticion} y, para comparar, volviendo a
+ * jugar todo desde la primera jugada.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RepeticionBenchmark {
+
+    /** Número de puntos por lado. */
+    @Param({"11", "51", "201"})
+    public int tamaño;
+
+    private ArchivoRepeticion repeticion;
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Setup
+    public void preparar() throws IOException {
+        TableroBits geometria = new TableroBits(tamaño);
+        TableroModelo modelo = TableroModeloBenchmark.nuevoModelo(tamaño);
+        GrabadorRepeticion grabador = new GrabadorRepeticion(modelo);
+        for (int linea : TableroModeloBenchmark.ordenAleatorio(geometria.getNumLineas(), new SplittableRandom(42))) {
+            modelo.agregarLinea(geometria.filaDeLinea(linea), geometria.colDeLinea(linea), geometria.esHorizontal(linea));
+        }
+        repeticion = ArchivoRepeticion.decodificar(grabador.codificar());
+    }
+
+    @Benchmark
+    public MotorTimbiriche saltar() {
+        return repeticion.estadoEn(random.nextInt(repeticion.getNumJugadas() + 1));
+    }
+
+    @Benchmark
+    public MotorTimbiriche desdeCero() {
+        int jugada = random.nextInt(repeticion.getNumJugadas() + 1);
+        MotorTimbiriche motor = new MotorTimbiriche(tamaño, 1, 2);
+        for (int i = 0; i < jugada; i++) motor.aplicar(repeticion.getJugada(i));
+        return motor;
+    }
+}
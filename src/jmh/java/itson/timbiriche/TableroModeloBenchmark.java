@@ -0,0 +1,110 @@
+package itson.timbiriche;
+
+import java.awt.Color;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide el costo de poner una línea en el {@link TableroModelo} y en el
+ * {@link TableroBits} que lo respalda, en varios tamaños de tablero.
+ * <p>
+ * Las líneas se ponen en un orden aleatorio fijo; cuando el tablero se llena se crea
+ * uno nuevo, así que ese costo queda repartido entre todas las jugadas de la partida.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TableroModeloBenchmark {
+
+    /** Número de puntos por lado. */
+    @Param({"5", "10", "50", "200"})
+    public int tamaño;
+
+    private int[] orden;
+    private TableroModelo modelo;
+    private TableroBits tablero;
+    private TableroBits mitad;
+    private int siguienteModelo;
+    private int siguienteBits;
+
+    @Setup
+    public void preparar() {
+        TableroBits geometria = new TableroBits(tamaño);
+        orden = ordenAleatorio(geometria.getNumLineas(), new SplittableRandom(42));
+        modelo = nuevoModelo(tamaño);
+        tablero = new TableroBits(tamaño);
+        mitad = new TableroBits(tamaño);
+        for (int i = 0; i < orden.length / 2; i++) mitad.colocar(orden[i], 1);
+    }
+
+    /** Una llamada a {@link TableroModelo#agregarLinea}, incluida la notificación a los oyentes. */
+    @Benchmark
+    public boolean agregarLinea() {
+        if (siguienteModelo == orden.length) {
+            modelo = nuevoModelo(tamaño);
+            siguienteModelo = 0;
+        }
+        int linea = orden[siguienteModelo++];
+        return modelo.agregarLinea(tablero.filaDeLinea(linea), tablero.colDeLinea(linea), tablero.esHorizontal(linea));
+    }
+
+    /**
+     * Una llamada a {@link TableroBits#colocar}, que es donde se detectan los cuadros
+     * cerrados (lo que antes hacía {@code verificarCuadrados}).
+     */
+    @Benchmark
+    public int colocar() {
+        if (siguienteBits == orden.length) {
+            tablero = new TableroBits(tamaño);
+            siguienteBits = 0;
+        }
+        return tablero.colocar(orden[siguienteBits++], 1);
+    }
+
+    /** Recuento completo de cuadros cerrados sobre un tablero a medio llenar. */
+    @Benchmark
+    public int contarCuadrosCompletos() {
+        return mitad.contarCuadrosCompletos();
+    }
+
+    static TableroModelo nuevoModelo(int tamaño) {
+        return new TableroModelo(tamaño, List.of(
+                new Jugador(1, "Uno", "/avatars/uno.png", Color.BLUE),
+                new Jugador(2, "Dos", "/avatars/dos.png", Color.RED)));
+    }
+
+    /** Una permutación aleatoria de {@code 0..n-1}. */
+    static int[] ordenAleatorio(int n, SplittableRandom random) {
+        int[] orden = new int[n];
+        for (int i = 0; i < n; i++) orden[i] = i;
+        barajar(orden, random);
+        return orden;
+    }
+
+    static void barajar(int[] arreglo, SplittableRandom random) {
+        for (int i = arreglo.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = arreglo[i];
+            arreglo[i] = arreglo[j];
+            arreglo[j] = t;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package itson.timbiriche;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide cuánto tarda {@link TableroVista#paintComponent} en dibujar un tablero a medio
+ * llenar sobre una imagen fuera de pantalla, sin necesidad de mostrar una ventana:
+ * el tablero completo y solo una ventana de {@value #ANCHO_VENTANA}×{@value #ALTO_VENTANA}
+ * píxeles en el centro, que es lo que se repinta cuando el tablero no cabe en la pantalla.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TableroVistaBenchmark {
+
+    private static final int ANCHO_VENTANA = 800;
+    private static final int ALTO_VENTANA = 600;
+
+    /** Número de puntos por lado. */
+    @Param({"10", "200"})
+    public int tamaño;
+
+    private TableroVista vista;
+    private BufferedImage imagen;
+    private Graphics2D g;
+    private Graphics2D gVentana;
+
+    @Setup
+    public void preparar() {
+        TableroModelo modelo = TableroModeloBenchmark.nuevoModelo(tamaño);
+        TableroBits geometria = new TableroBits(tamaño);
+        int[] orden = TableroModeloBenchmark.ordenAleatorio(geometria.getNumLineas(), new SplittableRandom(42));
+        for (int i = 0; i < orden.length / 2; i++) {
+            int linea = orden[i];
+            modelo.agregarLinea(geometria.filaDeLinea(linea), geometria.colDeLinea(linea), geometria.esHorizontal(linea));
+        }
+        vista = new TableroVista(modelo);
+        int lado = (tamaño - 1) * JuegoConfig.ESPACIO + 2 * JuegoConfig.MARGEN;
+        vista.setSize(lado, lado); // El tablero completo a escala 1, aunque no quepa en la pantalla.
+        imagen = new BufferedImage(vista.getWidth(), vista.getHeight(), BufferedImage.TYPE_INT_RGB);
+        g = imagen.createGraphics();
+        gVentana = imagen.createGraphics();
+        gVentana.clipRect(Math.max(0, (vista.getWidth() - ANCHO_VENTANA) / 2), Math.max(0, (vista.getHeight() - ALTO_VENTANA) / 2),
+                ANCHO_VENTANA, ALTO_VENTANA);
+    }
+
+    @TearDown
+    public void terminar() {
+        g.dispose();
+        gVentana.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage pintar() {
+        vista.paintComponent(g);
+        return imagen;
+    }
+
+    @Benchmark
+    public BufferedImage pintarVentana() {
+        vista.paintComponent(gVentana);
+        return imagen;
+    }
+}
@@ -0,0 +1,88 @@
+package itson.timbiriche;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide un cuadro completo de {@link TableroVista} de {@value #ANCHO}×{@value #ALTO}
+ * píxeles sobre un tablero enorme a medio llenar, con distintas escalas. En cada cuadro
+ * la vista se arrastra unos píxeles, como al recorrer el tablero con el ratón, así que
+ * también cuenta lo que cuesta dibujar lo que aparece en las orillas. A 60 cuadros por
+ * segundo hay unos 16 ms por cuadro.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx2g"})
+public class VistaGrandeBenchmark {
+
+    private static final int ANCHO = 800;
+    private static final int ALTO = 600;
+
+    /** Número de puntos por lado. */
+    @Param({"1000"})
+    public int tamaño;
+
+    /** La escala de la vista; la más chica muestra el tablero completo. */
+    @Param({"2", "1", "0.75", "0.5", "0.3", "0.2", "0.1", "0.01"})
+    public double escala;
+
+    private TableroVista vista;
+    private BufferedImage imagen;
+    private Graphics2D g;
+    private int cuadro;
+
+    @Setup
+    public void preparar() {
+        TableroModelo modelo = TableroModeloBenchmark.nuevoModelo(tamaño);
+        TableroBits geometria = new TableroBits(tamaño);
+        int[] orden = TableroModeloBenchmark.ordenAleatorio(geometria.getNumLineas(), new SplittableRandom(42));
+        for (int i = 0; i < orden.length / 2; i++) {
+            int linea = orden[i];
+            modelo.agregarLinea(geometria.filaDeLinea(linea), geometria.colDeLinea(linea), geometria.esHorizontal(linea));
+        }
+        vista = new TableroVista(modelo);
+        vista.setSize(ANCHO, ALTO);
+        vista.acercar(escala, 0, 0);
+        // Empieza en el centro del tablero.
+        int lado = (tamaño - 1) * JuegoConfig.ESPACIO + 2 * JuegoConfig.MARGEN;
+        int centro = (int) (lado * vista.getEscala() / 2);
+        vista.desplazar(ANCHO / 2 - centro, ALTO / 2 - centro);
+        imagen = new BufferedImage(ANCHO, ALTO, BufferedImage.TYPE_INT_RGB);
+        g = imagen.createGraphics();
+        g.setClip(0, 0, ANCHO, ALTO);
+    }
+
+    @TearDown
+    public void terminar() {
+        g.dispose();
+    }
+
+    /** Arrastra la vista (de ida y vuelta, para no salirse del tablero) y dibuja el cuadro. */
+    @Benchmark
+    public BufferedImage arrastrarYPintar() {
+        cuadro++;
+        vista.desplazar((cuadro / 64) % 2 == 0 ? 23 : -23, (cuadro / 96) % 2 == 0 ? 17 : -17);
+        vista.paintComponent(g);
+        return imagen;
+    }
+}
@@ -0,0 +1,283 @@
+package itson.timbiriche;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Guarda una partida en un archivo compacto y la vuelve a cargar, para poder
+ * suspenderla y seguirla después.
+ * <p>
+ * El formato es, en orden:
+ * <pre>
+ *   [magico: int] [version: byte] [tamaño: short] [numJugadores: byte] [turno: byte]
+ *   por jugador: [id: int] [rgb: int] [nombre] [avatar]     (textos: [longitud: short] [UTF-8])
+ *   [ocupación: un bit por línea, en orden de id de línea]
+ *   [dueños: por cada línea puesta y luego por cada cuadro cerrado, la posición del
+ *    jugador en {@code b} bits, con b = bits necesarios para numJugadores - 1]
+ *   [crc32 de todo lo anterior: int]
+ * </pre>
+ * Con dos jugadores cada dueño ocupa un bit, así que un tablero de 10x10 completo ocupa
+ * unos 80 bytes más los jugadores. Los puntajes y el número de jugadas no se guardan
+ * porque se deducen del tablero. No se usa la serialización de Java: escribir y leer
+ * recorren el tablero una vez, así que el costo crece linealmente con él.
+ * <p>
+ * No se guarda qué jugadores controlaba la computadora; una partida cargada la juegan
+ * personas. Esta clase no está diseñada para ser instanciada.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public final class ArchivoPartida {
+
+    /** "TBPG": identifica un archivo de partida. */
+    public static final int MAGICO = 0x54425047;
+    public static final int VERSION = 1;
+    /** La extensión que usa la interfaz para estos archivos. */
+    public static final String EXTENSION = "tbr";
+
+    private ArchivoPartida() {
+    }
+
+    /**
+     * Codifica el estado de una partida.
+     * @param modelo La partida.
+     * @return Los bytes del archivo, con su CRC.
+     */
+    public static byte[] codificar(TableroModelo modelo) {
+        TableroBits tablero = modelo.copiarTablero();
+        List<Jugador> jugadores = modelo.getJugadores();
+        int n = jugadores.size();
+        ByteBuffer b = ByteBuffer.allocate(9 + maxBytesJugadores(jugadores) + maxBytesTablero(tablero, n) + 4);
+        b.putInt(MAGICO).put((byte) VERSION).putShort((short) tablero.getTamaño()).put((byte) n).put((byte) modelo.getJugadorActualIdx());
+        escribirJugadores(b, jugadores);
+        escribirTablero(b, tablero, n);
+        return conCrc(b);
+    }
+
+    /**
+     * Reconstruye una partida codificada con {@link #codificar}.
+     * @param datos Los bytes del archivo.
+     * @return Un modelo nuevo, sin oyentes, con el mismo tablero, turno y jugadores.
+     * @throws IOException si los datos están dañados o no son de este formato.
+     */
+    public static TableroModelo decodificar(byte[] datos) throws IOException {
+        ByteBuffer b = verificarCrc(datos);
+        try {
+            if (b.getInt() != MAGICO) throw new IOException("No es un archivo de partida");
+            int version = b.get();
+            if (version != VERSION) throw new IOException("Versión de archivo no soportada: " + version);
+            int tamaño = b.getShort() & 0xFFFF;
+            int n = b.get() & 0xFF;
+            int turno = b.get() & 0xFF;
+            validarEncabezado(tamaño, n);
+            if (turno >= n) throw new IOException("Turno inválido: " + turno);
+            List<Jugador> jugadores = leerJugadores(b, n);
+            TableroBits tablero = leerTablero(b, tamaño, n);
+            if (b.hasRemaining()) throw new IOException("Sobran " + b.remaining() + " bytes al final del archivo");
+            return new TableroModelo(jugadores, new MotorTimbiriche(tablero, turno, ids(jugadores)));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("El archivo está incompleto", e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("El archivo no describe una partida válida: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Guarda una partida en un archivo. Se escribe primero un archivo temporal junto al
+     * destino, así que si algo falla no se pierde lo que ya estaba guardado.
+     *
+     * @param modelo La partida.
+     * @param archivo Dónde guardarla; se reemplaza si ya existe.
+     * @throws IOException si no se puede escribir.
+     */
+    public static void guardar(TableroModelo modelo, Path archivo) throws IOException {
+        escribirArchivo(archivo, codificar(modelo));
+    }
+
+    /**
+     * Carga una partida guardada con {@link #guardar}.
+     * @param archivo El archivo.
+     * @return La partida.
+     * @throws IOException si no se puede leer o no es una partida válida.
+     */
+    public static TableroModelo cargar(Path archivo) throws IOException {
+        return decodificar(Files.readAllBytes(archivo));
+    }
+
+    // --- Partes del formato, compartidas con ArchivoRepeticion ---
+
+    /** Cuántos bytes pueden ocupar los jugadores como mucho. */
+    static int maxBytesJugadores(List<Jugador> jugadores) {
+        int total = 0;
+        // Un carácter de Java ocupa a lo más 3 bytes en UTF-8.
+        for (Jugador j : jugadores) total += 12 + 3 * (j.nombre().length() + j.avatarPath().length());
+        return total;
+    }
+
+    static void escribirJugadores(ByteBuffer b, List<Jugador> jugadores) {
+        for (Jugador j : jugadores) {
+            b.putInt(j.id()).putInt(j.color().getRGB());
+            escribirTexto(b, j.nombre().getBytes(StandardCharsets.UTF_8));
+            escribirTexto(b, j.avatarPath().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    static List<Jugador> leerJugadores(ByteBuffer b, int n) {
+        List<Jugador> jugadores = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int id = b.getInt();
+            Color color = new Color(b.getInt(), true);
+            String nombre = leerTexto(b);
+            jugadores.add(new Jugador(id, nombre, leerTexto(b), color));
+        }
+        return jugadores;
+    }
+
+    static int[] ids(List<Jugador> jugadores) {
+        return jugadores.stream().mapToInt(Jugador::id).toArray();
+    }
+
+    /** @throws IOException si el tamaño o el número de jugadores no son posibles. */
+    static void validarEncabezado(int tamaño, int numJugadores) throws IOException {
+        if (tamaño < 2 || tamaño > Jugada.MAX_COORDENADA || numJugadores == 0 || numJugadores > TableroBits.MAX_DUEÑOS) {
+            throw new IOException("Encabezado inválido: tamaño " + tamaño + ", " + numJugadores + " jugadores");
+        }
+    }
+
+    /** Cuántos bytes ocupa un tablero con {@link #escribirTablero}. */
+    static int maxBytesTablero(TableroBits tablero, int numJugadores) {
+        int bitsDueños = (tablero.getLineasPuestas() + tablero.getCuadrosCerrados()) * bitsPorDueño(numJugadores);
+        return (tablero.getNumLineas() + 7) / 8 + (bitsDueños + 7) / 8;
+    }
+
+    /** Escribe la ocupación y los dueños de un tablero; el tamaño y los jugadores van aparte. */
+    static void escribirTablero(ByteBuffer b, TableroBits tablero, int numJugadores) {
+        // La ocupación, palabra por palabra, sin los bytes de relleno de la última.
+        int bytesOcupacion = (tablero.getNumLineas() + 7) / 8;
+        for (int i = 0, escritos = 0; i < tablero.getNumPalabras(); i++) {
+            long palabra = tablero.palabraOcupadas(i);
+            for (int k = 0; k < 8 && escritos < bytesOcupacion; k++, escritos++) b.put((byte) (palabra >>> (8 * k)));
+        }
+
+        // Los dueños, empacados; solo de lo que está puesto o cerrado.
+        int bits = bitsPorDueño(numJugadores);
+        if (bits == 0) return;
+        long acumulado = 0;
+        int pendientes = 0;
+        for (int i = 0; i < tablero.getNumPalabras(); i++) {
+            for (long palabra = tablero.palabraOcupadas(i); palabra != 0; palabra &= palabra - 1) {
+                int linea = (i << 6) + Long.numberOfTrailingZeros(palabra);
+                acumulado |= (long) (tablero.getDueñoLinea(linea) - 1) << pendientes;
+                pendientes += bits;
+                for (; pendientes >= 8; pendientes -= 8, acumulado >>>= 8) b.put((byte) acumulado);
+            }
+        }
+        for (int cuadro = 0; cuadro < tablero.getNumCuadros(); cuadro++) {
+            if (tablero.lados(cuadro) != 4) continue;
+            acumulado |= (long) (tablero.getDueñoCuadro(cuadro) - 1) << pendientes;
+            pendientes += bits;
+            for (; pendientes >= 8; pendientes -= 8, acumulado >>>= 8) b.put((byte) acumulado);
+        }
+        if (pendientes > 0) b.put((byte) acumulado);
+    }
+
+    /**
+     * Lee un tablero escrito con {@link #escribirTablero}.
+     * @throws IOException si hay líneas fuera del tablero o dueños que no son jugadores.
+     */
+    static TableroBits leerTablero(ByteBuffer b, int tamaño, int numJugadores) throws IOException {
+        TableroBits tablero = new TableroBits(tamaño);
+        long[] ocupadas = new long[tablero.getNumPalabras()];
+        int bytesOcupacion = (tablero.getNumLineas() + 7) / 8;
+        for (int k = 0; k < bytesOcupacion; k++) ocupadas[k >>> 3] |= (b.get() & 0xFFL) << (8 * (k & 7));
+        int sobrantes = tablero.getNumLineas() & 63;
+        if (sobrantes != 0 && ocupadas[ocupadas.length - 1] >>> sobrantes != 0) throw new IOException("Hay líneas fuera del tablero");
+
+        int bits = bitsPorDueño(numJugadores);
+        long mascara = (1L << bits) - 1;
+        long acumulado = 0;
+        int disponibles = 0;
+        for (int i = 0; i < ocupadas.length; i++) {
+            for (long palabra = ocupadas[i]; palabra != 0; palabra &= palabra - 1) {
+                for (; disponibles < bits; disponibles += 8) acumulado |= (b.get() & 0xFFL) << disponibles;
+                int dueño = (int) (acumulado & mascara);
+                acumulado >>>= bits;
+                disponibles -= bits;
+                if (dueño >= numJugadores) throw new IOException("Dueño de línea inválido: " + dueño);
+                tablero.colocar((i << 6) + Long.numberOfTrailingZeros(palabra), dueño + 1);
+            }
+        }
+        for (int cuadro = 0; cuadro < tablero.getNumCuadros(); cuadro++) {
+            if (tablero.lados(cuadro) != 4) continue;
+            for (; disponibles < bits; disponibles += 8) acumulado |= (b.get() & 0xFFL) << disponibles;
+            int dueño = (int) (acumulado & mascara);
+            acumulado >>>= bits;
+            disponibles -= bits;
+            if (dueño >= numJugadores) throw new IOException("Dueño de cuadro inválido: " + dueño);
+            tablero.asignarCuadro(cuadro, dueño + 1);
+        }
+        return tablero;
+    }
+
+    /** Escribe un archivo completo a través de un temporal, para no dejarlo a medias. */
+    static void escribirArchivo(Path archivo, byte[] datos) throws IOException {
+        Path destino = archivo.toAbsolutePath();
+        Path temporal = Files.createTempFile(destino.getParent(), destino.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporal, datos);
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /** Agrega el CRC de lo escrito y devuelve exactamente los bytes usados. */
+    static byte[] conCrc(ByteBuffer b) {
+        CRC32 crc = new CRC32();
+        crc.update(b.array(), 0, b.position());
+        b.putInt((int) crc.getValue());
+        return Arrays.copyOf(b.array(), b.position());
+    }
+
+    /**
+     * Verifica el CRC del final de unos datos.
+     * @return Un buffer sobre los datos sin el CRC.
+     * @throws IOException si el CRC no coincide.
+     */
+    static ByteBuffer verificarCrc(byte[] datos) throws IOException {
+        if (datos.length < 8) throw new IOException("El archivo es demasiado corto");
+        CRC32 crc = new CRC32();
+        crc.update(datos, 0, datos.length - 4);
+        ByteBuffer b = ByteBuffer.wrap(datos);
+        if (b.getInt(datos.length - 4) != (int) crc.getValue()) throw new IOException("El archivo está dañado (CRC incorrecto)");
+        return b.limit(datos.length - 4);
+    }
+
+    /** Cuántos bits se necesitan para la posición de un jugador: 0 con uno solo, 1 con dos, etc. */
+    private static int bitsPorDueño(int numJugadores) {
+        return 32 - Integer.numberOfLeadingZeros(numJugadores - 1);
+    }
+
+    static void escribirTexto(ByteBuffer b, byte[] texto) {
+        if (texto.length > 0xFFFF) throw new IllegalArgumentException("Texto demasiado largo: " + texto.length + " bytes");
+        b.putShort((short) texto.length).put(texto);
+    }
+
+    static String leerTexto(ByteBuffer b) {
+        int longitud = b.getShort() & 0xFFFF;
+        if (longitud > b.remaining()) throw new BufferUnderflowException();
+        String texto = new String(b.array(), b.position(), longitud, StandardCharsets.UTF_8);
+        b.position(b.position() + longitud);
+        return texto;
+    }
+}
@@ -0,0 +1,226 @@
+package itson.timbiriche;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Una repetición de una partida: el estado inicial, las jugadas en orden y, cada
+ * {@link #getIntervalo()} jugadas, una foto del tablero para poder saltar a cualquier
+ * jugada sin volver a jugar todas las anteriores.
+ * <p>
+ * El formato es, en orden:
+ * <pre>
+ *   [magico: int] [version: byte] [tamaño: short] [numJugadores: byte]
+ *   [intervalo: int] [numJugadas: int] [numFotos: int]
+ *   [jugadores, como en {@link ArchivoPartida}]
+ *   [índice: por cada foto, dónde empieza en el archivo: int]
+ *   [jugadas: numJugadas × int, codificadas con {@link Jugada}]
+ *   [fotos: por cada una, [turno: byte] y el tablero como en {@link ArchivoPartida}]
+ *   [crc32 de todo lo anterior: int]
+ * </pre>
+ * La foto {@code i} es el estado después de {@code i * intervalo} jugadas; la 0 es el
+ * estado en que empezó la grabación, que no tiene que ser un tablero vacío.
+ * <p>
+ * Desempacar una foto cuesta casi lo mismo que volver a jugar sus líneas, así que al
+ * cargar el archivo cada foto se desempaca una sola vez (y se compara con lo jugado) y
+ * se guarda ya desempacada. Después, ir a cualquier jugada cuesta copiar esa foto de una
+ * vez y aplicar menos de {@code intervalo} jugadas, sin importar cuántas haya antes. El
+ * intervalo crece con el tablero ({@value #INTERVALO_MINIMO} jugadas como mínimo, o la
+ * treintaidosava parte de las líneas), así que hay a lo más 33 fotos: en el archivo
+ * ocupan un par de veces lo que las jugadas y en memoria unos 2 bytes por línea cada una.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public final class ArchivoRepeticion {
+
+    /** "TBRR": identifica un archivo de repetición. */
+    public static final int MAGICO = 0x54425252;
+    public static final int VERSION = 1;
+    /** La extensión que usa la interfaz para estos archivos. */
+    public static final String EXTENSION = "tbrr";
+    public static final int INTERVALO_MINIMO = 16;
+
+    private final int tamaño;
+    private final List<Jugador> jugadores;
+    private final int[] ids;
+    private final int intervalo;
+    private final int[] jugadas;
+    /** Las fotos ya desempacadas. */
+    private final MotorTimbiriche[] fotos;
+
+    private ArchivoRepeticion(int tamaño, List<Jugador> jugadores, int intervalo, int[] jugadas, int numFotos) {
+        this.tamaño = tamaño;
+        this.jugadores = jugadores;
+        this.ids = ArchivoPartida.ids(jugadores);
+        this.intervalo = intervalo;
+        this.jugadas = jugadas;
+        this.fotos = new MotorTimbiriche[numFotos];
+    }
+
+    public int getTamaño() { return tamaño; }
+    public List<Jugador> getJugadores() { return jugadores; }
+    public int getIntervalo() { return intervalo; }
+    public int getNumJugadas() { return jugadas.length; }
+    /** @return La jugada número {@code i} (la primera es la 0), codificada con {@link Jugada}. */
+    public int getJugada(int i) { return jugadas[i]; }
+
+    /** El intervalo entre fotos que se usa para un tablero. */
+    static int intervaloPara(int tamaño) {
+        return Math.max(INTERVALO_MINIMO, 2 * tamaño * (tamaño - 1) / 32);
+    }
+
+    /**
+     * Calcula el estado de la partida después de cierto número de jugadas: copia la foto
+     * más cercana anterior y aplica las jugadas que faltan.
+     *
+     * @param jugada Cuántas jugadas de la repetición aplicar (0..{@link #getNumJugadas()}).
+     * @return Un motor nuevo con ese estado.
+     */
+    public MotorTimbiriche estadoEn(int jugada) {
+        if (jugada < 0 || jugada > jugadas.length) throw new IndexOutOfBoundsException("Jugada fuera de la repetición: " + jugada);
+        int foto = jugada / intervalo;
+        MotorTimbiriche motor = new MotorTimbiriche(tamaño, ids);
+        motor.copiarDe(fotos[foto]);
+        // Las jugadas se verificaron al cargar el archivo.
+        for (int i = foto * intervalo; i < jugada; i++) motor.aplicar(jugadas[i]);
+        return motor;
+    }
+
+    /** Crea un modelo con el estado en que empieza la repetición. */
+    public TableroModelo crearModelo() {
+        return new TableroModelo(jugadores, estadoEn(0));
+    }
+
+    private MotorTimbiriche leerFoto(ByteBuffer b) throws IOException {
+        int turno = b.get() & 0xFF;
+        if (turno >= ids.length) throw new IOException("Turno inválido: " + turno);
+        return new MotorTimbiriche(ArchivoPartida.leerTablero(b, tamaño, ids.length), turno, ids);
+    }
+
+    /**
+     * Codifica una repetición.
+     *
+     * @param inicial El estado en que empieza; no se modifica.
+     * @param jugadores Los jugadores, en el orden del motor.
+     * @param jugadas Las jugadas desde ese estado, todas válidas.
+     * @param cuantas Cuántas de {@code jugadas} usar.
+     * @return Los bytes del archivo, con su CRC.
+     */
+    static byte[] codificar(MotorTimbiriche inicial, List<Jugador> jugadores, int[] jugadas, int cuantas) {
+        int tamaño = inicial.getTamaño();
+        int n = jugadores.size();
+        int intervalo = intervaloPara(tamaño);
+        int numFotos = cuantas / intervalo + 1;
+        MotorTimbiriche motor = new MotorTimbiriche(inicial.copiarTablero(), inicial.getJugadorActualIdx(), ArchivoPartida.ids(jugadores));
+        TableroBits lleno = new TableroBits(tamaño);
+        for (int linea = 0; linea < lleno.getNumLineas(); linea++) lleno.colocar(linea, 1);
+        int maxFoto = 1 + ArchivoPartida.maxBytesTablero(lleno, n);
+        ByteBuffer b = ByteBuffer.allocate(20 + ArchivoPartida.maxBytesJugadores(jugadores) + 4 * numFotos
+                + 4 * cuantas + numFotos * maxFoto + 4);
+
+        b.putInt(MAGICO).put((byte) VERSION).putShort((short) tamaño).put((byte) n)
+                .putInt(intervalo).putInt(cuantas).putInt(numFotos);
+        ArchivoPartida.escribirJugadores(b, jugadores);
+        int indice = b.position();
+        b.position(indice + 4 * numFotos);
+        for (int i = 0; i < cuantas; i++) b.putInt(jugadas[i]);
+        for (int i = 0, foto = 0; i <= cuantas; i++) {
+            if (i % intervalo == 0) {
+                b.putInt(indice + 4 * foto++, b.position());
+                escribirFoto(b, motor);
+            }
+            if (i < cuantas && motor.aplicar(jugadas[i]) == null) {
+                throw new IllegalArgumentException("Jugada inválida en la repetición: " + Jugada.texto(jugadas[i]));
+            }
+        }
+        return ArchivoPartida.conCrc(b);
+    }
+
+    private static void escribirFoto(ByteBuffer b, MotorTimbiriche motor) {
+        b.put((byte) motor.getJugadorActualIdx());
+        ArchivoPartida.escribirTablero(b, motor.copiarTablero(), motor.getNumJugadores());
+    }
+
+    /**
+     * Lee una repetición codificada con {@link #codificar}. Además del CRC, vuelve a jugar
+     * la repetición una vez y verifica que el índice apunte a cada foto y que cada foto
+     * coincida con lo jugado, para que después los saltos no puedan fallar.
+     *
+     * @param datos Los bytes del archivo.
+     * @return La repetición.
+     * @throws IOException si los datos están dañados o no son de este formato.
+     */
+    public static ArchivoRepeticion decodificar(byte[] datos) throws IOException {
+        ByteBuffer b = ArchivoPartida.verificarCrc(datos);
+        try {
+            if (b.getInt() != MAGICO) throw new IOException("No es un archivo de repetición");
+            int version = b.get();
+            if (version != VERSION) throw new IOException("Versión de archivo no soportada: " + version);
+            int tamaño = b.getShort() & 0xFFFF;
+            int n = b.get() & 0xFF;
+            ArchivoPartida.validarEncabezado(tamaño, n);
+            int intervalo = b.getInt();
+            int cuantas = b.getInt();
+            int numFotos = b.getInt();
+            int maxJugadas = 2 * tamaño * (tamaño - 1);
+            if (intervalo <= 0 || cuantas < 0 || cuantas > maxJugadas || numFotos != cuantas / intervalo + 1) {
+                throw new IOException("Encabezado inválido: " + cuantas + " jugadas, " + numFotos + " fotos cada " + intervalo);
+            }
+            List<Jugador> jugadores = ArchivoPartida.leerJugadores(b, n);
+            int[] indice = new int[numFotos];
+            for (int i = 0; i < numFotos; i++) indice[i] = b.getInt();
+            int[] jugadas = new int[cuantas];
+            for (int i = 0; i < cuantas; i++) jugadas[i] = b.getInt();
+            ArchivoRepeticion repeticion = new ArchivoRepeticion(tamaño, jugadores, intervalo, jugadas, numFotos);
+
+            // Cada foto debe empezar donde terminó la anterior y ser igual a lo jugado hasta ahí.
+            ByteBuffer esperada = ByteBuffer.allocate(datos.length);
+            MotorTimbiriche motor = null;
+            for (int f = 0; f < numFotos; f++) {
+                if (indice[f] != b.position()) throw new IOException("El índice no coincide con la foto " + f);
+                MotorTimbiriche leido = repeticion.leerFoto(b);
+                repeticion.fotos[f] = leido;
+                if (motor == null) {
+                    motor = new MotorTimbiriche(tamaño, repeticion.ids);
+                    motor.copiarDe(leido);
+                } else {
+                    for (int i = (f - 1) * intervalo; i < f * intervalo; i++) aplicarVerificada(motor, jugadas[i]);
+                    esperada.clear();
+                    escribirFoto(esperada, motor);
+                    if (!Arrays.equals(datos, indice[f], b.position(), esperada.array(), 0, esperada.position())) {
+                        throw new IOException("La foto " + f + " no coincide con las jugadas");
+                    }
+                }
+            }
+            for (int i = (numFotos - 1) * intervalo; i < cuantas; i++) aplicarVerificada(motor, jugadas[i]);
+            if (b.hasRemaining()) throw new IOException("Sobran " + b.remaining() + " bytes al final del archivo");
+            return repeticion;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("El archivo está incompleto", e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("El archivo no describe una repetición válida: " + e.getMessage(), e);
+        }
+    }
+
+    private static void aplicarVerificada(MotorTimbiriche motor, int jugada) throws IOException {
+        if (!motor.esJugadaValida(jugada) || motor.aplicar(jugada) == null) {
+            throw new IOException("Jugada inválida en la repetición: " + Jugada.texto(jugada));
+        }
+    }
+
+    /**
+     * Carga una repetición guardada con {@link GrabadorRepeticion#guardar}.
+     * @param archivo El archivo.
+     * @return La repetición.
+     * @throws IOException si no se puede leer o no es una repetición válida.
+     */
+    public static ArchivoRepeticion cargar(Path archivo) throws IOException {
+        return decodificar(Files.readAllBytes(archivo));
+    }
+}
@@ -0,0 +1,288 @@
+package itson.timbiriche;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Motor de búsqueda alfa-beta para la computadora.
+ * <p>
+ * Usa negamax con la regla especial de Timbiriche: si una jugada cierra cuadros,
+ * el mismo jugador vuelve a tirar, así que el valor del hijo se suma en lugar de
+ * negarse. El valor de una posición es la ventaja de cuadros que todavía puede
+ * conseguir quien tiene el turno; como no depende de los cuadros ya ganados ni
+ * de quién es ese jugador, la misma posición (mismo conjunto de líneas) vale lo
+ * mismo sin importar cómo se llegó a ella y se puede guardar en la
+ * {@link TablaTransposicion} usando solo el hash de las líneas.
+ * <p>
+ * Con más de dos jugadores la computadora trata a todos los demás como un solo rival.
+ * <p>
+ * Cuando en una posición ya no quedan capturas ni jugadas seguras, se le pregunta al
+ * {@link SolucionadorFinal}; si el final es de cadenas y lazos, su valor exacto corta
+ * la búsqueda en ese nodo.
+ * <p>
+ * La búsqueda usa profundización iterativa: busca a profundidad 1, 2, 3... hasta
+ * que se acaba el presupuesto de tiempo, y devuelve la mejor jugada de la última
+ * profundidad completa. El tiempo se revisa cada pocos nodos, así que el
+ * presupuesto se respeta aunque una iteración se quede a medias.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public class BusquedaAlfaBeta implements MotorBusqueda {
+
+    /** Profundidad máxima que cabe en una entrada de la tabla de transposición. */
+    static final int PROFUNDIDAD_MAXIMA = 250;
+    private static final int INFINITO = 1_000_000;
+    private static final int NODOS_ENTRE_REVISIONES = 1024;
+
+    private final TablaTransposicion tabla;
+    private final SolucionadorFinal solucionador = new SolucionadorFinal();
+    private int profundidadMaxima = PROFUNDIDAD_MAXIMA;
+    /** Señal opcional para cortar la búsqueda desde otro hilo (la usa {@link BusquedaParalela}). */
+    private AtomicBoolean detener;
+    /**
+     * Línea desde la que se empieza a recorrer el tablero al generar jugadas. Con 0 el
+     * orden es el natural; los hilos auxiliares de {@link BusquedaParalela} usan otros
+     * valores para no explorar todos el mismo árbol en el mismo orden.
+     */
+    private int desplazamientoOrden = 0;
+
+    // --- Estado de la búsqueda en curso ---
+    private TableroBits tablero;
+    private long[] zobrist;
+    private long hash;
+    private int[][] jugadasPorNivel;
+    private int mejorJugadaRaiz;
+    /** Cuántas capturas o jugadas seguras encontró la última llamada a {@link #generarJugadas}. */
+    private int jugadasNoPeligrosas;
+    private long limiteNanos;
+    private boolean abortada;
+    private long nodos;
+    private long consultasTabla;
+    private long aciertosTabla;
+    private EstadisticasBusqueda ultimasEstadisticas;
+
+    /**
+     * Crea un motor con su propia tabla de transposición.
+     * @param megabytesTabla La memoria máxima para la tabla de transposición, en MB.
+     */
+    public BusquedaAlfaBeta(int megabytesTabla) {
+        this(new TablaTransposicion(megabytesTabla));
+    }
+
+    /**
+     * Crea un motor que usa la tabla de transposición indicada.
+     * @param tabla La tabla de transposición.
+     */
+    public BusquedaAlfaBeta(TablaTransposicion tabla) {
+        this.tabla = tabla;
+    }
+
+    /**
+     * Limita la profundidad de la profundización iterativa (útil para medir el
+     * tiempo que tarda en llegar a cierta profundidad).
+     * @param profundidadMaxima La profundidad máxima, entre 1 y {@value #PROFUNDIDAD_MAXIMA}.
+     */
+    public void setProfundidadMaxima(int profundidadMaxima) {
+        this.profundidadMaxima = Math.max(1, Math.min(profundidadMaxima, PROFUNDIDAD_MAXIMA));
+    }
+
+    void setDetener(AtomicBoolean detener) {
+        this.detener = detener;
+    }
+
+    void setDesplazamientoOrden(int desplazamientoOrden) {
+        this.desplazamientoOrden = desplazamientoOrden;
+    }
+
+    @Override
+    public EstadisticasBusqueda getUltimasEstadisticas() {
+        return ultimasEstadisticas;
+    }
+
+    @Override
+    public int elegirJugada(TableroBits tablero, long presupuestoNanos) {
+        long inicio = System.nanoTime();
+        prepararBusqueda(tablero, inicio + presupuestoNanos);
+
+        int mejorJugada = tablero.siguienteLibre(0);
+        int mejorValor = 0;
+        int profundidadCompleta = 0;
+        int restantes = tablero.getNumLineas() - tablero.getLineasPuestas();
+        int maxima = Math.min(restantes, profundidadMaxima);
+        // Si solo queda una línea no hay nada que pensar.
+        for (int profundidad = 1; profundidad <= maxima && restantes > 1; profundidad++) {
+            int valor = buscar(profundidad, -INFINITO, INFINITO, 0);
+            if (abortada) break;
+            mejorJugada = mejorJugadaRaiz;
+            mejorValor = valor;
+            profundidadCompleta = profundidad;
+        }
+
+        ultimasEstadisticas = new EstadisticasBusqueda(mejorJugada, profundidadCompleta, mejorValor,
+                nodos, System.nanoTime() - inicio, consultasTabla, aciertosTabla);
+        return mejorJugada;
+    }
+
+    /**
+     * Reinicia los contadores y calcula el hash inicial del tablero.
+     */
+    private void prepararBusqueda(TableroBits tablero, long limiteNanos) {
+        if (zobrist == null || zobrist.length != tablero.getNumLineas()) {
+            zobrist = TablaTransposicion.clavesZobrist(tablero.getNumLineas());
+            jugadasPorNivel = new int[Math.min(tablero.getNumLineas(), PROFUNDIDAD_MAXIMA) + 1][];
+        }
+        this.tablero = tablero;
+        this.limiteNanos = limiteNanos;
+        this.abortada = false;
+        this.nodos = 0;
+        this.consultasTabla = 0;
+        this.aciertosTabla = 0;
+        this.hash = 0;
+        for (int l = 0; l < tablero.getNumLineas(); l++) {
+            if (tablero.estaOcupada(l)) hash ^= zobrist[l];
+        }
+    }
+
+    /**
+     * Búsqueda alfa-beta (negamax) con tabla de transposición.
+     * @param profundidad Cuántas jugadas más se exploran.
+     * @param nivel Distancia a la raíz, para elegir el arreglo de jugadas.
+     * @return La ventaja de cuadros para quien tiene el turno.
+     */
+    private int buscar(int profundidad, int alfa, int beta, int nivel) {
+        if ((++nodos % NODOS_ENTRE_REVISIONES) == 0 && debeDetenerse()) {
+            abortada = true;
+        }
+        if (abortada) return 0;
+        if (tablero.isCompleto()) return 0;
+        if (profundidad == 0) return evaluar();
+
+        // 1. Consultar la tabla de transposición.
+        consultasTabla++;
+        long entrada = tabla.buscar(hash);
+        int jugadaTabla = -1;
+        if (TablaTransposicion.tipo(entrada) != 0) {
+            aciertosTabla++;
+            jugadaTabla = TablaTransposicion.jugada(entrada);
+            // En la raíz no se corta: hace falta recorrer las jugadas para saber cuál elegir.
+            if (nivel > 0 && TablaTransposicion.profundidad(entrada) >= profundidad) {
+                int v = TablaTransposicion.valor(entrada);
+                switch (TablaTransposicion.tipo(entrada)) {
+                    case TablaTransposicion.EXACTO: return v;
+                    case TablaTransposicion.INFERIOR: if (v >= beta) return v; break;
+                    case TablaTransposicion.SUPERIOR: if (v <= alfa) return v; break;
+                    default: break;
+                }
+            }
+        }
+
+        // 2. Recorrer las jugadas en orden: primero la de la tabla, luego capturas,
+        // luego jugadas seguras y al final las que regalan cuadros.
+        int[] jugadas = generarJugadas(nivel, jugadaTabla);
+
+        // Si todas las jugadas regalan cuadros, puede que el final se resuelva sin buscar.
+        if (nivel > 0 && jugadasNoPeligrosas == 0) {
+            int exacto = solucionador.resolver(tablero);
+            if (exacto != SolucionadorFinal.NO_APLICA) {
+                tabla.guardar(hash, PROFUNDIDAD_MAXIMA, exacto, TablaTransposicion.EXACTO, jugadas[1]);
+                return exacto;
+            }
+        }
+        int alfaOriginal = alfa;
+        int mejorValor = -INFINITO;
+        int mejorJugada = jugadas[1];
+        for (int i = 1; i <= jugadas[0]; i++) {
+            int linea = jugadas[i];
+            int cerrados = tablero.colocar(linea, 1);
+            hash ^= zobrist[linea];
+            int valor = cerrados > 0
+                    ? cerrados + buscar(profundidad - 1, alfa - cerrados, beta - cerrados, nivel + 1)
+                    : -buscar(profundidad - 1, -beta, -alfa, nivel + 1);
+            hash ^= zobrist[linea];
+            tablero.quitar(linea);
+            if (abortada) return 0;
+
+            if (valor > mejorValor) {
+                mejorValor = valor;
+                mejorJugada = linea;
+                if (valor > alfa) alfa = valor;
+                if (alfa >= beta) break;
+            }
+        }
+
+        if (nivel == 0) mejorJugadaRaiz = mejorJugada;
+
+        // 3. Guardar el resultado.
+        int tipo = mejorValor <= alfaOriginal ? TablaTransposicion.SUPERIOR
+                : mejorValor >= beta ? TablaTransposicion.INFERIOR
+                : TablaTransposicion.EXACTO;
+        tabla.guardar(hash, profundidad, mejorValor, tipo, mejorJugada);
+        return mejorValor;
+    }
+
+    /**
+     * Llena el arreglo de jugadas del nivel indicado, ya ordenadas.
+     * @return El arreglo; la posición 0 guarda cuántas jugadas hay.
+     */
+    private int[] generarJugadas(int nivel, int jugadaTabla) {
+        int[] jugadas = jugadasPorNivel[nivel];
+        if (jugadas == null) {
+            jugadas = new int[tablero.getNumLineas() + 1];
+            jugadasPorNivel[nivel] = jugadas;
+        }
+        int n = 0;
+        int noPeligrosas = 0;
+        boolean hayJugadaTabla = jugadaTabla >= 0 && jugadaTabla < tablero.getNumLineas() && !tablero.estaOcupada(jugadaTabla);
+        if (hayJugadaTabla) {
+            jugadas[++n] = jugadaTabla;
+            if (categoria(jugadaTabla) < 2) noPeligrosas++;
+        }
+        // Tres pasadas sobre las líneas libres, una por categoría, empezando en el
+        // desplazamiento de este hilo y dando la vuelta al final del tablero.
+        int inicio = desplazamientoOrden % tablero.getNumLineas();
+        for (int categoria = 0; categoria < 3; categoria++) {
+            for (int l = tablero.siguienteLibre(inicio); l >= 0; l = tablero.siguienteLibre(l + 1)) {
+                if (hayJugadaTabla && l == jugadaTabla) continue;
+                if (categoria(l) == categoria) jugadas[++n] = l;
+            }
+            for (int l = tablero.siguienteLibre(0); l >= 0 && l < inicio; l = tablero.siguienteLibre(l + 1)) {
+                if (hayJugadaTabla && l == jugadaTabla) continue;
+                if (categoria(l) == categoria) jugadas[++n] = l;
+            }
+            if (categoria == 1) noPeligrosas = n - (hayJugadaTabla && noPeligrosas == 0 ? 1 : 0);
+        }
+        jugadasNoPeligrosas = noPeligrosas;
+        jugadas[0] = n;
+        return jugadas;
+    }
+
+    /**
+     * Clasifica una línea libre: 0 si cierra un cuadro, 1 si no le da a ningún
+     * cuadro su tercer lado, 2 si le regala un cuadro al rival.
+     */
+    private int categoria(int linea) {
+        int a = tablero.cuadroVecino(linea, 0);
+        int b = tablero.cuadroVecino(linea, 1);
+        int la = a >= 0 ? tablero.lados(a) : 0;
+        int lb = b >= 0 ? tablero.lados(b) : 0;
+        if (la == 3 || lb == 3) return 0;
+        if (la == 2 || lb == 2) return 2;
+        return 1;
+    }
+
+    /**
+     * Evaluación de una posición al llegar al límite de profundidad: los cuadros con
+     * tres lados los puede cerrar de inmediato quien tiene el turno.
+     */
+    private int evaluar() {
+        return tablero.getCuadrosConTresLados();
+    }
+
+    /**
+     * Indica si la búsqueda debe cortarse. Se revisa cada
+     * {@value #NODOS_ENTRE_REVISIONES} nodos.
+     */
+    private boolean debeDetenerse() {
+        return System.nanoTime() >= limiteNanos || (detener != null && detener.get());
+    }
+}
@@ -0,0 +1,286 @@
+package itson.timbiriche;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Motor de búsqueda de Monte Carlo (MCTS) con selección UCT, pensado para
+ * tableros grandes donde la búsqueda alfa-beta no llega a ninguna profundidad útil.
+ * <p>
+ * Cada iteración baja por el árbol eligiendo en cada nodo la jugada con mejor
+ * puntaje UCT, expande la hoja, termina la partida con una simulación rápida
+ * ("playout") y sube el resultado por el camino recorrido. El resultado de una
+ * simulación es la ventaja de cuadros conseguida desde la raíz, igual que el
+ * valor que usa {@link BusquedaAlfaBeta}.
+ * <p>
+ * Varios hilos recorren el mismo árbol a la vez. Para que no elijan todos la misma
+ * rama se usa "pérdida virtual": al pasar por un nodo se le suma una visita perdida,
+ * que se corrige al subir el resultado real. Cada hilo trabaja sobre su propio
+ * {@link TableroBits}, que se restaura con {@link TableroBits#copiarDe} antes de
+ * cada iteración, así que las simulaciones no reservan memoria.
+ * <p>
+ * En las estadísticas, {@code nodos} es el número de simulaciones y
+ * {@code profundidad} la rama más larga del árbol.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public class BusquedaMonteCarlo implements MotorBusqueda {
+
+    /** Constante de exploración de UCT. */
+    private static final double EXPLORACION = 1.2;
+    /** Visitas que necesita una hoja antes de expandirse. */
+    private static final int VISITAS_PARA_EXPANDIR = 2;
+    /** Cuántas líneas al azar revisa una simulación buscando una captura o una jugada segura. */
+    private static final int MUESTRAS_SIMULACION = 8;
+
+    private final int numHilos;
+    private final long maxSimulaciones;
+    private final ExecutorService hilos;
+    private EstadisticasBusqueda ultimasEstadisticas;
+
+    /**
+     * Crea el motor.
+     * @param numHilos Cuántos hilos hacen simulaciones a la vez.
+     * @param maxSimulaciones Límite de simulaciones por jugada, o 0 para usar solo el tiempo.
+     */
+    public BusquedaMonteCarlo(int numHilos, long maxSimulaciones) {
+        if (numHilos < 1) throw new IllegalArgumentException("Se necesita al menos un hilo: " + numHilos);
+        this.numHilos = numHilos;
+        this.maxSimulaciones = maxSimulaciones;
+        this.hilos = Executors.newFixedThreadPool(numHilos, r -> {
+            Thread hilo = new Thread(r, "timbiriche-montecarlo");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @Override
+    public EstadisticasBusqueda getUltimasEstadisticas() {
+        return ultimasEstadisticas;
+    }
+
+    @Override
+    public void cerrar() {
+        hilos.shutdown();
+    }
+
+    @Override
+    public int elegirJugada(TableroBits tablero, long presupuestoNanos) {
+        long inicio = System.nanoTime();
+        long limite = inicio + presupuestoNanos;
+        Nodo raiz = new Nodo(-1);
+        raiz.expandir(tablero);
+        if (raiz.hijos.length == 1) {
+            ultimasEstadisticas = new EstadisticasBusqueda(raiz.hijos[0].jugada, 0, 0, 0, System.nanoTime() - inicio, 0, 0);
+            return raiz.hijos[0].jugada;
+        }
+
+        AtomicLong simulaciones = new AtomicLong();
+        int restantes = tablero.getNumCuadros() - tablero.getCuadrosCerrados();
+        List<Future<Integer>> trabajadores = new ArrayList<>();
+        for (int i = 0; i < numHilos; i++) {
+            Trabajador t = new Trabajador(tablero, raiz, restantes, limite, simulaciones, new SplittableRandom(inicio + i));
+            trabajadores.add(hilos.submit(t::ejecutar));
+        }
+        int profundidad = 0;
+        for (Future<Integer> f : trabajadores) {
+            try {
+                profundidad = Math.max(profundidad, f.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.err.println("Error en un hilo de simulación: " + e.getCause());
+            }
+        }
+
+        // La jugada más visitada es la más confiable.
+        Nodo mejor = raiz.hijos[0];
+        for (Nodo hijo : raiz.hijos) {
+            if (hijo.visitas > mejor.visitas) mejor = hijo;
+        }
+        int valor = mejor.visitas == 0 ? 0 : (int) Math.round((double) mejor.suma / mejor.visitas);
+        ultimasEstadisticas = new EstadisticasBusqueda(mejor.jugada, profundidad, valor,
+                simulaciones.get(), System.nanoTime() - inicio, 0, 0);
+        return mejor.jugada;
+    }
+
+    /**
+     * Un nodo del árbol. Los contadores se actualizan con operaciones atómicas para
+     * que varios hilos puedan compartir el árbol sin candados; solo la expansión se
+     * sincroniza.
+     */
+    private static final class Nodo {
+        private static final AtomicIntegerFieldUpdater<Nodo> VISITAS = AtomicIntegerFieldUpdater.newUpdater(Nodo.class, "visitas");
+        private static final AtomicLongFieldUpdater<Nodo> SUMA = AtomicLongFieldUpdater.newUpdater(Nodo.class, "suma");
+
+        /** La línea que lleva del padre a este nodo. */
+        final int jugada;
+        /** Visitas, contando las que están en curso (pérdida virtual). */
+        volatile int visitas;
+        /** Suma de las ventajas obtenidas, vista por quien eligió {@link #jugada}. */
+        volatile long suma;
+        volatile Nodo[] hijos;
+
+        Nodo(int jugada) {
+            this.jugada = jugada;
+        }
+
+        /** Crea un hijo por cada línea libre, con las capturas primero. */
+        synchronized void expandir(TableroBits tablero) {
+            if (hijos != null) return;
+            int libres = tablero.getNumLineas() - tablero.getLineasPuestas();
+            Nodo[] nuevos = new Nodo[libres];
+            int n = 0;
+            for (int pasada = 0; pasada < 2; pasada++) {
+                for (int l = tablero.siguienteLibre(0); l >= 0; l = tablero.siguienteLibre(l + 1)) {
+                    if (esCaptura(tablero, l) == (pasada == 0)) nuevos[n++] = new Nodo(l);
+                }
+            }
+            hijos = nuevos;
+        }
+    }
+
+    /**
+     * El trabajo de un hilo: iteraciones de selección, expansión, simulación y
+     * propagación hasta que se acaba el tiempo o el límite de simulaciones.
+     */
+    private final class Trabajador {
+        private final TableroBits original;
+        private final TableroBits tablero;
+        private final Nodo raiz;
+        /** Cuadros que quedan en la raíz: la mayor ventaja posible. */
+        private final int restantes;
+        private final long limite;
+        private final AtomicLong simulaciones;
+        private final SplittableRandom random;
+        private final Nodo[] camino;
+        /** Para cada nodo del camino, +1 si lo eligió quien mueve en la raíz, -1 si lo eligió el rival. */
+        private final int[] signos;
+
+        Trabajador(TableroBits original, Nodo raiz, int restantes, long limite, AtomicLong simulaciones, SplittableRandom random) {
+            this.original = original;
+            this.tablero = new TableroBits(original.getTamaño());
+            this.raiz = raiz;
+            this.restantes = Math.max(1, restantes);
+            this.limite = limite;
+            this.simulaciones = simulaciones;
+            this.random = random;
+            this.camino = new Nodo[original.getNumLineas() - original.getLineasPuestas() + 1];
+            this.signos = new int[camino.length];
+        }
+
+        /** @return La profundidad máxima alcanzada en el árbol. */
+        int ejecutar() {
+            int profundidadMaxima = 0;
+            while (System.nanoTime() < limite) {
+                long hechas = simulaciones.incrementAndGet();
+                if (maxSimulaciones > 0 && hechas > maxSimulaciones) {
+                    simulaciones.decrementAndGet();
+                    break;
+                }
+                profundidadMaxima = Math.max(profundidadMaxima, iterar());
+            }
+            return profundidadMaxima;
+        }
+
+        private int iterar() {
+            tablero.copiarDe(original);
+            Nodo.VISITAS.incrementAndGet(raiz);
+            Nodo nodo = raiz;
+            int signo = 1; // +1 mientras mueve el jugador de la raíz.
+            int margen = 0;
+            int n = 0;
+
+            // 1. Selección: bajar por el árbol marcando cada nodo con una pérdida virtual.
+            while (!tablero.isCompleto()) {
+                Nodo[] hijos = nodo.hijos;
+                if (hijos == null) {
+                    if (nodo.visitas < VISITAS_PARA_EXPANDIR) break;
+                    nodo.expandir(tablero);
+                    hijos = nodo.hijos;
+                }
+                Nodo hijo = seleccionar(nodo, hijos);
+                Nodo.VISITAS.incrementAndGet(hijo);
+                Nodo.SUMA.addAndGet(hijo, -restantes);
+                camino[n] = hijo;
+                signos[n++] = signo;
+                int cerrados = tablero.colocar(hijo.jugada, 1);
+                margen += signo * cerrados;
+                if (cerrados == 0) signo = -signo;
+                nodo = hijo;
+            }
+
+            // 2. Simulación hasta el final de la partida.
+            margen += signo * simular();
+
+            // 3. Propagación: cambiar la pérdida virtual por el resultado real.
+            for (int i = 0; i < n; i++) {
+                Nodo.SUMA.addAndGet(camino[i], restantes + signos[i] * margen);
+            }
+            return n;
+        }
+
+        /** Elige el hijo con mayor puntaje UCT; los hijos sin visitar van primero. */
+        private Nodo seleccionar(Nodo padre, Nodo[] hijos) {
+            double logPadre = Math.log(Math.max(1, padre.visitas));
+            Nodo mejor = hijos[0];
+            double mejorPuntaje = Double.NEGATIVE_INFINITY;
+            for (Nodo hijo : hijos) {
+                int v = hijo.visitas;
+                if (v == 0) return hijo;
+                double media = (double) hijo.suma / v;
+                double puntaje = (media + restantes) / (2.0 * restantes) + EXPLORACION * Math.sqrt(logPadre / v);
+                if (puntaje > mejorPuntaje) {
+                    mejorPuntaje = puntaje;
+                    mejor = hijo;
+                }
+            }
+            return mejor;
+        }
+
+        /**
+         * Juega al azar hasta el final, prefiriendo capturas y jugadas seguras.
+         * @return La ventaja de cuadros para quien movía al empezar la simulación.
+         */
+        private int simular() {
+            int signo = 1;
+            int margen = 0;
+            int numLineas = tablero.getNumLineas();
+            while (!tablero.isCompleto()) {
+                int elegida = -1;
+                int segura = -1;
+                for (int i = 0; i < MUESTRAS_SIMULACION; i++) {
+                    int l = tablero.siguienteLibre(random.nextInt(numLineas));
+                    if (l < 0) l = tablero.siguienteLibre(0);
+                    elegida = l;
+                    int a = tablero.cuadroVecino(l, 0);
+                    int b = tablero.cuadroVecino(l, 1);
+                    int maxLados = Math.max(a >= 0 ? tablero.lados(a) : 0, b >= 0 ? tablero.lados(b) : 0);
+                    if (maxLados == 3) break; // Captura: se toma de inmediato.
+                    if (segura < 0 && maxLados < 2) segura = l;
+                    if (i == MUESTRAS_SIMULACION - 1 && segura >= 0) elegida = segura;
+                }
+                int cerrados = tablero.colocar(elegida, 1);
+                margen += signo * cerrados;
+                if (cerrados == 0) signo = -signo;
+            }
+            return margen;
+        }
+    }
+
+    /** Indica si la línea cierra al menos un cuadro. */
+    private static boolean esCaptura(TableroBits tablero, int linea) {
+        int a = tablero.cuadroVecino(linea, 0);
+        int b = tablero.cuadroVecino(linea, 1);
+        return (a >= 0 && tablero.lados(a) == 3) || (b >= 0 && tablero.lados(b) == 3);
+    }
+}
@@ -0,0 +1,125 @@
+package itson.timbiriche;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Motor de búsqueda que usa varios núcleos a la vez, al estilo "Lazy SMP".
+ * <p>
+ * Cada hilo ejecuta su propia {@link BusquedaAlfaBeta} con profundización iterativa
+ * sobre su propia copia del tablero, y todos comparten una única
+ * {@link TablaTransposicion} sin candados. Los hilos auxiliares recorren las jugadas
+ * en otro orden, así que van llenando la tabla con posiciones que el hilo principal
+ * encuentra ya resueltas; eso es lo que acelera la búsqueda, no un reparto explícito
+ * del árbol.
+ * <p>
+ * Es el motor de la computadora en tableros pequeños, con un hilo por núcleo (ver
+ * {@code --hilos-computadora} en {@link Timbiriche#main}). {@code BusquedaParalelaBenchmark}
+ * mide, según el número de hilos, cuántos nodos por segundo visita y cuánto tarda en
+ * llegar a una profundidad fija.
+ * <p>
+ * Cuando el hilo principal termina (por tiempo o porque llegó a la profundidad
+ * máxima) avisa a los auxiliares para que paren. Se devuelve la jugada del hilo que
+ * haya completado la mayor profundidad.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public class BusquedaParalela implements MotorBusqueda {
+
+    private final BusquedaAlfaBeta[] buscadores;
+    /** Hilos para los buscadores auxiliares; el principal corre en el hilo que llama. */
+    private final ExecutorService auxiliares;
+    private EstadisticasBusqueda ultimasEstadisticas;
+
+    /**
+     * Crea el motor.
+     * @param numHilos Cuántos hilos buscan a la vez (al menos 1).
+     * @param megabytesTabla La memoria de la tabla de transposición compartida, en MB.
+     */
+    public BusquedaParalela(int numHilos, int megabytesTabla) {
+        if (numHilos < 1) throw new IllegalArgumentException("Se necesita al menos un hilo: " + numHilos);
+        TablaTransposicion tabla = new TablaTransposicion(megabytesTabla);
+        this.buscadores = new BusquedaAlfaBeta[numHilos];
+        for (int i = 0; i < numHilos; i++) {
+            buscadores[i] = new BusquedaAlfaBeta(tabla);
+        }
+        this.auxiliares = numHilos == 1 ? null : Executors.newFixedThreadPool(numHilos - 1, r -> {
+            Thread hilo = new Thread(r, "timbiriche-busqueda-auxiliar");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    public int getNumHilos() {
+        return buscadores.length;
+    }
+
+    /**
+     * Limita la profundidad de todos los hilos.
+     * @param profundidadMaxima La profundidad máxima.
+     * @see BusquedaAlfaBeta#setProfundidadMaxima(int)
+     */
+    public void setProfundidadMaxima(int profundidadMaxima) {
+        for (BusquedaAlfaBeta b : buscadores) b.setProfundidadMaxima(profundidadMaxima);
+    }
+
+    @Override
+    public EstadisticasBusqueda getUltimasEstadisticas() {
+        return ultimasEstadisticas;
+    }
+
+    @Override
+    public void cerrar() {
+        if (auxiliares != null) auxiliares.shutdown();
+    }
+
+    @Override
+    public int elegirJugada(TableroBits tablero, long presupuestoNanos) {
+        long inicio = System.nanoTime();
+        AtomicBoolean detener = new AtomicBoolean(false);
+
+        // 1. Lanzar los auxiliares, cada uno con su copia y su propio orden de jugadas.
+        List<Future<?>> pendientes = new ArrayList<>();
+        for (int i = 1; i < buscadores.length; i++) {
+            BusquedaAlfaBeta auxiliar = buscadores[i];
+            auxiliar.setDetener(detener);
+            auxiliar.setDesplazamientoOrden(i * tablero.getNumLineas() / buscadores.length);
+            TableroBits copia = new TableroBits(tablero);
+            pendientes.add(auxiliares.submit(() -> auxiliar.elegirJugada(copia, presupuestoNanos)));
+        }
+
+        // 2. El hilo principal busca y, al terminar, detiene a los demás.
+        buscadores[0].elegirJugada(tablero, presupuestoNanos);
+        detener.set(true);
+        for (Future<?> f : pendientes) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.err.println("Error en un hilo de búsqueda: " + e.getCause());
+            }
+        }
+
+        // 3. Quedarse con la búsqueda más profunda y sumar las estadísticas.
+        EstadisticasBusqueda mejor = buscadores[0].getUltimasEstadisticas();
+        long nodos = 0, consultas = 0, aciertos = 0;
+        for (BusquedaAlfaBeta b : buscadores) {
+            EstadisticasBusqueda e = b.getUltimasEstadisticas();
+            if (e == null) continue;
+            nodos += e.nodos();
+            consultas += e.consultasTabla();
+            aciertos += e.aciertosTabla();
+            if (e.profundidad() > mejor.profundidad()) mejor = e;
+        }
+        ultimasEstadisticas = new EstadisticasBusqueda(mejor.jugada(), mejor.profundidad(), mejor.valor(),
+                nodos, System.nanoTime() - inicio, consultas, aciertos);
+        return mejor.jugada();
+    }
+}
@@ -0,0 +1,206 @@
+package itson.timbiriche;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+/**
+ * Guarda los avatares ya decodificados y escalados, por ruta y tamaño, para que cada
+ * panel que muestra un avatar no vuelva a leer y escalar la imagen original.
+ * <p>
+ * Los avatares originales son mucho más grandes de lo que se muestran (1024×1024 contra
+ * 50×50 u 80×80), así que no se decodifican completos: el lector de imágenes toma solo
+ * una de cada {@code n} filas y columnas, dejando la imagen en el doble o poco más del
+ * tamaño pedido, y de ahí se reduce a la mitad con interpolación bilineal hasta llegar
+ * al tamaño exacto. Si existe, se usa antes la miniatura de {@link PaqueteAvatares}, que
+ * ya viene escalada. El resultado es una imagen compatible con la pantalla, que se
+ * dibuja sin convertirla.
+ * <p>
+ * Las imágenes que se usaron hace más tiempo se descartan cuando las guardadas pasan de
+ * {@link JuegoConfig#MEMORIA_AVATARES_MB}. Se puede usar desde varios hilos; mientras un
+ * hilo decodifica, los demás siguen leyendo la caché.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public final class CacheAvatares {
+
+    private static final CacheAvatares COMPARTIDA = new CacheAvatares(JuegoConfig.MEMORIA_AVATARES_MB * 1024L * 1024L);
+
+    /** Una imagen guardada: la ruta del recurso y el tamaño al que se escaló. */
+    private record Clave(String ruta, int ancho, int alto) {}
+
+    private final long memoriaMaxima;
+    private long memoria;
+    /** En orden de uso: la primera es la que se usó hace más tiempo. */
+    private final LinkedHashMap<Clave, BufferedImage> imagenes = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param memoriaMaxima Los bytes que pueden ocupar las imágenes guardadas.
+     */
+    public CacheAvatares(long memoriaMaxima) {
+        this.memoriaMaxima = memoriaMaxima;
+    }
+
+    /** @return La caché que comparten todos los paneles del juego. */
+    public static CacheAvatares compartida() {
+        return COMPARTIDA;
+    }
+
+    /**
+     * Devuelve un avatar escalado, decodificándolo solo si no estaba guardado.
+     *
+     * @param ruta La ruta del recurso de la imagen (ej. "/avatars/avatar1.png").
+     * @param ancho El ancho deseado.
+     * @param alto La altura deseada.
+     * @return La imagen de exactamente {@code ancho}×{@code alto}; no se debe modificar.
+     * @throws IOException si el recurso no existe o no se puede decodificar.
+     */
+    public BufferedImage obtener(String ruta, int ancho, int alto) throws IOException {
+        if (ancho <= 0 || alto <= 0) throw new IllegalArgumentException("Tamaño inválido: " + ancho + "x" + alto);
+        Clave clave = new Clave(ruta, ancho, alto);
+        synchronized (this) {
+            BufferedImage imagen = imagenes.get(clave);
+            if (imagen != null) return imagen;
+        }
+        BufferedImage imagen = decodificar(ruta, ancho, alto);
+        synchronized (this) {
+            // Otro hilo pudo haber decodificado la misma imagen mientras tanto.
+            BufferedImage previa = imagenes.get(clave);
+            if (previa != null) return previa;
+            imagenes.put(clave, imagen);
+            memoria += bytes(imagen);
+            Iterator<Map.Entry<Clave, BufferedImage>> it = imagenes.entrySet().iterator();
+            while (memoria > memoriaMaxima && imagenes.size() > 1) {
+                memoria -= bytes(it.next().getValue());
+                it.remove();
+            }
+        }
+        return imagen;
+    }
+
+    /**
+     * Devuelve un avatar escalado solo si ya estaba guardado, sin decodificar nada.
+     *
+     * @param ruta La ruta del recurso de la imagen.
+     * @param ancho El ancho deseado.
+     * @param alto La altura deseada.
+     * @return La imagen guardada, o {@code null} si no está.
+     */
+    public synchronized BufferedImage buscar(String ruta, int ancho, int alto) {
+        return imagenes.get(new Clave(ruta, ancho, alto));
+    }
+
+    /** @return Cuántas imágenes hay guardadas. */
+    public synchronized int getNumImagenes() {
+        return imagenes.size();
+    }
+
+    /** @return Los bytes que ocupan las imágenes guardadas. */
+    public synchronized long getMemoria() {
+        return memoria;
+    }
+
+    /** Descarta todas las imágenes guardadas. */
+    public synchronized void vaciar() {
+        imagenes.clear();
+        memoria = 0;
+    }
+
+    private static long bytes(BufferedImage imagen) {
+        return 4L * imagen.getWidth() * imagen.getHeight();
+    }
+
+    /**
+     * Decodifica un recurso de imagen directamente al tamaño pedido, sin guardarlo. Si el
+     * avatar está en {@link PaqueteAvatares#instalado()} se parte de su miniatura y no se
+     * toca la imagen original.
+     *
+     * @param ruta La ruta del recurso.
+     * @param ancho El ancho deseado.
+     * @param alto La altura deseada.
+     * @return Una imagen compatible de exactamente {@code ancho}×{@code alto}.
+     * @throws IOException si el recurso no existe o no se puede decodificar.
+     */
+    static BufferedImage decodificar(String ruta, int ancho, int alto) throws IOException {
+        PaqueteAvatares paquete = PaqueteAvatares.instalado();
+        BufferedImage miniatura = paquete == null ? null : paquete.miniatura(ruta, ancho, alto);
+        if (miniatura != null) return escalar(miniatura, ancho, alto);
+        URL url = CacheAvatares.class.getResource(ruta);
+        if (url == null) throw new FileNotFoundException("No existe el recurso " + ruta);
+        try (InputStream entrada = url.openStream()) {
+            return decodificar(entrada, ruta, ancho, alto);
+        }
+    }
+
+    /**
+     * Decodifica una imagen original directamente al tamaño pedido.
+     *
+     * @param entrada El contenido de la imagen; no se cierra.
+     * @param nombre El nombre de la imagen, para los mensajes de error.
+     * @param ancho El ancho deseado.
+     * @param alto La altura deseada.
+     * @return Una imagen compatible de exactamente {@code ancho}×{@code alto}.
+     * @throws IOException si no se puede decodificar.
+     */
+    static BufferedImage decodificar(InputStream entrada, String nombre, int ancho, int alto) throws IOException {
+        // Sin la caché en disco de ImageIO: la imagen se lee una sola vez, de principio a fin.
+        try (ImageInputStream flujo = new MemoryCacheImageInputStream(entrada)) {
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(flujo);
+            if (!lectores.hasNext()) throw new IOException("Formato de imagen no soportado: " + nombre);
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(flujo, true, true);
+                int paso = Math.max(1, Math.min(lector.getWidth(0) / (2 * ancho), lector.getHeight(0) / (2 * alto)));
+                ImageReadParam parametros = lector.getDefaultReadParam();
+                parametros.setSourceSubsampling(paso, paso, 0, 0);
+                return escalar(lector.read(0, parametros), ancho, alto);
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reduce una imagen a la mitad las veces necesarias y luego al tamaño exacto, siempre
+     * con interpolación bilineal; reducir en un solo paso se salta píxeles y se ve granulado.
+     */
+    private static BufferedImage escalar(BufferedImage imagen, int ancho, int alto) {
+        int w = imagen.getWidth();
+        int h = imagen.getHeight();
+        while (w / 2 >= ancho && h / 2 >= alto) {
+            w /= 2;
+            h /= 2;
+            imagen = dibujar(imagen, new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB));
+        }
+        return dibujar(imagen, crearCompatible(ancho, alto));
+    }
+
+    private static BufferedImage dibujar(BufferedImage origen, BufferedImage destino) {
+        Graphics2D g = destino.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(origen, 0, 0, destino.getWidth(), destino.getHeight(), null);
+        g.dispose();
+        return destino;
+    }
+
+    private static BufferedImage crearCompatible(int ancho, int alto) {
+        if (GraphicsEnvironment.isHeadless()) return new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_ARGB);
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(ancho, alto, Transparency.TRANSLUCENT);
+    }
+}
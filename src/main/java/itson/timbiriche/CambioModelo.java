@@ -0,0 +1,50 @@
+package itson.timbiriche;
+
+/**
+ * Lo que cambió en un {@link TableroModelo}, tal como lo reciben sus oyentes: la línea
+ * puesta, los cuadros que cerró, el puntaje de quien tiró y a quién le toca ahora. Así
+ * cada oyente puede actualizar solo lo que cambió en lugar de volver a leer todo el modelo.
+ * <p>
+ * Cuando el modelo cambia de estado sin una jugada (por ejemplo con
+ * {@link TableroModelo#restaurar}) el cambio es {@link #COMPLETO}: no tiene delta y hay
+ * que suponer que cambió todo.
+ *
+ * @param delta La jugada aceptada, o {@code null} si el cambio es completo.
+ * @param jugadorIdx La posición en {@link TableroModelo#getJugadores()} de quien hizo la jugada, o -1.
+ * @param siguienteJugadorIdx La posición del jugador al que le toca después, o -1.
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public record CambioModelo(DeltaEstado delta, int jugadorIdx, int siguienteJugadorIdx) {
+
+    /** Un cambio de todo el estado, sin una jugada que lo explique. */
+    public static final CambioModelo COMPLETO = new CambioModelo(null, -1, -1);
+
+    /** @return Verdadero si cambió todo el estado y no solo una jugada. */
+    public boolean esCompleto() {
+        return delta == null;
+    }
+
+    /** @return La línea puesta, codificada con {@link Jugada}. Solo si no es completo. */
+    public int jugada() {
+        return delta.jugada();
+    }
+
+    /** @return Cuántos puntos ganó quien tiró (0, 1 o 2); 0 si el cambio es completo. */
+    public int puntosGanados() {
+        return delta == null ? 0 : delta.cuadrosCerrados();
+    }
+
+    /**
+     * @param idx La posición de un jugador.
+     * @return Verdadero si el puntaje de ese jugador pudo haber cambiado.
+     */
+    public boolean cambioPuntaje(int idx) {
+        return delta == null || (idx == jugadorIdx && delta.cuadrosCerrados() > 0);
+    }
+
+    /** @return Verdadero si el turno (o el fin de la partida) pudo haber cambiado. */
+    public boolean cambioTurno() {
+        return delta == null || jugadorIdx != siguienteJugadorIdx || delta.terminado();
+    }
+}
@@ -0,0 +1,447 @@
+package itson.timbiriche;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
+
+/**
+ * Lo ya dibujado del tablero (fondo, cuadros, líneas y puntos), guardado en imágenes para
+ * que {@link TableroVista} solo tenga que copiarlas al repintar.
+ * <p>
+ * La imagen del tablero a la escala de la vista se parte en mosaicos cuadrados de
+ * {@value #LADO} píxeles que se dibujan la primera vez que se necesitan, así que copiarlos
+ * a la pantalla nunca requiere escalar imágenes. A escala 1 cada mosaico mide
+ * {@value #CELDAS_POR_MOSAICO} celdas por lado: como el espacio entre puntos es fijo, la
+ * cuadrícula de puntos es igual en todos los mosaicos y se dibuja una sola vez, al igual
+ * que una línea de cada color en cada orientación, y dibujar un mosaico es llenar los
+ * cuadros y copiar esas imágenes, sin trazar nada con antialiasing. A otras escalas los
+ * mosaicos se trazan con antialiasing, y al cambiar de escala se descartan. Cuando el
+ * modelo cambia, {@link #actualizar} vuelve a dibujar solo el área de la jugada en los
+ * mosaicos que ya existen.
+ * <p>
+ * Los mosaicos guardados se limitan a {@link JuegoConfig#MEMORIA_CAPA_TABLERO_MB}; si un
+ * tablero enorme no cabe, se descartan los que se usaron hace más tiempo y se vuelven a
+ * dibujar cuando se necesiten.
+ * <p>
+ * Cuando la vista está tan alejada que los mosaicos visibles no cabrían, se dibuja de
+ * otras dos formas, siempre solo lo visible: {@link #pintarSimple} traza cuadros, líneas
+ * y puntos como rectángulos sin antialiasing, y {@link #pintarResumen} estira una imagen
+ * con un píxel por cuadro (del color de su dueño, o gris según cuántos lados tiene), que
+ * también se actualiza con cada jugada. Todo se usa desde el hilo de Swing.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+final class CapaTablero {
+
+    /** Celdas por lado de cada mosaico; así el mosaico empieza siempre en el mismo lugar de la cuadrícula. */
+    static final int CELDAS_POR_MOSAICO = 5;
+    /** Lado de un mosaico, en píxeles. */
+    static final int LADO = CELDAS_POR_MOSAICO * JuegoConfig.ESPACIO;
+    /** Cuánto se sale una línea de su trazo ideal: la mitad del ancho más un píxel por el antialiasing. */
+    private static final int BORDE_LINEA = JuegoConfig.ANCHO_LINEA / 2 + 1;
+    /** Cuánto se sale lo que se dibuja alrededor de un punto de la cuadrícula: la línea o el punto. */
+    private static final int BORDE = Math.max(BORDE_LINEA, JuegoConfig.RADIO_PUNTO + 1);
+    private static final Stroke TRAZO = new BasicStroke(JuegoConfig.ANCHO_LINEA, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+
+    private final TableroModelo modelo;
+    private final int maxMosaicos;
+    /** Los mosaicos dibujados, del usado hace más tiempo al más reciente. */
+    private final LinkedHashMap<Long, BufferedImage> mosaicos;
+    private GraphicsConfiguration configuracion;
+    /** Los puntos que caen en un mosaico, con fondo transparente. */
+    private BufferedImage puntos;
+    /** Por ID de jugador: su color y sus líneas ya trazadas. */
+    private Color[] colores;
+    private BufferedImage[] lineasHorizontales;
+    private BufferedImage[] lineasVerticales;
+    /** La escala a la que están dibujados los mosaicos. */
+    private double escala = 1;
+    /** Un píxel por cuadro, para las vistas muy alejadas; se crea la primera vez que se necesita. */
+    private BufferedImage resumen;
+    /** Cuántos mosaicos se han dibujado completos desde que se creó la capa. */
+    private long mosaicosDibujados;
+
+    /**
+     * @param modelo El modelo que se dibuja.
+     */
+    CapaTablero(TableroModelo modelo) {
+        this.modelo = modelo;
+        this.maxMosaicos = Math.max(1, (int) (JuegoConfig.MEMORIA_CAPA_TABLERO_MB * 1024L * 1024 / (4L * LADO * LADO)));
+        this.mosaicos = new LinkedHashMap<>(16, 0.75f, true);
+        prepararColores();
+    }
+
+    /**
+     * Descarta todo lo dibujado, por ejemplo porque el componente se mostró en otra pantalla.
+     * @param configuracion La configuración gráfica del componente, para crear imágenes
+     * compatibles con ella; puede ser {@code null} si no se está mostrando.
+     */
+    void reiniciar(GraphicsConfiguration configuracion) {
+        this.configuracion = configuracion;
+        mosaicos.clear();
+        puntos = null;
+        resumen = null;
+        prepararColores();
+    }
+
+    /** Descarta los mosaicos y el resumen, porque cambió todo el tablero. */
+    void invalidar() {
+        mosaicos.clear();
+        resumen = null;
+    }
+
+    /** @return Cuántos mosaicos hay dibujados en este momento. */
+    int getNumMosaicos() {
+        return mosaicos.size();
+    }
+
+    /** @return Cuántos mosaicos se han dibujado completos, contando los que se volvieron a dibujar. */
+    long getMosaicosDibujados() {
+        return mosaicosDibujados;
+    }
+
+    /**
+     * Copia a un {@link Graphics} los mosaicos que caen dentro de un área.
+     * @param g Dónde dibujar, sin escalar y con el origen en la esquina del tablero.
+     * @param area El área que hay que dibujar, en píxeles del tablero.
+     * @param escala Píxeles de pantalla por píxel del tablero; {@code LADO * escala} debe
+     * ser entero para que los mosaicos coincidan con los píxeles de la pantalla.
+     * @return Cuántos mosaicos se copiaron.
+     */
+    int pintar(Graphics g, Rectangle area, double escala) {
+        if (escala != this.escala) {
+            mosaicos.clear();
+            this.escala = escala;
+        }
+        // Los mosaicos están en píxeles de la pantalla.
+        int x0 = Math.max(0, (int) Math.floor(area.x * escala) / LADO);
+        int y0 = Math.max(0, (int) Math.floor(area.y * escala) / LADO);
+        int x1 = Math.min(numMosaicos() - 1, ((int) Math.ceil((area.x + area.width) * escala) - 1) / LADO);
+        int y1 = Math.min(numMosaicos() - 1, ((int) Math.ceil((area.y + area.height) * escala) - 1) / LADO);
+        for (int my = y0; my <= y1; my++) {
+            for (int mx = x0; mx <= x1; mx++) {
+                g.drawImage(mosaico(mx, my), mx * LADO, my * LADO, null);
+            }
+        }
+        return Math.max(0, x1 - x0 + 1) * Math.max(0, y1 - y0 + 1);
+    }
+
+    /**
+     * Dibuja la parte visible del tablero sin imágenes intermedias ni antialiasing, con
+     * coordenadas de pantalla enteras, para vistas alejadas donde cada celda mide unos
+     * cuantos píxeles.
+     *
+     * @param g Dónde dibujar, sin transformar: las coordenadas son las de la pantalla.
+     * @param area El área visible, en píxeles del tablero.
+     * @param escala Píxeles de pantalla por píxel del tablero.
+     * @param origenX El píxel del tablero que queda en la orilla izquierda de la pantalla.
+     * @param origenY El píxel del tablero que queda en la orilla superior de la pantalla.
+     * @return Cuántos puntos de la cuadrícula se dibujaron, con sus líneas y cuadros.
+     */
+    int pintarSimple(Graphics g, Rectangle area, double escala, double origenX, double origenY) {
+        int tamaño = modelo.getTamaño();
+        int f0 = Math.max(0, (area.y - JuegoConfig.MARGEN - BORDE) / JuegoConfig.ESPACIO);
+        int c0 = Math.max(0, (area.x - JuegoConfig.MARGEN - BORDE) / JuegoConfig.ESPACIO);
+        int f1 = Math.min(tamaño - 1, (area.y + area.height - JuegoConfig.MARGEN + BORDE) / JuegoConfig.ESPACIO);
+        int c1 = Math.min(tamaño - 1, (area.x + area.width - JuegoConfig.MARGEN + BORDE) / JuegoConfig.ESPACIO);
+        if (f0 > f1 || c0 > c1) return 0;
+        // La posición en pantalla de cada fila y columna de puntos visible.
+        int[] xs = new int[c1 - c0 + 2], ys = new int[f1 - f0 + 2];
+        for (int j = c0; j <= c1 + 1; j++) xs[j - c0] = (int) Math.floor((JuegoConfig.MARGEN + j * JuegoConfig.ESPACIO - origenX) * escala);
+        for (int i = f0; i <= f1 + 1; i++) ys[i - f0] = (int) Math.floor((JuegoConfig.MARGEN + i * JuegoConfig.ESPACIO - origenY) * escala);
+        int ancho = Math.max(1, (int) Math.round(JuegoConfig.ANCHO_LINEA * escala));
+        int punto = Math.max(1, (int) Math.round(2 * JuegoConfig.RADIO_PUNTO * escala));
+
+        for (int i = f0; i <= f1 && i < tamaño - 1; i++) {
+            for (int j = c0; j <= c1 && j < tamaño - 1; j++) {
+                int jugadorId = modelo.getCuadrado(i, j);
+                if (jugadorId != 0) {
+                    g.setColor(color(jugadorId));
+                    g.fillRect(xs[j - c0], ys[i - f0], xs[j - c0 + 1] - xs[j - c0], ys[i - f0 + 1] - ys[i - f0]);
+                }
+            }
+        }
+        for (int i = f0; i <= f1; i++) {
+            for (int j = c0; j <= c1; j++) {
+                int x = xs[j - c0], y = ys[i - f0];
+                if (j < tamaño - 1) {
+                    int jugadorId = modelo.getLineaHorizontal(i, j);
+                    if (jugadorId != 0) {
+                        g.setColor(color(jugadorId));
+                        g.fillRect(x, y - ancho / 2, xs[j - c0 + 1] - x, ancho);
+                    }
+                }
+                if (i < tamaño - 1) {
+                    int jugadorId = modelo.getLineaVertical(i, j);
+                    if (jugadorId != 0) {
+                        g.setColor(color(jugadorId));
+                        g.fillRect(x - ancho / 2, y, ancho, ys[i - f0 + 1] - y);
+                    }
+                }
+            }
+        }
+        g.setColor(Color.DARK_GRAY);
+        for (int i = f0; i <= f1; i++) {
+            for (int j = c0; j <= c1; j++) {
+                g.fillRect(xs[j - c0] - punto / 2, ys[i - f0] - punto / 2, punto, punto);
+            }
+        }
+        return (f1 - f0 + 1) * (c1 - c0 + 1);
+    }
+
+    /**
+     * Estira sobre el área visible el resumen con un píxel por cuadro, para vistas tan
+     * alejadas que las líneas y los puntos ya no se distinguen.
+     *
+     * @param g Dónde dibujar, transformado para que las coordenadas sean las del tablero.
+     * @param area El área visible, en píxeles del tablero.
+     * @return Cuántos cuadros se dibujaron.
+     */
+    int pintarResumen(Graphics2D g, Rectangle area) {
+        int cuadros = modelo.getTamaño() - 1;
+        if (cuadros < 1) return 0;
+        int f0 = Math.max(0, (area.y - JuegoConfig.MARGEN) / JuegoConfig.ESPACIO);
+        int c0 = Math.max(0, (area.x - JuegoConfig.MARGEN) / JuegoConfig.ESPACIO);
+        int f1 = Math.min(cuadros - 1, (area.y + area.height - JuegoConfig.MARGEN) / JuegoConfig.ESPACIO);
+        int c1 = Math.min(cuadros - 1, (area.x + area.width - JuegoConfig.MARGEN) / JuegoConfig.ESPACIO);
+        if (f0 > f1 || c0 > c1) return 0;
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g.drawImage(resumen(),
+                JuegoConfig.MARGEN + c0 * JuegoConfig.ESPACIO, JuegoConfig.MARGEN + f0 * JuegoConfig.ESPACIO,
+                JuegoConfig.MARGEN + (c1 + 1) * JuegoConfig.ESPACIO, JuegoConfig.MARGEN + (f1 + 1) * JuegoConfig.ESPACIO,
+                c0, f0, c1 + 1, f1 + 1, null);
+        return (f1 - f0 + 1) * (c1 - c0 + 1);
+    }
+
+    private BufferedImage resumen() {
+        if (resumen == null) {
+            int cuadros = modelo.getTamaño() - 1;
+            resumen = new BufferedImage(cuadros, cuadros, BufferedImage.TYPE_INT_RGB);
+            for (int i = 0; i < cuadros; i++) {
+                for (int j = 0; j < cuadros; j++) resumen.setRGB(j, i, colorResumen(i, j));
+            }
+        }
+        return resumen;
+    }
+
+    /** El color de un cuadro en el resumen: el de su dueño, o más gris mientras más lados tenga. */
+    private int colorResumen(int f, int c) {
+        int jugadorId = modelo.getCuadrado(f, c);
+        if (jugadorId != 0) return color(jugadorId).getRGB();
+        int lados = (modelo.getLineaHorizontal(f, c) != 0 ? 1 : 0) + (modelo.getLineaHorizontal(f + 1, c) != 0 ? 1 : 0)
+                + (modelo.getLineaVertical(f, c) != 0 ? 1 : 0) + (modelo.getLineaVertical(f, c + 1) != 0 ? 1 : 0);
+        int gris = 255 - 40 * lados;
+        return gris << 16 | gris << 8 | gris;
+    }
+
+    /**
+     * Vuelve a dibujar un área en los mosaicos que ya existen (los demás se dibujarán
+     * completos cuando se necesiten) y en el resumen, si ya existe.
+     * @param area El área que cambió, en píxeles.
+     */
+    void actualizar(Rectangle area) {
+        if (resumen != null) {
+            int cuadros = modelo.getTamaño() - 1;
+            int f0 = Math.max(0, (area.y - JuegoConfig.MARGEN) / JuegoConfig.ESPACIO);
+            int c0 = Math.max(0, (area.x - JuegoConfig.MARGEN) / JuegoConfig.ESPACIO);
+            int f1 = Math.min(cuadros - 1, (area.y + area.height - JuegoConfig.MARGEN) / JuegoConfig.ESPACIO);
+            int c1 = Math.min(cuadros - 1, (area.x + area.width - JuegoConfig.MARGEN) / JuegoConfig.ESPACIO);
+            for (int i = f0; i <= f1; i++) {
+                for (int j = c0; j <= c1; j++) resumen.setRGB(j, i, colorResumen(i, j));
+            }
+        }
+        // Los mosaicos están en píxeles de la pantalla.
+        int x0 = Math.max(0, (int) Math.floor(area.x * escala) / LADO);
+        int y0 = Math.max(0, (int) Math.floor(area.y * escala) / LADO);
+        int x1 = Math.min(numMosaicos() - 1, ((int) Math.ceil((area.x + area.width) * escala) - 1) / LADO);
+        int y1 = Math.min(numMosaicos() - 1, ((int) Math.ceil((area.y + area.height) * escala) - 1) / LADO);
+        for (int my = y0; my <= y1; my++) {
+            for (int mx = x0; mx <= x1; mx++) {
+                BufferedImage m = mosaicos.get(clave(mx, my));
+                if (m != null) dibujar(m, mx, my, area);
+            }
+        }
+    }
+
+    /** @return Cuántos mosaicos por lado necesita el tablero a la escala actual. */
+    private int numMosaicos() {
+        int lado = (modelo.getTamaño() - 1) * JuegoConfig.ESPACIO + 2 * JuegoConfig.MARGEN;
+        return (int) Math.ceil(lado * escala / LADO);
+    }
+
+    private static long clave(int mx, int my) {
+        return (long) my << 32 | mx;
+    }
+
+    private BufferedImage mosaico(int mx, int my) {
+        BufferedImage m = mosaicos.get(clave(mx, my));
+        if (m == null) {
+            if (mosaicos.size() < maxMosaicos) {
+                m = crearImagen(LADO, LADO, Transparency.OPAQUE);
+            } else {
+                // Se reutiliza la imagen del mosaico usado hace más tiempo; se dibuja completa de nuevo.
+                Iterator<BufferedImage> viejo = mosaicos.values().iterator();
+                m = viejo.next();
+                viejo.remove();
+            }
+            // El área del mosaico en píxeles del tablero, redondeada hacia afuera.
+            int x0 = (int) Math.floor(mx * LADO / escala), y0 = (int) Math.floor(my * LADO / escala);
+            int x1 = (int) Math.ceil((mx + 1) * LADO / escala), y1 = (int) Math.ceil((my + 1) * LADO / escala);
+            dibujar(m, mx, my, new Rectangle(x0, y0, x1 - x0, y1 - y0));
+            mosaicos.put(clave(mx, my), m);
+            mosaicosDibujados++;
+        }
+        return m;
+    }
+
+    /**
+     * Dibuja en un mosaico lo que cae dentro de un área: fondo, cuadros, líneas y puntos,
+     * en ese orden, igual que si se dibujara todo el tablero. A escala 1 copia las líneas y
+     * los puntos ya trazados; a otra escala los traza.
+     * @param area El área en píxeles del tablero.
+     */
+    private void dibujar(BufferedImage mosaico, int mx, int my, Rectangle area) {
+        Graphics2D g = mosaico.createGraphics();
+        try {
+            g.translate(-mx * LADO, -my * LADO);
+            boolean trazar = escala != 1;
+            if (trazar) {
+                // El recorte se redondea a píxeles enteros de la imagen para que cada píxel se vuelva a dibujar completo.
+                int x0 = (int) Math.floor(area.x * escala), y0 = (int) Math.floor(area.y * escala);
+                g.clipRect(x0, y0, (int) Math.ceil((area.x + area.width) * escala) - x0, (int) Math.ceil((area.y + area.height) * escala) - y0);
+                g.scale(escala, escala);
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setStroke(TRAZO);
+            } else {
+                g.clip(area);
+            }
+            Rectangle r = g.getClipBounds();
+            g.setColor(Color.WHITE);
+            g.fillRect(r.x, r.y, r.width, r.height);
+
+            int tamaño = modelo.getTamaño();
+            // Las celdas cuyos cuadros o líneas pueden tocar el área.
+            int f0 = Math.max(0, (r.y - JuegoConfig.MARGEN - BORDE) / JuegoConfig.ESPACIO);
+            int c0 = Math.max(0, (r.x - JuegoConfig.MARGEN - BORDE) / JuegoConfig.ESPACIO);
+            int f1 = Math.min(tamaño - 1, (r.y + r.height - JuegoConfig.MARGEN + BORDE) / JuegoConfig.ESPACIO);
+            int c1 = Math.min(tamaño - 1, (r.x + r.width - JuegoConfig.MARGEN + BORDE) / JuegoConfig.ESPACIO);
+
+            // 1. Cuadrados completados
+            for (int i = f0; i <= f1 && i < tamaño - 1; i++) {
+                for (int j = c0; j <= c1 && j < tamaño - 1; j++) {
+                    int jugadorId = modelo.getCuadrado(i, j);
+                    if (jugadorId != 0) {
+                        g.setColor(color(jugadorId));
+                        g.fillRect(JuegoConfig.MARGEN + j * JuegoConfig.ESPACIO, JuegoConfig.MARGEN + i * JuegoConfig.ESPACIO, JuegoConfig.ESPACIO, JuegoConfig.ESPACIO);
+                    }
+                }
+            }
+            // 2. Líneas horizontales y verticales
+            for (int i = f0; i <= f1; i++) {
+                for (int j = c0; j <= c1; j++) {
+                    int x = JuegoConfig.MARGEN + j * JuegoConfig.ESPACIO - BORDE_LINEA;
+                    int y = JuegoConfig.MARGEN + i * JuegoConfig.ESPACIO - BORDE_LINEA;
+                    if (j < tamaño - 1) {
+                        int jugadorId = modelo.getLineaHorizontal(i, j);
+                        if (jugadorId != 0 && trazar) {
+                            g.setColor(color(jugadorId));
+                            g.drawLine(x + BORDE_LINEA, y + BORDE_LINEA, x + BORDE_LINEA + JuegoConfig.ESPACIO, y + BORDE_LINEA);
+                        } else if (jugadorId != 0) {
+                            g.drawImage(linea(jugadorId, true), x, y, null);
+                        }
+                    }
+                    if (i < tamaño - 1) {
+                        int jugadorId = modelo.getLineaVertical(i, j);
+                        if (jugadorId != 0 && trazar) {
+                            g.setColor(color(jugadorId));
+                            g.drawLine(x + BORDE_LINEA, y + BORDE_LINEA, x + BORDE_LINEA, y + BORDE_LINEA + JuegoConfig.ESPACIO);
+                        } else if (jugadorId != 0) {
+                            g.drawImage(linea(jugadorId, false), x, y, null);
+                        }
+                    }
+                }
+            }
+            // 3. Puntos de la cuadrícula, solo hasta el último punto del tablero
+            if (trazar) {
+                g.setColor(Color.DARK_GRAY);
+                for (int i = f0; i <= f1; i++) {
+                    for (int j = c0; j <= c1; j++) {
+                        g.fillOval(JuegoConfig.MARGEN + j * JuegoConfig.ESPACIO - JuegoConfig.RADIO_PUNTO, JuegoConfig.MARGEN + i * JuegoConfig.ESPACIO - JuegoConfig.RADIO_PUNTO, JuegoConfig.RADIO_PUNTO * 2, JuegoConfig.RADIO_PUNTO * 2);
+                    }
+                }
+            } else {
+                int fin = JuegoConfig.MARGEN + (tamaño - 1) * JuegoConfig.ESPACIO + JuegoConfig.RADIO_PUNTO + 1;
+                g.clipRect(0, 0, fin, fin);
+                g.drawImage(puntos(), mx * LADO, my * LADO, null);
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /** La cuadrícula de puntos de un mosaico; es igual en todos porque empiezan en la misma fase. */
+    private BufferedImage puntos() {
+        if (puntos == null) {
+            puntos = crearImagen(LADO, LADO, Transparency.TRANSLUCENT);
+            Graphics2D g = puntos.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.DARK_GRAY);
+            for (int i = 0; i < CELDAS_POR_MOSAICO; i++) {
+                for (int j = 0; j < CELDAS_POR_MOSAICO; j++) {
+                    g.fillOval(JuegoConfig.MARGEN + j * JuegoConfig.ESPACIO - JuegoConfig.RADIO_PUNTO, JuegoConfig.MARGEN + i * JuegoConfig.ESPACIO - JuegoConfig.RADIO_PUNTO, JuegoConfig.RADIO_PUNTO * 2, JuegoConfig.RADIO_PUNTO * 2);
+                }
+            }
+            g.dispose();
+        }
+        return puntos;
+    }
+
+    /** Crea las tablas por ID de jugador; las líneas se trazan la primera vez que se usan. */
+    private void prepararColores() {
+        int maxId = 0;
+        for (Jugador j : modelo.getJugadores()) maxId = Math.max(maxId, j.id());
+        colores = new Color[maxId + 1];
+        for (Jugador j : modelo.getJugadores()) {
+            if (j.id() >= 0) colores[j.id()] = j.color();
+        }
+        lineasHorizontales = new BufferedImage[maxId + 1];
+        lineasVerticales = new BufferedImage[maxId + 1];
+    }
+
+    /** @return El color de un jugador, o Negro si el ID no es de esta partida. */
+    Color color(int jugadorId) {
+        Color c = jugadorId >= 0 && jugadorId < colores.length ? colores[jugadorId] : null;
+        return c != null ? c : Color.BLACK;
+    }
+
+    /** Una línea del color de un jugador, trazada desde {@code (BORDE_LINEA, BORDE_LINEA)}. */
+    private BufferedImage linea(int jugadorId, boolean horizontal) {
+        if (jugadorId < 0 || jugadorId >= colores.length) return trazar(color(jugadorId), horizontal);
+        BufferedImage[] tabla = horizontal ? lineasHorizontales : lineasVerticales;
+        if (tabla[jugadorId] == null) tabla[jugadorId] = trazar(color(jugadorId), horizontal);
+        return tabla[jugadorId];
+    }
+
+    private BufferedImage trazar(Color color, boolean horizontal) {
+        int largo = JuegoConfig.ESPACIO + 2 * BORDE_LINEA, ancho = 2 * BORDE_LINEA + 1;
+        BufferedImage img = horizontal ? crearImagen(largo, ancho, Transparency.TRANSLUCENT) : crearImagen(ancho, largo, Transparency.TRANSLUCENT);
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setStroke(TRAZO);
+        g.setColor(color);
+        if (horizontal) {
+            g.drawLine(BORDE_LINEA, BORDE_LINEA, BORDE_LINEA + JuegoConfig.ESPACIO, BORDE_LINEA);
+        } else {
+            g.drawLine(BORDE_LINEA, BORDE_LINEA, BORDE_LINEA, BORDE_LINEA + JuegoConfig.ESPACIO);
+        }
+        g.dispose();
+        return img;
+    }
+
+    private BufferedImage crearImagen(int ancho, int alto, int transparencia) {
+        if (configuracion != null) return configuracion.createCompatibleImage(ancho, alto, transparencia);
+        return new BufferedImage(ancho, alto, transparencia == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+}
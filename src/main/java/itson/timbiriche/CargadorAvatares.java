@@ -0,0 +1,116 @@
+package itson.timbiriche;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+/**
+ * Carga en segundo plano una lista de avatares a un mismo tamaño y entrega cada uno en el
+ * EDT en cuanto está listo, para que quien los muestra no tenga que esperar a todos.
+ * <p>
+ * Los avatares se decodifican en paralelo, con un hilo por procesador. Cada hilo toma
+ * el siguiente avatar pendiente dando prioridad al rango marcado con {@link #priorizar}
+ * (por ejemplo, las filas que se ven en pantalla); cuando ese rango se termina sigue con
+ * los demás en orden. Los avatares que ya estaban en {@link CacheAvatares} no pasan por
+ * aquí: se pueden pedir antes con {@link CacheAvatares#buscar}.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+final class CargadorAvatares {
+
+    private static final int NUM_HILOS = Runtime.getRuntime().availableProcessors();
+    /** Los hilos que comparten todos los cargadores. */
+    private static final ExecutorService HILOS = Executors.newFixedThreadPool(NUM_HILOS, r -> {
+        Thread hilo = new Thread(r, "timbiriche-avatares");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private final List<String> rutas;
+    private final int lado;
+    private final BiConsumer<Integer, ImageIcon> alCargar;
+    /** Qué avatares ya tomó algún hilo. */
+    private final boolean[] tomados;
+    private int pendientes;
+    /** El siguiente avatar a revisar fuera del rango prioritario. */
+    private int siguiente;
+    private int prioridadDesde;
+    private int prioridadHasta;
+    private volatile boolean cancelado;
+
+    /**
+     * @param rutas Las rutas de los avatares, en el orden en que se muestran.
+     * @param lado El lado en píxeles al que se escalan.
+     * @param alCargar Recibe en el EDT la posición en {@code rutas} y el avatar ya
+     * escalado, o {@code null} si no se pudo cargar.
+     */
+    CargadorAvatares(List<String> rutas, int lado, BiConsumer<Integer, ImageIcon> alCargar) {
+        this.rutas = List.copyOf(rutas);
+        this.lado = lado;
+        this.alCargar = alCargar;
+        this.tomados = new boolean[rutas.size()];
+        this.pendientes = rutas.size();
+    }
+
+    /**
+     * Marca un avatar como ya cargado, para que no se vuelva a decodificar. Hay que
+     * llamarlo antes de {@link #iniciar()}.
+     */
+    synchronized void omitir(int idx) {
+        if (!tomados[idx]) {
+            tomados[idx] = true;
+            pendientes--;
+        }
+    }
+
+    /** Empieza a cargar los avatares pendientes. */
+    synchronized void iniciar() {
+        for (int i = Math.min(NUM_HILOS, pendientes); i > 0; i--) HILOS.execute(this::trabajar);
+    }
+
+    /**
+     * Hace que los avatares de un rango se carguen antes que los demás.
+     *
+     * @param desde La posición del primero.
+     * @param hasta La posición siguiente al último.
+     */
+    synchronized void priorizar(int desde, int hasta) {
+        prioridadDesde = Math.max(0, desde);
+        prioridadHasta = Math.min(tomados.length, hasta);
+    }
+
+    /** Deja de cargar; los avatares que ya se estaban decodificando no se entregan. */
+    void cancelar() {
+        cancelado = true;
+    }
+
+    /** @return La posición del siguiente avatar a cargar, o -1 si ya no hay. */
+    private synchronized int tomar() {
+        if (cancelado || pendientes == 0) return -1;
+        int idx = -1;
+        for (int i = prioridadDesde; i < prioridadHasta && idx < 0; i++) {
+            if (!tomados[i]) idx = i;
+        }
+        if (idx < 0) {
+            while (tomados[siguiente]) siguiente++;
+            idx = siguiente;
+        }
+        tomados[idx] = true;
+        pendientes--;
+        return idx;
+    }
+
+    private void trabajar() {
+        for (int idx = tomar(); idx >= 0; idx = tomar()) {
+            ImageIcon icono = Recursos.loadScaledAvatar(rutas.get(idx), lado, lado);
+            int i = idx;
+            SwingUtilities.invokeLater(() -> {
+                if (!cancelado) alCargar.accept(i, icono);
+            });
+        }
+    }
+}
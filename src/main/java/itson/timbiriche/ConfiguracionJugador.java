@@ -26,6 +26,11 @@ public class ConfiguracionJugador {
      */
     private Color color;
 
+    /**
+     * Indica si este jugador lo controla la computadora en lugar de una persona.
+     */
+    private boolean computadora;
+
     /**
      * Construye una nueva instancia de configuración del jugador.
      * @param nombre El nombre del jugador.
@@ -85,4 +90,20 @@ public class ConfiguracionJugador {
     public void setColor(Color color) {
         this.color = color;
     }
-}
\ No newline at end of file
+
+    /**
+     * Indica si el jugador lo controla la computadora.
+     * @return {@code true} si es un jugador de la computadora.
+     */
+    public boolean isComputadora() {
+        return computadora;
+    }
+
+    /**
+     * Establece si el jugador lo controla la computadora.
+     * @param computadora {@code true} para que lo controle la computadora.
+     */
+    public void setComputadora(boolean computadora) {
+        this.computadora = computadora;
+    }
+}
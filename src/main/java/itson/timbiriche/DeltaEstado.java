@@ -0,0 +1,33 @@
+package itson.timbiriche;
+
+/**
+ * El cambio que produjo una jugada aceptada por el {@link MotorTimbiriche}. Con la
+ * secuencia de deltas se puede reconstruir la partida completa, y basta con aplicar
+ * cada uno a una copia del estado para mantenerla sincronizada.
+ * <p>
+ * Los cuadros se identifican como en {@link TableroBits}: {@code fila * (tamaño - 1) + col}.
+ *
+ * @param secuencia Número de la jugada dentro de la partida, empezando en 1.
+ * @param jugada La línea puesta, codificada con {@link Jugada}.
+ * @param jugadorId El ID del jugador que hizo la jugada.
+ * @param cuadroA El primer cuadro cerrado, o -1 si no se cerró ninguno.
+ * @param cuadroB El segundo cuadro cerrado, o -1 si solo se cerró uno o ninguno.
+ * @param puntaje El puntaje del jugador después de la jugada.
+ * @param siguienteJugadorId El ID del jugador al que le toca después.
+ * @param terminado Verdadero si con esta jugada terminó la partida.
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public record DeltaEstado(int secuencia, int jugada, int jugadorId, int cuadroA, int cuadroB,
+                          int puntaje, int siguienteJugadorId, boolean terminado) {
+
+    /** @return Cuántos cuadros cerró la jugada (0, 1 o 2). */
+    public int cuadrosCerrados() {
+        return cuadroA < 0 ? 0 : cuadroB < 0 ? 1 : 2;
+    }
+
+    /** @return Verdadero si el mismo jugador vuelve a tirar. */
+    public boolean repiteTurno() {
+        return cuadroA >= 0 && !terminado;
+    }
+}
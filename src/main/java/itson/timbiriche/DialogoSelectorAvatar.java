@@ -2,6 +2,8 @@ package itson.timbiriche;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -20,8 +22,24 @@ public class DialogoSelectorAvatar extends JDialog {
      */
     private String avatarSeleccionadoPath = null;
 
+    /** El lado en píxeles de cada avatar en la lista. */
+    private static final int LADO_AVATAR = 80;
+    /** La altura máxima de la lista; si hay más avatares aparece la barra de desplazamiento. */
+    private static final int ALTO_MAXIMO_LISTA = 420;
+    /** Lo que muestra un botón mientras su avatar se carga, del mismo tamaño para que nada se mueva. */
+    private static final Icon MARCADOR = crearMarcador();
+
+    /** Los botones de los avatares, en el mismo orden que la lista de rutas. */
+    private final List<JToggleButton> botones = new ArrayList<>();
+    private final JScrollPane scrollPane;
+    private final CargadorAvatares cargador;
+
     /**
      * Construye y configura el diálogo de selección de avatar.
+     * <p>
+     * El diálogo se muestra en cuanto se construye: cada avatar aparece primero como un
+     * marcador y se llena cuando {@link CargadorAvatares} termina de cargarlo, empezando
+     * por los que se ven en la lista.
      * * @param owner El componente {@link Frame} padre sobre el cual se mostrará este diálogo.
      * @param currentAvatarPath La ruta del avatar actualmente seleccionado por el jugador,
      * para preseleccionarlo en la lista.
@@ -38,12 +56,15 @@ public class DialogoSelectorAvatar extends JDialog {
 
         List<String> avataresDisponibles = Recursos.getAvataresDisponibles();
         ButtonGroup grupoAvatares = new ButtonGroup();
+        cargador = new CargadorAvatares(avataresDisponibles, LADO_AVATAR, this::mostrarAvatar);
 
         for (String pathCompleto : avataresDisponibles) {
-            ImageIcon icon = Recursos.loadScaledAvatar(pathCompleto, 80, 80);
-            
+            // Los avatares que ya se cargaron antes se muestran de una vez.
+            BufferedImage cargado = CacheAvatares.compartida().buscar(pathCompleto, LADO_AVATAR, LADO_AVATAR);
+            if (cargado != null) cargador.omitir(botones.size());
+
             JToggleButton btnAvatar = new JToggleButton(); 
-            btnAvatar.setIcon(icon);
+            btnAvatar.setIcon(cargado != null ? new ImageIcon(cargado) : MARCADOR);
             btnAvatar.setActionCommand(pathCompleto);
             btnAvatar.setToolTipText(Recursos.getNombreAmigableAvatar(pathCompleto));
 
@@ -59,9 +80,14 @@ public class DialogoSelectorAvatar extends JDialog {
 
             grupoAvatares.add(btnAvatar);
             panelAvatares.add(btnAvatar);
+            botones.add(btnAvatar);
         }
 
-        JScrollPane scrollPane = new JScrollPane(panelAvatares);
+        scrollPane = new JScrollPane(panelAvatares);
+        scrollPane.getVerticalScrollBar().setUnitIncrement(LADO_AVATAR / 4);
+        Dimension tamañoLista = panelAvatares.getPreferredSize();
+        scrollPane.getViewport().setPreferredSize(new Dimension(tamañoLista.width, Math.min(tamañoLista.height, ALTO_MAXIMO_LISTA)));
+        scrollPane.getViewport().addChangeListener(e -> priorizarVisibles());
         add(scrollPane, BorderLayout.CENTER);
 
         JButton btnConfirmar = new JButton("Confirmar");
@@ -76,6 +102,40 @@ public class DialogoSelectorAvatar extends JDialog {
 
         pack();
         setLocationRelativeTo(owner);
+        priorizarVisibles();
+        cargador.iniciar();
+    }
+
+    /** Deja de cargar avatares al cerrar el diálogo. */
+    @Override
+    public void dispose() {
+        cargador.cancelar();
+        super.dispose();
+    }
+
+    /** Pone un avatar recién cargado en su botón; si no se pudo cargar se queda el marcador. */
+    private void mostrarAvatar(int idx, ImageIcon icono) {
+        if (icono != null) botones.get(idx).setIcon(icono);
+    }
+
+    /** Hace que se carguen primero los avatares de las filas que se ven en la lista. */
+    private void priorizarVisibles() {
+        Rectangle visible = scrollPane.getViewport().getViewRect();
+        int desde = 0;
+        while (desde < botones.size() && botones.get(desde).getY() + botones.get(desde).getHeight() < visible.y) desde++;
+        int hasta = desde;
+        while (hasta < botones.size() && botones.get(hasta).getY() <= visible.y + visible.height) hasta++;
+        cargador.priorizar(desde, hasta);
+    }
+
+    private static Icon crearMarcador() {
+        BufferedImage imagen = new BufferedImage(LADO_AVATAR, LADO_AVATAR, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = imagen.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(new Color(220, 220, 220));
+        g.fillRoundRect(0, 0, LADO_AVATAR, LADO_AVATAR, LADO_AVATAR / 4, LADO_AVATAR / 4);
+        g.dispose();
+        return new ImageIcon(imagen);
     }
 
     /**
@@ -0,0 +1,141 @@
+package itson.timbiriche;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lo que el {@link ServidorJuego} manda a los espectadores de una partida.
+ * <p>
+ * El hilo de la partida es el único que publica: por cada jugada aceptada guarda la
+ * jugada en la historia y, si alguien está mirando, la trama {@code DELTAS} ya
+ * codificada en un anillo de {@value #CAPACIDAD_ANILLO} tramas. La trama se codifica
+ * una sola vez y todos los espectadores copian los mismos bytes. Los hilos que atienden
+ * a los espectadores la leen sin candados: cada espectador solo guarda hasta qué trama
+ * lleva (su cursor), así que su cola es el tramo del anillo entre su cursor y
+ * {@link #getPublicadas()}, y nunca crece más allá de {@link #MAX_PENDIENTES}.
+ * <p>
+ * Un espectador más atrasado que eso (o uno que acaba de llegar) no recibe las tramas
+ * que le faltan sino las jugadas que le faltan, tomadas de la {@link #historia()} y
+ * empacadas en tramas {@code HISTORIA}, que ocupan unas cinco veces menos. Así lo que
+ * cuesta ponerlo al día es proporcional a lo que se atrasó y nunca se acumula nada.
+ * <p>
+ * Cuando la partida termina, cada bucle suelta a sus espectadores en cuanto les mandó
+ * todo y se desuscribe, así que nadie se queda con la difusión de una partida vieja.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+final class DifusionPartida {
+
+    /** Cuántas tramas recientes se guardan. Debe ser potencia de dos. */
+    static final int CAPACIDAD_ANILLO = 256;
+    /** Cuántas tramas puede deberle el servidor a un espectador antes de mandarle la historia. */
+    static final int MAX_PENDIENTES = 64;
+
+    final int idPartida;
+    final int tamaño;
+    final int numJugadores;
+    /** Las jugadas aceptadas, en orden. Se reemplaza (nunca se modifica lo ya publicado) al crecer. */
+    private volatile int[] historia = new int[64];
+    /** Las tramas recientes; se crea con el primer espectador. */
+    private AtomicReferenceArray<byte[]> anillo;
+    /** Cuántas jugadas se han publicado. Se escribe al final de cada publicación. */
+    private volatile long publicadas;
+    /** El jugador que abandonó la partida, o 0. */
+    private volatile int abandono;
+    /** Verdadero cuando ya no se publicará nada más. */
+    private volatile boolean terminada;
+    /** A quién avisar que hay algo nuevo: uno por cada hilo con espectadores de esta partida. */
+    private final List<Consumer<DifusionPartida>> suscriptores = new CopyOnWriteArrayList<>();
+
+    DifusionPartida(int idPartida, int tamaño, int numJugadores) {
+        this.idPartida = idPartida;
+        this.tamaño = tamaño;
+        this.numJugadores = numJugadores;
+    }
+
+    long getPublicadas() { return publicadas; }
+    /**
+     * Las jugadas aceptadas, en orden. Las posiciones menores que un valor ya leído de
+     * {@link #getPublicadas()} son válidas y no cambian; no se debe modificar.
+     */
+    int[] historia() { return historia; }
+    int getAbandono() { return abandono; }
+    /**
+     * Indica si ya no se publicará nada. Si es verdadero, lo que se lea después de
+     * {@link #getPublicadas()} y {@link #getAbandono()} ya es definitivo.
+     */
+    boolean isTerminada() { return terminada; }
+
+    /**
+     * Prepara el anillo para el primer espectador. Solo desde el hilo de la partida,
+     * antes de pasarle el espectador a su propio hilo.
+     */
+    void activar() {
+        if (anillo == null) anillo = new AtomicReferenceArray<>(CAPACIDAD_ANILLO);
+    }
+
+    /** Registra quién debe enterarse de cada jugada nueva. */
+    void suscribir(Consumer<DifusionPartida> suscriptor) {
+        suscriptores.add(suscriptor);
+    }
+
+    /** Deja de avisarle a un suscriptor; debe ser el mismo objeto que se suscribió. */
+    void desuscribir(Consumer<DifusionPartida> suscriptor) {
+        suscriptores.remove(suscriptor);
+    }
+
+    /**
+     * Publica una jugada aceptada. Solo desde el hilo de la partida.
+     * @param jugada La jugada, para la historia.
+     * @param trama La trama {@code DELTAS} ya codificada, en modo lectura; no se modifica.
+     */
+    void publicar(int jugada, ByteBuffer trama) {
+        long n = publicadas;
+        int[] h = historia;
+        if (n == h.length) {
+            h = Arrays.copyOf(h, h.length * 2);
+            historia = h;
+        }
+        h[(int) n] = jugada;
+        if (anillo != null) {
+            byte[] copia = Arrays.copyOfRange(trama.array(), trama.position(), trama.limit());
+            anillo.setRelease((int) n & (CAPACIDAD_ANILLO - 1), copia);
+        }
+        publicadas = n + 1;
+        avisar();
+    }
+
+    /** Publica que un jugador se fue y la partida terminó. Solo desde el hilo de la partida. */
+    void abandonar(int jugadorId) {
+        abandono = jugadorId;
+        avisar();
+    }
+
+    /**
+     * Publica que la partida terminó, después de su última jugada o de su abandono. Solo
+     * desde el hilo de la partida.
+     */
+    void terminar() {
+        terminada = true;
+        avisar();
+    }
+
+    private void avisar() {
+        for (Consumer<DifusionPartida> s : suscriptores) s.accept(this);
+    }
+
+    /**
+     * Devuelve la trama de la jugada {@code indice} (la primera es la 0), o {@code null}
+     * si ya salió del anillo. Solo para índices menores que {@link #getPublicadas()}.
+     */
+    byte[] trama(long indice) {
+        byte[] t = anillo.getAcquire((int) indice & (CAPACIDAD_ANILLO - 1));
+        // Si el lugar ya lo ocupa una trama posterior, publicadas ya llegó a indice + CAPACIDAD_ANILLO.
+        return publicadas - indice < CAPACIDAD_ANILLO ? t : null;
+    }
+}
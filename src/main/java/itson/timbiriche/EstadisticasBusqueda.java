@@ -0,0 +1,39 @@
+package itson.timbiriche;
+
+/**
+ * Resumen de una búsqueda hecha por un {@link MotorBusqueda}, pensado para poder
+ * ajustar los motores en cada máquina.
+ *
+ * @param jugada El id de la línea elegida.
+ * @param profundidad La última profundidad completada (o 0 si el motor no trabaja por profundidades).
+ * @param valor El valor estimado de la jugada para quien mueve (cuadros de ventaja).
+ * @param nodos Cuántas posiciones se visitaron.
+ * @param nanos Cuánto tardó la búsqueda, en nanosegundos.
+ * @param consultasTabla Cuántas veces se consultó la tabla de transposición.
+ * @param aciertosTabla Cuántas de esas consultas encontraron la posición.
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public record EstadisticasBusqueda(int jugada, int profundidad, int valor, long nodos, long nanos,
+        long consultasTabla, long aciertosTabla) {
+
+    /**
+     * @return Los nodos visitados por segundo.
+     */
+    public double nodosPorSegundo() {
+        return nanos == 0 ? 0 : nodos * 1e9 / nanos;
+    }
+
+    /**
+     * @return La fracción (0..1) de consultas a la tabla de transposición que acertaron.
+     */
+    public double tasaAciertos() {
+        return consultasTabla == 0 ? 0 : (double) aciertosTabla / consultasTabla;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("jugada=%d profundidad=%d valor=%d nodos=%d tiempo=%.1fms nodos/s=%.0f aciertosTabla=%.1f%%",
+                jugada, profundidad, valor, nodos, nanos / 1e6, nodosPorSegundo(), tasaAciertos() * 100);
+    }
+}
@@ -0,0 +1,128 @@
+package itson.timbiriche;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Los eventos del juego para JDK Flight Recorder: cada jugada, cada aviso a un oyente del
+ * modelo, cada pintado del tablero y cada carga de avatar, con su duración, y los bloqueos
+ * del hilo de Swing que encuentra {@link VigilanteEdt}. Se graban con
+ * {@code --grabar archivo.jfr} ({@link Timbiriche#main}) o con
+ * {@code -XX:StartFlightRecording}, y {@link ResumenGrabacion} resume la grabación.
+ * <p>
+ * Mientras no se graba, crear un evento y llamar a {@code begin}, {@code end} y
+ * {@code shouldCommit} no cuesta casi nada (el compilador elimina el objeto), así que
+ * los datos de cada evento solo se calculan después de {@code shouldCommit}. Ningún
+ * evento guarda la pila de llamadas.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+final class EventosJuego {
+
+    /** El prefijo del nombre de todos los eventos del juego. */
+    static final String PREFIJO = "itson.timbiriche.";
+
+    private EventosJuego() {}
+
+    /** Una llamada a {@link TableroModelo#agregarLinea}, incluyendo el aviso a los oyentes. */
+    @Name(PREFIJO + "Jugada")
+    @Label("Jugada")
+    @Category("Timbiriche")
+    @Description("Una línea puesta en el modelo, con el aviso a sus oyentes")
+    @StackTrace(false)
+    static final class Jugada extends Event {
+        @Label("Tamaño del tablero")
+        int tamaño;
+        @Label("Jugada")
+        @Description("La línea, codificada con Jugada")
+        int jugada;
+        @Label("Jugador")
+        int jugadorId;
+        @Label("Cuadros cerrados")
+        int cuadrosCerrados;
+        @Label("Aceptada")
+        boolean aceptada;
+    }
+
+    /** El aviso de un cambio del modelo a uno de sus oyentes. */
+    @Name(PREFIJO + "Notificacion")
+    @Label("Notificación a un oyente")
+    @Category("Timbiriche")
+    @StackTrace(false)
+    static final class Notificacion extends Event {
+        @Label("Oyente")
+        Class<?> oyente;
+        @Label("Cambio completo")
+        boolean completo;
+    }
+
+    /** Una llamada a {@link TableroVista#paintComponent}. */
+    @Name(PREFIJO + "Pintado")
+    @Label("Pintado del tablero")
+    @Category("Timbiriche")
+    @StackTrace(false)
+    static final class Pintado extends Event {
+        @Label("Ancho")
+        @Description("El ancho del área repintada, en píxeles de pantalla")
+        int ancho;
+        @Label("Alto")
+        int alto;
+        @Label("Escala")
+        double escala;
+        @Label("Modo")
+        @Description("mosaicos, simple o resumen")
+        String modo;
+        @Label("Elementos")
+        @Description("Mosaicos copiados, puntos de la cuadrícula o cuadros del resumen")
+        int elementos;
+        @Label("Mosaicos nuevos")
+        @Description("Mosaicos que hubo que dibujar completos")
+        int mosaicosNuevos;
+    }
+
+    /** Una llamada a {@link Recursos#loadScaledAvatar}. */
+    @Name(PREFIJO + "CargaAvatar")
+    @Label("Carga de avatar")
+    @Category("Timbiriche")
+    @StackTrace(false)
+    static final class CargaAvatar extends Event {
+        @Label("Ruta")
+        String ruta;
+        @Label("Ancho")
+        int ancho;
+        @Label("Alto")
+        int alto;
+        @Label("Decodificado")
+        @Description("Falso si el avatar ya estaba en la caché")
+        boolean decodificado;
+        @Label("Cargado")
+        boolean cargado;
+    }
+
+    /**
+     * Un evento que tuvo ocupado al hilo de Swing más que el umbral de {@link VigilanteEdt}.
+     * Se registra al terminar el evento, así que su duración está en {@link #duracion}.
+     */
+    @Name(PREFIJO + "BloqueoEdt")
+    @Label("Bloqueo del EDT")
+    @Category("Timbiriche")
+    @StackTrace(false)
+    static final class BloqueoEdt extends Event {
+        @Label("Duración")
+        @Timespan(Timespan.NANOSECONDS)
+        long duracion;
+        @Label("Evento")
+        String evento;
+        @Label("Pila")
+        @Description("La pila del EDT que más se repitió mientras estuvo bloqueado")
+        String pila;
+        @Label("Muestras")
+        int numMuestras;
+    }
+}
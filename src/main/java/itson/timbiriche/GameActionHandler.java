@@ -16,6 +16,13 @@ public interface GameActionHandler {
      */
     void placeLine(int fila, int col, boolean horizontal);
 
+    /**
+     * Libera lo que el manejador tenga abierto (hilos, conexiones, oyentes del modelo)
+     * cuando se cierra la ventana de su partida. Después no debe volver a tocar el modelo.
+     */
+    default void cerrar() {
+    }
+
     // Aquí se podrían añadir otras acciones del juego, como iniciar una nueva partida, etc.
     // void startGame();
     // void sendChatMessage(String message);
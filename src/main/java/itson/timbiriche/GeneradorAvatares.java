@@ -0,0 +1,136 @@
+package itson.timbiriche;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Genera el {@link PaqueteAvatares} a partir de las imágenes originales. Maven lo ejecuta
+ * en la fase {@code process-classes}, después de compilar, y deja el paquete junto a las
+ * clases para que entre al jar en lugar de las imágenes originales.
+ * <p>
+ * Las miniaturas se escalan con {@link CacheAvatares#decodificar(java.io.InputStream, String, int, int)},
+ * igual que si se escalaran al momento. Si el paquete ya existe, es más nuevo que todas
+ * las imágenes y tiene los mismos avatares y tamaños, no se vuelve a generar.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public final class GeneradorAvatares {
+
+    private GeneradorAvatares() {}
+
+    /**
+     * Genera un paquete con todas las imágenes soportadas de una carpeta.
+     *
+     * @param origen La carpeta con las imágenes originales.
+     * @param salida El archivo del paquete.
+     * @param lados Los lados en píxeles de las miniaturas de cada avatar.
+     * @return Verdadero si se generó, falso si el que había ya estaba al día.
+     * @throws IOException si no se puede leer una imagen o escribir el paquete.
+     */
+    public static boolean generar(Path origen, Path salida, int[] lados) throws IOException {
+        List<Path> imagenes;
+        try (Stream<Path> archivos = Files.list(origen)) {
+            imagenes = archivos
+                    .filter(Files::isRegularFile)
+                    .filter(p -> Recursos.esFormatoImagenSoportado(p.getFileName().toString()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        List<String> rutas = new ArrayList<>();
+        for (Path imagen : imagenes) rutas.add(PaqueteAvatares.CARPETA + imagen.getFileName());
+        if (alDia(imagenes, rutas, salida, lados)) return false;
+
+        List<List<BufferedImage>> miniaturas;
+        try {
+            miniaturas = IntStream.range(0, imagenes.size()).parallel()
+                    .mapToObj(i -> miniaturas(imagenes.get(i), lados))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Files.createDirectories(salida.toAbsolutePath().getParent());
+        ArchivoPartida.escribirArchivo(salida, PaqueteAvatares.codificar(rutas, miniaturas));
+        return true;
+    }
+
+    private static List<BufferedImage> miniaturas(Path imagen, int[] lados) {
+        try {
+            byte[] original = Files.readAllBytes(imagen);
+            List<BufferedImage> miniaturas = new ArrayList<>();
+            for (int lado : lados) {
+                miniaturas.add(CacheAvatares.decodificar(new ByteArrayInputStream(original), imagen.toString(), lado, lado));
+            }
+            return miniaturas;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** @return Verdadero si el paquete existente es más nuevo que las imágenes y tiene lo mismo. */
+    private static boolean alDia(List<Path> imagenes, List<String> rutas, Path salida, int[] lados) throws IOException {
+        if (!Files.exists(salida)) return false;
+        FileTime generado = Files.getLastModifiedTime(salida);
+        for (Path imagen : imagenes) {
+            if (Files.getLastModifiedTime(imagen).compareTo(generado) >= 0) return false;
+        }
+        PaqueteAvatares paquete;
+        try {
+            paquete = PaqueteAvatares.decodificar(Files.readAllBytes(salida));
+        } catch (IOException e) {
+            return false;
+        }
+        if (!paquete.getRutas().equals(rutas)) return false;
+        for (String ruta : rutas) {
+            for (int lado : lados) {
+                BufferedImage miniatura = paquete.miniatura(ruta, lado, lado);
+                if (miniatura.getWidth() != lado || miniatura.getHeight() != lado) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ejecuta el generador desde la línea de comandos. Opciones: {@code --origen} (la
+     * carpeta de imágenes), {@code --salida} (el archivo del paquete) y {@code --lados}
+     * (los lados de las miniaturas separados por coma).
+     *
+     * @param args Las opciones en pares {@code --nombre valor}.
+     * @throws IOException si no se puede leer una imagen o escribir el paquete.
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opciones = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Opción inválida: " + args[i]);
+            opciones.put(args[i].substring(2), args[i + 1]);
+        }
+        if (!opciones.containsKey("origen") || !opciones.containsKey("salida")) {
+            throw new IllegalArgumentException("Se necesitan --origen y --salida");
+        }
+        Path origen = Path.of(opciones.get("origen"));
+        Path salida = Path.of(opciones.get("salida"));
+        int[] lados = Arrays.stream(opciones.getOrDefault("lados", "50,80").split(","))
+                .mapToInt(l -> Integer.parseInt(l.trim())).toArray();
+
+        long inicio = System.nanoTime();
+        if (generar(origen, salida, lados)) {
+            System.out.printf("Paquete de avatares generado en %s (%d bytes, %d ms)%n",
+                    salida, Files.size(salida), (System.nanoTime() - inicio) / 1_000_000);
+        } else {
+            System.out.println("El paquete de avatares está al día: " + salida);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package itson.timbiriche;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Graba las jugadas de un {@link TableroModelo} para guardarlas como un
+ * {@link ArchivoRepeticion}.
+ * <p>
+ * Es un oyente del modelo: al crearlo toma una foto del estado actual, que será el
+ * inicio de la repetición, y después solo agrega cada jugada aceptada a un arreglo, así
+ * que grabar no cuesta casi nada durante la partida. Las fotos intermedias se calculan
+ * al guardar. Si el modelo salta a otro estado sin una jugada (con
+ * {@link TableroModelo#restaurar}), la grabación vuelve a empezar desde ahí.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public class GrabadorRepeticion implements TableroModelo.ModeloListener {
+
+    private final TableroModelo modelo;
+    private MotorTimbiriche inicial;
+    private int[] jugadas = new int[64];
+    private int cuantas;
+
+    /**
+     * Empieza a grabar un modelo desde su estado actual.
+     * @param modelo El modelo; el grabador se registra como su oyente.
+     */
+    public GrabadorRepeticion(TableroModelo modelo) {
+        this.modelo = modelo;
+        empezar();
+        modelo.agregarListener(this);
+    }
+
+    /** Toma el estado actual del modelo como inicio de la grabación. */
+    private void empezar() {
+        inicial = new MotorTimbiriche(modelo.copiarTablero(), modelo.getJugadorActualIdx(),
+                ArchivoPartida.ids(modelo.getJugadores()));
+        cuantas = 0;
+    }
+
+    /** @return Cuántas jugadas se han grabado. */
+    public int getNumJugadas() { return cuantas; }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Agrega la jugada que acaba de aceptar el modelo.
+     */
+    @Override
+    public void modeloCambiado(CambioModelo cambio) {
+        if (cambio.esCompleto()) {
+            // No fue una jugada sino un salto: lo grabado ya no lleva a este estado.
+            empezar();
+            return;
+        }
+        if (cuantas == jugadas.length) jugadas = Arrays.copyOf(jugadas, cuantas * 2);
+        jugadas[cuantas++] = cambio.jugada();
+    }
+
+    /** @return Lo grabado hasta ahora, en el formato de {@link ArchivoRepeticion}. */
+    public byte[] codificar() {
+        return ArchivoRepeticion.codificar(inicial, modelo.getJugadores(), jugadas, cuantas);
+    }
+
+    /**
+     * Guarda lo grabado hasta ahora; se puede seguir grabando después.
+     * @param archivo Dónde guardarlo; se reemplaza si ya existe.
+     * @throws IOException si no se puede escribir.
+     */
+    public void guardar(Path archivo) throws IOException {
+        ArchivoPartida.escribirArchivo(archivo, codificar());
+    }
+}
@@ -0,0 +1,131 @@
+package itson.timbiriche;
+
+import javax.swing.SwingUtilities;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Implementación de {@link GameActionHandler} para partidas contra la computadora.
+ * <p>
+ * Los clics de los jugadores humanos se aplican al modelo solo cuando es su turno.
+ * Cuando el turno pasa a un jugador controlado por la computadora, este manejador
+ * copia el tablero y le pide la jugada a un {@link MotorBusqueda} en un hilo aparte,
+ * para que el Hilo de Despacho de Eventos (EDT) nunca se bloquee mientras la
+ * computadora piensa. La jugada elegida se aplica de vuelta en el EDT.
+ * <p>
+ * Todos los métodos públicos deben llamarse desde el EDT, igual que el resto del
+ * código que toca el {@link TableroModelo}.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public class IAGameActionHandler implements GameActionHandler, TableroModelo.ModeloListener {
+
+    private final TableroModelo modelo;
+    /** Los IDs de los jugadores que controla la computadora. */
+    private final Set<Integer> idsComputadora;
+    private final MotorBusqueda motor;
+    private final long presupuestoNanos;
+    /** Un único hilo en segundo plano donde corre la búsqueda. */
+    private final ExecutorService hiloBusqueda = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "timbiriche-computadora");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    /** Verdadero mientras hay una búsqueda en curso. Solo se toca desde el EDT. */
+    private boolean pensando = false;
+    /** Verdadero después de {@link #cerrar()}. Solo se toca desde el EDT. */
+    private boolean cerrado = false;
+
+    /**
+     * Crea el manejador. Hay que llamar a {@link #iniciar()} para que empiece a escuchar al modelo.
+     *
+     * @param modelo El modelo del juego.
+     * @param idsComputadora Los IDs de los jugadores que controla la computadora.
+     * @param motor El algoritmo que elige las jugadas.
+     * @param presupuestoMs El tiempo máximo para pensar cada jugada, en milisegundos.
+     */
+    public IAGameActionHandler(TableroModelo modelo, Set<Integer> idsComputadora, MotorBusqueda motor, long presupuestoMs) {
+        this.modelo = modelo;
+        this.idsComputadora = Set.copyOf(idsComputadora);
+        this.motor = motor;
+        this.presupuestoNanos = presupuestoMs * 1_000_000L;
+    }
+
+    /**
+     * Se suscribe a los cambios del modelo y, si la computadora tiene el primer
+     * turno, empieza a pensar.
+     */
+    public void iniciar() {
+        modelo.agregarListener(this);
+        modeloCambiado(CambioModelo.COMPLETO);
+    }
+
+    /**
+     * Deja de escuchar al modelo y detiene el hilo de búsqueda y el motor. Si la
+     * computadora estaba pensando, el motor se cierra al terminar esa búsqueda y su
+     * jugada se descarta.
+     */
+    @Override
+    public void cerrar() {
+        if (cerrado) return;
+        cerrado = true;
+        modelo.quitarListener(this);
+        hiloBusqueda.execute(motor::cerrar);
+        hiloBusqueda.shutdown();
+    }
+
+    @Override
+    public void placeLine(int fila, int col, boolean horizontal) {
+        // Los clics solo cuentan cuando le toca a un jugador humano.
+        if (!pensando && !esTurnoComputadora()) {
+            modelo.agregarLinea(fila, col, horizontal);
+        }
+    }
+
+    @Override
+    public void modeloCambiado(CambioModelo cambio) {
+        if (!pensando && !modelo.isJuegoTerminado() && esTurnoComputadora()) {
+            pensar();
+        }
+    }
+
+    private boolean esTurnoComputadora() {
+        return idsComputadora.contains(modelo.getJugadorActual().id());
+    }
+
+    /**
+     * Lanza la búsqueda en segundo plano sobre una copia del tablero.
+     */
+    private void pensar() {
+        pensando = true;
+        TableroBits copia = modelo.copiarTablero();
+        int lineasAntes = copia.getLineasPuestas();
+        hiloBusqueda.execute(() -> {
+            int jugada = -1;
+            try {
+                jugada = motor.elegirJugada(copia, presupuestoNanos);
+            } catch (RuntimeException e) {
+                System.err.println("Error al buscar la jugada de la computadora: " + e.getMessage());
+            }
+            int elegida = jugada;
+            SwingUtilities.invokeLater(() -> aplicarJugada(copia, elegida, lineasAntes));
+        });
+    }
+
+    /**
+     * Aplica en el EDT la jugada encontrada, siempre que el tablero no haya
+     * cambiado mientras la computadora pensaba.
+     */
+    private void aplicarJugada(TableroBits geometria, int jugada, int lineasAntes) {
+        pensando = false;
+        if (cerrado || jugada < 0) return; // La ventana se cerró, o la búsqueda falló y el error ya se reportó.
+        if (modelo.getLineasPuestas() != lineasAntes) {
+            modeloCambiado(CambioModelo.COMPLETO); // El tablero cambió: hay que volver a pensar.
+            return;
+        }
+        // Esto notifica a los oyentes; si la computadora vuelve a tirar, modeloCambiado la pone a pensar otra vez.
+        modelo.agregarLinea(geometria.filaDeLinea(jugada), geometria.colDeLinea(jugada), geometria.esHorizontal(jugada));
+    }
+}
@@ -38,4 +38,51 @@ public class JuegoConfig {
      * cuadrícula.
      */
     public static final int RADIO_PUNTO = 7;
+
+    /**
+     * El lado máximo en píxeles que pide el panel del tablero. Un tablero más grande
+     * se recorre acercando, alejando y arrastrando la vista.
+     */
+    public static final int TAMANIO_MAXIMO_VISTA = 800;
+
+    /**
+     * El tiempo máximo en milisegundos que la computadora puede pensar cada jugada.
+     */
+    public static final int TIEMPO_JUGADA_COMPUTADORA_MS = 1000;
+
+    /**
+     * La memoria en MB reservada para la tabla de transposición de la computadora.
+     */
+    public static final int MEMORIA_TABLA_COMPUTADORA_MB = 64;
+
+    /**
+     * El tablero más grande (en puntos por lado) para el que la computadora usa
+     * búsqueda alfa-beta. En tableros mayores usa búsqueda de Monte Carlo.
+     */
+    public static final int TAMANIO_MAXIMO_ALFA_BETA = 10;
+
+    /**
+     * Cada cuánto, en milisegundos, el {@link RegistroJugadas} de la partida local
+     * guarda en disco las jugadas nuevas.
+     */
+    public static final int INTERVALO_SINCRONIZACION_MS = 200;
+
+    /**
+     * La memoria máxima en MB para las imágenes del tablero ya dibujado que guarda
+     * {@link TableroVista}. En tableros que no caben se vuelven a dibujar las partes
+     * que se usaron hace más tiempo.
+     */
+    public static final int MEMORIA_CAPA_TABLERO_MB = 64;
+
+    /**
+     * La memoria máxima en MB para los avatares ya escalados que guarda
+     * {@link CacheAvatares}.
+     */
+    public static final int MEMORIA_AVATARES_MB = 8;
+
+    /**
+     * Cuántos milisegundos puede tardar un evento en el hilo de Swing antes de que
+     * {@link VigilanteEdt} lo registre como un bloqueo.
+     */
+    public static final int UMBRAL_BLOQUEO_EDT_MS = 100;
 }
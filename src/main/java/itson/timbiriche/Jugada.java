@@ -0,0 +1,46 @@
+package itson.timbiriche;
+
+/**
+ * Codifica una jugada (una línea del tablero) en un solo {@code int}, sin depender
+ * del tamaño del tablero:
+ * <pre>
+ *   bits 16..30: fila    bits 1..15: columna    bit 0: 1 si es horizontal
+ * </pre>
+ * Así las jugadas se pueden guardar, enviar o comparar sin crear objetos. Esta clase
+ * no está diseñada para ser instanciada.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public final class Jugada {
+
+    /** Mayor fila o columna que cabe en la codificación. */
+    public static final int MAX_COORDENADA = (1 << 15) - 1;
+
+    private Jugada() {
+    }
+
+    /**
+     * Codifica una línea.
+     * @param fila Fila de la línea (0..{@value #MAX_COORDENADA}).
+     * @param col Columna de la línea (0..{@value #MAX_COORDENADA}).
+     * @param horizontal Verdadero si es horizontal.
+     * @return La jugada codificada (siempre no negativa).
+     * @throws IndexOutOfBoundsException si la fila o la columna no caben en la codificación.
+     */
+    public static int codificar(int fila, int col, boolean horizontal) {
+        if (fila < 0 || fila > MAX_COORDENADA || col < 0 || col > MAX_COORDENADA) {
+            throw new IndexOutOfBoundsException("Línea fuera del tablero: (" + fila + ", " + col + ")");
+        }
+        return fila << 16 | col << 1 | (horizontal ? 1 : 0);
+    }
+
+    public static int fila(int jugada) { return jugada >>> 16; }
+    public static int col(int jugada) { return (jugada >>> 1) & MAX_COORDENADA; }
+    public static boolean esHorizontal(int jugada) { return (jugada & 1) != 0; }
+
+    /** Texto legible de una jugada, por ejemplo "H(2, 3)". */
+    public static String texto(int jugada) {
+        return (esHorizontal(jugada) ? "H(" : "V(") + fila(jugada) + ", " + col(jugada) + ")";
+    }
+}
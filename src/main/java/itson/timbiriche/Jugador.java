@@ -30,4 +30,21 @@ public record Jugador(int id, String nombre, String avatarPath, Color color) {
         Objects.requireNonNull(avatarPath, "La ruta del avatar no puede ser nula");
         Objects.requireNonNull(color, "El color no puede ser nulo");
     }
-}
\ No newline at end of file
+
+    /**
+     * Crea un jugador a partir de su perfil sin dependencias de AWT.
+     * @param perfil Los datos del jugador.
+     */
+    public Jugador(PerfilJugador perfil) {
+        this(perfil.id(), perfil.nombre(), perfil.avatarPath(), new Color(perfil.rgb()));
+    }
+
+    /**
+     * Devuelve los datos de este jugador sin dependencias de AWT, para el motor del juego
+     * o para enviarlos por red.
+     * @return El perfil del jugador, con el color como RGB empaquetado.
+     */
+    public PerfilJugador perfil() {
+        return new PerfilJugador(id, nombre, avatarPath, color.getRGB());
+    }
+}
@@ -0,0 +1,51 @@
+package itson.timbiriche;
+
+/**
+ * Lo que un servidor de partidas ({@link ServidorJuego} o {@link ServidorVirtual})
+ * está dispuesto a reservar para clientes que todavía no juegan.
+ * <p>
+ * Una partida ocupa memoria desde que alguien la pide, aunque nunca se unan los demás
+ * jugadores, y su tablero crece con el cuadrado del tamaño. Sin estos límites, unas
+ * cuantas conexiones baratas que piden tableros grandes bastan para llenar la memoria.
+ *
+ * @param tamañoMaximo El tablero más grande que se acepta, en puntos por lado; nunca más
+ * que {@link ProtocoloRed#MAX_TAMAÑO}.
+ * @param partidasEnEspera Cuántas partidas pueden estar esperando jugadores a la vez.
+ * @param partidasEnEsperaPorDireccion Cuántas de esas puede haber creado una misma dirección IP.
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public record LimitesServidor(int tamañoMaximo, int partidasEnEspera, int partidasEnEsperaPorDireccion) {
+
+    /** Tableros de hasta 100x100 (unos 40 KB cada uno) y 1000 partidas en espera, 16 por dirección. */
+    public static final LimitesServidor PREDETERMINADOS = new LimitesServidor(100, 1000, 16);
+
+    public LimitesServidor {
+        if (tamañoMaximo < 2 || tamañoMaximo > ProtocoloRed.MAX_TAMAÑO) {
+            throw new IllegalArgumentException("Tamaño máximo fuera de rango: " + tamañoMaximo);
+        }
+        if (partidasEnEspera < 1 || partidasEnEsperaPorDireccion < 1) {
+            throw new IllegalArgumentException("Se debe admitir al menos una partida en espera");
+        }
+    }
+
+    /**
+     * Lee los límites de la línea de comandos de un servidor: {@code --tablero-maximo N},
+     * {@code --en-espera N} y {@code --en-espera-por-direccion N}. Lo que no se indique
+     * se toma de {@link #PREDETERMINADOS}; los demás argumentos se ignoran.
+     *
+     * @param args Los argumentos del programa.
+     * @return Los límites.
+     */
+    public static LimitesServidor deArgumentos(String[] args) {
+        int tamaño = PREDETERMINADOS.tamañoMaximo;
+        int enEspera = PREDETERMINADOS.partidasEnEspera;
+        int porDireccion = PREDETERMINADOS.partidasEnEsperaPorDireccion;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--tablero-maximo")) tamaño = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--en-espera")) enEspera = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--en-espera-por-direccion")) porDireccion = Integer.parseInt(args[++i]);
+        }
+        return new LimitesServidor(tamaño, enEspera, porDireccion);
+    }
+}
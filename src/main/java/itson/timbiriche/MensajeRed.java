@@ -0,0 +1,49 @@
+package itson.timbiriche;
+
+/**
+ * Un mensaje del {@link ProtocoloRed} ya decodificado.
+ * <p>
+ * Es mutable a propósito: cada conexión tiene uno y {@link ProtocoloRed#leer} lo
+ * sobrescribe con cada trama, así que leer no reserva memoria. Solo los campos que
+ * corresponden al {@link #tipo} tienen sentido; los demás conservan lo de la trama
+ * anterior.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public final class MensajeRed {
+
+    /** El tipo de la última trama leída (ver las constantes de {@link ProtocoloRed}). */
+    public byte tipo;
+
+    // --- UNIRSE, ESPECTAR y BIENVENIDA ---
+    public int version;
+    public int idPartida;
+    public int tamaño;
+    public int numJugadores;
+
+    /** El jugador de BIENVENIDA o ABANDONO, o quien hizo la jugada del delta actual. */
+    public int jugadorId;
+    /** La jugada de JUGADA o RECHAZO, o la del delta actual. */
+    public int jugada;
+    /** El motivo de un RECHAZO. */
+    public byte motivo;
+
+    // --- El delta actual de un lote (ver ProtocoloRed.siguienteDelta) o de una historia ---
+    public int secuencia;
+    public int cuadroA;
+    public int cuadroB;
+    public int puntaje;
+    public int siguienteJugadorId;
+    public boolean terminado;
+
+    /** Cuántos deltas del lote (o jugadas de la historia) faltan por leer. */
+    int deltasRestantes;
+    /** Dónde termina en el buffer la trama del lote o de la historia actual. */
+    int finLote;
+
+    /** Copia el delta actual a un {@link DeltaEstado} inmutable (esto sí reserva memoria). */
+    public DeltaEstado aDelta() {
+        return new DeltaEstado(secuencia, jugada, jugadorId, cuadroA, cuadroB, puntaje, siguienteJugadorId, terminado);
+    }
+}
@@ -0,0 +1,38 @@
+package itson.timbiriche;
+
+/**
+ * Interfaz para los algoritmos que eligen la jugada de un jugador controlado por
+ * la computadora.
+ * <p>
+ * Un motor recibe una copia del tablero (puede modificarla libremente) y un
+ * presupuesto de tiempo, y devuelve el id de la línea que quiere poner. Las
+ * implementaciones se ejecutan fuera del Hilo de Despacho de Eventos (EDT), así
+ * que no deben tocar componentes de Swing.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public interface MotorBusqueda {
+
+    /**
+     * Elige una jugada para el jugador que tiene el turno.
+     *
+     * @param tablero Una copia del tablero actual; el motor puede modificarla.
+     * @param presupuestoNanos El tiempo máximo que puede tardar, en nanosegundos.
+     * @return El id de una línea libre del tablero (ver {@link TableroBits}).
+     */
+    int elegirJugada(TableroBits tablero, long presupuestoNanos);
+
+    /**
+     * Devuelve las estadísticas de la última llamada a {@link #elegirJugada}.
+     *
+     * @return Las estadísticas, o {@code null} si todavía no se ha buscado nada.
+     */
+    EstadisticasBusqueda getUltimasEstadisticas();
+
+    /**
+     * Detiene los hilos propios del motor, si tiene. Después ya no se puede usar.
+     */
+    default void cerrar() {
+    }
+}
@@ -0,0 +1,249 @@
+package itson.timbiriche;
+
+import java.util.Arrays;
+
+/**
+ * Las reglas del Timbiriche sin ninguna dependencia de AWT o Swing, para poder usarse
+ * en servidores o herramientas sin interfaz gráfica.
+ * <p>
+ * Los jugadores son solo IDs, las jugadas son {@code int} codificados con
+ * {@link Jugada} y cada jugada aceptada devuelve un {@link DeltaEstado} con lo que
+ * cambió. El estado del tablero vive en un {@link TableroBits}, así que un motor de
+ * 10x10 ocupa menos de un kilobyte.
+ * <p>
+ * No es seguro para hilos ni notifica a nadie: quien lo use (por ejemplo, el
+ * {@link TableroModelo}) decide cómo sincronizarlo y a quién avisar.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public final class MotorTimbiriche {
+
+    /** El mayor ID para el que {@link #indiceDeJugador} usa una tabla en lugar de recorrer la lista. */
+    private static final int MAX_ID_TABLA = 1023;
+
+    private final int tamaño;
+    /** Los IDs de los jugadores en orden de turno; la posición + 1 es su número de dueño en el tablero. */
+    private final int[] idsJugadores;
+    /**
+     * La posición + 1 de cada ID en {@link #idsJugadores}, indexada por el ID, o 0 si ese ID
+     * no juega. Solo existe si todos los IDs están entre 0 y {@value #MAX_ID_TABLA}.
+     */
+    private final byte[] indicePorId;
+    private final TableroBits tablero;
+    private final int[] puntajes;
+    private int jugadorActualIdx = 0;
+    private int secuencia = 0;
+
+    /**
+     * Crea un motor con el tablero vacío.
+     *
+     * @param tamaño Número de puntos por lado (ej. 5 para un tablero de 4x4).
+     * @param idsJugadores Los IDs de los jugadores, en orden de turno. No deben repetirse.
+     * @throws IllegalArgumentException si no hay jugadores, son demasiados o hay IDs repetidos.
+     */
+    public MotorTimbiriche(int tamaño, int... idsJugadores) {
+        if (idsJugadores.length == 0) throw new IllegalArgumentException("Se necesita al menos un jugador");
+        if (idsJugadores.length > TableroBits.MAX_DUEÑOS) {
+            throw new IllegalArgumentException("Demasiados jugadores: " + idsJugadores.length);
+        }
+        for (int i = 0; i < idsJugadores.length; i++) {
+            for (int j = 0; j < i; j++) {
+                if (idsJugadores[i] == idsJugadores[j]) {
+                    throw new IllegalArgumentException("ID de jugador repetido: " + idsJugadores[i]);
+                }
+            }
+        }
+        this.tamaño = tamaño;
+        this.idsJugadores = idsJugadores.clone();
+        this.indicePorId = tablaDeIndices(this.idsJugadores);
+        this.tablero = new TableroBits(tamaño);
+        this.puntajes = new int[idsJugadores.length];
+    }
+
+    /**
+     * Crea un motor a partir de un tablero ya jugado, por ejemplo uno cargado de un
+     * archivo. Los puntajes se cuentan de los dueños de los cuadros y la secuencia sigue
+     * del número de líneas puestas.
+     *
+     * @param tablero El tablero; se copia. Sus números de dueño son la posición del jugador + 1.
+     * @param jugadorActualIdx A quién le toca, como posición en {@code idsJugadores}.
+     * @param idsJugadores Los IDs de los jugadores, en orden de turno.
+     * @throws IllegalArgumentException si el tablero tiene dueños que no son jugadores o el turno no existe.
+     */
+    public MotorTimbiriche(TableroBits tablero, int jugadorActualIdx, int... idsJugadores) {
+        this(tablero.getTamaño(), idsJugadores);
+        if (jugadorActualIdx < 0 || jugadorActualIdx >= idsJugadores.length) {
+            throw new IllegalArgumentException("Turno fuera de rango: " + jugadorActualIdx);
+        }
+        this.tablero.copiarDe(tablero);
+        for (int cuadro = 0; cuadro < this.tablero.getNumCuadros(); cuadro++) {
+            int dueño = this.tablero.getDueñoCuadro(cuadro);
+            if (dueño > idsJugadores.length) throw new IllegalArgumentException("Dueño desconocido en el cuadro " + cuadro + ": " + dueño);
+            if (dueño > 0) puntajes[dueño - 1]++;
+        }
+        this.jugadorActualIdx = jugadorActualIdx;
+        this.secuencia = this.tablero.getLineasPuestas();
+    }
+
+    /**
+     * Copia el estado de otro motor con el mismo tablero y los mismos jugadores, sin
+     * reservar memoria nueva.
+     * @param otro El motor de origen.
+     * @throws IllegalArgumentException si el tamaño o los jugadores no coinciden.
+     */
+    public void copiarDe(MotorTimbiriche otro) {
+        if (otro.tamaño != tamaño || !Arrays.equals(otro.idsJugadores, idsJugadores)) {
+            throw new IllegalArgumentException("Los motores no tienen el mismo tablero y jugadores");
+        }
+        tablero.copiarDe(otro.tablero);
+        System.arraycopy(otro.puntajes, 0, puntajes, 0, puntajes.length);
+        jugadorActualIdx = otro.jugadorActualIdx;
+        secuencia = otro.secuencia;
+    }
+
+    // --- Consultas ---
+    public int getTamaño() { return tamaño; }
+    public int getNumJugadores() { return idsJugadores.length; }
+    public int[] getIdsJugadores() { return idsJugadores.clone(); }
+    public int getJugadorActualIdx() { return jugadorActualIdx; }
+    public int getJugadorActualId() { return idsJugadores[jugadorActualIdx]; }
+    public int getPuntaje(int indiceJugador) { return puntajes[indiceJugador]; }
+    public int[] getPuntajes() { return puntajes.clone(); }
+    public boolean isTerminado() { return tablero.isCompleto(); }
+    /** @return Cuántas jugadas se han aceptado; también es la secuencia del último delta. */
+    public int getSecuencia() { return secuencia; }
+    public int getLineasPuestas() { return tablero.getLineasPuestas(); }
+
+    /**
+     * @return El ID del dueño de la línea horizontal, o 0 si está libre.
+     * @throws IndexOutOfBoundsException si la línea no es del tablero.
+     */
+    public int getLineaHorizontal(int f, int c) {
+        if (!tablero.esLineaValida(f, c, true)) throw new IndexOutOfBoundsException("Línea horizontal fuera del tablero: (" + f + ", " + c + ")");
+        return idDeDueño(tablero.getDueñoLinea(tablero.idHorizontal(f, c)));
+    }
+
+    /**
+     * @return El ID del dueño de la línea vertical, o 0 si está libre.
+     * @throws IndexOutOfBoundsException si la línea no es del tablero.
+     */
+    public int getLineaVertical(int f, int c) {
+        if (!tablero.esLineaValida(f, c, false)) throw new IndexOutOfBoundsException("Línea vertical fuera del tablero: (" + f + ", " + c + ")");
+        return idDeDueño(tablero.getDueñoLinea(tablero.idVertical(f, c)));
+    }
+
+    /**
+     * @return El ID del dueño del cuadro, o 0 si no se ha cerrado.
+     * @throws IndexOutOfBoundsException si el cuadro no es del tablero.
+     */
+    public int getCuadrado(int f, int c) {
+        if (!tablero.esCuadroValido(f, c)) throw new IndexOutOfBoundsException("Cuadro fuera del tablero: (" + f + ", " + c + ")");
+        return idDeDueño(tablero.getDueñoCuadro(tablero.idCuadro(f, c)));
+    }
+
+    /**
+     * Busca la posición de un jugador en el orden de turno.
+     * @param id El ID del jugador.
+     * @return Su posición, o -1 si no juega en esta partida.
+     */
+    public int indiceDeJugador(int id) {
+        if (indicePorId != null) return id >= 0 && id < indicePorId.length ? indicePorId[id] - 1 : -1;
+        for (int i = 0; i < idsJugadores.length; i++) {
+            if (idsJugadores[i] == id) return i;
+        }
+        return -1;
+    }
+
+    /** Arma la tabla de {@link #indicePorId}, del tamaño justo para el mayor ID. */
+    private static byte[] tablaDeIndices(int[] ids) {
+        int mayor = 0;
+        for (int id : ids) {
+            if (id < 0 || id > MAX_ID_TABLA) return null;
+            mayor = Math.max(mayor, id);
+        }
+        byte[] tabla = new byte[mayor + 1];
+        for (int i = 0; i < ids.length; i++) tabla[ids[i]] = (byte) (i + 1);
+        return tabla;
+    }
+
+    /**
+     * Devuelve una copia independiente del estado compacto del tablero, para que otros
+     * hilos (por ejemplo, la búsqueda de la computadora) la analicen sin tocar el motor.
+     */
+    public TableroBits copiarTablero() { return new TableroBits(tablero); }
+
+    /** Traduce un número de dueño del tablero compacto al ID del jugador (0 si está libre). */
+    private int idDeDueño(int dueño) { return dueño == 0 ? 0 : idsJugadores[dueño - 1]; }
+
+    // --- Jugadas ---
+    /**
+     * Indica si una jugada corresponde a una línea del tablero.
+     * @param jugada La jugada codificada con {@link Jugada}.
+     */
+    public boolean esJugadaValida(int jugada) {
+        return jugada >= 0 && tablero.esLineaValida(Jugada.fila(jugada), Jugada.col(jugada), Jugada.esHorizontal(jugada));
+    }
+
+    /**
+     * Aplica una jugada del jugador que tiene el turno. Si cierra algún cuadro, el
+     * mismo jugador vuelve a tirar; si no, el turno pasa al siguiente.
+     *
+     * @param jugada La jugada codificada con {@link Jugada}.
+     * @return Lo que cambió, o {@code null} si la línea ya estaba puesta o la partida terminó.
+     * @throws IndexOutOfBoundsException si la jugada no corresponde a una línea del tablero.
+     */
+    public DeltaEstado aplicar(int jugada) {
+        if (!esJugadaValida(jugada)) {
+            throw new IndexOutOfBoundsException("Línea fuera del tablero: " + Jugada.texto(jugada));
+        }
+        int linea = tablero.idLinea(Jugada.fila(jugada), Jugada.col(jugada), Jugada.esHorizontal(jugada));
+        if (tablero.estaOcupada(linea) || tablero.isCompleto()) return null;
+
+        int idx = jugadorActualIdx;
+        int cerrados = tablero.colocar(linea, idx + 1);
+        puntajes[idx] += cerrados;
+        int cuadroA = -1, cuadroB = -1;
+        if (cerrados > 0) {
+            // Los cuadros recién cerrados son los vecinos de la línea que quedaron con dueño.
+            for (int lado = 0; lado < 2; lado++) {
+                int cuadro = tablero.cuadroVecino(linea, lado);
+                if (cuadro >= 0 && tablero.lados(cuadro) == 4) {
+                    if (cuadroA < 0) cuadroA = cuadro; else cuadroB = cuadro;
+                }
+            }
+        } else {
+            jugadorActualIdx = (jugadorActualIdx + 1) % idsJugadores.length;
+        }
+        return new DeltaEstado(++secuencia, jugada, idsJugadores[idx], cuadroA, cuadroB, puntajes[idx],
+                idsJugadores[jugadorActualIdx], tablero.isCompleto());
+    }
+
+    /**
+     * Atajo de {@link #aplicar(int)} con las coordenadas de la línea.
+     */
+    public DeltaEstado aplicar(int fila, int col, boolean horizontal) {
+        if (!tablero.esLineaValida(fila, col, horizontal)) {
+            throw new IndexOutOfBoundsException("Línea fuera del tablero: (" + fila + ", " + col + ")");
+        }
+        return aplicar(Jugada.codificar(fila, col, horizontal));
+    }
+
+    /**
+     * Resume la partida: puntajes y ganadores.
+     * @return El resultado; {@code idsGanadores} está vacío si la partida no ha terminado.
+     */
+    public ResultadoPartida getResultado() {
+        int[] ganadores = new int[0];
+        if (isTerminado()) {
+            int max = -1, cuantos = 0;
+            for (int p : puntajes) {
+                if (p > max) { max = p; cuantos = 1; } else if (p == max) cuantos++;
+            }
+            ganadores = new int[cuantos];
+            int n = 0;
+            for (int i = 0; i < puntajes.length; i++) if (puntajes[i] == max) ganadores[n++] = idsJugadores[i];
+        }
+        return new ResultadoPartida(idsJugadores.clone(), puntajes.clone(), ganadores, tablero.getLineasPuestas());
+    }
+}
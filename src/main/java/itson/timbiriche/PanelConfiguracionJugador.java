@@ -25,6 +25,8 @@ public class PanelConfiguracionJugador extends JPanel {
     private final JTextField txtNombre;
     /** Etiqueta para mostrar una vista previa del avatar seleccionado. */
     private final JLabel lblAvatarPreview;
+    /** Casilla para indicar que este jugador lo controla la computadora. */
+    private final JCheckBox chkComputadora;
     /** Panel que muestra el color seleccionado como su color de fondo. */
     private final JPanel panelColorPreview;
     /** La ventana principal (JFrame) que posee este panel, necesaria para los diálogos. */
@@ -103,6 +105,12 @@ public class PanelConfiguracionJugador extends JPanel {
         btnSeleccionarColor.addActionListener(e -> seleccionarColor());
         panelColorSelector.add(btnSeleccionarColor, BorderLayout.CENTER);
         add(panelColorSelector, gbc);
+
+        // Computadora
+        gbc.gridx = 1;
+        gbc.gridy = 3;
+        chkComputadora = new JCheckBox("Controlado por la computadora", config.isComputadora());
+        add(chkComputadora, gbc);
     }
 
     /**
@@ -155,13 +163,14 @@ public class PanelConfiguracionJugador extends JPanel {
     /**
      * Recupera el objeto de configuración actualizado desde el panel.
      * <p>
-     * Este método primero actualiza el nombre en el objeto de configuración con
-     * el valor actual del campo de texto antes de devolverlo.
+     * Este método primero actualiza el nombre y la casilla de computadora en el
+     * objeto de configuración con los valores actuales del panel antes de devolverlo.
      *
      * @return El objeto {@link ConfiguracionJugador} con los últimos cambios.
      */
     public ConfiguracionJugador getConfig() {
         config.setNombre(txtNombre.getText().trim());
+        config.setComputadora(chkComputadora.isSelected());
         return config;
     }
 }
\ No newline at end of file
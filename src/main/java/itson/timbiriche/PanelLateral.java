@@ -1,15 +1,21 @@
 package itson.timbiriche;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
+import java.io.File;
+import java.io.IOException;
 
 /**
  * Un componente de panel (JPanel) que actúa como la barra lateral en la ventana principal del juego.
  * <p>
  * Este panel se encarga de mostrar la información de cada jugador, incluyendo su
- * avatar, nombre y puntaje actual. También contiene un botón para salir de la aplicación.
+ * avatar, nombre y puntaje actual. También contiene botones para guardar la partida,
+ * guardar su repetición, cargar una partida o repetición guardada y salir de la aplicación.
+ * La repetición se graba desde que se crea el panel con un {@link GrabadorRepeticion}.
  * El panel se actualiza a través del método {@link #actualizarUI()} para reflejar
- * los cambios en el estado del juego.
+ * los cambios en el estado del juego, o con {@link #actualizarPuntaje(int)} cuando
+ * solo cambió el puntaje de un jugador.
  *
  * @author [Tu Nombre/Equipo]
  * @version 1.0
@@ -19,6 +25,10 @@ public class PanelLateral extends JPanel {
     private final TableroModelo modelo;
     /** Un arreglo de etiquetas (JLabel) para mostrar los puntajes de los jugadores. */
     private final JLabel[] labelsPuntajes;
+    /** Graba las jugadas de la partida para poder guardarlas como repetición. */
+    private final GrabadorRepeticion grabador;
+    /** El botón para cargar una partida o repetición guardada en otra ventana. */
+    private final JButton btnCargar;
 
     /**
      * Construye el panel lateral.
@@ -32,6 +42,7 @@ public class PanelLateral extends JPanel {
     public PanelLateral(TableroModelo modelo) {
         this.modelo = modelo;
         this.labelsPuntajes = new JLabel[modelo.getJugadores().size()];
+        this.grabador = new GrabadorRepeticion(modelo);
         setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
         setPreferredSize(new Dimension(250, 600));
         setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -42,7 +53,22 @@ public class PanelLateral extends JPanel {
             add(Box.createRigidArea(new Dimension(0, 15))); // Espacio entre jugadores
         }
 
-        add(Box.createVerticalGlue()); // Empuja el botón de salir hacia abajo
+        add(Box.createVerticalGlue()); // Empuja los botones hacia abajo
+        JButton btnGuardar = new JButton("Guardar");
+        btnGuardar.setAlignmentX(Component.CENTER_ALIGNMENT);
+        btnGuardar.addActionListener(e -> guardarPartida());
+        add(btnGuardar);
+        add(Box.createRigidArea(new Dimension(0, 5)));
+        JButton btnRepeticion = new JButton("Guardar repetición");
+        btnRepeticion.setAlignmentX(Component.CENTER_ALIGNMENT);
+        btnRepeticion.addActionListener(e -> guardarRepeticion());
+        add(btnRepeticion);
+        add(Box.createRigidArea(new Dimension(0, 5)));
+        btnCargar = new JButton("Cargar");
+        btnCargar.setAlignmentX(Component.CENTER_ALIGNMENT);
+        btnCargar.addActionListener(e -> cargarPartida());
+        add(btnCargar);
+        add(Box.createRigidArea(new Dimension(0, 5)));
         JButton btnSalir = new JButton("Salir");
         btnSalir.setAlignmentX(Component.CENTER_ALIGNMENT);
         btnSalir.addActionListener(e -> System.exit(0));
@@ -90,4 +116,91 @@ public class PanelLateral extends JPanel {
         }
         repaint();
     }
-}
\ No newline at end of file
+
+    /**
+     * Actualiza solo la etiqueta del puntaje de un jugador.
+     * @param idx La posición del jugador en {@link TableroModelo#getJugadores()}.
+     */
+    public void actualizarPuntaje(int idx) {
+        labelsPuntajes[idx].setText(String.valueOf(modelo.getPuntaje(idx)));
+    }
+
+    /**
+     * Desactiva el botón de cargar, para partidas que no se pueden dejar a medias
+     * abriendo otra.
+     * @param motivo Por qué no se puede cargar; se muestra al pasar el ratón sobre el botón.
+     */
+    public void deshabilitarCargar(String motivo) {
+        btnCargar.setEnabled(false);
+        btnCargar.setToolTipText(motivo);
+    }
+
+    /**
+     * Pide un archivo y guarda ahí la partida con {@link ArchivoPartida}, para seguirla después.
+     */
+    private void guardarPartida() {
+        File archivo = pedirArchivoNuevo("Partidas de Timbiriche", ArchivoPartida.EXTENSION);
+        if (archivo == null) return;
+        try {
+            ArchivoPartida.guardar(modelo, archivo.toPath());
+        } catch (IOException | RuntimeException e) {
+            JOptionPane.showMessageDialog(this, "No se pudo guardar la partida: " + e.getMessage(),
+                    "Guardar partida", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Pide un archivo y guarda ahí la repetición de lo jugado desde que se abrió la ventana.
+     */
+    private void guardarRepeticion() {
+        File archivo = pedirArchivoNuevo("Repeticiones de Timbiriche", ArchivoRepeticion.EXTENSION);
+        if (archivo == null) return;
+        try {
+            grabador.guardar(archivo.toPath());
+        } catch (IOException | RuntimeException e) {
+            JOptionPane.showMessageDialog(this, "No se pudo guardar la repetición: " + e.getMessage(),
+                    "Guardar repetición", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Pide un archivo guardado y lo abre en una ventana nueva en lugar de esta: una
+     * partida para seguirla o una repetición para verla. Al desechar esta ventana se
+     * cierra el manejador de su partida (ver {@link GameActionHandler#cerrar()}).
+     */
+    private void cargarPartida() {
+        JFileChooser selector = new JFileChooser();
+        selector.setFileFilter(new FileNameExtensionFilter("Partidas y repeticiones de Timbiriche",
+                ArchivoPartida.EXTENSION, ArchivoRepeticion.EXTENSION));
+        if (selector.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File archivo = selector.getSelectedFile();
+        try {
+            if (archivo.getName().endsWith("." + ArchivoRepeticion.EXTENSION)) {
+                Timbiriche.abrirRepeticion(ArchivoRepeticion.cargar(archivo.toPath()));
+            } else {
+                Timbiriche.abrirPartida(ArchivoPartida.cargar(archivo.toPath()));
+            }
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "No se pudo cargar el archivo: " + e.getMessage(),
+                    "Cargar", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        Window ventana = SwingUtilities.getWindowAncestor(this);
+        if (ventana != null) ventana.dispose();
+    }
+
+    /**
+     * Pide dónde guardar un archivo nuevo y le agrega la extensión si no la tiene.
+     * @return El archivo, o {@code null} si se canceló.
+     */
+    private File pedirArchivoNuevo(String descripcion, String extension) {
+        JFileChooser selector = new JFileChooser();
+        selector.setFileFilter(new FileNameExtensionFilter(descripcion + " (*." + extension + ")", extension));
+        if (selector.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return null;
+        File archivo = selector.getSelectedFile();
+        if (!archivo.getName().endsWith("." + extension)) {
+            archivo = new File(archivo.getParentFile(), archivo.getName() + "." + extension);
+        }
+        return archivo;
+    }
+}
@@ -69,7 +69,7 @@ public class PanelPrincipal extends JPanel implements TableroModelo.ModeloListen
         add(panelLateral, BorderLayout.EAST);
 
         // Carga el estado inicial de la UI
-        modeloCambiado();
+        modeloCambiado(CambioModelo.COMPLETO);
     }
 
     /**
@@ -84,15 +84,48 @@ public class PanelPrincipal extends JPanel implements TableroModelo.ModeloListen
         return tableroVista;
     }
 
+    /**
+     * Obtiene el panel lateral, con los puntajes y los botones de la partida.
+     *
+     * @return El componente {@link PanelLateral}.
+     */
+    public PanelLateral getPanelLateral() {
+        return panelLateral;
+    }
+
     /**
      * {@inheritDoc}
      * <p>
      * Este método es llamado automáticamente por el modelo cada vez que hay un
-     * cambio en el estado del juego. Se encarga de actualizar toda la interfaz
-     * gráfica para que refleje el nuevo estado.
+     * cambio en el estado del juego. Actualiza solo lo que cambió: la etiqueta de
+     * turno si cambió el turno y los puntajes que cambiaron. El tablero escucha al
+     * modelo por su cuenta y repinta solo el área de la jugada.
      */
     @Override
-    public void modeloCambiado() {
+    public void modeloCambiado(CambioModelo cambio) {
+        if (cambio.cambioTurno()) actualizarTurno();
+        if (cambio.esCompleto()) {
+            panelLateral.actualizarUI(); // Actualiza todos los puntajes
+        } else if (cambio.puntosGanados() > 0) {
+            panelLateral.actualizarPuntaje(cambio.jugadorIdx());
+        }
+    }
+
+    /**
+     * Muestra un mensaje en la etiqueta de turno, por ejemplo mientras una partida en red
+     * espera a sus jugadores. El siguiente cambio de turno lo reemplaza.
+     *
+     * @param mensaje El mensaje.
+     */
+    public void mostrarMensaje(String mensaje) {
+        lblTurno.setText(mensaje);
+        lblTurno.setForeground(Color.BLACK);
+    }
+
+    /**
+     * Muestra en la etiqueta de turno a quién le toca, o el resultado si el juego terminó.
+     */
+    public void actualizarTurno() {
         if (modelo.isJuegoTerminado()) {
             java.util.List<Jugador> ganadores = modelo.getGanadores();
             String nombres = ganadores.stream().map(Jugador::nombre).collect(Collectors.joining(", "));
@@ -104,7 +137,5 @@ public class PanelPrincipal extends JPanel implements TableroModelo.ModeloListen
             lblTurno.setText("Turno: " + actual.nombre());
             lblTurno.setForeground(actual.color());
         }
-        panelLateral.actualizarUI(); // Actualiza los puntajes
-        tableroVista.repaint();      // Redibuja el tablero
     }
 }
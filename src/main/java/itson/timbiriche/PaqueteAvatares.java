@@ -0,0 +1,206 @@
+package itson.timbiriche;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Las miniaturas de los avatares, ya escaladas a los tamaños que usa la interfaz, en un
+ * solo recurso que genera {@link GeneradorAvatares} al compilar. Con él no hace falta
+ * recorrer la carpeta de avatares para listarlos ni decodificar las imágenes originales:
+ * cada miniatura se guarda como píxeles ARGB y se copia tal cual.
+ * <p>
+ * El formato es, en orden:
+ * <pre>
+ *   [magico: int] [version: byte] [numAvatares: int]
+ *   [por avatar: [ruta: short + UTF-8] [numMiniaturas: byte]
+ *                [por miniatura: [ancho: short] [alto: short] [posición: int]]]
+ *   [píxeles: por miniatura, ancho × alto ints ARGB, fila por fila]
+ *   [crc32 de todo lo anterior: int]
+ * </pre>
+ * La posición de cada miniatura cuenta desde el principio del archivo. Las rutas son las
+ * mismas que devuelve {@link Recursos#getAvataresDisponibles()} (ej. "/avatars/a.png").
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public final class PaqueteAvatares {
+
+    /** "TBAV": identifica un paquete de avatares. */
+    public static final int MAGICO = 0x54424156;
+    public static final int VERSION = 1;
+    /** La carpeta del classpath de la que son las rutas de los avatares. */
+    public static final String CARPETA = "/avatars/";
+    /** Dónde queda el paquete en el classpath. */
+    public static final String RECURSO = CARPETA + "avatares.paq";
+
+    private final List<String> rutas;
+    private final Map<String, Integer> indices = new HashMap<>();
+    /** Por avatar, el ancho, alto y posición de cada miniatura. */
+    private final int[][] anchos;
+    private final int[][] altos;
+    private final int[][] posiciones;
+    private final ByteBuffer datos;
+
+    private PaqueteAvatares(List<String> rutas, int[][] anchos, int[][] altos, int[][] posiciones, ByteBuffer datos) {
+        this.rutas = Collections.unmodifiableList(rutas);
+        this.anchos = anchos;
+        this.altos = altos;
+        this.posiciones = posiciones;
+        this.datos = datos;
+        for (int i = 0; i < rutas.size(); i++) indices.put(rutas.get(i), i);
+    }
+
+    /** Se carga la primera vez que se pide. */
+    private static final class Instalado {
+        static final PaqueteAvatares PAQUETE = cargarInstalado();
+    }
+
+    /**
+     * @return El paquete que viene con el juego, o {@code null} si no se generó (por
+     * ejemplo, si solo se compiló sin llegar a la fase {@code process-classes}).
+     */
+    public static PaqueteAvatares instalado() {
+        return Instalado.PAQUETE;
+    }
+
+    private static PaqueteAvatares cargarInstalado() {
+        try (InputStream entrada = PaqueteAvatares.class.getResourceAsStream(RECURSO)) {
+            return entrada == null ? null : decodificar(entrada.readAllBytes());
+        } catch (IOException e) {
+            System.err.println("Error al cargar el paquete de avatares: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** @return Las rutas de los avatares del paquete, ordenadas por nombre. */
+    public List<String> getRutas() {
+        return rutas;
+    }
+
+    /** @return Verdadero si el paquete tiene miniaturas de ese avatar. */
+    public boolean contiene(String ruta) {
+        return indices.containsKey(ruta);
+    }
+
+    /**
+     * Devuelve la miniatura guardada que mejor sirve para mostrar un avatar a cierto
+     * tamaño: la de ese tamaño exacto si existe, si no la más chica que sea más grande, y
+     * si no hay ninguna más grande, la más grande de todas.
+     *
+     * @param ruta La ruta del avatar.
+     * @param ancho El ancho al que se va a mostrar.
+     * @param alto La altura a la que se va a mostrar.
+     * @return Una imagen nueva con los píxeles de la miniatura, o {@code null} si el
+     * avatar no está en el paquete.
+     */
+    BufferedImage miniatura(String ruta, int ancho, int alto) {
+        Integer idx = indices.get(ruta);
+        if (idx == null) return null;
+        int[] w = anchos[idx];
+        int[] h = altos[idx];
+        int elegida = 0;
+        for (int m = 1; m < w.length; m++) {
+            boolean cubre = w[m] >= ancho && h[m] >= alto;
+            boolean elegidaCubre = w[elegida] >= ancho && h[elegida] >= alto;
+            long area = (long) w[m] * h[m];
+            long areaElegida = (long) w[elegida] * h[elegida];
+            if (cubre != elegidaCubre ? cubre : (cubre ? area < areaElegida : area > areaElegida)) elegida = m;
+        }
+        BufferedImage imagen = new BufferedImage(w[elegida], h[elegida], BufferedImage.TYPE_INT_ARGB);
+        int[] pixeles = new int[w[elegida] * h[elegida]];
+        datos.slice(posiciones[idx][elegida], 4 * pixeles.length).asIntBuffer().get(pixeles);
+        imagen.getRaster().setDataElements(0, 0, w[elegida], h[elegida], pixeles);
+        return imagen;
+    }
+
+    /**
+     * Codifica un paquete.
+     *
+     * @param rutas Las rutas de los avatares.
+     * @param miniaturas Por cada avatar, sus miniaturas.
+     * @return Los bytes del paquete, con su CRC.
+     */
+    static byte[] codificar(List<String> rutas, List<List<BufferedImage>> miniaturas) {
+        int encabezado = 9;
+        int pixeles = 0;
+        List<byte[]> textos = new ArrayList<>();
+        for (int i = 0; i < rutas.size(); i++) {
+            byte[] texto = rutas.get(i).getBytes(StandardCharsets.UTF_8);
+            textos.add(texto);
+            encabezado += 3 + texto.length + 8 * miniaturas.get(i).size();
+            for (BufferedImage m : miniaturas.get(i)) pixeles += m.getWidth() * m.getHeight();
+        }
+        ByteBuffer b = ByteBuffer.allocate(encabezado + 4 * pixeles + 4);
+        b.putInt(MAGICO).put((byte) VERSION).putInt(rutas.size());
+        int posicion = encabezado;
+        for (int i = 0; i < rutas.size(); i++) {
+            List<BufferedImage> lista = miniaturas.get(i);
+            if (lista.isEmpty() || lista.size() > 255) throw new IllegalArgumentException("Número de miniaturas inválido: " + lista.size());
+            ArchivoPartida.escribirTexto(b, textos.get(i));
+            b.put((byte) lista.size());
+            for (BufferedImage m : lista) {
+                b.putShort((short) m.getWidth()).putShort((short) m.getHeight()).putInt(posicion);
+                posicion += 4 * m.getWidth() * m.getHeight();
+            }
+        }
+        for (List<BufferedImage> lista : miniaturas) {
+            for (BufferedImage m : lista) {
+                for (int pixel : m.getRGB(0, 0, m.getWidth(), m.getHeight(), null, 0, m.getWidth())) b.putInt(pixel);
+            }
+        }
+        return ArchivoPartida.conCrc(b);
+    }
+
+    /**
+     * Lee un paquete codificado con {@link #codificar}.
+     *
+     * @param datos Los bytes del paquete.
+     * @return El paquete, que sigue usando {@code datos} para los píxeles.
+     * @throws IOException si los datos están dañados o no son de este formato.
+     */
+    public static PaqueteAvatares decodificar(byte[] datos) throws IOException {
+        ByteBuffer b = ArchivoPartida.verificarCrc(datos);
+        try {
+            if (b.getInt() != MAGICO) throw new IOException("No es un paquete de avatares");
+            int version = b.get();
+            if (version != VERSION) throw new IOException("Versión de paquete no soportada: " + version);
+            int n = b.getInt();
+            if (n < 0 || n > b.remaining() / 3) throw new IOException("Número de avatares inválido: " + n);
+            List<String> rutas = new ArrayList<>(n);
+            int[][] anchos = new int[n][];
+            int[][] altos = new int[n][];
+            int[][] posiciones = new int[n][];
+            for (int i = 0; i < n; i++) {
+                rutas.add(ArchivoPartida.leerTexto(b));
+                int m = b.get() & 0xFF;
+                if (m == 0) throw new IOException("El avatar " + rutas.get(i) + " no tiene miniaturas");
+                anchos[i] = new int[m];
+                altos[i] = new int[m];
+                posiciones[i] = new int[m];
+                for (int j = 0; j < m; j++) {
+                    int w = b.getShort() & 0xFFFF;
+                    int h = b.getShort() & 0xFFFF;
+                    int posicion = b.getInt();
+                    if (w == 0 || h == 0 || posicion < 0 || (long) posicion + 4L * w * h > b.limit()) {
+                        throw new IOException("Miniatura inválida de " + rutas.get(i) + ": " + w + "x" + h + " en " + posicion);
+                    }
+                    anchos[i][j] = w;
+                    altos[i][j] = h;
+                    posiciones[i][j] = posicion;
+                }
+            }
+            return new PaqueteAvatares(rutas, anchos, altos, posiciones, b.position(0));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("El paquete está incompleto", e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package itson.timbiriche;
+
+import java.net.InetAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cuenta las partidas de un servidor que esperan a que se unan sus jugadores, en total
+ * y por la dirección de quien las creó, para no pasar de los {@link LimitesServidor}.
+ * <p>
+ * Cada partida aparta su lugar al crearse ({@link #reservar}) y lo suelta una sola vez,
+ * cuando empieza o cuando se deshace antes de empezar ({@link #liberar}). Se puede usar
+ * desde varios hilos; cada partida, en cambio, debe tocarla solo su servidor.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+final class PartidasEnEspera {
+
+    private final LimitesServidor limites;
+    private final AtomicInteger total = new AtomicInteger();
+    private final ConcurrentHashMap<InetAddress, Integer> porDireccion = new ConcurrentHashMap<>();
+
+    PartidasEnEspera(LimitesServidor limites) {
+        this.limites = limites;
+    }
+
+    /** Cuántas partidas esperan jugadores ahora. */
+    int getTotal() { return total.get(); }
+
+    /**
+     * Aparta un lugar para una partida nueva que pide {@code direccion}. Se llama antes de
+     * crear la partida, y al crearla se anota la dirección en {@link SesionPartida#enEsperaDe}.
+     * @return Falso si ya hay demasiadas partidas en espera, en total o de esa dirección.
+     */
+    boolean reservar(InetAddress direccion) {
+        if (total.incrementAndGet() > limites.partidasEnEspera()) {
+            total.decrementAndGet();
+            return false;
+        }
+        boolean[] admitida = new boolean[1];
+        porDireccion.compute(direccion, (d, n) -> {
+            int actuales = n == null ? 0 : n;
+            if (actuales >= limites.partidasEnEsperaPorDireccion()) return n;
+            admitida[0] = true;
+            return actuales + 1;
+        });
+        if (!admitida[0]) total.decrementAndGet();
+        return admitida[0];
+    }
+
+    /** Suelta el lugar de la partida, si todavía lo tiene. */
+    void liberar(SesionPartida p) {
+        InetAddress direccion = p.enEsperaDe;
+        if (direccion == null) return;
+        p.enEsperaDe = null;
+        total.decrementAndGet();
+        porDireccion.computeIfPresent(direccion, (d, n) -> n == 1 ? null : n - 1);
+    }
+}
@@ -0,0 +1,28 @@
+package itson.timbiriche;
+
+import java.util.Objects;
+
+/**
+ * Los datos de un jugador sin dependencias de AWT, para usarse fuera de la interfaz
+ * gráfica (por ejemplo, en un servidor). El color se guarda como un {@code int} RGB
+ * empaquetado ({@code 0xRRGGBB}), igual que {@link java.awt.Color#getRGB()} sin el canal alfa.
+ *
+ * @param id El identificador numérico único para el jugador.
+ * @param nombre El nombre del jugador. No puede ser nulo.
+ * @param avatarPath La ruta del recurso del avatar del jugador. No puede ser nula.
+ * @param rgb El color del jugador como {@code 0xRRGGBB}.
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public record PerfilJugador(int id, String nombre, String avatarPath, int rgb) {
+
+    /**
+     * Constructor compacto que valida los datos y descarta el canal alfa del color.
+     * @throws NullPointerException si el nombre o la ruta del avatar son nulos.
+     */
+    public PerfilJugador {
+        Objects.requireNonNull(nombre, "El nombre no puede ser nulo");
+        Objects.requireNonNull(avatarPath, "La ruta del avatar no puede ser nula");
+        rgb &= 0xFFFFFF;
+    }
+}
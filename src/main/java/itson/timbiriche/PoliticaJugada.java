@@ -0,0 +1,101 @@
+package itson.timbiriche;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Una regla para elegir la siguiente línea en una partida simulada.
+ * <p>
+ * Las políticas no guardan estado entre jugadas y reciben el generador de números
+ * aleatorios del hilo que las llama, así que una misma instancia se puede usar desde
+ * varios hilos a la vez. Para probar una estrategia nueva en el
+ * {@link SimuladorPartidas} basta con implementar esta interfaz.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface PoliticaJugada {
+
+    /**
+     * Elige una línea libre.
+     *
+     * @param tablero El tablero actual. No debe modificarse.
+     * @param random El generador de números aleatorios del hilo que llama.
+     * @return El id de una línea libre.
+     */
+    int elegir(TableroBits tablero, SplittableRandom random);
+
+    /** Juega cualquier línea libre al azar. */
+    PoliticaJugada ALEATORIA = (tablero, random) -> lineaAlAzar(tablero, random);
+
+    /**
+     * Cierra un cuadro siempre que puede y, si no, evita dejar un tercer lado al rival.
+     * Solo revisa una muestra de líneas al azar, por lo que es muy rápida.
+     */
+    PoliticaJugada CODICIOSA = (tablero, random) -> {
+        int segura = -1;
+        int cualquiera = -1;
+        for (int i = 0; i < 8; i++) {
+            int l = lineaAlAzar(tablero, random);
+            int lados = maxLadosVecinos(tablero, l);
+            if (lados == 3) return l;
+            if (segura < 0 && lados < 2) segura = l;
+            cualquiera = l;
+        }
+        return segura >= 0 ? segura : cualquiera;
+    };
+
+    /**
+     * Busca la jugada de forma exhaustiva: cierra un cuadro si hay alguno y, si no,
+     * juega una línea segura si queda alguna. Más lenta que {@link #CODICIOSA}
+     * pero nunca regala un cuadro que podía evitar.
+     */
+    PoliticaJugada CUIDADOSA = (tablero, random) -> {
+        int numLineas = tablero.getNumLineas();
+        int inicio = random.nextInt(numLineas);
+        int segura = -1;
+        int cualquiera = -1;
+        for (int i = 0; i < numLineas; i++) {
+            int l = inicio + i < numLineas ? inicio + i : inicio + i - numLineas;
+            if (tablero.estaOcupada(l)) continue;
+            int lados = maxLadosVecinos(tablero, l);
+            if (lados == 3) return l;
+            if (segura < 0 && lados < 2) segura = l;
+            if (cualquiera < 0) cualquiera = l;
+        }
+        return segura >= 0 ? segura : cualquiera;
+    };
+
+    /**
+     * Busca una política por su nombre, sin distinguir mayúsculas.
+     *
+     * @param nombre "aleatoria", "codiciosa" o "cuidadosa".
+     * @return La política correspondiente.
+     * @throws IllegalArgumentException si el nombre no corresponde a ninguna política.
+     */
+    static PoliticaJugada porNombre(String nombre) {
+        return switch (nombre.toLowerCase(Locale.ROOT)) {
+            case "aleatoria" -> ALEATORIA;
+            case "codiciosa" -> CODICIOSA;
+            case "cuidadosa" -> CUIDADOSA;
+            default -> throw new IllegalArgumentException("Política desconocida: " + nombre);
+        };
+    }
+
+    /**
+     * Elige una línea libre al azar sin recorrer el tablero: toma una posición al azar
+     * y avanza hasta la siguiente línea libre.
+     */
+    private static int lineaAlAzar(TableroBits tablero, SplittableRandom random) {
+        int l = tablero.siguienteLibre(random.nextInt(tablero.getNumLineas()));
+        return l >= 0 ? l : tablero.siguienteLibre(0);
+    }
+
+    /** El mayor número de lados que ya tienen los cuadros que toca una línea. */
+    private static int maxLadosVecinos(TableroBits tablero, int linea) {
+        int a = tablero.cuadroVecino(linea, 0);
+        int b = tablero.cuadroVecino(linea, 1);
+        return Math.max(a >= 0 ? tablero.lados(a) : 0, b >= 0 ? tablero.lados(b) : 0);
+    }
+}
@@ -0,0 +1,70 @@
+package itson.timbiriche;
+
+import java.awt.Font;
+import java.awt.GridBagLayout;
+import java.awt.font.FontRenderContext;
+import java.io.IOException;
+import java.util.List;
+import javax.swing.JCheckBox;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.JToggleButton;
+
+/**
+ * Adelanta en un hilo aparte lo que el arranque va a necesitar, mientras el EDT se
+ * inicializa y construye la ventana de configuración: la lista de avatares y las
+ * vistas previas de los primeros, la fuente de los paneles (cargar el sistema de
+ * fuentes es lo más lento del arranque) y las clases de los componentes.
+ * <p>
+ * No crea componentes, que solo se crean en el EDT. Si el EDT llega antes a algo, lo
+ * hace él mismo y la precarga solo se vuelve trabajo de sobra; ningún error se reporta
+ * aquí, porque el EDT lo va a encontrar y reportar después.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+final class PrecargaArranque {
+
+    /** La fuente que usan {@link PanelPrincipal} y {@link PanelLateral}. */
+    private static final String FUENTE = "Arial";
+    /** El lado de las vistas previas de avatar de {@link PanelConfiguracionJugador}. */
+    private static final int LADO_VISTA_PREVIA = 50;
+
+    private PrecargaArranque() {}
+
+    /**
+     * Empieza la precarga en un hilo de baja prioridad.
+     *
+     * @param numAvatares Cuántos avatares se van a mostrar primero (uno por jugador).
+     */
+    static void iniciar(int numAvatares) {
+        Thread hilo = new Thread(() -> precargar(numAvatares), "timbiriche-precarga");
+        hilo.setDaemon(true);
+        hilo.setPriority(Thread.NORM_PRIORITY - 1);
+        hilo.start();
+    }
+
+    private static void precargar(int numAvatares) {
+        List<String> avatares = Recursos.getAvataresDisponibles();
+        for (int i = 0; i < Math.min(numAvatares, avatares.size()); i++) {
+            try {
+                CacheAvatares.compartida().obtener(avatares.get(i), LADO_VISTA_PREVIA, LADO_VISTA_PREVIA);
+            } catch (IOException e) {
+                // El EDT lo va a volver a intentar y a reportar.
+            }
+        }
+        new Font(FUENTE, Font.BOLD, 16).getStringBounds("Jugador 0123456789", new FontRenderContext(null, true, true));
+        // Solo cargar e inicializar las clases: los componentes se crean en el EDT.
+        Class<?>[] clases = {JTextField.class, JCheckBox.class, JToggleButton.class, JScrollPane.class,
+                GridBagLayout.class, PanelPrincipal.class, PanelLateral.class, TableroVista.class,
+                CapaTablero.class, TableroControlador.class};
+        for (Class<?> clase : clases) {
+            try {
+                Class.forName(clase.getName(), true, clase.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                // No puede pasar: la clase ya está cargada.
+            }
+        }
+        TiemposArranque.marcar("precarga");
+    }
+}
@@ -0,0 +1,396 @@
+package itson.timbiriche;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * El protocolo binario entre el {@link ServidorJuego} (o el {@link ServidorVirtual})
+ * y los clientes.
+ * <p>
+ * Cada mensaje es una trama con un prefijo de longitud:
+ * <pre>
+ *   [longitud: short] [tipo: byte] [datos...]
+ * </pre>
+ * donde {@code longitud} cuenta el tipo y los datos. Las tramas se delimitan solas, así
+ * que una sola escritura TCP puede llevar muchas seguidas. Dentro de los datos, los
+ * enteros van como "varints" (7 bits por byte, el bit alto indica que sigue otro
+ * byte), de modo que los números pequeños, que son casi todos, ocupan un byte.
+ * <p>
+ * Una jugada se escribe como dos varints, {@code fila} y {@code col * 2 + horizontal},
+ * es decir, dos bytes en cualquier tablero de menos de 64 columnas. Las jugadas
+ * aceptadas viajan en lotes ({@link #DELTAS}): el número de deltas, la secuencia del
+ * primero y luego cada delta sin su secuencia, porque las secuencias son consecutivas.
+ * Cada delta lleva la jugada, quién la hizo, un byte de banderas (cuántos cuadros cerró
+ * y si terminó la partida), los cuadros cerrados, el nuevo puntaje y quién sigue.
+ * <p>
+ * Un espectador pide una partida con {@link #ESPECTAR} y recibe una
+ * {@link #BIENVENIDA} con el jugador 0, luego la historia de la partida
+ * ({@link #HISTORIA}: las jugadas aceptadas hasta ese momento, sin los demás campos
+ * del delta) y después los mismos lotes de deltas que los jugadores. Si un espectador
+ * se atrasa demasiado, el servidor deja de mandarle deltas y le manda como historia
+ * solo las jugadas que le faltan. Todo lleva su secuencia, así que el cliente puede
+ * ignorar lo que ya tenía.
+ * <p>
+ * La versión del protocolo viaja en {@link #UNIRSE} y {@link #ESPECTAR}; el servidor
+ * rechaza a los clientes de otra versión con {@link #VERSION_INCOMPATIBLE}.
+ * <p>
+ * Ni la escritura ni la lectura reservan memoria: se escribe directo en un
+ * {@link ByteBuffer} y se lee sobre un {@link MensajeRed} reutilizable. Esta clase no
+ * está diseñada para ser instanciada.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public final class ProtocoloRed {
+
+    /** La versión del protocolo que habla este código. */
+    public static final int VERSION = 1;
+
+    // --- Cliente a servidor ---
+    /** Unirse a una partida (o crearla): {@code version, idPartida, tamaño, numJugadores}. */
+    public static final byte UNIRSE = 1;
+    /** Poner una línea: la jugada. */
+    public static final byte JUGADA = 2;
+    /** Ver una partida sin jugar: {@code version, idPartida}. */
+    public static final byte ESPECTAR = 3;
+
+    // --- Servidor a cliente ---
+    /** Respuesta a {@link #UNIRSE}: {@code version, idPartida, jugadorId, tamaño, numJugadores}. */
+    public static final byte BIENVENIDA = 10;
+    /** Ya se unieron todos los jugadores y la partida empieza. Sin datos. */
+    public static final byte INICIO = 11;
+    /** Un lote de jugadas aceptadas: {@code cantidad, primeraSecuencia, delta...}. */
+    public static final byte DELTAS = 12;
+    /** Una petición rechazada: {@code jugada, motivo}. */
+    public static final byte RECHAZO = 13;
+    /** Un jugador se desconectó y la partida terminó: {@code jugadorId}. */
+    public static final byte ABANDONO = 14;
+    /** Parte de la historia de una partida: {@code desde, cantidad, jugada...}. */
+    public static final byte HISTORIA = 15;
+
+    // --- Motivos de rechazo ---
+    public static final byte NO_ES_TU_TURNO = 1;
+    public static final byte LINEA_OCUPADA = 2;
+    public static final byte FUERA_DEL_TABLERO = 3;
+    public static final byte PARTIDA_NO_INICIADA = 4;
+    public static final byte PARTIDA_LLENA = 5;
+    public static final byte PARTIDA_TERMINADA = 6;
+    public static final byte MENSAJE_INVALIDO = 7;
+    public static final byte VERSION_INCOMPATIBLE = 8;
+    public static final byte SERVIDOR_OCUPADO = 9;
+
+    /** El tamaño máximo de una trama, incluido el prefijo de longitud. */
+    public static final int MAX_TRAMA = 1024;
+    /** Cuántos deltas caben siempre en un lote sin pasar de {@link #MAX_TRAMA}. */
+    public static final int MAX_DELTAS_POR_LOTE = 48;
+    /** Cuántas jugadas caben siempre en una trama {@link #HISTORIA}. */
+    public static final int MAX_JUGADAS_POR_HISTORIA = 160;
+    /** El tablero más grande que cabe en el protocolo; cada servidor acepta hasta {@link LimitesServidor#tamañoMaximo()}. */
+    public static final int MAX_TAMAÑO = 1000;
+
+    /** Bits de la bandera de un delta: cuántos cuadros cerró (0..2) y si terminó la partida. */
+    private static final int BANDERA_CUADROS = 0b011;
+    private static final int BANDERA_TERMINADO = 0b100;
+
+    private ProtocoloRed() {
+    }
+
+    // --- Escritura ---
+    public static void escribirUnirse(ByteBuffer b, int idPartida, int tamaño, int numJugadores) {
+        int inicio = abrir(b, UNIRSE);
+        escribirVarint(b, VERSION);
+        escribirVarint(b, idPartida);
+        escribirVarint(b, tamaño);
+        escribirVarint(b, numJugadores);
+        cerrar(b, inicio);
+    }
+
+    public static void escribirJugada(ByteBuffer b, int jugada) {
+        int inicio = abrir(b, JUGADA);
+        escribirJugadaCampos(b, jugada);
+        cerrar(b, inicio);
+    }
+
+    public static void escribirEspectar(ByteBuffer b, int idPartida) {
+        int inicio = abrir(b, ESPECTAR);
+        escribirVarint(b, VERSION);
+        escribirVarint(b, idPartida);
+        cerrar(b, inicio);
+    }
+
+    public static void escribirBienvenida(ByteBuffer b, int idPartida, int jugadorId, int tamaño, int numJugadores) {
+        int inicio = abrir(b, BIENVENIDA);
+        escribirVarint(b, VERSION);
+        escribirVarint(b, idPartida);
+        escribirVarint(b, jugadorId);
+        escribirVarint(b, tamaño);
+        escribirVarint(b, numJugadores);
+        cerrar(b, inicio);
+    }
+
+    public static void escribirInicio(ByteBuffer b) {
+        cerrar(b, abrir(b, INICIO));
+    }
+
+    /** Escribe un lote con un solo delta. */
+    public static void escribirDelta(ByteBuffer b, DeltaEstado d) {
+        int inicio = abrir(b, DELTAS);
+        escribirVarint(b, 1);
+        escribirVarint(b, d.secuencia());
+        escribirDeltaCampos(b, d);
+        cerrar(b, inicio);
+    }
+
+    /**
+     * Escribe un lote con deltas consecutivos.
+     * @param deltas Los deltas; sus secuencias deben ser consecutivas.
+     * @param desde Índice del primero (inclusive).
+     * @param hasta Índice del último (exclusive); a lo más {@value #MAX_DELTAS_POR_LOTE} deltas.
+     */
+    public static void escribirDeltas(ByteBuffer b, List<DeltaEstado> deltas, int desde, int hasta) {
+        int cantidad = hasta - desde;
+        if (cantidad < 1 || cantidad > MAX_DELTAS_POR_LOTE) {
+            throw new IllegalArgumentException("Un lote lleva de 1 a " + MAX_DELTAS_POR_LOTE + " deltas: " + cantidad);
+        }
+        int inicio = abrir(b, DELTAS);
+        escribirVarint(b, cantidad);
+        escribirVarint(b, deltas.get(desde).secuencia());
+        for (int i = desde; i < hasta; i++) escribirDeltaCampos(b, deltas.get(i));
+        cerrar(b, inicio);
+    }
+
+    /**
+     * Escribe un trozo de la historia de una partida.
+     * @param jugadas Todas las jugadas aceptadas, en orden.
+     * @param desde Índice de la primera jugada del trozo (inclusive).
+     * @param hasta Índice de la última (exclusive); a lo más {@value #MAX_JUGADAS_POR_HISTORIA} jugadas.
+     */
+    public static void escribirHistoria(ByteBuffer b, int[] jugadas, int desde, int hasta) {
+        int cantidad = hasta - desde;
+        if (cantidad < 0 || cantidad > MAX_JUGADAS_POR_HISTORIA) {
+            throw new IllegalArgumentException("Una trama de historia lleva de 0 a " + MAX_JUGADAS_POR_HISTORIA + " jugadas: " + cantidad);
+        }
+        int inicio = abrir(b, HISTORIA);
+        escribirVarint(b, desde);
+        escribirVarint(b, cantidad);
+        for (int i = desde; i < hasta; i++) escribirJugadaCampos(b, jugadas[i]);
+        cerrar(b, inicio);
+    }
+
+    public static void escribirRechazo(ByteBuffer b, int jugada, byte motivo) {
+        int inicio = abrir(b, RECHAZO);
+        escribirJugadaCampos(b, jugada);
+        b.put(motivo);
+        cerrar(b, inicio);
+    }
+
+    public static void escribirAbandono(ByteBuffer b, int jugadorId) {
+        int inicio = abrir(b, ABANDONO);
+        escribirVarint(b, jugadorId);
+        cerrar(b, inicio);
+    }
+
+    /** Deja espacio para la longitud y escribe el tipo. @return Dónde empieza la trama. */
+    private static int abrir(ByteBuffer b, byte tipo) {
+        int inicio = b.position();
+        b.putShort((short) 0).put(tipo);
+        return inicio;
+    }
+
+    /** Rellena la longitud de la trama que empezó en {@code inicio}. */
+    private static void cerrar(ByteBuffer b, int inicio) {
+        b.putShort(inicio, (short) (b.position() - inicio - 2));
+    }
+
+    private static void escribirDeltaCampos(ByteBuffer b, DeltaEstado d) {
+        escribirJugadaCampos(b, d.jugada());
+        escribirVarint(b, d.jugadorId());
+        int cerrados = d.cuadrosCerrados();
+        b.put((byte) (cerrados | (d.terminado() ? BANDERA_TERMINADO : 0)));
+        if (cerrados > 0) escribirVarint(b, d.cuadroA());
+        if (cerrados > 1) escribirVarint(b, d.cuadroB());
+        escribirVarint(b, d.puntaje());
+        escribirVarint(b, d.siguienteJugadorId());
+    }
+
+    /**
+     * Una jugada de {@link Jugada} como dos varints: la fila y {@code col * 2 + horizontal}.
+     * Se parte en las dos mitades de 16 bits, así que cualquier {@code int} (incluso uno
+     * inválido que mandó un cliente) se puede devolver tal cual en un rechazo.
+     */
+    private static void escribirJugadaCampos(ByteBuffer b, int jugada) {
+        escribirVarint(b, jugada >>> 16);
+        escribirVarint(b, jugada & 0xFFFF);
+    }
+
+    /** Escribe un entero no negativo (o cualquier {@code int}, tomado sin signo) como varint. */
+    public static void escribirVarint(ByteBuffer b, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            b.put((byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        b.put((byte) valor);
+    }
+
+    // --- Lectura ---
+    /**
+     * Indica si el buffer (en modo lectura) contiene una trama completa al principio.
+     * @return La longitud total de la trama, prefijo incluido, o -1 si todavía falta parte.
+     * @throws IllegalArgumentException si la longitud anunciada no es válida.
+     */
+    public static int tramaCompleta(ByteBuffer b) {
+        if (b.remaining() < 2) return -1;
+        int longitud = b.getShort(b.position()) & 0xFFFF;
+        if (longitud < 1 || longitud + 2 > MAX_TRAMA) throw new IllegalArgumentException("Longitud de trama inválida: " + longitud);
+        return b.remaining() >= longitud + 2 ? longitud + 2 : -1;
+    }
+
+    /**
+     * Lee una trama completa (ver {@link #tramaCompleta}) sobre un mensaje reutilizable.
+     * Deja la posición del buffer al final de la trama, salvo en un lote de deltas o en
+     * una historia: ahí queda al principio del primer elemento y hay que leerlos con
+     * {@link #siguienteDelta} o {@link #siguienteJugada}.
+     *
+     * @param b El buffer, en modo lectura, al principio de la trama.
+     * @param m Dónde dejar los datos.
+     * @throws IllegalArgumentException si la trama está mal formada.
+     */
+    public static void leer(ByteBuffer b, MensajeRed m) {
+        if (b.remaining() < 3) throw new IllegalArgumentException("Trama incompleta: faltan la longitud o el tipo");
+        int longitud = b.getShort() & 0xFFFF;
+        int fin = b.position() + longitud;
+        if (fin > b.limit()) throw new IllegalArgumentException("Trama incompleta: se anunciaron " + longitud + " bytes y hay " + b.remaining());
+        m.tipo = b.get();
+        try {
+            switch (m.tipo) {
+                case UNIRSE -> {
+                    m.version = leerVarint(b);
+                    m.idPartida = leerVarint(b);
+                    m.tamaño = leerVarint(b);
+                    m.numJugadores = leerVarint(b);
+                }
+                case JUGADA -> m.jugada = leerJugadaCampos(b);
+                case ESPECTAR -> {
+                    m.version = leerVarint(b);
+                    m.idPartida = leerVarint(b);
+                }
+                case BIENVENIDA -> {
+                    m.version = leerVarint(b);
+                    m.idPartida = leerVarint(b);
+                    m.jugadorId = leerVarint(b);
+                    m.tamaño = leerVarint(b);
+                    m.numJugadores = leerVarint(b);
+                }
+                case INICIO -> { }
+                case DELTAS -> {
+                    m.deltasRestantes = leerVarint(b);
+                    m.secuencia = leerVarint(b) - 1;
+                    m.finLote = fin;
+                    if (b.position() > fin) throw new IllegalArgumentException("Lote de deltas más largo de lo anunciado");
+                    return; // Los deltas se leen con siguienteDelta().
+                }
+                case HISTORIA -> {
+                    m.secuencia = leerVarint(b);
+                    m.deltasRestantes = leerVarint(b);
+                    m.finLote = fin;
+                    if (b.position() > fin) throw new IllegalArgumentException("Historia más larga de lo anunciado");
+                    return; // Las jugadas se leen con siguienteJugada().
+                }
+                case RECHAZO -> {
+                    m.jugada = leerJugadaCampos(b);
+                    m.motivo = b.get();
+                }
+                case ABANDONO -> m.jugadorId = leerVarint(b);
+                default -> throw new IllegalArgumentException("Tipo de mensaje desconocido: " + m.tipo);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Trama incompleta de tipo " + m.tipo);
+        }
+        if (b.position() > fin) throw new IllegalArgumentException("Trama más larga de lo anunciado, tipo " + m.tipo);
+        b.position(fin);
+    }
+
+    /**
+     * Lee el siguiente delta de un lote sobre los campos de delta del mensaje.
+     * @return Falso si ya no quedan deltas en el lote (y deja el buffer al final de la trama).
+     */
+    public static boolean siguienteDelta(ByteBuffer b, MensajeRed m) {
+        if (m.deltasRestantes == 0) {
+            b.position(m.finLote);
+            return false;
+        }
+        m.deltasRestantes--;
+        m.secuencia++;
+        try {
+            m.jugada = leerJugadaCampos(b);
+            m.jugadorId = leerVarint(b);
+            int banderas = b.get();
+            int cerrados = banderas & BANDERA_CUADROS;
+            m.cuadroA = cerrados > 0 ? leerVarint(b) : -1;
+            m.cuadroB = cerrados > 1 ? leerVarint(b) : -1;
+            m.terminado = (banderas & BANDERA_TERMINADO) != 0;
+            m.puntaje = leerVarint(b);
+            m.siguienteJugadorId = leerVarint(b);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Lote de deltas incompleto");
+        }
+        if (b.position() > m.finLote) throw new IllegalArgumentException("Lote de deltas más largo de lo anunciado");
+        return true;
+    }
+
+    /**
+     * Lee la siguiente jugada de una trama {@link #HISTORIA} sobre {@code m.jugada}, con
+     * {@code m.secuencia} como la secuencia que tuvo esa jugada (la primera es la 1).
+     * @return Falso si ya no quedan jugadas en la trama (y deja el buffer al final de ella).
+     */
+    public static boolean siguienteJugada(ByteBuffer b, MensajeRed m) {
+        if (m.deltasRestantes == 0) {
+            b.position(m.finLote);
+            return false;
+        }
+        m.deltasRestantes--;
+        m.secuencia++;
+        try {
+            m.jugada = leerJugadaCampos(b);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Historia incompleta");
+        }
+        if (b.position() > m.finLote) throw new IllegalArgumentException("Historia más larga de lo anunciado");
+        return true;
+    }
+
+    private static int leerJugadaCampos(ByteBuffer b) {
+        int alta = leerVarint(b);
+        int baja = leerVarint(b);
+        if ((alta | baja) >>> 16 != 0) throw new IllegalArgumentException("Jugada mal formada");
+        return alta << 16 | baja;
+    }
+
+    /** Lee un varint de hasta 5 bytes. */
+    public static int leerVarint(ByteBuffer b) {
+        int valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 35; desplazamiento += 7) {
+            byte x = b.get();
+            valor |= (x & 0x7F) << desplazamiento;
+            if (x >= 0) return valor;
+        }
+        throw new IllegalArgumentException("Varint demasiado largo");
+    }
+
+    /** Texto legible de un motivo de rechazo. */
+    public static String motivo(byte motivo) {
+        return switch (motivo) {
+            case NO_ES_TU_TURNO -> "no es tu turno";
+            case LINEA_OCUPADA -> "la línea ya está ocupada";
+            case FUERA_DEL_TABLERO -> "la línea está fuera del tablero";
+            case PARTIDA_NO_INICIADA -> "la partida todavía no empieza";
+            case PARTIDA_LLENA -> "la partida ya está llena";
+            case PARTIDA_TERMINADA -> "la partida ya terminó";
+            case MENSAJE_INVALIDO -> "mensaje inválido";
+            case VERSION_INCOMPATIBLE -> "versión del protocolo incompatible";
+            case SERVIDOR_OCUPADO -> "el servidor tiene demasiadas partidas esperando jugadores";
+            default -> "motivo desconocido (" + motivo + ")";
+        };
+    }
+}
@@ -1,7 +1,6 @@
 package itson.timbiriche;
 
 import java.awt.Color;
-import java.awt.Image;
 import java.io.File;
 import java.net.URI;
 import java.net.URL;
@@ -50,15 +49,21 @@ public class Recursos {
     }
 
     /**
-     * Escanea la carpeta de recursos '/avatars' para encontrar todas las imágenes de avatares disponibles.
+     * Devuelve todas las imágenes de avatares disponibles.
      * <p>
-     * Este método es compatible tanto con la ejecución desde un sistema de archivos
-     * (como en un IDE) como desde un archivo JAR empaquetado.
+     * Normalmente se leen del índice de {@link PaqueteAvatares#instalado()}, sin recorrer
+     * nada. Si el paquete no se generó, escanea la carpeta de recursos '/avatars'; esto es
+     * compatible tanto con la ejecución desde un sistema de archivos (como en un IDE)
+     * como desde un archivo JAR empaquetado.
      *
      * @return Una lista de cadenas con las rutas de los recursos de los avatares.
      * Devuelve una lista vacía si la carpeta no se encuentra o si ocurre un error.
      */
     public static List<String> getAvataresDisponibles() {
+        PaqueteAvatares paquete = PaqueteAvatares.instalado();
+        if (paquete != null) {
+            return paquete.getRutas();
+        }
         List<String> avatarPaths = new ArrayList<>();
         try {
             URL url = Recursos.class.getResource("/avatars");
@@ -129,7 +134,7 @@ public class Recursos {
      * @return {@code true} si la extensión del archivo está en la lista de formatos
      * soportados, {@code false} en caso contrario.
      */
-    private static boolean esFormatoImagenSoportado(String fileName) {
+    static boolean esFormatoImagenSoportado(String fileName) {
         String lowerCaseFileName = fileName.toLowerCase();
         for (String ext : EXTENSIONES_IMAGEN) {
             if (lowerCaseFileName.endsWith(ext)) {
@@ -141,6 +146,10 @@ public class Recursos {
 
     /**
      * Carga una imagen de avatar desde una ruta de recurso y la escala a las dimensiones deseadas.
+     * <p>
+     * La imagen sale de {@link CacheAvatares#compartida()}, así que pedir otra vez el mismo
+     * avatar al mismo tamaño no vuelve a decodificarlo. Cada llamada es un evento
+     * {@link EventosJuego.CargaAvatar} para JDK Flight Recorder.
      *
      * @param resourcePath La ruta del recurso de la imagen (ej. "/avatars/avatar1.png").
      * @param width El ancho deseado para la imagen escalada.
@@ -149,16 +158,26 @@ public class Recursos {
      * no pudo ser cargada.
      */
     public static ImageIcon loadScaledAvatar(String resourcePath, int width, int height) {
+        EventosJuego.CargaAvatar evento = new EventosJuego.CargaAvatar();
+        // Solo se consulta la caché aparte si se está grabando.
+        boolean guardado = evento.isEnabled() && width > 0 && height > 0
+                && CacheAvatares.compartida().buscar(resourcePath, width, height) != null;
+        evento.begin();
+        ImageIcon icono = null;
         try {
-            URL imgUrl = Recursos.class.getResource(resourcePath);
-            if (imgUrl != null) {
-                ImageIcon icon = new ImageIcon(imgUrl);
-                Image img = icon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                return new ImageIcon(img);
-            }
+            icono = new ImageIcon(CacheAvatares.compartida().obtener(resourcePath, width, height));
         } catch (Exception e) {
             System.err.println("Error al cargar avatar desde " + resourcePath + ": " + e.getMessage());
         }
-        return null; // Devuelve null si no se puede cargar la imagen
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.ruta = resourcePath;
+            evento.ancho = width;
+            evento.alto = height;
+            evento.decodificado = !guardado;
+            evento.cargado = icono != null;
+            evento.commit();
+        }
+        return icono; // Es null si no se pudo cargar la imagen
     }
 }
\ No newline at end of file
@@ -0,0 +1,254 @@
+package itson.timbiriche;
+
+import javax.swing.SwingUtilities;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Implementación de {@link GameActionHandler} para jugar contra otros a través de un
+ * {@link ServidorJuego}.
+ * <p>
+ * Los clics no modifican el modelo: se envían al servidor, que es quien decide si la
+ * jugada es válida. Un hilo en segundo plano recibe los {@link DeltaEstado} que manda
+ * el servidor (los propios y los de los demás jugadores) y los aplica al
+ * {@link TableroModelo} en el Hilo de Despacho de Eventos (EDT), así que el modelo
+ * local siempre sigue al del servidor.
+ * <p>
+ * Con {@link #espectar} el manejador solo mira: recibe la historia de la partida y
+ * luego sus jugadas, pero nunca tiene el turno (su jugador es el 0).
+ * <p>
+ * Lo que pasa fuera del tablero (que la partida empieza, que alguien la abandona o que
+ * se pierde la conexión) se entrega en el EDT a un {@link AvisoListener}.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public class RedGameActionHandler implements GameActionHandler {
+
+    private final SocketChannel canal;
+    private final int idPartida;
+    private final int jugadorId;
+    private final int tamaño;
+    private final int numJugadores;
+    /**
+     * Cuántas jugadas se han mandado al modelo. El servidor puede repetir jugadas al
+     * mandar otra vez la historia a un espectador atrasado; esas se ignoran.
+     */
+    private int aplicadas;
+    /** Lo recibido y todavía no procesado (en modo escritura). */
+    private final ByteBuffer entrada = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA * 16);
+    private final ByteBuffer salida = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+    /** Donde el hilo de red decodifica cada trama. */
+    private final MensajeRed mensaje = new MensajeRed();
+    private TableroModelo modelo;
+    private AvisoListener avisos;
+
+    /** Recibe en el EDT lo que pasa en la partida fuera del tablero. */
+    public interface AvisoListener {
+        /** Ya se unieron todos los jugadores y empieza la partida. No les llega a los espectadores. */
+        void partidaIniciada();
+
+        /**
+         * Algo que el usuario tiene que saber porque la partida ya no puede seguir: que
+         * alguien la abandonó o que se perdió la conexión con el servidor.
+         */
+        void avisar(String mensaje);
+    }
+
+    private RedGameActionHandler(SocketChannel canal, MensajeRed bienvenida) {
+        this.canal = canal;
+        this.idPartida = bienvenida.idPartida;
+        this.jugadorId = bienvenida.jugadorId;
+        this.tamaño = bienvenida.tamaño;
+        this.numJugadores = bienvenida.numJugadores;
+    }
+
+    /**
+     * Se conecta al servidor y se une a una partida (o la crea si nadie la ha pedido).
+     * Se bloquea hasta que el servidor responde.
+     *
+     * @param host El nombre o la dirección del servidor.
+     * @param puerto El puerto del servidor.
+     * @param idPartida El número de partida; todos los jugadores deben pedir el mismo.
+     * @param tamaño Número de puntos por lado del tablero.
+     * @param numJugadores Cuántos jugadores tendrá la partida.
+     * @return El manejador conectado. Hay que llamar a {@link #iniciar(TableroModelo, AvisoListener)}
+     * para empezar a recibir las jugadas.
+     * @throws IOException si no se puede conectar o el servidor rechaza la petición.
+     */
+    public static RedGameActionHandler conectar(String host, int puerto, int idPartida, int tamaño, int numJugadores)
+            throws IOException {
+        ByteBuffer peticion = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+        ProtocoloRed.escribirUnirse(peticion, idPartida, tamaño, numJugadores);
+        return abrir(host, puerto, peticion.flip());
+    }
+
+    /**
+     * Se conecta al servidor para ver una partida que ya existe, sin jugar.
+     * Se bloquea hasta que el servidor responde.
+     *
+     * @param host El nombre o la dirección del servidor.
+     * @param puerto El puerto del servidor.
+     * @param idPartida El número de partida.
+     * @return El manejador conectado; {@link #getTamaño()} y {@link #getNumJugadores()}
+     * dicen cómo armar el modelo que se le pasa a {@link #iniciar(TableroModelo, AvisoListener)}.
+     * @throws IOException si no se puede conectar o la partida no existe.
+     */
+    public static RedGameActionHandler espectar(String host, int puerto, int idPartida) throws IOException {
+        ByteBuffer peticion = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+        ProtocoloRed.escribirEspectar(peticion, idPartida);
+        return abrir(host, puerto, peticion.flip());
+    }
+
+    /** Se conecta, envía la petición y espera la bienvenida. */
+    private static RedGameActionHandler abrir(String host, int puerto, ByteBuffer peticion) throws IOException {
+        SocketChannel canal = SocketChannel.open(new InetSocketAddress(host, puerto));
+        try {
+            canal.socket().setTcpNoDelay(true);
+            while (peticion.hasRemaining()) canal.write(peticion);
+
+            RedGameActionHandler manejador = null;
+            ByteBuffer respuesta = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+            MensajeRed m = new MensajeRed();
+            leerTrama(canal, respuesta);
+            ProtocoloRed.leer(respuesta, m);
+            if (m.tipo == ProtocoloRed.BIENVENIDA) {
+                if (m.version != ProtocoloRed.VERSION) {
+                    throw new IOException("El servidor habla la versión " + m.version + " del protocolo, no la " + ProtocoloRed.VERSION);
+                }
+                manejador = new RedGameActionHandler(canal, m);
+            } else if (m.tipo == ProtocoloRed.RECHAZO) {
+                throw new IOException("El servidor rechazó la conexión: " + ProtocoloRed.motivo(m.motivo));
+            }
+            if (manejador == null) throw new IOException("Respuesta inesperada del servidor: " + m.tipo);
+            return manejador;
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /** Lee exactamente una trama del canal bloqueante y deja el buffer listo para {@link ProtocoloRed#leer}. */
+    private static void leerTrama(SocketChannel canal, ByteBuffer b) throws IOException {
+        b.clear().limit(2);
+        while (b.hasRemaining()) if (canal.read(b) < 0) throw new EOFException("El servidor cerró la conexión");
+        int longitud = b.getShort(0) & 0xFFFF;
+        if (longitud < 1 || longitud + 2 > b.capacity()) throw new IOException("Longitud de trama inválida: " + longitud);
+        b.limit(longitud + 2);
+        while (b.hasRemaining()) if (canal.read(b) < 0) throw new EOFException("El servidor cerró la conexión");
+        b.flip();
+    }
+
+    public int getJugadorId() { return jugadorId; }
+    public int getIdPartida() { return idPartida; }
+    public int getTamaño() { return tamaño; }
+    public int getNumJugadores() { return numJugadores; }
+    /** Indica si este manejador solo mira la partida. */
+    public boolean esEspectador() { return jugadorId == 0; }
+
+    /**
+     * Empieza a recibir las jugadas del servidor y a aplicarlas al modelo.
+     * @param modelo El modelo local; sus jugadores deben tener los IDs 1..n en orden de turno.
+     * @param avisos Quien muestra al usuario el inicio de la partida y los avisos.
+     */
+    public void iniciar(TableroModelo modelo, AvisoListener avisos) {
+        this.modelo = modelo;
+        this.avisos = avisos;
+        Thread hilo = new Thread(this::recibir, "timbiriche-red");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    @Override
+    public void placeLine(int fila, int col, boolean horizontal) {
+        // El servidor valida todo; esto solo evita enviar clics que seguro se rechazarían.
+        if (modelo == null || modelo.isJuegoTerminado() || modelo.getJugadorActual().id() != jugadorId) return;
+        try {
+            synchronized (salida) {
+                salida.clear();
+                ProtocoloRed.escribirJugada(salida, Jugada.codificar(fila, col, horizontal));
+                salida.flip();
+                while (salida.hasRemaining()) canal.write(salida);
+            }
+        } catch (IOException e) {
+            System.err.println("Error al enviar la jugada: " + e.getMessage());
+        }
+    }
+
+    /** Cierra la conexión con el servidor; el hilo de red termina solo. */
+    @Override
+    public void cerrar() {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar la conexión: " + e.getMessage());
+        }
+    }
+
+    /** El ciclo del hilo de red: lee tramas hasta que se cierra la conexión. */
+    private void recibir() {
+        try {
+            while (canal.read(entrada) >= 0) {
+                entrada.flip();
+                while (ProtocoloRed.tramaCompleta(entrada) > 0) {
+                    ProtocoloRed.leer(entrada, mensaje);
+                    procesar(entrada);
+                }
+                entrada.compact();
+            }
+            // Si la partida ya terminó, que el servidor se vaya no le importa a nadie.
+            SwingUtilities.invokeLater(() -> {
+                if (!modelo.isJuegoTerminado()) avisos.avisar("El servidor cerró la conexión.");
+            });
+        } catch (IOException | RuntimeException e) {
+            // Si el canal está cerrado, fue este lado el que colgó (ver cerrar()).
+            if (canal.isOpen()) avisar("Error en la conexión con el servidor: " + e.getMessage());
+        }
+    }
+
+    private void procesar(ByteBuffer b) {
+        switch (mensaje.tipo) {
+            case ProtocoloRed.INICIO -> SwingUtilities.invokeLater(avisos::partidaIniciada);
+            case ProtocoloRed.DELTAS -> {
+                while (ProtocoloRed.siguienteDelta(b, mensaje)) {
+                    if (mensaje.secuencia <= aplicadas) continue;
+                    aplicadas = mensaje.secuencia;
+                    DeltaEstado delta = mensaje.aDelta();
+                    SwingUtilities.invokeLater(() -> aplicarDelta(delta));
+                }
+            }
+            case ProtocoloRed.HISTORIA -> {
+                while (ProtocoloRed.siguienteJugada(b, mensaje)) {
+                    if (mensaje.secuencia <= aplicadas) continue;
+                    aplicadas = mensaje.secuencia;
+                    int jugada = mensaje.jugada;
+                    SwingUtilities.invokeLater(() -> aplicarJugada(jugada));
+                }
+            }
+            case ProtocoloRed.RECHAZO -> System.err.println("Jugada " + Jugada.texto(mensaje.jugada)
+                    + " rechazada: " + ProtocoloRed.motivo(mensaje.motivo));
+            case ProtocoloRed.ABANDONO -> avisar("El jugador " + mensaje.jugadorId + " abandonó la partida.");
+            default -> System.err.println("Mensaje inesperado del servidor: " + mensaje.tipo);
+        }
+    }
+
+    /** Entrega un aviso en el EDT. */
+    private void avisar(String mensaje) {
+        SwingUtilities.invokeLater(() -> avisos.avisar(mensaje));
+    }
+
+    /** Aplica en el EDT una jugada que el servidor ya aceptó. */
+    private void aplicarDelta(DeltaEstado delta) {
+        if (modelo.getJugadorActual().id() != delta.jugadorId()) {
+            System.err.println("El modelo local no coincide con el servidor en la jugada " + delta.secuencia());
+        }
+        aplicarJugada(delta.jugada());
+    }
+
+    private void aplicarJugada(int jugada) {
+        modelo.agregarLinea(Jugada.fila(jugada), Jugada.col(jugada), Jugada.esHorizontal(jugada));
+    }
+}
@@ -0,0 +1,395 @@
+package itson.timbiriche;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Un registro de solo agregar con todas las jugadas de una o más partidas, para
+ * reconstruirlas si el programa se cae.
+ * <p>
+ * El registro es una serie de archivos de segmento ({@code jugadas-000001.log}, ...)
+ * de {@value #TAMAÑO_SEGMENTO} bytes, mapeados en memoria. Cada jugada ocupa un
+ * registro de {@value #TAMAÑO_REGISTRO} bytes:
+ * <pre>
+ *   [idPartida: int] [secuencia: int] [dato: int] [crc32c de los 12 bytes anteriores: int]
+ * </pre>
+ * Con secuencia 0, el registro anuncia una partida y {@code dato} es
+ * {@code tamaño << 8 | numJugadores}; con secuencia 1 o mayor, {@code dato} es la
+ * jugada de esa secuencia, codificada con {@link Jugada}. El primer registro de cada
+ * segmento es una cabecera con {@link #MAGICO} y la versión del formato. Un registro
+ * que no pasa el CRC (por ejemplo, los ceros del espacio que todavía no se usa, o uno
+ * a medio escribir) marca el final del segmento.
+ * <p>
+ * Escribir en el mapa ya deja la jugada en la memoria del sistema operativo, así que
+ * sobrevive a que se caiga la JVM. Que sobreviva a que se caiga la máquina depende de
+ * la {@link Sincronizacion}.
+ * <p>
+ * Al abrir un registro siempre se empieza un segmento nuevo. Las partidas sin terminar
+ * de los segmentos anteriores se copian a él y esos segmentos se borran, así que el
+ * directorio no crece con cada apertura y las partidas terminadas se olvidan. La copia
+ * se escribe primero en un archivo temporal, que solo toma el nombre del segmento
+ * cuando ya está completo en disco.
+ * {@link #recuperar(Path)} lee todos los segmentos que haya, en orden.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public final class RegistroJugadas implements Closeable {
+
+    /** Cuándo se obliga al disco a guardar lo escrito. */
+    public enum Sincronizacion {
+        /** Después de cada jugada: no se pierde nada, pero cada jugada espera al disco. */
+        POR_JUGADA,
+        /** Cada cierto tiempo, desde otro hilo: se pierde a lo más ese intervalo. */
+        AGRUPADA,
+        /** Nunca: el sistema operativo decide cuándo escribir. Se pierde lo que no haya escrito. */
+        SISTEMA
+    }
+
+    /** "TBRJ": identifica un segmento de este registro. */
+    public static final int MAGICO = 0x5442524A;
+    public static final int VERSION = 1;
+    public static final int TAMAÑO_REGISTRO = 16;
+    public static final int TAMAÑO_SEGMENTO = 1 << 24;
+
+    private static final Pattern NOMBRE_SEGMENTO = Pattern.compile("jugadas-(\\d{6})\\.log");
+
+    private final Path directorio;
+    private final Sincronizacion sincronizacion;
+    private final ScheduledExecutorService sincronizador;
+    private final CRC32C crc = new CRC32C();
+    private final byte[] bytesRegistro = new byte[TAMAÑO_REGISTRO - 4];
+    private final ByteBuffer registro = ByteBuffer.wrap(bytesRegistro);
+
+    private int numeroSegmento;
+    private MappedByteBuffer segmento;
+    /** Hasta dónde ya se obligó al disco a guardar el segmento actual. */
+    private int sincronizadoHasta;
+    private boolean cerrado;
+
+    /**
+     * Abre un registro en un directorio, empezando un segmento nuevo con las partidas
+     * sin terminar de los segmentos anteriores, que después se borran.
+     *
+     * @param directorio Dónde van los segmentos; se crea si no existe.
+     * @param sincronizacion Cuándo obligar al disco a guardar lo escrito.
+     * @param intervaloMs Cada cuánto sincronizar con {@link Sincronizacion#AGRUPADA}; se ignora con las demás.
+     * @throws IOException si no se puede crear el segmento o leer los anteriores.
+     */
+    public RegistroJugadas(Path directorio, Sincronizacion sincronizacion, long intervaloMs) throws IOException {
+        this.directorio = directorio;
+        this.sincronizacion = sincronizacion;
+        Files.createDirectories(directorio);
+        List<Path> existentes = segmentos(directorio);
+        Map<Integer, PartidaRegistrada> anteriores = recuperar(directorio);
+        numeroSegmento = existentes.isEmpty() ? 0 : numeroDe(existentes.get(existentes.size() - 1));
+        if (existentes.isEmpty()) {
+            abrirSegmento();
+        } else {
+            compactar(anteriores, existentes);
+        }
+        if (sincronizacion == Sincronizacion.AGRUPADA) {
+            if (intervaloMs <= 0) throw new IllegalArgumentException("El intervalo debe ser positivo: " + intervaloMs);
+            sincronizador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "timbiriche-registro");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            sincronizador.scheduleWithFixedDelay(this::sincronizarPendiente, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+        } else {
+            sincronizador = null;
+        }
+    }
+
+    public Sincronizacion getSincronizacion() { return sincronizacion; }
+
+    /**
+     * Anuncia una partida nueva. Hay que llamarlo antes de registrar sus jugadas; si el
+     * número ya se había usado, al recuperar se descarta la partida anterior.
+     */
+    public synchronized void registrarPartida(int idPartida, int tamaño, int numJugadores) {
+        agregar(idPartida, 0, tamaño << 8 | numJugadores);
+    }
+
+    /** Agrega una jugada aceptada de una partida ya anunciada. */
+    public synchronized void registrarJugada(int idPartida, DeltaEstado delta) {
+        agregar(idPartida, delta.secuencia(), delta.jugada());
+    }
+
+    /**
+     * Registra todas las jugadas que el modelo acepte de aquí en adelante. Un modelo
+     * sin líneas se anuncia como partida nueva; uno con líneas debe ser el que
+     * {@link PartidaRegistrada#reconstruir} sacó de este mismo registro, y sus jugadas
+     * se agregan a las que ya tenía.
+     *
+     * @param modelo El modelo que se va a seguir.
+     * @param idPartida Con qué número se guarda la partida.
+     */
+    public void seguir(TableroModelo modelo, int idPartida) {
+        if (modelo.getLineasPuestas() == 0) registrarPartida(idPartida, modelo.getTamaño(), modelo.getJugadores().size());
+        modelo.agregarListener(cambio -> {
+            // Un cambio completo no es una jugada (por ejemplo, un restaurar): no tiene delta.
+            if (!cambio.esCompleto()) registrarJugada(idPartida, cambio.delta());
+        });
+    }
+
+    private void agregar(int idPartida, int secuencia, int dato) {
+        if (cerrado) throw new IllegalStateException("El registro ya está cerrado");
+        if (!segmento.hasRemaining()) {
+            try {
+                // El segmento lleno se guarda completo antes de empezar el siguiente.
+                if (sincronizacion != Sincronizacion.SISTEMA) segmento.force();
+                abrirSegmento();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo abrir el siguiente segmento del registro", e);
+            }
+        }
+        int inicio = segmento.position();
+        escribir(segmento, idPartida, secuencia, dato);
+        if (sincronizacion == Sincronizacion.POR_JUGADA) {
+            segmento.force(inicio, TAMAÑO_REGISTRO);
+            sincronizadoHasta = segmento.position();
+        }
+    }
+
+    /** Escribe un registro completo, con su CRC, en la posición actual. */
+    private void escribir(ByteBuffer destino, int idPartida, int secuencia, int dato) {
+        registro.clear();
+        registro.putInt(idPartida).putInt(secuencia).putInt(dato);
+        crc.reset();
+        crc.update(bytesRegistro, 0, bytesRegistro.length);
+        destino.put(bytesRegistro).putInt((int) crc.getValue());
+    }
+
+    private void abrirSegmento() throws IOException {
+        numeroSegmento++;
+        try (FileChannel canal = FileChannel.open(archivoSegmento(numeroSegmento), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // El mapa sigue siendo válido después de cerrar el canal.
+            segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAMAÑO_SEGMENTO);
+        }
+        escribir(segmento, MAGICO, VERSION, numeroSegmento);
+        sincronizadoHasta = 0;
+    }
+
+    private Path archivoSegmento(int numero) {
+        return directorio.resolve(String.format("jugadas-%06d.log", numero));
+    }
+
+    /**
+     * Empieza el segmento nuevo con las partidas sin terminar y borra los segmentos
+     * anteriores. La copia se escribe en un archivo temporal, que {@link #recuperar(Path)}
+     * no lee, se guarda en disco y solo entonces se renombra como segmento, de una sola
+     * vez. Si el programa se cae antes del cambio de nombre, los segmentos anteriores
+     * siguen completos; si se cae después, la copia ya está completa y
+     * {@code recuperar} se queda con ella por ser el último anuncio de cada partida.
+     */
+    private void compactar(Map<Integer, PartidaRegistrada> anteriores, List<Path> segmentos) throws IOException {
+        numeroSegmento++;
+        Path archivo = archivoSegmento(numeroSegmento);
+        Path temporal = directorio.resolve(archivo.getFileName() + ".tmp");
+        long registros = 1;
+        for (PartidaRegistrada p : anteriores.values()) {
+            if (!p.terminada()) registros += 1 + p.jugadas().length;
+        }
+        // Si hay más copia que un segmento normal, este segmento crece para que quepa entera.
+        long tamaño = Math.max(TAMAÑO_SEGMENTO, (registros + 1) * TAMAÑO_REGISTRO);
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer bloque = ByteBuffer.allocate(TAMAÑO_REGISTRO * 4096);
+            escribir(bloque, MAGICO, VERSION, numeroSegmento);
+            for (PartidaRegistrada p : anteriores.values()) {
+                if (p.terminada()) continue;
+                escribir(bloque, p.idPartida(), 0, p.tamaño() << 8 | p.numJugadores());
+                for (int i = 0; i < p.jugadas().length; i++) {
+                    if (!bloque.hasRemaining()) vaciar(canal, bloque);
+                    escribir(bloque, p.idPartida(), i + 1, p.jugadas()[i]);
+                }
+                if (!bloque.hasRemaining()) vaciar(canal, bloque);
+            }
+            vaciar(canal, bloque);
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE);
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamaño);
+        }
+        segmento.position((int) (registros * TAMAÑO_REGISTRO));
+        sincronizadoHasta = segmento.position();
+        for (Path anterior : segmentos) {
+            try {
+                Files.deleteIfExists(anterior);
+            } catch (IOException e) {
+                System.err.println("No se pudo borrar el segmento " + anterior + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** Escribe al canal lo que tenga el bloque y lo deja vacío. */
+    private static void vaciar(FileChannel canal, ByteBuffer bloque) throws IOException {
+        bloque.flip();
+        while (bloque.hasRemaining()) canal.write(bloque);
+        bloque.clear();
+    }
+
+    /** Obliga al disco a guardar todo lo escrito hasta ahora. */
+    public void sincronizar() {
+        sincronizarPendiente();
+    }
+
+    /**
+     * Guarda en disco lo que se escribió desde la última vez. El tramo se toma con el
+     * candado, pero se guarda sin él para no detener a quien esté registrando jugadas.
+     */
+    private void sincronizarPendiente() {
+        MappedByteBuffer actual;
+        int desde, hasta;
+        synchronized (this) {
+            if (cerrado) return;
+            actual = segmento;
+            desde = sincronizadoHasta;
+            hasta = segmento.position();
+        }
+        if (hasta == desde) return;
+        actual.force(desde, hasta - desde);
+        synchronized (this) {
+            if (segmento == actual && sincronizadoHasta < hasta) sincronizadoHasta = hasta;
+        }
+    }
+
+    /** Guarda todo en disco y deja de aceptar jugadas. */
+    @Override
+    public void close() {
+        if (sincronizador != null) sincronizador.shutdownNow();
+        synchronized (this) {
+            if (cerrado) return;
+            if (sincronizacion != Sincronizacion.SISTEMA) segmento.force();
+            cerrado = true;
+        }
+    }
+
+    /**
+     * Una partida leída del registro.
+     *
+     * @param idPartida El número con que se registró.
+     * @param tamaño Número de puntos por lado.
+     * @param numJugadores Cuántos jugadores tenía.
+     * @param jugadas Las jugadas aceptadas, en orden, codificadas con {@link Jugada}.
+     */
+    public record PartidaRegistrada(int idPartida, int tamaño, int numJugadores, int[] jugadas) {
+
+        /** Indica si ya se pusieron todas las líneas del tablero. */
+        public boolean terminada() {
+            return jugadas.length == 2 * tamaño * (tamaño - 1);
+        }
+
+        /**
+         * Vuelve a jugar la partida en un modelo nuevo.
+         * @param jugadores Los jugadores, en el mismo orden de turno que en la partida original.
+         * @return El modelo con todas las jugadas registradas.
+         * @throws IllegalArgumentException si el número de jugadores no coincide o alguna jugada no es válida.
+         */
+        public TableroModelo reconstruir(List<Jugador> jugadores) {
+            if (jugadores.size() != numJugadores) {
+                throw new IllegalArgumentException("La partida " + idPartida + " tenía " + numJugadores + " jugadores, no " + jugadores.size());
+            }
+            TableroModelo modelo = new TableroModelo(tamaño, jugadores);
+            for (int jugada : jugadas) {
+                if (!modelo.agregarLinea(Jugada.fila(jugada), Jugada.col(jugada), Jugada.esHorizontal(jugada))) {
+                    throw new IllegalArgumentException("Jugada repetida en la partida " + idPartida + ": " + Jugada.texto(jugada));
+                }
+            }
+            return modelo;
+        }
+    }
+
+    /**
+     * Lee todos los segmentos de un directorio y reconstruye las jugadas de cada partida.
+     * Si un número de partida se anunció más de una vez, solo queda la última.
+     * Las jugadas de una partida que no se anunció, o que no siguen a la anterior (por
+     * ejemplo, si se perdió un tramo que no se había guardado), se descartan.
+     *
+     * @param directorio Donde están los segmentos.
+     * @return Las partidas por número, en el orden en que se anunciaron.
+     * @throws IOException si no se puede leer algún segmento.
+     */
+    public static Map<Integer, PartidaRegistrada> recuperar(Path directorio) throws IOException {
+        Map<Integer, int[]> jugadas = new LinkedHashMap<>();
+        Map<Integer, Integer> cantidades = new LinkedHashMap<>();
+        Map<Integer, Integer> anuncios = new LinkedHashMap<>();
+        CRC32C crc = new CRC32C();
+        for (Path archivo : segmentos(directorio)) {
+            MappedByteBuffer b;
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+                b = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            }
+            boolean cabecera = true;
+            while (b.remaining() >= TAMAÑO_REGISTRO) {
+                int inicio = b.position();
+                int idPartida = b.getInt(), secuencia = b.getInt(), dato = b.getInt(), verificacion = b.getInt();
+                crc.reset();
+                crc.update(b.slice(inicio, TAMAÑO_REGISTRO - 4));
+                if ((int) crc.getValue() != verificacion) break; // El final de lo escrito.
+                if (cabecera) {
+                    if (idPartida != MAGICO || secuencia != VERSION) throw new IOException("No es un segmento válido: " + archivo);
+                    cabecera = false;
+                } else if (secuencia == 0) {
+                    // Una partida nueva; si el número ya se había usado, reemplaza a la anterior.
+                    anuncios.remove(idPartida);
+                    anuncios.put(idPartida, dato);
+                    jugadas.put(idPartida, new int[16]);
+                    cantidades.put(idPartida, 0);
+                } else if (anuncios.containsKey(idPartida) && secuencia == cantidades.get(idPartida) + 1) {
+                    int[] lista = jugadas.get(idPartida);
+                    if (secuencia > lista.length) jugadas.put(idPartida, lista = Arrays.copyOf(lista, lista.length * 2));
+                    lista[secuencia - 1] = dato;
+                    cantidades.put(idPartida, secuencia);
+                }
+            }
+        }
+        Map<Integer, PartidaRegistrada> partidas = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> e : anuncios.entrySet()) {
+            int id = e.getKey();
+            partidas.put(id, new PartidaRegistrada(id, e.getValue() >>> 8, e.getValue() & 0xFF,
+                    Arrays.copyOf(jugadas.get(id), cantidades.get(id))));
+        }
+        return partidas;
+    }
+
+    /** Los segmentos de un directorio, en orden. */
+    private static List<Path> segmentos(Path directorio) throws IOException {
+        List<Path> lista = new ArrayList<>();
+        if (!Files.isDirectory(directorio)) return lista;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.filter(p -> NOMBRE_SEGMENTO.matcher(p.getFileName().toString()).matches()).forEach(lista::add);
+        }
+        lista.sort(null);
+        return lista;
+    }
+
+    private static int numeroDe(Path segmento) {
+        Matcher m = NOMBRE_SEGMENTO.matcher(segmento.getFileName().toString());
+        if (!m.matches()) throw new IllegalArgumentException("No es un segmento: " + segmento);
+        return Integer.parseInt(m.group(1));
+    }
+}
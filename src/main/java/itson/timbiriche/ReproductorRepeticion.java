@@ -0,0 +1,128 @@
+package itson.timbiriche;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Un panel que reproduce un {@link ArchivoRepeticion}: muestra la partida con el mismo
+ * {@link PanelPrincipal} que una partida normal y agrega controles para reproducir,
+ * pausar, avanzar o retroceder una jugada y saltar a cualquier jugada con un deslizador.
+ * <p>
+ * La vista no sabe que es una repetición: todo pasa por el {@link TableroModelo} y sus
+ * oyentes. Avanzar una jugada la pone con {@link TableroModelo#agregarLinea}, como en
+ * una partida; cualquier otro salto le pide al archivo el estado en esa jugada (una foto
+ * más unas cuantas jugadas) y lo pone de una vez con {@link TableroModelo#restaurar}.
+ * No hay controlador, así que los clics en el tablero no hacen nada.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public class ReproductorRepeticion extends JPanel {
+
+    /** Milisegundos entre jugadas al reproducir. */
+    private static final int PAUSA_MS = 400;
+
+    private final ArchivoRepeticion repeticion;
+    private final TableroModelo modelo;
+    private final JSlider deslizador;
+    private final JLabel lblPosicion;
+    private final JButton btnReproducir;
+    private final Timer reloj;
+    /** Cuántas jugadas de la repetición tiene aplicadas el modelo. */
+    private int posicion;
+
+    /**
+     * Construye el reproductor, detenido al inicio de la repetición.
+     * @param repeticion La repetición que se va a mostrar.
+     */
+    public ReproductorRepeticion(ArchivoRepeticion repeticion) {
+        this.repeticion = repeticion;
+        this.modelo = repeticion.crearModelo();
+        setLayout(new BorderLayout(0, 5));
+        add(new PanelPrincipal(modelo), BorderLayout.CENTER);
+
+        reloj = new Timer(PAUSA_MS, e -> {
+            if (posicion < repeticion.getNumJugadas()) irA(posicion + 1);
+            if (posicion == repeticion.getNumJugadas()) detener();
+        });
+
+        JButton btnAtras = new JButton("<");
+        btnAtras.addActionListener(e -> {
+            detener();
+            if (posicion > 0) irA(posicion - 1);
+        });
+        btnReproducir = new JButton("Reproducir");
+        btnReproducir.addActionListener(e -> {
+            if (reloj.isRunning()) {
+                detener();
+            } else {
+                if (posicion == repeticion.getNumJugadas()) irA(0);
+                reloj.start();
+                btnReproducir.setText("Pausa");
+            }
+        });
+        JButton btnAdelante = new JButton(">");
+        btnAdelante.addActionListener(e -> {
+            detener();
+            if (posicion < repeticion.getNumJugadas()) irA(posicion + 1);
+        });
+
+        deslizador = new JSlider(0, repeticion.getNumJugadas(), 0);
+        // Al arrastrar se salta en cada cambio: cada salto cuesta lo mismo sin importar a dónde.
+        deslizador.addChangeListener(e -> {
+            if (deslizador.getValue() != posicion) {
+                detener();
+                irA(deslizador.getValue());
+            }
+        });
+        lblPosicion = new JLabel();
+
+        JPanel controles = new JPanel(new BorderLayout(5, 0));
+        controles.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+        JPanel botones = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        botones.add(btnAtras);
+        botones.add(btnReproducir);
+        botones.add(btnAdelante);
+        controles.add(botones, BorderLayout.WEST);
+        controles.add(deslizador, BorderLayout.CENTER);
+        controles.add(lblPosicion, BorderLayout.EAST);
+        add(controles, BorderLayout.SOUTH);
+
+        actualizarPosicion();
+    }
+
+    /**
+     * Lleva el modelo a una jugada de la repetición.
+     * @param jugada Cuántas jugadas aplicar (0..{@link ArchivoRepeticion#getNumJugadas()}).
+     */
+    private void irA(int jugada) {
+        if (jugada == posicion + 1) {
+            int j = repeticion.getJugada(posicion);
+            modelo.agregarLinea(Jugada.fila(j), Jugada.col(j), Jugada.esHorizontal(j));
+        } else if (jugada != posicion) {
+            modelo.restaurar(repeticion.estadoEn(jugada));
+        }
+        posicion = jugada;
+        actualizarPosicion();
+    }
+
+    /**
+     * Detiene la reproducción cuando el panel deja de mostrarse, al cerrar o desechar su
+     * ventana; si no, el reloj de Swing sigue avanzando un modelo que ya nadie ve.
+     */
+    @Override
+    public void removeNotify() {
+        detener();
+        super.removeNotify();
+    }
+
+    private void detener() {
+        reloj.stop();
+        btnReproducir.setText("Reproducir");
+    }
+
+    private void actualizarPosicion() {
+        deslizador.setValue(posicion);
+        lblPosicion.setText(posicion + " / " + repeticion.getNumJugadas());
+    }
+}
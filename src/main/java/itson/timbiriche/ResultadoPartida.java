@@ -0,0 +1,20 @@
+package itson.timbiriche;
+
+/**
+ * El resultado de una partida, como datos simples.
+ *
+ * @param idsJugadores Los IDs de los jugadores, en orden de turno.
+ * @param puntajes Los cuadros de cada jugador, en el mismo orden.
+ * @param idsGanadores Los IDs de quienes tienen el puntaje más alto (más de uno si hay empate).
+ * Vacío si la partida no ha terminado.
+ * @param jugadas Cuántas líneas se pusieron.
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public record ResultadoPartida(int[] idsJugadores, int[] puntajes, int[] idsGanadores, int jugadas) {
+
+    /** @return Verdadero si hay más de un ganador. */
+    public boolean esEmpate() {
+        return idsGanadores.length > 1;
+    }
+}
@@ -0,0 +1,106 @@
+package itson.timbiriche;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Resume una grabación de JDK Flight Recorder con los {@link EventosJuego}: cuántas veces
+ * ocurrió cada cosa y cuánto tardó (mediana, percentil 99 y máximo), agrupando las jugadas
+ * según si cerraron cuadros, los avisos por oyente, los pintados por modo y las cargas de
+ * avatar según si hubo que decodificar la imagen o si falló; los bloqueos del hilo de Swing
+ * van aparte.
+ * <p>
+ * Se usa después de jugar con {@code --grabar archivo.jfr} ({@link Timbiriche#main}), o
+ * con cualquier grabación que incluya los eventos del juego.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public final class ResumenGrabacion {
+
+    private ResumenGrabacion() {}
+
+    /**
+     * Lee una grabación y resume los eventos del juego que contiene.
+     *
+     * @param archivo El archivo {@code .jfr}.
+     * @return Una tabla por grupo de eventos, lista para imprimir.
+     * @throws IOException si no se puede leer la grabación.
+     */
+    public static String resumir(Path archivo) throws IOException {
+        // Los grupos quedan en orden alfabético, así que cada clase de evento queda junta.
+        Map<String, List<Duration>> grupos = new TreeMap<>();
+        for (RecordedEvent evento : RecordingFile.readAllEvents(archivo)) {
+            String grupo = grupo(evento);
+            if (grupo == null) continue;
+            // Los bloqueos del EDT se registran al terminar y guardan su duración aparte.
+            Duration duracion = evento.hasField("duracion") ? Duration.ofNanos(evento.getLong("duracion")) : evento.getDuration();
+            grupos.computeIfAbsent(grupo, g -> new ArrayList<>()).add(duracion);
+        }
+        if (grupos.isEmpty()) return "La grabación no tiene eventos del juego: " + archivo + System.lineSeparator();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-52s %7s %10s %10s %10s%n", "Evento (µs)", "n", "p50", "p99", "máx"));
+        for (Map.Entry<String, List<Duration>> e : grupos.entrySet()) {
+            long[] nanos = e.getValue().stream().mapToLong(Duration::toNanos).sorted().toArray();
+            sb.append(String.format("%-52s %7d %10.1f %10.1f %10.1f%n", e.getKey(), nanos.length,
+                    percentil(nanos, 0.50) / 1e3, percentil(nanos, 0.99) / 1e3, nanos[nanos.length - 1] / 1e3));
+        }
+        return sb.toString();
+    }
+
+    /** @return El grupo de un evento del juego, o {@code null} si es de otro tipo. */
+    private static String grupo(RecordedEvent evento) {
+        String nombre = evento.getEventType().getName();
+        if (!nombre.startsWith(EventosJuego.PREFIJO)) return null;
+        return switch (nombre.substring(EventosJuego.PREFIJO.length())) {
+            case "Jugada" -> !evento.getBoolean("aceptada") ? "Jugada rechazada"
+                    : evento.getInt("cuadrosCerrados") > 0 ? "Jugada que cierra cuadros" : "Jugada sin cuadros";
+            case "Notificacion" -> "Notificación a " + nombreOyente(evento.getClass("oyente").getName());
+            case "Pintado" -> "Pintado (" + evento.getString("modo") + ")";
+            case "CargaAvatar" -> !evento.getBoolean("cargado") ? "Carga de avatar (falló)"
+                    : evento.getBoolean("decodificado") ? "Carga de avatar (decodificado)" : "Carga de avatar (en caché)";
+            case "BloqueoEdt" -> "Bloqueo del EDT";
+            default -> null;
+        };
+    }
+
+    /** Quita el número que la JVM le pone a cada lambda, que cambia entre ejecuciones. */
+    private static String nombreOyente(String clase) {
+        int lambda = clase.indexOf("$$Lambda");
+        String nombre = lambda < 0 ? clase : clase.substring(0, lambda) + " (lambda)";
+        return nombre.startsWith(EventosJuego.PREFIJO) ? nombre.substring(EventosJuego.PREFIJO.length()) : nombre;
+    }
+
+    /** @return El percentil de rango más cercano de una lista ordenada y no vacía. */
+    static long percentil(long[] ordenados, double q) {
+        int rango = (int) Math.ceil(q * ordenados.length);
+        return ordenados[Math.max(0, Math.min(ordenados.length - 1, rango - 1))];
+    }
+
+    /**
+     * Imprime el resumen de una grabación. Opciones: {@code --archivo} (la grabación).
+     *
+     * @param args Las opciones en pares {@code --nombre valor}.
+     * @throws IOException si no se puede leer la grabación.
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opciones = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Opción inválida: " + args[i]);
+            opciones.put(args[i].substring(2), args[i + 1]);
+        }
+        if (!opciones.containsKey("archivo")) {
+            throw new IllegalArgumentException("Se necesita --archivo");
+        }
+        System.out.print(resumir(Path.of(opciones.get("archivo"))));
+    }
+}
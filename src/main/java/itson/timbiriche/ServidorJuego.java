@@ -0,0 +1,639 @@
+package itson.timbiriche;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Servidor de partidas en red construido sobre NIO ({@link Selector} y
+ * {@link SocketChannel}), que atiende muchas partidas a la vez con pocos hilos.
+ * <p>
+ * Cada hilo es un "bucle" con su propio {@link Selector}. El primero también acepta
+ * las conexiones nuevas; cuando una conexión pide unirse a una partida, pasa al bucle
+ * que le corresponde a esa partida ({@code idPartida % numHilos}). Así todos los
+ * jugadores de una partida viven en el mismo hilo y el estado de la partida nunca se
+ * comparte entre hilos, por lo que no hacen falta candados.
+ * <p>
+ * El servidor es la autoridad: cada jugada se valida en {@link SesionPartida} igual
+ * que en el {@code LocalGameActionHandler} (que sea el turno de quien la envía y que
+ * la línea exista y esté libre) antes de aplicarla, y lo que cambió se reenvía como
+ * {@link DeltaEstado} a todos los jugadores de la partida.
+ * El formato de los mensajes está en {@link ProtocoloRed}.
+ * <p>
+ * Los espectadores ({@code ESPECTAR}) se reparten entre los demás bucles, para que
+ * mandarles las jugadas no le quite tiempo al hilo de los jugadores. El hilo de la
+ * partida codifica cada delta una sola vez en su {@link DifusionPartida} y avisa a los
+ * bucles con espectadores, que copian esos mismos bytes a cada uno. Un espectador lento
+ * no acumula memoria: si se atrasa más de {@link DifusionPartida#MAX_PENDIENTES}
+ * jugadas, en lugar de los deltas que le faltan se le mandan solo esas jugadas, como
+ * historia.
+ * <p>
+ * Los {@link LimitesServidor} acotan lo que cuesta una partida que todavía espera
+ * jugadores: el tamaño del tablero y cuántas de ellas puede haber, en total y por
+ * dirección.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public class ServidorJuego {
+
+    /** Lo máximo que se acumula para enviar a un cliente antes de darlo por perdido. */
+    private static final int MAX_SALIDA = 1 << 16;
+    /** La salida de un espectador; no crece, porque lo que no cabe espera en el anillo de la partida. */
+    private static final int SALIDA_ESPECTADOR = 4096;
+
+    private final ServerSocketChannel servidor;
+    private final Bucle[] bucles;
+    private final LimitesServidor limites;
+    private final PartidasEnEspera enEspera;
+    private final AtomicInteger conexiones = new AtomicInteger();
+    private final AtomicInteger partidas = new AtomicInteger();
+    private final LongAdder jugadasAceptadas = new LongAdder();
+    private final AtomicInteger espectadores = new AtomicInteger();
+    private final LongAdder colapsos = new LongAdder();
+    private volatile boolean activo = true;
+
+    /**
+     * Abre el puerto del servidor con los {@link LimitesServidor#PREDETERMINADOS}.
+     *
+     * @param puerto El puerto TCP, o 0 para que el sistema elija uno libre.
+     * @param numHilos Cuántos bucles de selección usar.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public ServidorJuego(int puerto, int numHilos) throws IOException {
+        this(puerto, numHilos, LimitesServidor.PREDETERMINADOS);
+    }
+
+    /**
+     * Abre el puerto del servidor. Hay que llamar a {@link #iniciar()} para empezar a atender.
+     *
+     * @param puerto El puerto TCP, o 0 para que el sistema elija uno libre.
+     * @param numHilos Cuántos bucles de selección usar.
+     * @param limites Lo que se admite de las partidas que esperan jugadores.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public ServidorJuego(int puerto, int numHilos, LimitesServidor limites) throws IOException {
+        if (numHilos < 1) throw new IllegalArgumentException("Se necesita al menos un hilo: " + numHilos);
+        this.limites = limites;
+        this.enEspera = new PartidasEnEspera(limites);
+        this.servidor = ServerSocketChannel.open();
+        servidor.bind(new InetSocketAddress(puerto), 1024);
+        servidor.configureBlocking(false);
+        this.bucles = new Bucle[numHilos];
+        for (int i = 0; i < numHilos; i++) bucles[i] = new Bucle(i);
+        servidor.register(bucles[0].selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /** Arranca los hilos de los bucles. */
+    public void iniciar() {
+        for (Bucle b : bucles) {
+            Thread hilo = new Thread(b, "timbiriche-servidor-" + b.indice);
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+    }
+
+    /** Cierra el puerto y todas las conexiones. */
+    public void detener() {
+        activo = false;
+        for (Bucle b : bucles) b.selector.wakeup();
+        try {
+            servidor.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el servidor: " + e.getMessage());
+        }
+    }
+
+    public int getPuerto() {
+        return servidor.socket().getLocalPort();
+    }
+
+    public int getConexiones() { return conexiones.get(); }
+    public int getPartidas() { return partidas.get(); }
+    /** Cuántas de las partidas todavía esperan jugadores. */
+    public int getPartidasEnEspera() { return enEspera.getTotal(); }
+    public long getJugadasAceptadas() { return jugadasAceptadas.sum(); }
+    public int getEspectadores() { return espectadores.get(); }
+    /** Cuántas veces un espectador se atrasó tanto que se le mandó historia en lugar de deltas. */
+    public long getColapsos() { return colapsos.sum(); }
+
+    /** Una conexión de cliente. Solo la toca el hilo del bucle donde está registrada. */
+    private static final class Conexion {
+        final SocketChannel canal;
+        /** De dónde viene, para contar sus partidas en espera. */
+        final InetAddress direccion;
+        SelectionKey clave;
+        /** Lo recibido y todavía no procesado (en modo escritura). */
+        final ByteBuffer entrada = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA * 2);
+        /** Lo pendiente de enviar (en modo escritura). */
+        ByteBuffer salida = ByteBuffer.allocate(1024);
+        PartidaRed partida;
+        int jugadorId;
+        boolean cerrada;
+
+        // --- Solo para espectadores ---
+        DifusionPartida difusion;
+        /** Cuántas jugadas de la partida ya se le mandaron. */
+        long cursor;
+        /** Verdadero mientras recibe historia en lugar de deltas. */
+        boolean poniendoseAlDia;
+        boolean abandonoEnviado;
+        /** Su lugar en la lista de espectadores del bucle, para quitarlo sin recorrerla. */
+        int indiceEspectador;
+        /** Verdadero si ya recibió toda una partida terminada y se soltó su difusión. */
+        boolean espectadorRetirado;
+
+        Conexion(SocketChannel canal) {
+            this.canal = canal;
+            this.direccion = canal.socket().getInetAddress();
+        }
+    }
+
+    /** Una partida de este servidor: la sesión más las conexiones de sus jugadores. */
+    private static final class PartidaRed extends SesionPartida {
+        final Conexion[] jugadores;
+        final DifusionPartida difusion;
+        /** Cuántos espectadores se han repartido, para turnarse los bucles. */
+        int espectadoresRepartidos;
+
+        PartidaRed(int id, int tamaño, int numJugadores) {
+            super(id, tamaño, numJugadores);
+            this.jugadores = new Conexion[numJugadores];
+            this.difusion = new DifusionPartida(id, tamaño, numJugadores);
+        }
+    }
+
+    /**
+     * Un hilo con su {@link Selector}: lee, procesa y escribe las conexiones que tiene
+     * registradas y guarda las partidas que le tocan.
+     */
+    private final class Bucle implements Runnable {
+        final int indice;
+        final Selector selector;
+        /** Conexiones que otro bucle le pasó y que falta registrar. */
+        final Queue<Conexion> recibidas = new ConcurrentLinkedQueue<>();
+        final Map<Integer, PartidaRed> partidasBucle = new HashMap<>();
+        /** Conexiones con salida pendiente en esta vuelta. */
+        final List<Conexion> porEscribir = new ArrayList<>();
+        /** Los espectadores de este bucle, por partida. */
+        final Map<DifusionPartida, List<Conexion>> espectadoresBucle = new HashMap<>();
+        /** Partidas con jugadas nuevas para los espectadores de este bucle; las llena el hilo de cada partida. */
+        final Queue<DifusionPartida> avisos = new ConcurrentLinkedQueue<>();
+        /** Lo que este bucle suscribe a cada difusión; siempre el mismo objeto, para poder desuscribirlo. */
+        final Consumer<DifusionPartida> suscriptor = this::avisar;
+        /** Donde se arma un delta una sola vez antes de copiarlo a cada jugador. */
+        final ByteBuffer trama = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+        /** Donde se decodifica cada trama recibida. */
+        final MensajeRed mensaje = new MensajeRed();
+        /** Donde {@link SesionPartida#jugar} deja el motivo de un rechazo. */
+        final byte[] motivo = new byte[1];
+
+        Bucle(int indice) throws IOException {
+            this.indice = indice;
+            this.selector = Selector.open();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (activo) {
+                    selector.select();
+                    registrarRecibidas();
+                    atenderAvisos();
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey clave = it.next();
+                        it.remove();
+                        if (!clave.isValid()) continue;
+                        if (clave.isAcceptable()) {
+                            aceptar();
+                            continue;
+                        }
+                        Conexion c = (Conexion) clave.attachment();
+                        if (clave.isReadable()) leer(c);
+                        if (!c.cerrada && clave.isValid() && clave.isWritable()) {
+                            escribir(c);
+                            if (c.difusion != null) bombear(c);
+                        }
+                    }
+                    for (Conexion c : porEscribir) escribir(c);
+                    porEscribir.clear();
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                if (activo) System.err.println("Error en el bucle del servidor: " + e.getMessage());
+            } finally {
+                for (SelectionKey clave : new ArrayList<>(selector.keys())) {
+                    if (clave.attachment() instanceof Conexion c) cerrar(c);
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    System.err.println("Error al cerrar el selector: " + e.getMessage());
+                }
+            }
+        }
+
+        private void aceptar() {
+            try {
+                SocketChannel canal;
+                while ((canal = servidor.accept()) != null) {
+                    canal.configureBlocking(false);
+                    canal.socket().setTcpNoDelay(true);
+                    Conexion c = new Conexion(canal);
+                    c.clave = canal.register(selector, SelectionKey.OP_READ, c);
+                    conexiones.incrementAndGet();
+                }
+            } catch (IOException e) {
+                // Por ejemplo, si se acabaron los descriptores de archivo; las demás conexiones siguen.
+                System.err.println("Error al aceptar una conexión: " + e.getMessage());
+            }
+        }
+
+        /** Registra las conexiones que llegaron de otro bucle y procesa lo que ya traían leído. */
+        private void registrarRecibidas() {
+            Conexion c;
+            while ((c = recibidas.poll()) != null) {
+                try {
+                    c.clave = c.canal.register(selector, SelectionKey.OP_READ, c);
+                    if (c.salida.position() > 0) porEscribir.add(c);
+                    if (c.difusion != null) {
+                        agregarEspectador(c);
+                        continue;
+                    }
+                    procesar(c);
+                } catch (IOException e) {
+                    cerrar(c);
+                }
+            }
+        }
+
+        private void leer(Conexion c) {
+            try {
+                if (c.canal.read(c.entrada) < 0) {
+                    cerrar(c);
+                    return;
+                }
+            } catch (IOException e) {
+                cerrar(c);
+                return;
+            }
+            procesar(c);
+        }
+
+        /** Procesa todas las tramas completas que haya en la entrada de la conexión. */
+        private void procesar(Conexion c) {
+            ByteBuffer b = c.entrada;
+            if (c.difusion != null || c.espectadorRetirado) {
+                // Un espectador no tiene nada que pedir después de ESPECTAR.
+                cerrar(c);
+                return;
+            }
+            b.flip();
+            try {
+                while (!c.cerrada && ProtocoloRed.tramaCompleta(b) > 0) {
+                    int inicio = b.position();
+                    ProtocoloRed.leer(b, mensaje);
+                    switch (mensaje.tipo) {
+                        case ProtocoloRed.UNIRSE, ProtocoloRed.ESPECTAR -> {
+                            Bucle destino = bucles[Math.floorMod(mensaje.idPartida, bucles.length)];
+                            if (c.partida == null && destino != this) {
+                                // La partida vive en otro bucle: se le pasa la conexión con la trama sin consumir.
+                                b.position(inicio);
+                                b.compact();
+                                pasar(c, destino);
+                                return;
+                            }
+                            if (mensaje.tipo == ProtocoloRed.UNIRSE) {
+                                unirse(c, mensaje.version, mensaje.idPartida, mensaje.tamaño, mensaje.numJugadores);
+                            } else if (espectar(c, mensaje.version, mensaje.idPartida)) {
+                                return;
+                            }
+                        }
+                        case ProtocoloRed.JUGADA -> jugar(c, mensaje.jugada);
+                        default -> {
+                            rechazar(c, 0, ProtocoloRed.MENSAJE_INVALIDO);
+                            cerrar(c);
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Una trama mal formada: se corta la conexión.
+                cerrar(c);
+            }
+            b.compact();
+        }
+
+        private void unirse(Conexion c, int version, int idPartida, int tamaño, int numJugadores) {
+            if (version != ProtocoloRed.VERSION) {
+                rechazar(c, 0, ProtocoloRed.VERSION_INCOMPATIBLE);
+                return;
+            }
+            if (c.partida != null || !SesionPartida.parametrosValidos(tamaño, numJugadores, limites)) {
+                rechazar(c, 0, ProtocoloRed.MENSAJE_INVALIDO);
+                return;
+            }
+            PartidaRed p = partidasBucle.get(idPartida);
+            if (p == null) {
+                if (!enEspera.reservar(c.direccion)) {
+                    rechazar(c, 0, ProtocoloRed.SERVIDOR_OCUPADO);
+                    return;
+                }
+                p = new PartidaRed(idPartida, tamaño, numJugadores);
+                p.enEsperaDe = c.direccion;
+                partidasBucle.put(idPartida, p);
+                partidas.incrementAndGet();
+            }
+            if (!p.admite(tamaño, numJugadores)) {
+                rechazar(c, 0, ProtocoloRed.PARTIDA_LLENA);
+                return;
+            }
+            p.jugadores[p.unidos++] = c;
+            c.partida = p;
+            c.jugadorId = p.unidos;
+            if (reservar(c)) ProtocoloRed.escribirBienvenida(c.salida, p.id, c.jugadorId, tamaño, numJugadores);
+            if (p.iniciada()) {
+                enEspera.liberar(p);
+                for (Conexion j : p.jugadores) {
+                    if (reservar(j)) ProtocoloRed.escribirInicio(j.salida);
+                }
+            }
+        }
+
+        /** Valida y aplica una jugada, igual que {@code LocalGameActionHandler.placeLine}. */
+        private void jugar(Conexion c, int jugada) {
+            PartidaRed p = c.partida;
+            if (p == null) {
+                rechazar(c, jugada, ProtocoloRed.PARTIDA_NO_INICIADA);
+                return;
+            }
+            DeltaEstado delta = p.jugar(c.jugadorId, jugada, motivo);
+            if (delta == null) {
+                rechazar(c, jugada, motivo[0]);
+                return;
+            }
+            jugadasAceptadas.increment();
+            trama.clear();
+            ProtocoloRed.escribirDelta(trama, delta);
+            trama.flip();
+            p.difusion.publicar(jugada, trama);
+            for (Conexion j : p.jugadores) {
+                if (reservar(j)) j.salida.put(trama.array(), 0, trama.limit());
+            }
+            if (delta.terminado()) terminar(p);
+        }
+
+        private void rechazar(Conexion c, int jugada, byte motivo) {
+            if (reservar(c)) ProtocoloRed.escribirRechazo(c.salida, jugada, motivo);
+        }
+
+        /**
+         * Convierte la conexión en espectador de una partida de este bucle y se la pasa
+         * al bucle que le toca.
+         * @return Verdadero si la conexión ya es espectador y no debe procesarse más aquí.
+         */
+        private boolean espectar(Conexion c, int version, int idPartida) {
+            PartidaRed p = partidasBucle.get(idPartida);
+            byte motivo = version != ProtocoloRed.VERSION ? ProtocoloRed.VERSION_INCOMPATIBLE
+                    : c.partida != null ? ProtocoloRed.MENSAJE_INVALIDO
+                    : p == null ? ProtocoloRed.PARTIDA_NO_INICIADA : 0;
+            if (motivo != 0) {
+                rechazar(c, 0, motivo);
+                return false;
+            }
+            p.difusion.activar();
+            c.entrada.clear();
+            boolean anotada = c.salida.position() > 0;
+            ByteBuffer salida = ByteBuffer.allocate(SALIDA_ESPECTADOR);
+            c.salida.flip();
+            salida.put(c.salida);
+            c.salida = salida;
+            ProtocoloRed.escribirBienvenida(c.salida, p.id, 0, p.tamaño, p.numJugadores);
+            c.difusion = p.difusion;
+            c.cursor = 0;
+            espectadores.incrementAndGet();
+            // Los espectadores van a los otros bucles, para no retrasar a los jugadores de este.
+            int turno = p.espectadoresRepartidos++ % Math.max(1, bucles.length - 1);
+            Bucle destino = bucles.length == 1 ? this : bucles[(indice + 1 + turno) % bucles.length];
+            if (destino == this) {
+                if (!anotada) porEscribir.add(c);
+                agregarEspectador(c);
+            } else {
+                pasar(c, destino);
+            }
+            return true;
+        }
+
+        /** Le pasa una conexión a otro bucle; desde aquí ya no se toca. */
+        private void pasar(Conexion c, Bucle destino) {
+            // Lo que tuviera pendiente de enviar lo envía el otro bucle.
+            if (c.salida.position() > 0) porEscribir.remove(c);
+            c.clave.cancel();
+            destino.recibidas.add(c);
+            destino.selector.wakeup();
+        }
+
+        private void agregarEspectador(Conexion c) {
+            List<Conexion> lista = espectadoresBucle.get(c.difusion);
+            if (lista == null) {
+                lista = new ArrayList<>();
+                espectadoresBucle.put(c.difusion, lista);
+                c.difusion.suscribir(suscriptor);
+            }
+            c.indiceEspectador = lista.size();
+            lista.add(c);
+            bombear(c);
+        }
+
+        /**
+         * Quita al espectador de la lista de su partida y suelta su difusión. Si era el
+         * último de este bucle, el bucle también la suelta y deja de recibir sus avisos.
+         */
+        private void quitarEspectador(Conexion c) {
+            espectadores.decrementAndGet();
+            DifusionPartida d = c.difusion;
+            List<Conexion> lista = espectadoresBucle.get(d);
+            Conexion ultimo = lista.remove(lista.size() - 1);
+            if (ultimo != c) {
+                lista.set(c.indiceEspectador, ultimo);
+                ultimo.indiceEspectador = c.indiceEspectador;
+            }
+            if (lista.isEmpty()) {
+                espectadoresBucle.remove(d);
+                d.desuscribir(suscriptor);
+            }
+            c.difusion = null;
+        }
+
+        /** Lo llama el hilo de una partida cuando hay algo nuevo para los espectadores de este bucle. */
+        private void avisar(DifusionPartida d) {
+            avisos.add(d);
+            selector.wakeup();
+        }
+
+        private void atenderAvisos() {
+            DifusionPartida d;
+            while ((d = avisos.poll()) != null) {
+                List<Conexion> lista = espectadoresBucle.get(d);
+                // Un aviso que llegó después de que se fue el último espectador de este bucle.
+                if (lista == null) continue;
+                // Varios avisos de la misma partida se atienden de una vez. Se recorre desde el
+                // final porque bombear puede quitar al espectador, y su lugar lo toma el último.
+                for (int i = lista.size() - 1; i >= 0; i--) bombear(lista.get(i));
+            }
+        }
+
+        /**
+         * Copia a la salida de un espectador lo que le falta, hasta donde quepa. Si se
+         * atrasó más de {@link DifusionPartida#MAX_PENDIENTES} jugadas, o si los deltas
+         * que le faltan ya no están en el anillo, recibe solo las jugadas, como historia.
+         * Si la partida terminó y ya recibió todo, se le suelta la difusión; la conexión
+         * sigue abierta hasta que el cliente la cierre.
+         */
+        private void bombear(Conexion c) {
+            if (c.cerrada) return;
+            DifusionPartida d = c.difusion;
+            // Se lee antes que publicadas: si ya terminó, lo que se lea después es definitivo.
+            boolean terminada = d.isTerminada();
+            ByteBuffer salida = c.salida;
+            boolean vacia = salida.position() == 0;
+            while (true) {
+                long publicadas = d.getPublicadas();
+                long atraso = publicadas - c.cursor;
+                if (atraso == 0) {
+                    if (d.getAbandono() != 0 && !c.abandonoEnviado && salida.remaining() >= ProtocoloRed.MAX_TRAMA) {
+                        ProtocoloRed.escribirAbandono(salida, d.getAbandono());
+                        c.abandonoEnviado = true;
+                    }
+                    break;
+                }
+                byte[] t = atraso > DifusionPartida.MAX_PENDIENTES ? null : d.trama(c.cursor);
+                if (t == null) {
+                    if (salida.remaining() < ProtocoloRed.MAX_TRAMA) break;
+                    if (!c.poniendoseAlDia && c.cursor > 0) colapsos.increment();
+                    c.poniendoseAlDia = true;
+                    int hasta = (int) Math.min(publicadas, c.cursor + ProtocoloRed.MAX_JUGADAS_POR_HISTORIA);
+                    ProtocoloRed.escribirHistoria(salida, d.historia(), (int) c.cursor, hasta);
+                    c.cursor = hasta;
+                    continue;
+                }
+                if (t.length > salida.remaining()) break;
+                salida.put(t);
+                c.cursor++;
+                c.poniendoseAlDia = false;
+            }
+            if (vacia && salida.position() > 0) porEscribir.add(c);
+            if (terminada && c.cursor == d.getPublicadas() && (d.getAbandono() == 0 || c.abandonoEnviado)) {
+                quitarEspectador(c);
+                c.espectadorRetirado = true;
+            }
+        }
+
+        /** Da por terminada la partida; sus espectadores la sueltan en cuanto reciben lo último. */
+        private void terminar(PartidaRed p) {
+            p.terminada = true;
+            if (partidasBucle.remove(p.id, p)) partidas.decrementAndGet();
+            enEspera.liberar(p);
+            p.difusion.terminar();
+        }
+
+        /**
+         * Se asegura de que quepa una trama más en la salida de la conexión y la anota
+         * para escribirse al final de la vuelta. Si el cliente no está leyendo y la
+         * salida ya llegó al máximo, se cierra la conexión.
+         * @return Verdadero si se puede escribir la trama.
+         */
+        private boolean reservar(Conexion c) {
+            if (c.cerrada) return false;
+            if (c.salida.remaining() < ProtocoloRed.MAX_TRAMA) {
+                if (c.salida.capacity() >= MAX_SALIDA) {
+                    cerrar(c);
+                    return false;
+                }
+                ByteBuffer mayor = ByteBuffer.allocate(c.salida.capacity() * 2);
+                c.salida.flip();
+                mayor.put(c.salida);
+                c.salida = mayor;
+            }
+            if (c.salida.position() == 0) porEscribir.add(c);
+            return true;
+        }
+
+        private void escribir(Conexion c) {
+            if (c.cerrada || c.salida.position() == 0) return;
+            try {
+                c.salida.flip();
+                c.canal.write(c.salida);
+                c.salida.compact();
+            } catch (IOException e) {
+                cerrar(c);
+                return;
+            }
+            // Si el sistema no aceptó todo, se espera a que el canal vuelva a estar listo.
+            if (c.clave.isValid()) {
+                c.clave.interestOps(c.salida.position() > 0
+                        ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            }
+        }
+
+        private void cerrar(Conexion c) {
+            if (c.cerrada) return;
+            c.cerrada = true;
+            conexiones.decrementAndGet();
+            try {
+                c.canal.close();
+            } catch (IOException e) {
+                // Ya no hay nada que hacer con esta conexión.
+            }
+            PartidaRed p = c.partida;
+            if (c.difusion != null) {
+                quitarEspectador(c);
+            } else if (p != null && !p.terminada) {
+                // El abandono se publica antes del fin, para que ningún espectador se retire sin él.
+                p.difusion.abandonar(c.jugadorId);
+                terminar(p);
+                for (Conexion j : p.jugadores) {
+                    if (j != null && j != c && reservar(j)) ProtocoloRed.escribirAbandono(j.salida, c.jugadorId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Arranca un servidor desde la línea de comandos.
+     *
+     * @param args {@code [puerto] [hilos]}, por defecto 5000 y el número de núcleos, seguidos
+     * de las opciones de {@link LimitesServidor#deArgumentos}.
+     * @throws IOException si no se puede abrir el puerto.
+     * @throws InterruptedException si se interrumpe el hilo principal.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int posicionales = 0;
+        while (posicionales < args.length && !args[posicionales].startsWith("--")) posicionales++;
+        int puerto = posicionales > 0 ? Integer.parseInt(args[0]) : 5000;
+        int hilos = posicionales > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ServidorJuego servidor = new ServidorJuego(puerto, hilos, LimitesServidor.deArgumentos(args));
+        servidor.iniciar();
+        System.out.println("Servidor de Timbiriche escuchando en el puerto " + servidor.getPuerto() + " con " + hilos + " hilos");
+        while (true) {
+            Thread.sleep(10_000);
+            System.out.println("Conexiones: " + servidor.getConexiones() + ", partidas: " + servidor.getPartidas()
+                    + ", jugadas: " + servidor.getJugadasAceptadas());
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package itson.timbiriche;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Servidor de partidas en red con E/S bloqueante y un hilo virtual por conexión y
+ * por partida. Habla el mismo {@link ProtocoloRed} que {@link ServidorJuego}, así que
+ * el {@link RedGameActionHandler} sirve con cualquiera de los dos.
+ * <p>
+ * Cada conexión tiene un hilo virtual que lee sus tramas una tras otra. Las jugadas no
+ * se aplican ahí: se encolan en la partida, y el hilo virtual de la partida las toma de
+ * una en una, las valida con {@link SesionPartida} y reenvía el {@link DeltaEstado} a
+ * todos los jugadores. Así el estado de cada partida solo lo toca un hilo, igual que en
+ * el servidor NIO, pero el código se lee de arriba hacia abajo como un programa
+ * bloqueante normal; los hilos virtuales hacen que miles de ellos cuesten poco.
+ * <p>
+ * Un cliente no puede llenar la memoria del servidor mandando jugadas: el hilo de la
+ * conexión rechaza las que no son de su turno sin encolarlas, y si aun así acumula más de
+ * {@value #MAX_PENDIENTES} jugadas sin procesar, se cierra su conexión.
+ * <p>
+ * Para no "fijar" los hilos virtuales a su hilo portador mientras escriben, las
+ * escrituras se protegen con {@link ReentrantLock} en lugar de {@code synchronized}.
+ * <p>
+ * Las partidas que esperan jugadores se acotan con los mismos {@link LimitesServidor}
+ * que en el servidor NIO.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public class ServidorVirtual {
+
+    /** Cuántas jugadas puede tener un jugador en la cola de su partida antes de que se le desconecte. */
+    static final int MAX_PENDIENTES = 8;
+
+    private final ServerSocket servidor;
+    private final LimitesServidor limites;
+    private final PartidasEnEspera enEspera;
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentHashMap<Integer, PartidaVirtual> partidas = new ConcurrentHashMap<>();
+    private final Set<Conexion> conexiones = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger partidasEnCurso = new AtomicInteger();
+    private final LongAdder jugadasAceptadas = new LongAdder();
+    private volatile boolean activo = true;
+
+    /**
+     * Abre el puerto del servidor con los {@link LimitesServidor#PREDETERMINADOS}.
+     *
+     * @param puerto El puerto TCP, o 0 para que el sistema elija uno libre.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public ServidorVirtual(int puerto) throws IOException {
+        this(puerto, LimitesServidor.PREDETERMINADOS);
+    }
+
+    /**
+     * Abre el puerto del servidor. Hay que llamar a {@link #iniciar()} para empezar a atender.
+     *
+     * @param puerto El puerto TCP, o 0 para que el sistema elija uno libre.
+     * @param limites Lo que se admite de las partidas que esperan jugadores.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public ServidorVirtual(int puerto, LimitesServidor limites) throws IOException {
+        this.servidor = new ServerSocket(puerto, 1024);
+        this.limites = limites;
+        this.enEspera = new PartidasEnEspera(limites);
+    }
+
+    /** Empieza a aceptar conexiones en un hilo virtual. */
+    public void iniciar() {
+        hilos.execute(this::aceptar);
+    }
+
+    /** Cierra el puerto y todas las conexiones. */
+    public void detener() {
+        activo = false;
+        try {
+            servidor.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el servidor: " + e.getMessage());
+        }
+        for (Conexion c : conexiones) c.cerrar();
+        hilos.shutdownNow();
+    }
+
+    public int getPuerto() { return servidor.getLocalPort(); }
+    public int getConexiones() { return conexiones.size(); }
+    public int getPartidas() { return partidasEnCurso.get(); }
+    /** Cuántas partidas esperan jugadores. */
+    public int getPartidasEnEspera() { return enEspera.getTotal(); }
+    public long getJugadasAceptadas() { return jugadasAceptadas.sum(); }
+
+    private void aceptar() {
+        while (activo) {
+            try {
+                Socket socket = servidor.accept();
+                socket.setTcpNoDelay(true);
+                Conexion c = new Conexion(socket);
+                conexiones.add(c);
+                hilos.execute(() -> atender(c));
+            } catch (IOException e) {
+                if (activo) System.err.println("Error al aceptar una conexión: " + e.getMessage());
+            }
+        }
+    }
+
+    /** El hilo de una conexión: lee tramas hasta que el cliente se va. */
+    private void atender(Conexion c) {
+        byte[] datos = new byte[ProtocoloRed.MAX_TRAMA];
+        ByteBuffer b = ByteBuffer.wrap(datos);
+        MensajeRed m = new MensajeRed();
+        try {
+            DataInputStream entrada = new DataInputStream(new BufferedInputStream(c.socket.getInputStream()));
+            while (true) {
+                int longitud = entrada.readUnsignedShort();
+                if (longitud < 1 || longitud + 2 > ProtocoloRed.MAX_TRAMA) break; // Trama mal formada.
+                entrada.readFully(datos, 2, longitud);
+                b.clear().limit(longitud + 2);
+                b.putShort(0, (short) longitud);
+                ProtocoloRed.leer(b, m);
+                if (m.tipo == ProtocoloRed.UNIRSE) {
+                    unirse(c, m.version, m.idPartida, m.tamaño, m.numJugadores);
+                } else if (m.tipo == ProtocoloRed.JUGADA) {
+                    int jugada = m.jugada;
+                    PartidaVirtual p = c.partida;
+                    if (p == null || !p.enCurso) {
+                        c.enviarRechazo(jugada, ProtocoloRed.PARTIDA_NO_INICIADA);
+                    } else if (p.finalizada) {
+                        c.enviarRechazo(jugada, ProtocoloRed.PARTIDA_TERMINADA);
+                    } else if (p.turnoId != c.jugadorId) {
+                        // El hilo de la partida lo rechazaría igual; así no ocupa la cola.
+                        c.enviarRechazo(jugada, ProtocoloRed.NO_ES_TU_TURNO);
+                    } else if (c.pendientes.incrementAndGet() > MAX_PENDIENTES) {
+                        break; // Está inundando la partida: se le desconecta.
+                    } else {
+                        p.cola.put(new Peticion(c, jugada, false));
+                    }
+                } else {
+                    c.enviarRechazo(0, ProtocoloRed.MENSAJE_INVALIDO);
+                    break;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // El cliente se desconectó o envió algo inválido.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            c.cerrar();
+            conexiones.remove(c);
+            PartidaVirtual p = c.partida;
+            if (p != null) abandonar(p, c);
+        }
+    }
+
+    /**
+     * Avisa que un jugador se fue. Si la partida ya empezó, su hilo se encarga; si no,
+     * se quita del mapa aquí mismo para que nadie más se una a ella.
+     */
+    private void abandonar(PartidaVirtual p, Conexion c) {
+        boolean[] quitada = new boolean[1];
+        partidas.computeIfPresent(p.id, (id, actual) -> {
+            if (actual != p || p.enCurso) return actual;
+            quitada[0] = true;
+            enEspera.liberar(p);
+            return null;
+        });
+        if (!quitada[0]) {
+            p.cola.add(new Peticion(c, 0, true));
+            return;
+        }
+        p.finalizada = true;
+        ByteBuffer trama = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+        ProtocoloRed.escribirAbandono(trama, c.jugadorId);
+        for (Conexion j : p.jugadores) {
+            if (j != null) difundirA(j, trama, c);
+        }
+    }
+
+    private void unirse(Conexion c, int version, int idPartida, int tamaño, int numJugadores) {
+        if (version != ProtocoloRed.VERSION) {
+            c.enviarRechazo(0, ProtocoloRed.VERSION_INCOMPATIBLE);
+            return;
+        }
+        if (c.partida != null || !SesionPartida.parametrosValidos(tamaño, numJugadores, limites)) {
+            c.enviarRechazo(0, ProtocoloRed.MENSAJE_INVALIDO);
+            return;
+        }
+        // compute() bloquea la entrada del mapa, así que dos jugadores no pueden quedarse con el mismo lugar.
+        InetAddress direccion = c.socket.getInetAddress();
+        PartidaVirtual p = partidas.compute(idPartida, (id, actual) -> {
+            PartidaVirtual partida = actual;
+            if (partida == null) {
+                if (!enEspera.reservar(direccion)) return null;
+                partida = new PartidaVirtual(id, tamaño, numJugadores);
+                partida.enEsperaDe = direccion;
+            }
+            if (!partida.admite(tamaño, numJugadores)) return partida;
+            partida.jugadores[partida.unidos++] = c;
+            c.partida = partida;
+            c.jugadorId = partida.unidos;
+            partida.enCurso = partida.iniciada();
+            if (partida.enCurso) enEspera.liberar(partida);
+            return partida;
+        });
+        if (p == null) {
+            c.enviarRechazo(0, ProtocoloRed.SERVIDOR_OCUPADO);
+            return;
+        }
+        if (c.partida != p) {
+            c.enviarRechazo(0, ProtocoloRed.PARTIDA_LLENA);
+            return;
+        }
+        c.enviar(b -> ProtocoloRed.escribirBienvenida(b, p.id, c.jugadorId, tamaño, numJugadores));
+        // La partida arranca cuando todos recibieron su bienvenida, no cuando se une el último:
+        // otro jugador pudo haberse unido antes sin haber recibido la suya todavía, y el
+        // cliente rechaza el INICIO si llega antes que la BIENVENIDA.
+        if (p.bienvenidas.incrementAndGet() == numJugadores) {
+            partidasEnCurso.incrementAndGet();
+            hilos.execute(() -> jugar(p));
+        }
+    }
+
+    /** El hilo de una partida: aplica las jugadas en orden hasta que termina. */
+    private void jugar(PartidaVirtual p) {
+        byte[] motivo = new byte[1];
+        ByteBuffer trama = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+        try {
+            ProtocoloRed.escribirInicio(trama);
+            difundir(p, trama, null);
+            while (!p.terminada) {
+                Peticion pet = p.cola.take();
+                if (pet.abandono()) {
+                    p.terminada = true;
+                    trama.clear();
+                    ProtocoloRed.escribirAbandono(trama, pet.origen().jugadorId);
+                    difundir(p, trama, pet.origen());
+                    break;
+                }
+                pet.origen().pendientes.decrementAndGet();
+                DeltaEstado delta = p.jugar(pet.origen().jugadorId, pet.jugada(), motivo);
+                if (delta == null) {
+                    pet.origen().enviarRechazo(pet.jugada(), motivo[0]);
+                    continue;
+                }
+                // Antes de difundir: el siguiente jugador solo tira después de recibir el delta.
+                p.turnoId = delta.siguienteJugadorId();
+                jugadasAceptadas.increment();
+                trama.clear();
+                ProtocoloRed.escribirDelta(trama, delta);
+                difundir(p, trama, null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            p.finalizada = true;
+            partidas.remove(p.id, p);
+            partidasEnCurso.decrementAndGet();
+        }
+    }
+
+    /** Envía la misma trama a todos los jugadores de la partida, menos a {@code excepto}. */
+    private static void difundir(PartidaVirtual p, ByteBuffer trama, Conexion excepto) {
+        for (Conexion j : p.jugadores) difundirA(j, trama, excepto);
+    }
+
+    private static void difundirA(Conexion j, ByteBuffer trama, Conexion excepto) {
+        if (j != excepto) j.enviar(trama.array(), trama.position());
+    }
+
+    /** Una jugada (o un abandono) en la cola de una partida. */
+    private record Peticion(Conexion origen, int jugada, boolean abandono) {
+    }
+
+    /** Una partida de este servidor: la sesión, sus jugadores y la cola de jugadas pendientes. */
+    private static final class PartidaVirtual extends SesionPartida {
+        final Conexion[] jugadores;
+        /** Cada jugador tiene a lo más {@link #MAX_PENDIENTES} jugadas y un abandono en la cola. */
+        final BlockingQueue<Peticion> cola;
+        /** Cuántos jugadores ya recibieron su bienvenida; con todos, arranca la partida. */
+        final AtomicInteger bienvenidas = new AtomicInteger();
+        /**
+         * El ID del jugador en turno, para que los hilos de las conexiones descarten las
+         * jugadas fuera de turno; solo lo escribe el hilo de la partida.
+         */
+        volatile int turnoId = 1;
+        /** Verdadero desde que se unió el último jugador. */
+        volatile boolean enCurso;
+        /** Verdadero cuando el hilo de la partida ya no acepta jugadas. */
+        volatile boolean finalizada;
+
+        PartidaVirtual(int id, int tamaño, int numJugadores) {
+            super(id, tamaño, numJugadores);
+            this.jugadores = new Conexion[numJugadores];
+            this.cola = new LinkedBlockingQueue<>(numJugadores * (MAX_PENDIENTES + 1));
+        }
+    }
+
+    /** Una conexión de cliente. Pueden escribirle su propio hilo y el de su partida. */
+    private static final class Conexion {
+        final Socket socket;
+        final ReentrantLock candado = new ReentrantLock();
+        final ByteBuffer buffer = ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA);
+        final OutputStream salida;
+        volatile PartidaVirtual partida;
+        volatile int jugadorId;
+        /** Las jugadas de esta conexión que esperan en la cola de su partida. */
+        final AtomicInteger pendientes = new AtomicInteger();
+
+        Conexion(Socket socket) throws IOException {
+            this.socket = socket;
+            this.salida = new BufferedOutputStream(socket.getOutputStream(), ProtocoloRed.MAX_TRAMA * 4);
+        }
+
+        /** Arma una trama con {@code escritor} y la envía. */
+        void enviar(Consumer<ByteBuffer> escritor) {
+            candado.lock();
+            try {
+                buffer.clear();
+                escritor.accept(buffer);
+                escribir(buffer.array(), buffer.position());
+            } finally {
+                candado.unlock();
+            }
+        }
+
+        void enviar(byte[] datos, int longitud) {
+            candado.lock();
+            try {
+                escribir(datos, longitud);
+            } finally {
+                candado.unlock();
+            }
+        }
+
+        void enviarRechazo(int jugada, byte motivo) {
+            enviar(b -> ProtocoloRed.escribirRechazo(b, jugada, motivo));
+        }
+
+        /** Escribe con el candado tomado; si falla, cierra el socket para que su hilo lo note. */
+        private void escribir(byte[] datos, int longitud) {
+            try {
+                salida.write(datos, 0, longitud);
+                salida.flush();
+            } catch (IOException e) {
+                cerrar();
+            }
+        }
+
+        void cerrar() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Ya no hay nada que hacer con esta conexión.
+            }
+        }
+    }
+
+    /**
+     * Arranca un servidor desde la línea de comandos.
+     *
+     * @param args {@code [puerto]}, por defecto 5000, seguido de las opciones de
+     * {@link LimitesServidor#deArgumentos}.
+     * @throws IOException si no se puede abrir el puerto.
+     * @throws InterruptedException si se interrumpe el hilo principal.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int puerto = args.length > 0 && !args[0].startsWith("--") ? Integer.parseInt(args[0]) : 5000;
+        ServidorVirtual servidor = new ServidorVirtual(puerto, LimitesServidor.deArgumentos(args));
+        servidor.iniciar();
+        System.out.println("Servidor de Timbiriche (hilos virtuales) escuchando en el puerto " + servidor.getPuerto());
+        while (true) {
+            Thread.sleep(10_000);
+            System.out.println("Conexiones: " + servidor.getConexiones() + ", partidas: " + servidor.getPartidas()
+                    + ", jugadas: " + servidor.getJugadasAceptadas());
+        }
+    }
+}
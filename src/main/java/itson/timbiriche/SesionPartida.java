@@ -0,0 +1,90 @@
+package itson.timbiriche;
+
+import java.net.InetAddress;
+
+/**
+ * El estado de una partida en red del lado del servidor, común a
+ * {@link ServidorJuego} y {@link ServidorVirtual}: el {@link MotorTimbiriche} con
+ * las reglas, quién se ha unido y si la partida ya terminó.
+ * <p>
+ * Aquí vive la validación de las jugadas, para que los dos servidores sean igual de
+ * estrictos. No es segura para hilos; cada servidor decide cómo protegerla.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+class SesionPartida {
+
+    final int id;
+    final int tamaño;
+    final int numJugadores;
+    final MotorTimbiriche motor;
+    /** Cuántos jugadores se han unido; el siguiente recibe el ID {@code unidos + 1}. */
+    int unidos;
+    /** Verdadero si la partida terminó, ya sea completa o porque alguien se fue. */
+    boolean terminada;
+    /**
+     * La dirección de quien creó la partida mientras cuenta en {@link PartidasEnEspera};
+     * {@code null} desde que empieza o se deshace.
+     */
+    InetAddress enEsperaDe;
+
+    SesionPartida(int id, int tamaño, int numJugadores) {
+        this.id = id;
+        this.tamaño = tamaño;
+        this.numJugadores = numJugadores;
+        int[] ids = new int[numJugadores];
+        for (int i = 0; i < numJugadores; i++) ids[i] = i + 1;
+        this.motor = new MotorTimbiriche(tamaño, ids);
+    }
+
+    /** Indica si ya se unieron todos los jugadores. */
+    boolean iniciada() {
+        return unidos == numJugadores;
+    }
+
+    /** Indica si una petición de unirse pide una partida con estas mismas características. */
+    boolean admite(int tamaño, int numJugadores) {
+        return !iniciada() && this.tamaño == tamaño && this.numJugadores == numJugadores;
+    }
+
+    /**
+     * Indica si los parámetros de una petición de unirse son aceptables.
+     * @param limites Los límites del servidor, que fijan el tablero más grande.
+     */
+    static boolean parametrosValidos(int tamaño, int numJugadores, LimitesServidor limites) {
+        return tamaño >= 2 && tamaño <= limites.tamañoMaximo()
+                && numJugadores >= 1 && numJugadores <= TableroBits.MAX_DUEÑOS;
+    }
+
+    /**
+     * Valida y aplica una jugada con las mismas reglas que {@code LocalGameActionHandler}:
+     * debe ser el turno de quien la envía y la línea debe existir y estar libre.
+     *
+     * @param jugadorId El ID de quien envía la jugada.
+     * @param jugada La jugada codificada con {@link Jugada}.
+     * @param rechazo Donde se deja el motivo de rechazo (posición 0) si la jugada no se acepta.
+     * @return Lo que cambió, o {@code null} si la jugada se rechazó.
+     */
+    DeltaEstado jugar(int jugadorId, int jugada, byte[] rechazo) {
+        byte motivo;
+        if (!iniciada()) {
+            motivo = ProtocoloRed.PARTIDA_NO_INICIADA;
+        } else if (terminada) {
+            motivo = ProtocoloRed.PARTIDA_TERMINADA;
+        } else if (motor.getJugadorActualId() != jugadorId) {
+            motivo = ProtocoloRed.NO_ES_TU_TURNO;
+        } else if (!motor.esJugadaValida(jugada)) {
+            motivo = ProtocoloRed.FUERA_DEL_TABLERO;
+        } else {
+            DeltaEstado delta = motor.aplicar(jugada);
+            if (delta != null) {
+                if (delta.terminado()) terminada = true;
+                return delta;
+            }
+            motivo = ProtocoloRed.LINEA_OCUPADA;
+        }
+        rechazo[0] = motivo;
+        return null;
+    }
+}
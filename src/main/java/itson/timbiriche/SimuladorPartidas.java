@@ -0,0 +1,284 @@
+package itson.timbiriche;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Juega partidas completas entre dos {@link PoliticaJugada} sin interfaz gráfica,
+ * repartidas entre todos los núcleos, para ajustar estrategias y revisar el balance
+ * del juego.
+ * <p>
+ * Las partidas se juegan directamente sobre un {@link TableroBits} por hilo, que se
+ * reinicia copiando un tablero vacío, así que el ciclo de juego no reserva memoria ni
+ * notifica a oyentes. Los hilos toman las partidas en bloques de un contador común y
+ * escriben cada resultado como una fila CSV:
+ * <pre>
+ * partida,inicia,ganador,puntos1,puntos2,jugadas,nanos
+ * </pre>
+ * {@code inicia} y {@code ganador} son 1 o 2 ({@code ganador} es 0 en un empate). El
+ * jugador que inicia se alterna entre partidas para no sesgar el balance.
+ * <p>
+ * Uso desde la línea de comandos:
+ * <pre>
+ * java itson.timbiriche.SimuladorPartidas --partidas 1000000 --tamaño 10 \
+ *      --politicas codiciosa,aleatoria --hilos 8 --salida resultados.csv
+ * </pre>
+ * Con {@code --salida ninguna} no se escribe nada y solo se mide el rendimiento.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public class SimuladorPartidas {
+
+    /** Cuántas partidas toma un hilo del contador común cada vez. */
+    private static final int PARTIDAS_POR_BLOQUE = 1024;
+    /** Cuántos caracteres acumula un hilo antes de escribirlos en la salida. */
+    private static final int TAMAÑO_BUFFER = 1 << 16;
+
+    private final int tamaño;
+    private final PoliticaJugada politica1;
+    private final PoliticaJugada politica2;
+
+    /**
+     * Resumen de una ejecución del simulador.
+     *
+     * @param partidas Partidas jugadas.
+     * @param victorias1 Partidas ganadas por el jugador 1.
+     * @param victorias2 Partidas ganadas por el jugador 2.
+     * @param empates Partidas empatadas.
+     * @param nanos Duración total en nanosegundos.
+     */
+    public record Resumen(long partidas, long victorias1, long victorias2, long empates, long nanos) {
+
+        public double partidasPorSegundo() {
+            return nanos == 0 ? 0 : partidas * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("partidas=%d victorias1=%d victorias2=%d empates=%d tiempo=%.1fs partidas/s=%.0f",
+                    partidas, victorias1, victorias2, empates, nanos / 1e9, partidasPorSegundo());
+        }
+    }
+
+    /**
+     * Crea el simulador.
+     *
+     * @param tamaño Número de puntos por lado del tablero.
+     * @param politica1 La política del jugador 1.
+     * @param politica2 La política del jugador 2.
+     */
+    public SimuladorPartidas(int tamaño, PoliticaJugada politica1, PoliticaJugada politica2) {
+        this.tamaño = tamaño;
+        this.politica1 = politica1;
+        this.politica2 = politica2;
+    }
+
+    /**
+     * Juega las partidas indicadas y espera a que terminen. Mientras corre imprime
+     * cada segundo cuántas partidas por segundo se están jugando.
+     *
+     * @param partidas Cuántas partidas jugar.
+     * @param numHilos Cuántos hilos usar.
+     * @param salida Dónde escribir las filas CSV, o {@code null} para no escribir nada.
+     * @param semilla La semilla base; cada hilo usa {@code semilla + i}.
+     * @return El resumen de la ejecución.
+     * @throws IOException si falla la escritura de la salida.
+     */
+    public Resumen ejecutar(long partidas, int numHilos, Writer salida, long semilla) throws IOException {
+        if (numHilos < 1) throw new IllegalArgumentException("Se necesita al menos un hilo: " + numHilos);
+        if (salida != null) salida.write("partida,inicia,ganador,puntos1,puntos2,jugadas,nanos\n");
+
+        long inicio = System.nanoTime();
+        AtomicLong siguiente = new AtomicLong();
+        LongAdder jugadas = new LongAdder();
+        ExecutorService hilos = Executors.newFixedThreadPool(numHilos, r -> {
+            Thread hilo = new Thread(r, "timbiriche-simulador");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        ScheduledExecutorService reloj = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "timbiriche-simulador-progreso");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        long[] ultimas = {0, inicio};
+        reloj.scheduleAtFixedRate(() -> {
+            long hechas = jugadas.sum();
+            long ahora = System.nanoTime();
+            double porSegundo = (hechas - ultimas[0]) * 1e9 / (ahora - ultimas[1]);
+            ultimas[0] = hechas;
+            ultimas[1] = ahora;
+            System.out.printf("%,d de %,d partidas (%,.0f partidas/s)%n", hechas, partidas, porSegundo);
+        }, 1, 1, TimeUnit.SECONDS);
+
+        List<Future<long[]>> trabajadores = new ArrayList<>();
+        try {
+            for (int i = 0; i < numHilos; i++) {
+                Trabajador t = new Trabajador(partidas, siguiente, jugadas, salida, new SplittableRandom(semilla + i));
+                trabajadores.add(hilos.submit(t::ejecutar));
+            }
+            long[] victorias = new long[3];
+            for (Future<long[]> f : trabajadores) {
+                long[] parcial = f.get();
+                for (int j = 0; j < victorias.length; j++) victorias[j] += parcial[j];
+            }
+            if (salida != null) salida.flush();
+            return new Resumen(partidas, victorias[1], victorias[2], victorias[0], System.nanoTime() - inicio);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("La simulación fue interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            throw new IllegalStateException("Error en un hilo de simulación", e.getCause());
+        } finally {
+            reloj.shutdownNow();
+            hilos.shutdownNow();
+        }
+    }
+
+    /**
+     * Juega una partida completa sobre el tablero indicado, que debe estar vacío.
+     *
+     * @param tablero El tablero donde se juega; queda con la partida terminada.
+     * @param inicia El jugador que hace la primera jugada (1 o 2).
+     * @param random El generador de números aleatorios para las políticas.
+     * @return Cuántas líneas se pusieron.
+     */
+    public int jugar(TableroBits tablero, int inicia, SplittableRandom random) {
+        int turno = inicia;
+        int jugadas = 0;
+        while (!tablero.isCompleto()) {
+            PoliticaJugada politica = turno == 1 ? politica1 : politica2;
+            int linea = politica.elegir(tablero, random);
+            if (tablero.colocar(linea, turno) == 0) turno = 3 - turno;
+            jugadas++;
+        }
+        return jugadas;
+    }
+
+    /**
+     * El trabajo de un hilo: toma bloques de partidas hasta que no quedan.
+     */
+    private final class Trabajador {
+        private final long partidas;
+        private final AtomicLong siguiente;
+        private final LongAdder jugadas;
+        private final Writer salida;
+        private final SplittableRandom random;
+        private final TableroBits vacio = new TableroBits(tamaño);
+        private final TableroBits tablero = new TableroBits(tamaño);
+        private final StringBuilder buffer = new StringBuilder(TAMAÑO_BUFFER + 256);
+
+        Trabajador(long partidas, AtomicLong siguiente, LongAdder jugadas, Writer salida, SplittableRandom random) {
+            this.partidas = partidas;
+            this.siguiente = siguiente;
+            this.jugadas = jugadas;
+            this.salida = salida;
+            this.random = random;
+        }
+
+        /** @return Empates, victorias del jugador 1 y victorias del jugador 2, en ese orden. */
+        long[] ejecutar() {
+            long[] victorias = new long[3];
+            long desde;
+            while ((desde = siguiente.getAndAdd(PARTIDAS_POR_BLOQUE)) < partidas) {
+                long hasta = Math.min(partidas, desde + PARTIDAS_POR_BLOQUE);
+                for (long partida = desde; partida < hasta; partida++) {
+                    int inicia = (int) (partida & 1) + 1;
+                    long t0 = System.nanoTime();
+                    tablero.copiarDe(vacio);
+                    int lineas = jugar(tablero, inicia, random);
+                    long nanos = System.nanoTime() - t0;
+                    int puntos1 = contarCuadros(1);
+                    int puntos2 = tablero.getNumCuadros() - puntos1;
+                    int ganador = puntos1 > puntos2 ? 1 : puntos2 > puntos1 ? 2 : 0;
+                    victorias[ganador]++;
+                    if (salida != null) {
+                        buffer.append(partida).append(',').append(inicia).append(',').append(ganador).append(',')
+                                .append(puntos1).append(',').append(puntos2).append(',').append(lineas).append(',')
+                                .append(nanos).append('\n');
+                        if (buffer.length() >= TAMAÑO_BUFFER) vaciarBuffer();
+                    }
+                }
+                jugadas.add(hasta - desde);
+            }
+            if (salida != null) vaciarBuffer();
+            return victorias;
+        }
+
+        private int contarCuadros(int dueño) {
+            int total = 0;
+            for (int c = 0; c < tablero.getNumCuadros(); c++) {
+                if (tablero.getDueñoCuadro(c) == dueño) total++;
+            }
+            return total;
+        }
+
+        private void vaciarBuffer() {
+            try {
+                synchronized (salida) {
+                    salida.append(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.setLength(0);
+        }
+    }
+
+    /**
+     * Ejecuta el simulador desde la línea de comandos. Opciones (todas opcionales):
+     * {@code --partidas}, {@code --tamaño}, {@code --hilos}, {@code --politicas}
+     * (dos nombres separados por coma), {@code --semilla} y {@code --salida}
+     * (un archivo CSV, o "ninguna").
+     *
+     * @param args Las opciones en pares {@code --nombre valor}.
+     * @throws IOException si no se puede escribir el archivo de salida.
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opciones = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Opción inválida: " + args[i]);
+            opciones.put(args[i].substring(2), args[i + 1]);
+        }
+        long partidas = Long.parseLong(opciones.getOrDefault("partidas", "1000000"));
+        int tamaño = Integer.parseInt(opciones.getOrDefault("tamaño", String.valueOf(JuegoConfig.TAMANIO_TABLERO)));
+        int numHilos = Integer.parseInt(opciones.getOrDefault("hilos",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        long semilla = Long.parseLong(opciones.getOrDefault("semilla", String.valueOf(System.nanoTime())));
+        String[] politicas = opciones.getOrDefault("politicas", "codiciosa,codiciosa").split(",");
+        if (politicas.length != 2) throw new IllegalArgumentException("Se necesitan dos políticas separadas por coma");
+        String archivo = opciones.getOrDefault("salida", "simulacion.csv");
+
+        SimuladorPartidas simulador = new SimuladorPartidas(tamaño,
+                PoliticaJugada.porNombre(politicas[0]), PoliticaJugada.porNombre(politicas[1]));
+        Resumen resumen;
+        if (archivo.equals("ninguna")) {
+            resumen = simulador.ejecutar(partidas, numHilos, null, semilla);
+        } else {
+            try (BufferedWriter salida = Files.newBufferedWriter(Path.of(archivo), StandardCharsets.UTF_8)) {
+                resumen = simulador.ejecutar(partidas, numHilos, salida, semilla);
+            }
+        }
+        System.out.println(resumen);
+    }
+}
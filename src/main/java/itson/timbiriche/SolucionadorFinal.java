@@ -0,0 +1,172 @@
+package itson.timbiriche;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resuelve de forma exacta los finales de partida formados solo por cadenas y lazos.
+ * <p>
+ * Cuando ya no quedan jugadas seguras, cada cuadro abierto tiene exactamente dos
+ * lados puestos y el tablero se parte en componentes independientes:
+ * <ul>
+ * <li><b>Cadenas</b>: filas de cuadros que terminan en el borde (o en un cuadro ya
+ * cerrado) por ambos lados.</li>
+ * <li><b>Lazos</b>: filas de cuadros que se cierran sobre sí mismas.</li>
+ * </ul>
+ * En esa situación quien tiene el turno está obligado a "abrir" alguna componente,
+ * y el rival decide si se come todos sus cuadros (y abre la siguiente) o si se come
+ * todos menos dos (cuatro en un lazo) y se los regala para conservar el control.
+ * Con eso el valor exacto se calcula sin buscar jugada por jugada, solo sobre el
+ * conjunto de longitudes:
+ * <pre>
+ *   V(vacío) = 0
+ *   V(S) = max sobre cada componente k de S de  -rival(k, S - k)
+ *   rival(cadena c, R) = c + V(R)                          si c &lt;= 2
+ *                      = max(c + V(R), c - 4 - V(R))       si c &gt;= 3
+ *   rival(lazo l, R)   = max(l + V(R), l - 8 - V(R))
+ * </pre>
+ * {@code V} es la ventaja de cuadros de quien tiene el turno, el mismo valor que
+ * calcula {@link BusquedaAlfaBeta}, así que sirve como corte exacto de la búsqueda.
+ * <p>
+ * No es seguro para hilos: cada búsqueda debe usar su propia instancia.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public class SolucionadorFinal {
+
+    /** Valor devuelto cuando la posición no es un final de cadenas y lazos. */
+    public static final int NO_APLICA = Integer.MIN_VALUE;
+    /** Las componentes se codifican como caracteres; los lazos llevan este bit extra. */
+    private static final char MARCA_LAZO = 0x8000;
+    /** Tamaño máximo de la memoria de valores antes de vaciarla. */
+    private static final int MAX_MEMORIA = 1 << 16;
+
+    /** Valores ya calculados, indexados por el conjunto ordenado de componentes. */
+    private final Map<String, Integer> memoria = new HashMap<>();
+    private boolean[] visitado = new boolean[0];
+    private char[] componentes = new char[0];
+
+    /**
+     * Calcula el valor exacto de un final de cadenas y lazos.
+     *
+     * @param tablero El tablero a analizar (no se modifica).
+     * @return La ventaja de cuadros de quien tiene el turno con juego perfecto, o
+     * {@link #NO_APLICA} si hay capturas pendientes, jugadas seguras o cuadros que
+     * no forman parte de una cadena o un lazo simple.
+     */
+    public int resolver(TableroBits tablero) {
+        int n = descomponer(tablero);
+        if (n < 0) return NO_APLICA;
+        char[] clave = Arrays.copyOf(componentes, n);
+        Arrays.sort(clave);
+        return valor(clave);
+    }
+
+    /**
+     * Parte el tablero en cadenas y lazos y los deja en {@link #componentes}.
+     * @return Cuántas componentes hay, o -1 si la posición no es un final simple.
+     */
+    private int descomponer(TableroBits tablero) {
+        int numCuadros = tablero.getNumCuadros();
+        if (visitado.length != numCuadros) {
+            visitado = new boolean[numCuadros];
+            componentes = new char[numCuadros];
+        } else {
+            Arrays.fill(visitado, false);
+        }
+        // Todos los cuadros abiertos deben tener exactamente dos lados.
+        for (int c = 0; c < numCuadros; c++) {
+            int lados = tablero.lados(c);
+            if (lados != 4 && lados != 2) return -1;
+        }
+
+        int n = 0;
+        for (int c = 0; c < numCuadros; c++) {
+            if (visitado[c] || tablero.lados(c) == 4) continue;
+            visitado[c] = true;
+            int primera = lineaLibre(tablero, c, -1);
+            int segunda = lineaLibre(tablero, c, primera);
+            int ida = recorrer(tablero, c, primera);
+            if (ida < 0) {
+                // Se volvió al cuadro inicial: es un lazo.
+                componentes[n++] = (char) (MARCA_LAZO | -ida);
+            } else {
+                componentes[n++] = (char) (1 + ida + recorrer(tablero, c, segunda));
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Camina por la componente desde un cuadro, cruzando la línea libre indicada,
+     * hasta llegar al borde o volver al cuadro inicial.
+     * @return Cuántos cuadros nuevos se recorrieron, o {@code -(total del lazo)} si se volvió al inicio.
+     */
+    private int recorrer(TableroBits tablero, int inicio, int linea) {
+        int actual = inicio;
+        int cuenta = 0;
+        while (true) {
+            int siguiente = otroCuadro(tablero, linea, actual);
+            if (siguiente < 0) return cuenta; // Llegó al borde.
+            if (siguiente == inicio) return -(cuenta + 1);
+            visitado[siguiente] = true;
+            cuenta++;
+            linea = lineaLibre(tablero, siguiente, linea);
+            actual = siguiente;
+        }
+    }
+
+    /** El cuadro al otro lado de una línea, o -1 si del otro lado está el borde. */
+    private static int otroCuadro(TableroBits tablero, int linea, int cuadro) {
+        int a = tablero.cuadroVecino(linea, 0);
+        return a == cuadro ? tablero.cuadroVecino(linea, 1) : a;
+    }
+
+    /** Una línea libre del cuadro distinta de {@code excepto}. */
+    private static int lineaLibre(TableroBits tablero, int cuadro, int excepto) {
+        int lado = tablero.getTamaño() - 1;
+        int f = cuadro / lado;
+        int c = cuadro % lado;
+        int[] lineas = {tablero.idHorizontal(f, c), tablero.idHorizontal(f + 1, c),
+                        tablero.idVertical(f, c), tablero.idVertical(f, c + 1)};
+        for (int l : lineas) {
+            if (l != excepto && !tablero.estaOcupada(l)) return l;
+        }
+        throw new IllegalStateException("El cuadro " + cuadro + " no tiene dos líneas libres");
+    }
+
+    /**
+     * Valor de un conjunto ordenado de componentes para quien debe abrir una.
+     */
+    private int valor(char[] clave) {
+        if (clave.length == 0) return 0;
+        String llave = new String(clave);
+        Integer guardado = memoria.get(llave);
+        if (guardado != null) return guardado;
+
+        int mejor = Integer.MIN_VALUE;
+        for (int i = 0; i < clave.length; i++) {
+            if (i > 0 && clave[i] == clave[i - 1]) continue; // Misma componente que la anterior.
+            char[] resto = new char[clave.length - 1];
+            System.arraycopy(clave, 0, resto, 0, i);
+            System.arraycopy(clave, i + 1, resto, i, resto.length - i);
+            int vResto = valor(resto);
+            boolean lazo = (clave[i] & MARCA_LAZO) != 0;
+            int largo = clave[i] & ~MARCA_LAZO;
+            int rival;
+            if (lazo) {
+                rival = Math.max(largo + vResto, largo - 8 - vResto);
+            } else if (largo <= 2) {
+                rival = largo + vResto;
+            } else {
+                rival = Math.max(largo + vResto, largo - 4 - vResto);
+            }
+            mejor = Math.max(mejor, -rival);
+        }
+        if (memoria.size() >= MAX_MEMORIA) memoria.clear();
+        memoria.put(llave, mejor);
+        return mejor;
+    }
+}
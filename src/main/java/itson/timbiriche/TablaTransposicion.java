@@ -0,0 +1,106 @@
+package itson.timbiriche;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Tabla de transposición de tamaño fijo para las búsquedas de la computadora.
+ * <p>
+ * Guarda, para cada posición ya analizada, el valor encontrado, la profundidad
+ * a la que se buscó, el tipo de cota y la mejor jugada. Las posiciones se
+ * identifican por un hash Zobrist: un número aleatorio por línea que se combina
+ * con XOR al poner o quitar la línea, así que se actualiza en O(1) por jugada.
+ * <p>
+ * Cada entrada ocupa dos {@code long} (clave y datos) y la tabla nunca crece: si
+ * dos posiciones caen en la misma casilla, la nueva reemplaza a la anterior.
+ * <p>
+ * La tabla se puede compartir entre varios hilos sin candados: en lugar del hash
+ * se guarda {@code hash ^ datos}. Si dos hilos escriben la misma casilla a la vez
+ * y un lector ve la clave de uno con los datos del otro, el XOR ya no coincide
+ * con el hash buscado y la entrada simplemente se ignora.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public class TablaTransposicion {
+
+    /** El valor guardado es exacto. */
+    public static final int EXACTO = 1;
+    /** El valor guardado es una cota inferior (la búsqueda se cortó por beta). */
+    public static final int INFERIOR = 2;
+    /** El valor guardado es una cota superior (ninguna jugada superó alfa). */
+    public static final int SUPERIOR = 3;
+
+    private final long[] claves;
+    private final long[] datos;
+    private final int mascara;
+
+    /**
+     * Crea una tabla que ocupa como máximo la memoria indicada.
+     * @param megabytes Memoria máxima en MB (se redondea hacia abajo a una potencia de 2 de entradas).
+     */
+    public TablaTransposicion(int megabytes) {
+        long entradas = Math.max(1024, (long) megabytes * 1024 * 1024 / 16);
+        int tamaño = Integer.highestOneBit((int) Math.min(entradas, 1 << 28));
+        this.claves = new long[tamaño];
+        this.datos = new long[tamaño];
+        this.mascara = tamaño - 1;
+    }
+
+    /**
+     * Genera las claves Zobrist para un tablero. Usa una semilla fija para que el
+     * mismo tablero produzca siempre los mismos hashes.
+     * @param numLineas El número de líneas del tablero.
+     * @return Un arreglo con un número aleatorio por id de línea.
+     */
+    public static long[] clavesZobrist(int numLineas) {
+        SplittableRandom random = new SplittableRandom(0x7153_2A0B_1C4E_D6F5L);
+        long[] z = new long[numLineas];
+        for (int i = 0; i < numLineas; i++) z[i] = random.nextLong();
+        return z;
+    }
+
+    /**
+     * Busca una posición.
+     * @param hash El hash Zobrist de la posición.
+     * @return Los datos empaquetados de la entrada, o 0 si la posición no está.
+     */
+    public long buscar(long hash) {
+        int i = (int) hash & mascara;
+        long d = datos[i];
+        return (claves[i] ^ d) == hash ? d : 0;
+    }
+
+    /**
+     * Guarda una posición, reemplazando lo que hubiera en su casilla salvo que sea
+     * la misma posición analizada a mayor profundidad. Los valores que no caben en
+     * 16 bits (solo posibles en tableros enormes) no se guardan.
+     */
+    public void guardar(long hash, int profundidad, int valor, int tipo, int jugada) {
+        if (valor != (short) valor) return;
+        int i = (int) hash & mascara;
+        long anterior = datos[i];
+        if ((claves[i] ^ anterior) == hash && profundidad(anterior) > profundidad) return;
+        long d = empaquetar(profundidad, valor, tipo, jugada);
+        datos[i] = d;
+        claves[i] = hash ^ d;
+    }
+
+    /** Borra todas las entradas. */
+    public void limpiar() {
+        Arrays.fill(claves, 0);
+        Arrays.fill(datos, 0);
+    }
+
+    public int getCapacidad() { return claves.length; }
+
+    // --- Formato de una entrada: jugada (32 bits) | valor (16) | profundidad (8) | tipo (8) ---
+    static long empaquetar(int profundidad, int valor, int tipo, int jugada) {
+        return ((long) jugada << 32) | ((long) (valor & 0xFFFF) << 16) | ((long) (profundidad & 0xFF) << 8) | tipo;
+    }
+
+    public static int tipo(long entrada) { return (int) entrada & 0xFF; }
+    public static int profundidad(long entrada) { return (int) (entrada >>> 8) & 0xFF; }
+    public static int valor(long entrada) { return (short) (entrada >>> 16); }
+    public static int jugada(long entrada) { return (int) (entrada >>> 32); }
+}
@@ -0,0 +1,293 @@
+package itson.timbiriche;
+
+/**
+ * Representación compacta del estado de un tablero de Timbiriche.
+ * <p>
+ * Cada línea del tablero tiene un identificador plano (su "id de línea"):
+ * <ul>
+ * <li>Horizontal {@code (f, c)}: {@code f * (tamaño - 1) + c}, con {@code f} en [0, tamaño) y {@code c} en [0, tamaño - 1).</li>
+ * <li>Vertical {@code (f, c)}: {@code H + f * tamaño + c}, con {@code f} en [0, tamaño - 1) y {@code c} en [0, tamaño),
+ * donde {@code H = tamaño * (tamaño - 1)} es el número de líneas horizontales.</li>
+ * </ul>
+ * Los cuadros se identifican igual, fila por fila: {@code f * (tamaño - 1) + c}.
+ * <p>
+ * La ocupación de las líneas se guarda como bits dentro de un {@code long[]}, de modo
+ * que cada fila de líneas es un rango contiguo de bits y el estado de filas enteras de
+ * cuadros se puede calcular con operaciones sobre palabras de 64 bits. Los dueños de líneas y cuadros
+ * se guardan en arreglos {@code byte[]} como un "número de dueño" pequeño (1..127, 0 = libre);
+ * traducirlo a un jugador concreto es trabajo de quien use esta clase.
+ * <p>
+ * No conoce jugadores, turnos ni puntajes: solo sabe poner y quitar líneas y cuántos
+ * cuadros se cierran con cada una. Eso la hace útil tanto para el {@link TableroModelo}
+ * como para búsquedas o simulaciones que necesitan copiar y deshacer jugadas rápido.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+public final class TableroBits {
+
+    /** Número máximo de dueños distintos que caben en un {@code byte}. */
+    public static final int MAX_DUEÑOS = Byte.MAX_VALUE;
+
+    private final int tamaño;
+    private final int cuadrosPorLado;
+    private final int numHorizontales;
+    private final int numLineas;
+    private final int numCuadros;
+
+    /** Un bit por línea: 1 si ya está puesta. */
+    private final long[] ocupadas;
+    /** Número de dueño de cada línea, indexado por id de línea. */
+    private final byte[] dueñoLinea;
+    /** Número de dueño de cada cuadro, indexado por id de cuadro. */
+    private final byte[] dueñoCuadro;
+    /**
+     * Cuántas de las 4 líneas de cada cuadro están puestas. Es redundante con los bits
+     * de {@link #ocupadas}, pero evita releer 4 bits por cuadro en cada jugada.
+     */
+    private final byte[] ladosCuadro;
+    private int lineasPuestas = 0;
+    private int cuadrosCerrados = 0;
+    /** Cuántos cuadros tienen exactamente 3 lados, es decir, se pueden cerrar con una jugada. */
+    private int cuadrosConTresLados = 0;
+
+    /**
+     * Crea un tablero vacío.
+     * @param tamaño Número de puntos por lado (al menos 2).
+     */
+    public TableroBits(int tamaño) {
+        if (tamaño < 2) throw new IllegalArgumentException("El tablero necesita al menos 2 puntos por lado: " + tamaño);
+        this.tamaño = tamaño;
+        this.cuadrosPorLado = tamaño - 1;
+        this.numHorizontales = tamaño * cuadrosPorLado;
+        this.numLineas = 2 * numHorizontales;
+        this.numCuadros = cuadrosPorLado * cuadrosPorLado;
+        this.ocupadas = new long[(numLineas + 63) >>> 6];
+        this.dueñoLinea = new byte[numLineas];
+        this.dueñoCuadro = new byte[numCuadros];
+        this.ladosCuadro = new byte[numCuadros];
+    }
+
+    /**
+     * Crea una copia independiente de otro tablero.
+     * @param otro El tablero a copiar.
+     */
+    public TableroBits(TableroBits otro) {
+        this(otro.tamaño);
+        copiarDe(otro);
+    }
+
+    // --- Dimensiones e identificadores ---
+    public int getTamaño() { return tamaño; }
+    public int getNumLineas() { return numLineas; }
+    public int getNumCuadros() { return numCuadros; }
+    public int getLineasPuestas() { return lineasPuestas; }
+    public int getCuadrosCerrados() { return cuadrosCerrados; }
+    public int getCuadrosConTresLados() { return cuadrosConTresLados; }
+    public boolean isCompleto() { return cuadrosCerrados == numCuadros; }
+
+    public int idHorizontal(int f, int c) { return f * cuadrosPorLado + c; }
+    public int idVertical(int f, int c) { return numHorizontales + f * tamaño + c; }
+    public int idLinea(int f, int c, boolean horizontal) { return horizontal ? idHorizontal(f, c) : idVertical(f, c); }
+    public int idCuadro(int f, int c) { return f * cuadrosPorLado + c; }
+
+    /**
+     * Indica si unas coordenadas corresponden a una línea del tablero. Los ids planos no
+     * detectan coordenadas fuera de rango (una columna de más cae en la fila siguiente),
+     * así que quien reciba coordenadas de fuera debe validarlas antes.
+     */
+    public boolean esLineaValida(int f, int c, boolean horizontal) {
+        return horizontal
+                ? f >= 0 && f < tamaño && c >= 0 && c < cuadrosPorLado
+                : f >= 0 && f < cuadrosPorLado && c >= 0 && c < tamaño;
+    }
+
+    /** Indica si unas coordenadas corresponden a un cuadro del tablero (ver {@link #esLineaValida}). */
+    public boolean esCuadroValido(int f, int c) {
+        return f >= 0 && f < cuadrosPorLado && c >= 0 && c < cuadrosPorLado;
+    }
+
+    public boolean esHorizontal(int linea) { return linea < numHorizontales; }
+    public int filaDeLinea(int linea) { return linea < numHorizontales ? linea / cuadrosPorLado : (linea - numHorizontales) / tamaño; }
+    public int colDeLinea(int linea) { return linea < numHorizontales ? linea % cuadrosPorLado : (linea - numHorizontales) % tamaño; }
+
+    // --- Consultas ---
+    public boolean estaOcupada(int linea) { return (ocupadas[linea >>> 6] & (1L << linea)) != 0; }
+    /** @return Los bits de ocupación de las líneas {@code 64 * i} a {@code 64 * i + 63}. */
+    public long palabraOcupadas(int i) { return ocupadas[i]; }
+    public int getNumPalabras() { return ocupadas.length; }
+    public int getDueñoLinea(int linea) { return dueñoLinea[linea]; }
+    public int getDueñoCuadro(int cuadro) { return dueñoCuadro[cuadro]; }
+
+    /**
+     * Cuenta cuántas de las 4 líneas de un cuadro están puestas.
+     * @param cuadro Id del cuadro.
+     * @return Un valor entre 0 y 4.
+     */
+    public int lados(int cuadro) { return ladosCuadro[cuadro]; }
+
+    /**
+     * Devuelve los cuadros que toca una línea: el de arriba/abajo para una horizontal,
+     * o el de izquierda/derecha para una vertical.
+     * @param linea Id de la línea.
+     * @param lado 0 para el primer cuadro (arriba o izquierda), 1 para el segundo.
+     * @return El id del cuadro, o -1 si la línea está en el borde de ese lado.
+     */
+    public int cuadroVecino(int linea, int lado) {
+        if (linea < numHorizontales) {
+            int f = linea / cuadrosPorLado;
+            int c = linea - f * cuadrosPorLado;
+            int fc = lado == 0 ? f - 1 : f;
+            return (fc < 0 || fc >= cuadrosPorLado) ? -1 : fc * cuadrosPorLado + c;
+        }
+        int v = linea - numHorizontales;
+        int f = v / tamaño;
+        int c = v - f * tamaño;
+        int cc = lado == 0 ? c - 1 : c;
+        return (cc < 0 || cc >= cuadrosPorLado) ? -1 : f * cuadrosPorLado + cc;
+    }
+
+    /**
+     * Busca la siguiente línea libre a partir de un id.
+     * @param desde Id desde el que se empieza a buscar (inclusive).
+     * @return El id de la siguiente línea libre, o -1 si no queda ninguna.
+     */
+    public int siguienteLibre(int desde) {
+        if (desde >= numLineas) return -1;
+        int w = desde >>> 6;
+        long libres = ~ocupadas[w] & (-1L << desde);
+        while (libres == 0) {
+            if (++w == ocupadas.length) return -1;
+            libres = ~ocupadas[w];
+        }
+        int linea = (w << 6) + Long.numberOfTrailingZeros(libres);
+        return linea < numLineas ? linea : -1;
+    }
+
+    /**
+     * Cuenta los cuadros cuyas 4 líneas están puestas usando operaciones sobre palabras
+     * de 64 bits: para cada fila de cuadros combina (AND) la fila de horizontales de arriba,
+     * la de abajo y la fila de verticales consigo misma desplazada un bit.
+     * <p>
+     * No depende de los dueños, así que sirve para verificar la consistencia del estado.
+     * @return El número de cuadros completos según las líneas puestas.
+     */
+    public int contarCuadrosCompletos() {
+        int total = 0;
+        for (int f = 0; f < cuadrosPorLado; f++) {
+            int arriba = idHorizontal(f, 0);
+            int abajo = idHorizontal(f + 1, 0);
+            int izquierda = idVertical(f, 0);
+            for (int c = 0; c < cuadrosPorLado; c += 64) {
+                int n = Math.min(64, cuadrosPorLado - c);
+                long completos = extraer(arriba + c, n) & extraer(abajo + c, n)
+                        & extraer(izquierda + c, n) & extraer(izquierda + c + 1, n);
+                total += Long.bitCount(completos);
+            }
+        }
+        return total;
+    }
+
+    // --- Modificación ---
+    /**
+     * Pone una línea y cierra los cuadros que queden completos, asignándolos al mismo dueño.
+     * @param linea Id de la línea. Debe estar libre.
+     * @param dueño Número de dueño (1..{@value #MAX_DUEÑOS}).
+     * @return Cuántos cuadros se cerraron con esta línea (0, 1 o 2).
+     */
+    public int colocar(int linea, int dueño) {
+        ocupadas[linea >>> 6] |= 1L << linea;
+        dueñoLinea[linea] = (byte) dueño;
+        lineasPuestas++;
+        int cerrados = 0;
+        if (linea < numHorizontales) {
+            // Una horizontal tiene el mismo id que el cuadro de abajo; el de arriba está una fila antes.
+            if (linea >= cuadrosPorLado) cerrados += sumarLado(linea - cuadrosPorLado, dueño);
+            if (linea < numCuadros) cerrados += sumarLado(linea, dueño);
+        } else {
+            int v = linea - numHorizontales;
+            int f = v / tamaño;
+            int c = v - f * tamaño;
+            int cuadro = f * cuadrosPorLado + c;
+            if (c > 0) cerrados += sumarLado(cuadro - 1, dueño);
+            if (c < cuadrosPorLado) cerrados += sumarLado(cuadro, dueño);
+        }
+        cuadrosCerrados += cerrados;
+        return cerrados;
+    }
+
+    /**
+     * Suma un lado a un cuadro y, si queda completo, se lo asigna al dueño.
+     * @return 1 si el cuadro se cerró, 0 si no.
+     */
+    private int sumarLado(int cuadro, int dueño) {
+        int lados = ++ladosCuadro[cuadro];
+        if (lados == 3) {
+            cuadrosConTresLados++;
+        } else if (lados == 4) {
+            cuadrosConTresLados--;
+            dueñoCuadro[cuadro] = (byte) dueño;
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Deshace {@link #colocar(int, int)}: quita la línea y libera los cuadros que cerraba.
+     * @param linea Id de la línea. Debe estar puesta.
+     */
+    public void quitar(int linea) {
+        for (int lado = 0; lado < 2; lado++) {
+            int cuadro = cuadroVecino(linea, lado);
+            if (cuadro < 0) continue;
+            int lados = ladosCuadro[cuadro]--;
+            if (lados == 4) {
+                dueñoCuadro[cuadro] = 0;
+                cuadrosCerrados--;
+                cuadrosConTresLados++;
+            } else if (lados == 3) {
+                cuadrosConTresLados--;
+            }
+        }
+        ocupadas[linea >>> 6] &= ~(1L << linea);
+        dueñoLinea[linea] = 0;
+        lineasPuestas--;
+    }
+
+    /**
+     * Cambia el dueño de un cuadro ya cerrado, para restaurar un tablero guardado en el
+     * que un cuadro no es de quien puso su última línea.
+     * @param cuadro Id del cuadro. Debe tener sus 4 lados.
+     * @param dueño Número de dueño (1..{@value #MAX_DUEÑOS}).
+     */
+    public void asignarCuadro(int cuadro, int dueño) {
+        if (ladosCuadro[cuadro] != 4) throw new IllegalStateException("El cuadro " + cuadro + " no está cerrado");
+        dueñoCuadro[cuadro] = (byte) dueño;
+    }
+
+    /**
+     * Copia el estado de otro tablero del mismo tamaño sin reservar memoria nueva.
+     * @param otro El tablero de origen.
+     */
+    public void copiarDe(TableroBits otro) {
+        if (otro.tamaño != tamaño) throw new IllegalArgumentException("Los tableros no tienen el mismo tamaño");
+        System.arraycopy(otro.ocupadas, 0, ocupadas, 0, ocupadas.length);
+        System.arraycopy(otro.dueñoLinea, 0, dueñoLinea, 0, dueñoLinea.length);
+        System.arraycopy(otro.dueñoCuadro, 0, dueñoCuadro, 0, dueñoCuadro.length);
+        System.arraycopy(otro.ladosCuadro, 0, ladosCuadro, 0, ladosCuadro.length);
+        lineasPuestas = otro.lineasPuestas;
+        cuadrosCerrados = otro.cuadrosCerrados;
+        cuadrosConTresLados = otro.cuadrosConTresLados;
+    }
+
+    /**
+     * Lee {@code n} bits consecutivos (1..64) a partir de la posición {@code desde}.
+     */
+    private long extraer(int desde, int n) {
+        int w = desde >>> 6;
+        int s = desde & 63;
+        long v = ocupadas[w] >>> s;
+        if (s != 0 && w + 1 < ocupadas.length) v |= ocupadas[w + 1] << (64 - s);
+        return n == 64 ? v : v & ((1L << n) - 1);
+    }
+}
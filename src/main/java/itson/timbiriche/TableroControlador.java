@@ -1,6 +1,7 @@
 package itson.timbiriche;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -57,7 +58,7 @@ public TableroControlador(TableroModelo modelo, TableroVista vista, GameActionHa
     this.modelo.agregarListener(this::handleModeloCambiado); 
 
     // ¡Añade esta línea para la sincronización inicial!
-    handleModeloCambiado();
+    handleModeloCambiado(CambioModelo.COMPLETO);
 }
 
     // --- Implementación de PlayerInteractionListener (RECIBE acciones de la VISTA) ---
@@ -79,14 +80,18 @@ public TableroControlador(TableroModelo modelo, TableroVista vista, GameActionHa
     // --- Manejo de Cambios del Modelo (ESCUCHA al MODELO) ---
     /**
      * Este método se llama automáticamente cuando el Modelo notifica un cambio.
+     * @param cambio Lo que cambió en el modelo.
      */
-    private void handleModeloCambiado() {
-        // Si el juego ha terminado, muestra un mensaje con el resultado.
+    private void handleModeloCambiado(CambioModelo cambio) {
+        if (!cambio.cambioTurno()) return; // El mismo jugador vuelve a tirar: no hay nada que hacer.
+        // Si el juego ha terminado, muestra un mensaje con el resultado. El diálogo es modal,
+        // así que se abre después de que el modelo termine de avisar a todos sus oyentes.
         if (modelo.isJuegoTerminado()) {
             List<Jugador> ganadores = modelo.getGanadores();
             String nombres = ganadores.stream().map(Jugador::nombre).collect(Collectors.joining(", "));
             String mensaje = ganadores.size() > 1 ? "¡Empate entre " + nombres + "!" : "¡Ganador: " + nombres + "!";
-            JOptionPane.showMessageDialog(vista, mensaje, "Fin del Juego", JOptionPane.INFORMATION_MESSAGE);
+            SwingUtilities.invokeLater(() ->
+                    JOptionPane.showMessageDialog(vista, mensaje, "Fin del Juego", JOptionPane.INFORMATION_MESSAGE));
         }
         // Si el manejador es local, se asegura de que sepa a qué jugador le toca ahora.
         if (actionHandler instanceof LocalGameActionHandler) {
@@ -15,54 +15,79 @@ import java.util.Objects;
  * para que el Controlador los modifique (ej. `agregarLinea`).
  *
  * Utiliza el patrón "Observer" (Oyente/Listener) para notificar a quien esté
- * interesado (como el `PanelPrincipal`) cada vez que su estado cambia.
+ * interesado (como el `PanelPrincipal`) cada vez que su estado cambia, con un
+ * {@link CambioModelo} que dice qué cambió.
  */
 public class TableroModelo {
     private final int tamaño; // Número de puntos por lado (ej. 5 para un tablero de 4x4)
-    // Matrices que guardan el ID del jugador que dibujó cada línea. 0 si no hay línea.
-    private final int[][] lineasHorizontales;
-    private final int[][] lineasVerticales;
-    // Matriz que guarda el ID del jugador que completó cada cuadrado. 0 si no está completo.
-    private final int[][] cuadrados;
-    private int jugadorActualIdx = 0; // Índice del jugador en la lista de jugadores.
+    // Las reglas y el estado viven en el motor, que no depende de AWT; el modelo le agrega
+    // los jugadores con sus colores y la notificación a los oyentes de la interfaz.
+    private final MotorTimbiriche motor;
     private final List<Jugador> jugadores;
-    private final int[] puntajes; // El índice corresponde al jugador.
-    private final int totalCuadrados;
-    private int cuadradosCompletados = 0;
+    // La última jugada aceptada, para los oyentes que necesiten saber qué cambió.
+    private DeltaEstado ultimoDelta;
     // Lista de "oyentes" que serán notificados de los cambios.
     private final List<ModeloListener> listeners = new ArrayList<>();
 
     public TableroModelo(int tamaño, List<Jugador> jugadores) {
         this.tamaño = tamaño;
         this.jugadores = Objects.requireNonNull(jugadores);
-        this.puntajes = new int[jugadores.size()];
-        this.totalCuadrados = (tamaño - 1) * (tamaño - 1);
-        
-        lineasHorizontales = new int[tamaño][tamaño - 1];
-        lineasVerticales = new int[tamaño - 1][tamaño];
-        cuadrados = new int[tamaño - 1][tamaño - 1];
+        this.motor = new MotorTimbiriche(tamaño, jugadores.stream().mapToInt(Jugador::id).toArray());
+    }
+
+    /**
+     * Crea un modelo que sigue una partida ya empezada, por ejemplo una cargada de un archivo.
+     * @param jugadores Los jugadores, en el mismo orden que los IDs del motor.
+     * @param motor El estado de la partida.
+     */
+    public TableroModelo(List<Jugador> jugadores, MotorTimbiriche motor) {
+        if (jugadores.size() != motor.getNumJugadores()) {
+            throw new IllegalArgumentException("El motor tiene " + motor.getNumJugadores() + " jugadores, no " + jugadores.size());
+        }
+        this.tamaño = motor.getTamaño();
+        this.jugadores = jugadores;
+        this.motor = motor;
     }
 
     // --- Getters (Métodos para obtener información del modelo) ---
     public int getTamaño() { return tamaño; }
     public List<Jugador> getJugadores() { return jugadores; }
-    public Jugador getJugadorActual() { return jugadores.get(jugadorActualIdx); }
-    public int[] getPuntajes() { return puntajes.clone(); } // .clone() para evitar modificaciones externas.
-    public int getCuadrado(int f, int c) { return cuadrados[f][c]; }
-    public boolean isJuegoTerminado() { return cuadradosCompletados == totalCuadrados; }
-    public int getLineaHorizontal(int f, int c) { return lineasHorizontales[f][c]; }
-    public int getLineaVertical(int f, int c) { return lineasVerticales[f][c]; }
+    public Jugador getJugadorActual() { return jugadores.get(motor.getJugadorActualIdx()); }
+    public int getJugadorActualIdx() { return motor.getJugadorActualIdx(); }
+    public int[] getPuntajes() { return motor.getPuntajes(); } // Copia, para evitar modificaciones externas.
+    public int getPuntaje(int idx) { return motor.getPuntaje(idx); }
+    public int getCuadrado(int f, int c) { return motor.getCuadrado(f, c); }
+    public boolean isJuegoTerminado() { return motor.isTerminado(); }
+    public int getLineaHorizontal(int f, int c) { return motor.getLineaHorizontal(f, c); }
+    public int getLineaVertical(int f, int c) { return motor.getLineaVertical(f, c); }
+
+    /**
+     * Devuelve una copia independiente del estado compacto del tablero, para que
+     * otros hilos (por ejemplo, la búsqueda de la computadora) la analicen sin
+     * tocar el modelo.
+     */
+    public TableroBits copiarTablero() { return motor.copiarTablero(); }
+    public int getLineasPuestas() { return motor.getLineasPuestas(); }
+    /** La última jugada aceptada, o {@code null} si todavía no hay ninguna. */
+    public DeltaEstado getUltimoDelta() { return ultimoDelta; }
+
+    /**
+     * Busca un jugador por su ID.
+     * @param id El ID del jugador.
+     * @return El jugador, o {@code null} si no juega en esta partida.
+     */
+    public Jugador getJugador(int id) {
+        int idx = motor.indiceDeJugador(id);
+        return idx < 0 ? null : jugadores.get(idx);
+    }
 
     /**
      * Determina quién o quiénes son los ganadores al final del juego.
      * @return Una lista de jugadores. Puede tener más de uno en caso de empate.
      */
     public List<Jugador> getGanadores() {
-        if (!isJuegoTerminado()) return new ArrayList<>();
-        int maxPuntaje = -1;
-        for (int puntaje : puntajes) if (puntaje > maxPuntaje) maxPuntaje = puntaje;
         List<Jugador> ganadores = new ArrayList<>();
-        for (int i = 0; i < jugadores.size(); i++) if (puntajes[i] == maxPuntaje) ganadores.add(jugadores.get(i));
+        for (int id : motor.getResultado().idsGanadores()) ganadores.add(getJugador(id));
         return ganadores;
     }
 
@@ -75,57 +100,57 @@ public class TableroModelo {
      * @return true si la línea se pudo agregar, false si ya existía.
      */
     public boolean agregarLinea(int fila, int col, boolean horizontal) {
-        int jugadorId = getJugadorActual().id();
-        
-        // Verifica si la línea ya está ocupada.
-        if (horizontal) {
-            if (lineasHorizontales[fila][col] != 0) return false;
-            lineasHorizontales[fila][col] = jugadorId;
-        } else {
-            if (lineasVerticales[fila][col] != 0) return false;
-            lineasVerticales[fila][col] = jugadorId;
+        EventosJuego.Jugada evento = new EventosJuego.Jugada();
+        evento.begin();
+        // El motor valida la línea, cierra los cuadrados y decide a quién le toca:
+        // si se completó un cuadrado, el jugador actual vuelve a tirar.
+        DeltaEstado delta = motor.aplicar(fila, col, horizontal);
+        if (delta != null) {
+            ultimoDelta = delta;
+            // Notifica a todos los oyentes qué cambió con esta jugada.
+            notificarCambios(new CambioModelo(delta, motor.indiceDeJugador(delta.jugadorId()),
+                    motor.indiceDeJugador(delta.siguienteJugadorId())));
         }
-        
-        // Después de poner la línea, verifica si se completó algún cuadrado.
-        boolean completoCuadrado = verificarCuadrados();
-        
-        // Si NO se completó un cuadrado, pasa el turno al siguiente jugador.
-        // Si SÍ se completó, el jugador actual vuelve a tirar.
-        if (!completoCuadrado) {
-            jugadorActualIdx = (jugadorActualIdx + 1) % jugadores.size();
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.tamaño = tamaño;
+            evento.jugada = Jugada.codificar(fila, col, horizontal);
+            evento.jugadorId = delta != null ? delta.jugadorId() : getJugadorActual().id();
+            evento.cuadrosCerrados = delta != null ? delta.cuadrosCerrados() : 0;
+            evento.aceptada = delta != null;
+            evento.commit();
         }
-        
-        // Notifica a todos los oyentes que el estado del juego ha cambiado.
-        notificarCambios();
-        return true;
+        return delta != null; // Si es nulo, la línea ya estaba ocupada.
     }
 
     /**
-     * Revisa todo el tablero en busca de nuevos cuadrados completados.
-     * @return true si se completó al menos un cuadrado en esta jugada.
+     * Lleva el modelo a otro estado de la misma partida de una sola vez, por ejemplo al
+     * saltar a otra jugada de una repetición, y avisa a los oyentes. Como no es una
+     * jugada, {@link #getUltimoDelta()} queda en {@code null} y los oyentes reciben
+     * {@link CambioModelo#COMPLETO}.
+     * @param estado Un motor con el mismo tablero y los mismos jugadores; se copia.
      */
-    private boolean verificarCuadrados() {
-        boolean seCompletoUnCuadrado = false;
-        for (int i = 0; i < tamaño - 1; i++) {
-            for (int j = 0; j < tamaño - 1; j++) {
-                // Si un cuadrado no tiene dueño y sus 4 líneas están puestas...
-                if (cuadrados[i][j] == 0 &&
-                    lineasHorizontales[i][j] != 0 && lineasHorizontales[i + 1][j] != 0 &&
-                    lineasVerticales[i][j] != 0 && lineasVerticales[i][j + 1] != 0)
-                {
-                    // ... se le asigna al jugador actual.
-                    cuadrados[i][j] = getJugadorActual().id();
-                    puntajes[jugadorActualIdx]++;
-                    cuadradosCompletados++;
-                    seCompletoUnCuadrado = true;
-                }
-            }
-        }
-        return seCompletoUnCuadrado;
+    public void restaurar(MotorTimbiriche estado) {
+        motor.copiarDe(estado);
+        ultimoDelta = null;
+        notificarCambios(CambioModelo.COMPLETO);
     }
 
     // --- Patrón Observer ---
     public void agregarListener(ModeloListener listener) { listeners.add(listener); }
-    private void notificarCambios() { for (ModeloListener l : listeners) l.modeloCambiado(); }
-    public interface ModeloListener { void modeloCambiado(); }
+    public void quitarListener(ModeloListener listener) { listeners.remove(listener); }
+    private void notificarCambios(CambioModelo cambio) {
+        for (ModeloListener l : listeners) {
+            EventosJuego.Notificacion evento = new EventosJuego.Notificacion();
+            evento.begin();
+            l.modeloCambiado(cambio);
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.oyente = l.getClass();
+                evento.completo = cambio == CambioModelo.COMPLETO;
+                evento.commit();
+            }
+        }
+    }
+    public interface ModeloListener { void modeloCambiado(CambioModelo cambio); }
 }
\ No newline at end of file
@@ -2,8 +2,11 @@ package itson.timbiriche;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 
 /**
  * Un componente de panel (JPanel) que representa la vista visual del tablero de Timbiriche.
@@ -12,6 +15,8 @@ import java.awt.event.MouseEvent;
  * 1. Dibujar el estado actual del juego (puntos, líneas, cuadros) basándose en los datos del {@link TableroModelo}.
  * 2. Capturar los clics del ratón del usuario, traducirlos a coordenadas del tablero y notificar
  * a un oyente (el controlador) sobre el intento de colocar una línea.
+ * 3. Acercar o alejar la vista con la rueda del ratón y moverla arrastrando, para que un
+ * tablero grande no haga crecer el panel: solo se dibujan las filas y columnas visibles.
  * <p>
  * Como la 'Vista' en el patrón MVC, este componente no contiene lógica de juego.
  *
@@ -20,12 +25,42 @@ import java.awt.event.MouseEvent;
  */
 public class TableroVista extends JPanel {
 
+    /**
+     * Cuánto se sale lo que se dibuja alrededor de un punto de la cuadrícula: el punto
+     * resaltado de la selección es el más grande, y un píxel más por el antialiasing.
+     */
+    private static final int HOLGURA = Math.max(8, Math.max(JuegoConfig.RADIO_PUNTO, JuegoConfig.ANCHO_LINEA / 2)) + 1;
+    /** La escala más grande permitida, en píxeles de pantalla por píxel del tablero. */
+    private static final double ESCALA_MAXIMA = 4;
+    /** Cuánto cambia la escala con cada paso de la rueda del ratón. */
+    private static final double PASO_ZOOM = 1.25;
+    /**
+     * Desde esta escala se copian los mosaicos de la capa, que se dibujan a la escala de la
+     * vista. Más lejos, cada mosaico tendría demasiadas celdas que trazar con antialiasing.
+     */
+    private static final double ESCALA_MOSAICOS = 0.75;
+    /** Desde esta escala se dibuja la cuadrícula con rectángulos; por debajo, solo el resumen de cuadros. */
+    private static final double ESCALA_SIMPLE = 0.2;
+    /** Cuántos píxeles hay que arrastrar para que no cuente como clic. */
+    private static final int UMBRAL_ARRASTRE = 4;
+
     /** El modelo de datos del juego, utilizado para saber qué dibujar. */
     private final TableroModelo modelo;
+    /** Lo ya dibujado del tablero, que solo se actualiza donde hubo jugadas. */
+    private final CapaTablero capa;
     /** Almacena el primer punto que un jugador selecciona al intentar trazar una línea. */
     private Point primerPunto = null;
     /** El oyente (normalmente el controlador) que será notificado de las acciones del usuario. */
     private PlayerInteractionListener interactionListener;
+    /** Píxeles de pantalla por píxel del tablero. */
+    private double escala = 1;
+    /** El píxel del tablero que queda en la esquina superior izquierda del panel. */
+    private double origenX, origenY;
+    /** Dónde está el ratón mientras se arrastra la vista, y si ya se movió lo suficiente. */
+    private Point ultimoArrastre;
+    private boolean arrastrando;
+    /** Verdadero desde que la vista se pintó por primera vez, para {@link TiemposArranque}. */
+    private boolean pintada;
 
     /**
      * Interfaz funcional que define el contrato para comunicar las interacciones
@@ -57,18 +92,115 @@ public class TableroVista extends JPanel {
      */
     public TableroVista(TableroModelo modelo) {
         this.modelo = modelo;
+        this.capa = new CapaTablero(modelo);
+        // La capa tiene que enterarse de cada jugada, así que la vista escucha al modelo por su cuenta.
+        modelo.agregarListener(this::repintar);
         setBackground(Color.WHITE);
-        addMouseListener(new MouseAdapter() {
+        MouseAdapter raton = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                ultimoArrastre = e.getPoint();
+                arrastrando = false;
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (ultimoArrastre == null) return;
+                int dx = e.getX() - ultimoArrastre.x, dy = e.getY() - ultimoArrastre.y;
+                if (!arrastrando && Math.abs(dx) + Math.abs(dy) < UMBRAL_ARRASTRE) return;
+                arrastrando = true;
+                desplazar(dx, dy);
+                ultimoArrastre = e.getPoint();
+            }
+
             @Override
-            public void mouseClicked(MouseEvent e) {
-                if (modelo.isJuegoTerminado()) {
-                    return; // No procesar clics si el juego ha terminado.
+            public void mouseReleased(MouseEvent e) {
+                // Se maneja aquí y no en mouseClicked, que algunas plataformas no envían si el ratón se movió un poco.
+                if (!arrastrando && ultimoArrastre != null && !modelo.isJuegoTerminado()) { // No procesar clics si el juego ha terminado.
+                    manejarClick(e.getX(), e.getY());
                 }
-                manejarClick(e.getX(), e.getY());
+                ultimoArrastre = null;
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                acercar(Math.pow(PASO_ZOOM, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+            }
+        };
+        addMouseListener(raton);
+        addMouseMotionListener(raton);
+        addMouseWheelListener(raton);
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                acercar(1, 0, 0); // Vuelve a acomodar la vista dentro de los nuevos límites.
             }
         });
     }
 
+    /** @return Píxeles de pantalla por píxel del tablero; 1 es el tamaño normal. */
+    public double getEscala() {
+        return escala;
+    }
+
+    /**
+     * Cambia la escala de la vista dejando fijo el punto del tablero que está bajo un
+     * punto del panel, normalmente donde está el ratón. La escala queda entre la que
+     * muestra el tablero completo (o 1, si cabe) y {@value #ESCALA_MAXIMA}.
+     *
+     * @param factor Por cuánto multiplicar la escala actual.
+     * @param x Coordenada X en el panel del punto fijo.
+     * @param y Coordenada Y en el panel del punto fijo.
+     */
+    public void acercar(double factor, int x, int y) {
+        double tableroX = origenX + x / escala, tableroY = origenY + y / escala;
+        escala = Math.max(escalaMinima(), Math.min(ESCALA_MAXIMA, escala * factor));
+        if (escala >= ESCALA_MOSAICOS) {
+            // Los mosaicos deben medir un número entero de píxeles para copiarse sin escalar.
+            double ajustada = Math.round(escala * CapaTablero.LADO) / (double) CapaTablero.LADO;
+            escala = ajustada >= escalaMinima() ? ajustada : Math.ceil(escalaMinima() * CapaTablero.LADO) / CapaTablero.LADO;
+        }
+        origenX = tableroX - x / escala;
+        origenY = tableroY - y / escala;
+        limitarOrigen();
+        repaint();
+    }
+
+    /**
+     * Mueve la vista como si se arrastrara el tablero.
+     * @param dx Cuántos píxeles del panel se mueve hacia la derecha.
+     * @param dy Cuántos píxeles del panel se mueve hacia abajo.
+     */
+    public void desplazar(int dx, int dy) {
+        double x = origenX, y = origenY;
+        origenX -= dx / escala;
+        origenY -= dy / escala;
+        limitarOrigen();
+        if (x != origenX || y != origenY) repaint();
+    }
+
+    /** @return La escala con la que el tablero completo cabe en el panel, o 1 si cabe sin reducirlo. */
+    private double escalaMinima() {
+        int lado = ladoTablero();
+        if (getWidth() <= 0 || getHeight() <= 0) return 1;
+        return Math.min(1, Math.min((double) getWidth() / lado, (double) getHeight() / lado));
+    }
+
+    /**
+     * Evita que la vista se salga del tablero (si el tablero cabe, queda en la esquina) y
+     * redondea el origen a un píxel entero de la pantalla.
+     */
+    private void limitarOrigen() {
+        int lado = ladoTablero();
+        origenX = Math.round(Math.max(0, Math.min(origenX, lado - getWidth() / escala)) * escala) / escala;
+        origenY = Math.round(Math.max(0, Math.min(origenY, lado - getHeight() / escala)) * escala) / escala;
+    }
+
+    /** @return El lado del tablero completo en píxeles del tablero, con sus márgenes. */
+    private int ladoTablero() {
+        return (modelo.getTamaño() - 1) * JuegoConfig.ESPACIO + JuegoConfig.MARGEN * 2;
+    }
+
     /**
      * Procesa un clic del ratón, convirtiendo las coordenadas de píxeles en
      * coordenadas de la cuadrícula y gestionando la selección de dos puntos.
@@ -76,8 +208,9 @@ public class TableroVista extends JPanel {
      * @param y La coordenada Y del clic del ratón.
      */
     private void manejarClick(int x, int y) {
-        int fila = Math.round((float) (y - JuegoConfig.MARGEN) / JuegoConfig.ESPACIO);
-        int col = Math.round((float) (x - JuegoConfig.MARGEN) / JuegoConfig.ESPACIO);
+        // Se deshace la escala y el desplazamiento de la vista; el punto más cercano sale de una división.
+        int fila = (int) Math.round((origenY + y / escala - JuegoConfig.MARGEN) / JuegoConfig.ESPACIO);
+        int col = (int) Math.round((origenX + x / escala - JuegoConfig.MARGEN) / JuegoConfig.ESPACIO);
 
         if (fila < 0 || col < 0 || fila >= modelo.getTamaño() || col >= modelo.getTamaño()) {
             return; // Clic fuera de la cuadrícula
@@ -86,13 +219,71 @@ public class TableroVista extends JPanel {
         Point nuevoPunto = new Point(fila, col);
         if (primerPunto == null) {
             primerPunto = nuevoPunto;
+            repintarArea(areaDePunto(nuevoPunto.x, nuevoPunto.y));
         } else {
-            if (!primerPunto.equals(nuevoPunto) && sonAdyacentes(primerPunto, nuevoPunto)) {
-                reportLineAttempt(primerPunto, nuevoPunto);
-            }
+            Point anterior = primerPunto;
             primerPunto = null; // Reinicia la selección después del segundo clic
+            repintarArea(areaDePunto(anterior.x, anterior.y));
+            if (!anterior.equals(nuevoPunto) && sonAdyacentes(anterior, nuevoPunto)) {
+                reportLineAttempt(anterior, nuevoPunto);
+            }
         }
-        repaint();
+    }
+
+    /**
+     * Repinta solo lo que cambió en el modelo: el área de la línea nueva y de los cuadros
+     * que cerró, que también se actualiza en la capa del tablero. Si cambió todo el
+     * estado, descarta la capa y repinta el tablero completo.
+     * @param cambio El cambio que notificó el modelo.
+     */
+    private void repintar(CambioModelo cambio) {
+        if (cambio.esCompleto()) {
+            capa.invalidar();
+            repaint();
+            return;
+        }
+        int jugada = cambio.jugada();
+        int fila = Jugada.fila(jugada), col = Jugada.col(jugada);
+        Rectangle area = areaDePunto(fila, col);
+        if (Jugada.esHorizontal(jugada)) {
+            area.add(areaDePunto(fila, col + 1));
+        } else {
+            area.add(areaDePunto(fila + 1, col));
+        }
+        DeltaEstado delta = cambio.delta();
+        agregarCuadro(area, delta.cuadroA());
+        agregarCuadro(area, delta.cuadroB());
+        capa.actualizar(area);
+        repintarArea(area);
+    }
+
+    /**
+     * Repinta la parte del panel donde se ve un área del tablero.
+     * @param area El área en píxeles del tablero.
+     */
+    private void repintarArea(Rectangle area) {
+        int x = (int) Math.floor((area.x - origenX) * escala);
+        int y = (int) Math.floor((area.y - origenY) * escala);
+        repaint(x, y, (int) Math.ceil(area.width * escala) + 2, (int) Math.ceil(area.height * escala) + 2);
+    }
+
+    /** Agrega a un área la de un cuadro (con sus cuatro esquinas), si el cuadro existe. */
+    private void agregarCuadro(Rectangle area, int cuadro) {
+        if (cuadro < 0) return;
+        int porLado = modelo.getTamaño() - 1;
+        int fila = cuadro / porLado, col = cuadro % porLado;
+        area.add(areaDePunto(fila, col));
+        area.add(areaDePunto(fila + 1, col + 1));
+    }
+
+    /**
+     * @param fila Fila del punto de la cuadrícula.
+     * @param col Columna del punto de la cuadrícula.
+     * @return El área en píxeles que puede cambiar alrededor de ese punto.
+     */
+    private static Rectangle areaDePunto(int fila, int col) {
+        return new Rectangle(JuegoConfig.MARGEN + col * JuegoConfig.ESPACIO - HOLGURA,
+                JuegoConfig.MARGEN + fila * JuegoConfig.ESPACIO - HOLGURA, 2 * HOLGURA, 2 * HOLGURA);
     }
 
     /**
@@ -134,86 +325,100 @@ public class TableroVista extends JPanel {
     /**
      * {@inheritDoc}
      * <p>
-     * Dibuja todos los componentes del tablero: cuadros, líneas, y puntos.
+     * Vuelve a empezar la capa del tablero con imágenes compatibles con la pantalla
+     * donde se va a mostrar el panel.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        capa.reiniciar(getGraphicsConfiguration());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Dibuja solo la parte del tablero que cae en el área que hay que repintar, con la
+     * escala y el desplazamiento actuales, y encima la selección actual, que es lo único
+     * que se dibuja cada vez. Según la escala, copia los mosaicos de la {@link CapaTablero}
+     * (ya dibujados a esta escala), dibuja la cuadrícula con rectángulos o estira el
+     * resumen de cuadros.
      * Este método es llamado automáticamente por Swing cuando el panel necesita ser repintado.
      */
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        Graphics2D g2 = (Graphics2D) g;
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2.setStroke(new BasicStroke(JuegoConfig.ANCHO_LINEA, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-        int tamaño = modelo.getTamaño();
-
-        // 1. Dibujar Cuadrados completados
-        for (int i = 0; i < tamaño - 1; i++) {
-            for (int j = 0; j < tamaño - 1; j++) {
-                int jugadorId = modelo.getCuadrado(i, j);
-                if (jugadorId != 0) {
-                    g2.setColor(getColorDeJugador(jugadorId));
-                    g2.fillRect(JuegoConfig.MARGEN + j * JuegoConfig.ESPACIO, JuegoConfig.MARGEN + i * JuegoConfig.ESPACIO, JuegoConfig.ESPACIO, JuegoConfig.ESPACIO);
-                }
-            }
-        }
+        Rectangle pantalla = g.getClipBounds();
+        if (pantalla == null) pantalla = new Rectangle(0, 0, getWidth(), getHeight());
+        EventosJuego.Pintado evento = new EventosJuego.Pintado();
+        evento.begin();
+        long dibujadosAntes = capa.getMosaicosDibujados();
+        String modo;
+        int elementos;
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.scale(escala, escala);
+            g2.translate(-origenX, -origenY);
+            // El área visible en píxeles del tablero, redondeada hacia afuera.
+            int x0 = (int) Math.floor(origenX + pantalla.x / escala), y0 = (int) Math.floor(origenY + pantalla.y / escala);
+            int x1 = (int) Math.ceil(origenX + (pantalla.x + pantalla.width) / escala);
+            int y1 = (int) Math.ceil(origenY + (pantalla.y + pantalla.height) / escala);
+            Rectangle area = new Rectangle(x0, y0, x1 - x0, y1 - y0);
 
-        // 2. Dibujar Líneas horizontales
-        for (int i = 0; i < tamaño; i++) {
-            for (int j = 0; j < tamaño - 1; j++) {
-                int jugadorId = modelo.getLineaHorizontal(i, j);
-                if (jugadorId != 0) {
-                    g2.setColor(getColorDeJugador(jugadorId));
-                    g2.drawLine(JuegoConfig.MARGEN + j * JuegoConfig.ESPACIO, JuegoConfig.MARGEN + i * JuegoConfig.ESPACIO, JuegoConfig.MARGEN + (j + 1) * JuegoConfig.ESPACIO, JuegoConfig.MARGEN + i * JuegoConfig.ESPACIO);
+            if (escala >= ESCALA_MOSAICOS) {
+                Graphics gm = g.create();
+                try {
+                    gm.translate(-(int) Math.round(origenX * escala), -(int) Math.round(origenY * escala));
+                    elementos = capa.pintar(gm, area, escala);
+                } finally {
+                    gm.dispose();
                 }
+                modo = "mosaicos";
+            } else if (escala >= ESCALA_SIMPLE) {
+                elementos = capa.pintarSimple(g, area, escala, origenX, origenY);
+                modo = "simple";
+            } else {
+                elementos = capa.pintarResumen(g2, area);
+                modo = "resumen";
             }
+            pintarSeleccion(g2);
+        } finally {
+            g2.dispose();
         }
-
-        // 3. Dibujar Líneas verticales
-        for (int i = 0; i < tamaño - 1; i++) {
-            for (int j = 0; j < tamaño; j++) {
-                int jugadorId = modelo.getLineaVertical(i, j);
-                if (jugadorId != 0) {
-                    g2.setColor(getColorDeJugador(jugadorId));
-                    g2.drawLine(JuegoConfig.MARGEN + j * JuegoConfig.ESPACIO, JuegoConfig.MARGEN + i * JuegoConfig.ESPACIO, JuegoConfig.MARGEN + j * JuegoConfig.ESPACIO, JuegoConfig.MARGEN + (i + 1) * JuegoConfig.ESPACIO);
-                }
-            }
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.ancho = pantalla.width;
+            evento.alto = pantalla.height;
+            evento.escala = escala;
+            evento.modo = modo;
+            evento.elementos = elementos;
+            evento.mosaicosNuevos = (int) (capa.getMosaicosDibujados() - dibujadosAntes);
+            evento.commit();
         }
-
-        // 4. Dibujar Puntos de la cuadrícula y selección actual
-        g2.setColor(Color.DARK_GRAY);
-        for (int i = 0; i < tamaño; i++) {
-            for (int j = 0; j < tamaño; j++) {
-                g2.fillOval(JuegoConfig.MARGEN + j * JuegoConfig.ESPACIO - JuegoConfig.RADIO_PUNTO, JuegoConfig.MARGEN + i * JuegoConfig.ESPACIO - JuegoConfig.RADIO_PUNTO, JuegoConfig.RADIO_PUNTO * 2, JuegoConfig.RADIO_PUNTO * 2);
-            }
+        if (!pintada) {
+            pintada = true;
+            TiemposArranque.tableroPintado();
         }
+    }
+
+    /** Resalta el primer punto seleccionado, en coordenadas del tablero. */
+    private void pintarSeleccion(Graphics2D g2) {
         if (primerPunto != null) {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
             g2.setColor(Color.GREEN); // Resalta el primer punto seleccionado
             g2.fillOval(JuegoConfig.MARGEN + primerPunto.y * JuegoConfig.ESPACIO - 8, JuegoConfig.MARGEN + primerPunto.x * JuegoConfig.ESPACIO - 8, 16, 16);
         }
     }
 
-    /**
-     * Busca el color asociado a un ID de jugador específico.
-     * @param jugadorId El ID del jugador.
-     * @return El {@link Color} del jugador, o Negro como color por defecto si no se encuentra.
-     */
-    private Color getColorDeJugador(int jugadorId) {
-        for (Jugador jugador : modelo.getJugadores()) {
-            if (jugador.id() == jugadorId) {
-                return jugador.color();
-            }
-        }
-        return Color.BLACK; // Color de respaldo
-    }
-
     /**
      * {@inheritDoc}
      * <p>
-     * Calcula el tamaño preferido para este panel, asegurando que sea lo
-     * suficientemente grande para contener todo el tablero con sus márgenes.
+     * Calcula el tamaño preferido para este panel: el del tablero completo con sus
+     * márgenes, pero no más que {@link JuegoConfig#TAMANIO_MAXIMO_VISTA}; un tablero
+     * más grande se recorre acercando, alejando y arrastrando la vista.
      */
     @Override
     public Dimension getPreferredSize() {
-        int size = (modelo.getTamaño() - 1) * JuegoConfig.ESPACIO + JuegoConfig.MARGEN * 2;
+        int size = Math.min(ladoTablero(), JuegoConfig.TAMANIO_MAXIMO_VISTA);
         return new Dimension(size, size);
     }
 }
\ No newline at end of file
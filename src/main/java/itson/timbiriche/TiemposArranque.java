@@ -0,0 +1,101 @@
+package itson.timbiriche;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.SwingUtilities;
+
+/**
+ * Mide cuánto tarda cada fase del arranque del juego. Cada fase termina con una marca
+ * ({@link #marcar}); la primera vez que se pone una marca se guarda el tiempo desde que
+ * inició la JVM, y las siguientes veces se ignora, así que se puede marcar desde código
+ * que corre muchas veces (como el pintado) sin llevar la cuenta.
+ * <p>
+ * Con {@code --medir-arranque} ({@link Timbiriche#main}) el juego arranca sin esperar al
+ * usuario, imprime las fases y termina al llegar a {@link #PRIMER_CUADRO} o a
+ * {@link #TABLERO_INTERACTIVO}. Así lo usa el benchmark de arranque.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+final class TiemposArranque {
+
+    /** La primera ventana del juego ya está pintada en pantalla. */
+    static final String PRIMER_CUADRO = "primer cuadro";
+    /** El tablero ya está pintado y el EDT terminó lo pendiente, así que responde a clics. */
+    static final String TABLERO_INTERACTIVO = "tablero interactivo";
+
+    /** El momento en que inició la JVM, en la escala de {@link System#nanoTime()}. */
+    private static final long INICIO_JVM = System.nanoTime() - ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000L;
+
+    private static final List<String> nombres = new ArrayList<>();
+    private static final List<Long> tiempos = new ArrayList<>();
+    /** La marca con la que termina la medición, o {@code null} si no se está midiendo. */
+    private static volatile String marcaFinal;
+
+    private TiemposArranque() {}
+
+    /**
+     * Activa la medición del arranque: al llegar a la marca indicada se imprimen las
+     * fases y el programa termina. Si antes ocurre una excepción que nadie atrapa
+     * (por ejemplo, porque no hay pantalla), el programa termina con código 1 para que
+     * la medición no parezca buena.
+     *
+     * @param marca {@link #PRIMER_CUADRO} o {@link #TABLERO_INTERACTIVO}.
+     */
+    static void medirHasta(String marca) {
+        marcaFinal = marca;
+        Thread.setDefaultUncaughtExceptionHandler((hilo, e) -> {
+            e.printStackTrace();
+            System.exit(1);
+        });
+    }
+
+    /** @return Verdadero si se está midiendo el arranque y no hay que esperar al usuario. */
+    static boolean midiendo() {
+        return marcaFinal != null;
+    }
+
+    /**
+     * Pone una marca, si no se había puesto antes. Si es la marca en la que termina la
+     * medición, imprime el reporte y termina el programa.
+     *
+     * @param nombre El nombre de la fase que acaba de terminar.
+     * @return Verdadero si la marca es nueva.
+     */
+    static boolean marcar(String nombre) {
+        long ahora = System.nanoTime();
+        synchronized (TiemposArranque.class) {
+            if (nombres.contains(nombre)) return false;
+            nombres.add(nombre);
+            tiempos.add(ahora - INICIO_JVM);
+        }
+        if (nombre.equals(marcaFinal)) {
+            System.out.print(reporte());
+            System.exit(0);
+        }
+        return true;
+    }
+
+    /**
+     * Lo llama {@link TableroVista} cada vez que termina de pintarse: marca el primer
+     * cuadro (si no hubo otra ventana antes) y, cuando el EDT termine lo que tenga
+     * pendiente, el tablero interactivo.
+     */
+    static void tableroPintado() {
+        marcar(PRIMER_CUADRO);
+        SwingUtilities.invokeLater(() -> marcar(TABLERO_INTERACTIVO));
+    }
+
+    /** @return Una tabla con cada marca, su tiempo desde que inició la JVM y lo que duró su fase. */
+    static synchronized String reporte() {
+        StringBuilder sb = new StringBuilder("Arranque (ms desde que inició la JVM):\n");
+        long anterior = 0;
+        for (int i = 0; i < nombres.size(); i++) {
+            long t = tiempos.get(i);
+            sb.append(String.format("  %-26s %8.1f  (+%.1f)%n", nombres.get(i), t / 1e6, (t - anterior) / 1e6));
+            anterior = t;
+        }
+        return sb.toString();
+    }
+}
@@ -1,7 +1,16 @@
 package itson.timbiriche;
 
 import javax.swing.*;
+import java.awt.Color;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
 
 /**
  * El punto de entrada principal para la aplicación del juego Timbiriche.
@@ -17,6 +26,11 @@ import java.util.List;
  */
 public class Timbiriche {
 
+    /** El número con que se guarda la partida local en el {@link RegistroJugadas}. */
+    private static final int PARTIDA_LOCAL = 1;
+    /** Cuántos jugadores tiene la configuración al abrirse. */
+    private static final int NUM_JUGADORES = 2;
+
     /**
      * El método principal que inicia el juego Timbiriche.
      * <p>
@@ -34,22 +48,127 @@ public class Timbiriche {
      * <li>Construir la ventana principal del juego (JFrame), añadir el panel principal y mostrarla.</li>
      * </ol>
      * Si se cancela la configuración, la aplicación finaliza.
+     * <p>
+     * Con {@code --servidor host:puerto [--partida N]} la partida se juega en red contra
+     * un {@link ServidorJuego}: este programa controla al jugador que el servidor le asigne
+     * y los demás jugadores se conectan desde sus propias computadoras con la misma partida.
+     * Con {@code --espectar} además, solo se mira esa partida sin jugar.
+     * <p>
+     * Con {@code --registro directorio} cada jugada de la partida local se guarda en un
+     * {@link RegistroJugadas}; si ahí quedó una partida sin terminar con el mismo tablero
+     * y número de jugadores, se ofrece continuarla.
+     * <p>
+     * Con {@code --cargar archivo} se sigue una partida guardada con {@link ArchivoPartida}
+     * sin pasar por la configuración, y con {@code --repeticion archivo} se ve un
+     * {@link ArchivoRepeticion}.
+     * <p>
+     * Con {@code --medir-arranque [primer-cuadro|tablero]} se mide el arranque con
+     * {@link TiemposArranque}: la configuración se acepta sola con los valores por defecto
+     * y el programa imprime cuánto tardó cada fase y termina al pintar la primera ventana
+     * o al tener el tablero listo para jugar (lo predeterminado).
+     * <p>
+     * Con {@code --grabar archivo.jfr} se graban los {@link EventosJuego} con JDK Flight
+     * Recorder; al cerrar el juego la grabación queda en ese archivo y se imprime su
+     * resumen ({@link ResumenGrabacion}).
+     * <p>
+     * El {@link VigilanteEdt} siempre queda instalado y se enciende con Ctrl+Shift+F12;
+     * con {@code --vigilar-edt [archivo]} se enciende desde el inicio y, si se indica un
+     * archivo, al cerrar el juego se escribe ahí su reporte.
+     * <p>
+     * Con {@code --hilos-computadora N} la computadora piensa con N hilos en lugar de
+     * usar todos los núcleos; con 1, {@link BusquedaParalela} es un alfa-beta normal.
      *
-     * @param args Argumentos de la línea de comandos (no se utilizan en esta aplicación).
+     * @param args Argumentos de la línea de comandos (opcionales, para jugar en red).
      */
     public static void main(String[] args) {
+        TiemposArranque.marcar("main");
+        String servidor = null;
+        int partida = 0;
+        boolean espectador = false;
+        Path registro = null;
+        Path archivoGuardado = null;
+        Path archivoRepeticion = null;
+        Path reporteEdt = null;
+        boolean vigilarEdt = false;
+        int hilos = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--espectar")) espectador = true;
+            else if (args[i].equals("--servidor") && i + 1 < args.length) servidor = args[++i];
+            else if (args[i].equals("--partida") && i + 1 < args.length) partida = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--registro") && i + 1 < args.length) registro = Path.of(args[++i]);
+            else if (args[i].equals("--cargar") && i + 1 < args.length) archivoGuardado = Path.of(args[++i]);
+            else if (args[i].equals("--repeticion") && i + 1 < args.length) archivoRepeticion = Path.of(args[++i]);
+            else if (args[i].equals("--grabar") && i + 1 < args.length) grabar(Path.of(args[++i]));
+            else if (args[i].equals("--hilos-computadora") && i + 1 < args.length) hilos = Math.max(1, Integer.parseInt(args[++i]));
+            else if (args[i].equals("--vigilar-edt")) {
+                vigilarEdt = true;
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) reporteEdt = Path.of(args[++i]);
+            }
+            else if (args[i].equals("--medir-arranque")) {
+                boolean hastaPrimerCuadro = i + 1 < args.length && args[i + 1].equals("primer-cuadro");
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) i++;
+                TiemposArranque.medirHasta(hastaPrimerCuadro ? TiemposArranque.PRIMER_CUADRO : TiemposArranque.TABLERO_INTERACTIVO);
+            }
+        }
+        VigilanteEdt vigilante = VigilanteEdt.instalar();
+        if (vigilarEdt) vigilante.setActivo(true);
+        if (reporteEdt != null) {
+            Path archivo = reporteEdt;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    vigilante.exportar(archivo);
+                } catch (IOException e) {
+                    System.err.println("No se pudo escribir el reporte del EDT en " + archivo + ": " + e.getMessage());
+                }
+            }, "timbiriche-reporte-edt"));
+        }
+        // Mientras el EDT arranca, otro hilo adelanta los avatares, las fuentes y las clases.
+        PrecargaArranque.iniciar(NUM_JUGADORES);
+        Path directorioRegistro = registro;
+        String servidorRed = servidor;
+        int partidaRed = partida;
+        int hilosComputadora = hilos;
+        if (espectador && servidorRed != null) {
+            SwingUtilities.invokeLater(() -> espectar(servidorRed, partidaRed));
+            return;
+        }
+        if (archivoRepeticion != null) {
+            Path archivo = archivoRepeticion;
+            SwingUtilities.invokeLater(() -> {
+                TiemposArranque.marcar("AWT");
+                try {
+                    abrirRepeticion(ArchivoRepeticion.cargar(archivo));
+                } catch (IOException e) {
+                    JOptionPane.showMessageDialog(null, "No se pudo cargar la repetición: " + e.getMessage(),
+                            "Cargar repetición", JOptionPane.ERROR_MESSAGE);
+                    System.exit(1);
+                }
+            });
+            return;
+        }
+        if (archivoGuardado != null) {
+            Path archivo = archivoGuardado;
+            SwingUtilities.invokeLater(() -> {
+                TiemposArranque.marcar("AWT");
+                try {
+                    abrirPartida(ArchivoPartida.cargar(archivo));
+                } catch (IOException e) {
+                    JOptionPane.showMessageDialog(null, "No se pudo cargar la partida: " + e.getMessage(),
+                            "Cargar partida", JOptionPane.ERROR_MESSAGE);
+                    System.exit(1);
+                }
+            });
+            return;
+        }
+
         SwingUtilities.invokeLater(() -> {
-            // Se usa un frame temporal e invisible como propietario del diálogo modal.
-            JFrame ownerFrame = new JFrame();
-            ownerFrame.setUndecorated(true);
-            ownerFrame.setVisible(true);
-            ownerFrame.setLocationRelativeTo(null);
+            TiemposArranque.marcar("AWT");
 
             // 1. Mostrar el diálogo de configuración para obtener la lista de jugadores.
-            VentanaConfiguracion dialogoConfig = new VentanaConfiguracion(ownerFrame, 2);
+            // No necesita un frame propietario: sin él, Swing usa uno compartido e invisible.
+            VentanaConfiguracion dialogoConfig = new VentanaConfiguracion(null, NUM_JUGADORES);
             List<Jugador> jugadores = dialogoConfig.mostrarDialogo();
-
-            ownerFrame.dispose(); // Se deshace del frame temporal.
+            TiemposArranque.marcar("configuración aceptada");
 
             // Si el usuario cancela la configuración, el programa termina.
             if (jugadores == null || jugadores.isEmpty()) {
@@ -62,11 +181,51 @@ public class Timbiriche {
             frameJuego.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
             // 3. Inicializar los componentes MVC.
-            TableroModelo modelo = new TableroModelo(JuegoConfig.TAMANIO_TABLERO, jugadores);
+            TableroModelo modelo = directorioRegistro != null && servidorRed == null
+                    ? abrirRegistro(directorioRegistro, jugadores)
+                    : new TableroModelo(JuegoConfig.TAMANIO_TABLERO, jugadores);
             PanelPrincipal panelPrincipal = new PanelPrincipal(modelo);
             
             // El controlador conecta el modelo con las interacciones de la vista.
-            new TableroControlador(modelo, panelPrincipal.getTableroVista());
+            // Si algún jugador lo controla la computadora, las jugadas pasan por un manejador que la hace pensar.
+            Set<Integer> idsComputadora = dialogoConfig.getIdsComputadora();
+            if (servidorRed != null) {
+                // En red, las jugadas van al servidor y el modelo solo sigue lo que él acepta.
+                int separador = servidorRed.lastIndexOf(':');
+                RedGameActionHandler manejadorRed;
+                try {
+                    manejadorRed = RedGameActionHandler.conectar(servidorRed.substring(0, separador),
+                            Integer.parseInt(servidorRed.substring(separador + 1)), partidaRed,
+                            JuegoConfig.TAMANIO_TABLERO, jugadores.size());
+                } catch (IOException | RuntimeException e) {
+                    JOptionPane.showMessageDialog(null, "No se pudo conectar al servidor: " + e.getMessage(),
+                            "Error de red", JOptionPane.ERROR_MESSAGE);
+                    System.exit(1);
+                    return;
+                }
+                frameJuego.setTitle("Timbiriche - Jugador " + manejadorRed.getJugadorId());
+                new TableroControlador(modelo, panelPrincipal.getTableroVista(), manejadorRed);
+                cerrarAlDesechar(frameJuego, manejadorRed);
+                panelPrincipal.mostrarMensaje("Esperando a los demás jugadores...");
+                manejadorRed.iniciar(modelo, avisosRed(frameJuego, panelPrincipal));
+            } else if (idsComputadora.isEmpty()) {
+                new TableroControlador(modelo, panelPrincipal.getTableroVista());
+            } else {
+                MotorBusqueda motor = modelo.getTamaño() <= JuegoConfig.TAMANIO_MAXIMO_ALFA_BETA
+                        ? new BusquedaParalela(hilosComputadora, JuegoConfig.MEMORIA_TABLA_COMPUTADORA_MB)
+                        : new BusquedaMonteCarlo(hilosComputadora, 0);
+                IAGameActionHandler manejadorIA = new IAGameActionHandler(modelo, idsComputadora, motor,
+                        JuegoConfig.TIEMPO_JUGADA_COMPUTADORA_MS);
+                new TableroControlador(modelo, panelPrincipal.getTableroVista(), manejadorIA);
+                cerrarAlDesechar(frameJuego, manejadorIA);
+                manejadorIA.iniciar();
+            }
+            // El registro sigue a este modelo, y un archivo de partida no guarda el orden de
+            // las jugadas, así que una partida cargada no se podría seguir registrando.
+            if (directorioRegistro != null && servidorRed == null) {
+                panelPrincipal.getPanelLateral().deshabilitarCargar(
+                        "Con --registro solo se registra la partida con que se abrió el juego");
+            }
 
             // 4. Finalizar y mostrar la ventana del juego.
             frameJuego.add(panelPrincipal);
@@ -74,6 +233,186 @@ public class Timbiriche {
             frameJuego.setMinimumSize(frameJuego.getSize());
             frameJuego.setLocationRelativeTo(null);
             frameJuego.setVisible(true);
+            TiemposArranque.marcar("tablero construido");
+        });
+    }
+
+    /**
+     * Empieza a grabar los eventos del juego. Al terminar el programa la grabación se
+     * escribe en el archivo y se imprime su resumen.
+     *
+     * @param archivo Dónde dejar la grabación.
+     */
+    static void grabar(Path archivo) {
+        Recording grabacion = new Recording();
+        grabacion.setName("Timbiriche");
+        for (Class<? extends jdk.jfr.Event> evento : List.of(EventosJuego.Jugada.class, EventosJuego.Notificacion.class,
+                EventosJuego.Pintado.class, EventosJuego.CargaAvatar.class, EventosJuego.BloqueoEdt.class)) {
+            grabacion.enable(evento).withoutThreshold();
+        }
+        try {
+            grabacion.setDestination(archivo);
+        } catch (IOException e) {
+            System.err.println("No se puede grabar en " + archivo + ": " + e.getMessage());
+            return;
+        }
+        grabacion.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            // El apagado de JFR pudo haberla detenido antes; al detenerla la escribe en el archivo.
+            if (grabacion.getState() == RecordingState.RUNNING) {
+                try {
+                    grabacion.stop();
+                } catch (IllegalStateException e) {
+                    // Se detuvo justo ahora.
+                }
+            }
+            try {
+                System.out.print(ResumenGrabacion.resumir(archivo));
+            } catch (IOException e) {
+                System.err.println("No se pudo leer la grabación " + archivo + ": " + e.getMessage());
+            }
+        }, "timbiriche-grabacion"));
+    }
+
+    /**
+     * Abre una ventana para seguir jugando una partida local ya empezada, por ejemplo
+     * una cargada con {@link ArchivoPartida}. Todos los jugadores son personas en esta
+     * computadora. Se ejecuta en el EDT.
+     *
+     * @param modelo La partida.
+     */
+    static void abrirPartida(TableroModelo modelo) {
+        JFrame frameJuego = new JFrame("Timbiriche");
+        frameJuego.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        PanelPrincipal panelPrincipal = new PanelPrincipal(modelo);
+        new TableroControlador(modelo, panelPrincipal.getTableroVista());
+
+        frameJuego.add(panelPrincipal);
+        frameJuego.pack();
+        frameJuego.setMinimumSize(frameJuego.getSize());
+        frameJuego.setLocationRelativeTo(null);
+        frameJuego.setVisible(true);
+        TiemposArranque.marcar("tablero construido");
+    }
+
+    /**
+     * Cierra el manejador de una partida cuando se desecha su ventana, por ejemplo
+     * cuando {@link PanelLateral} la cambia por una partida cargada.
+     */
+    private static void cerrarAlDesechar(JFrame frame, GameActionHandler manejador) {
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                manejador.cerrar();
+            }
         });
     }
+
+    /**
+     * Muestra en una ventana los avisos de su partida en red: el inicio pone el turno en la
+     * etiqueta y los demás avisos abren un diálogo, como los errores de conexión.
+     */
+    private static RedGameActionHandler.AvisoListener avisosRed(JFrame frame, PanelPrincipal panel) {
+        return new RedGameActionHandler.AvisoListener() {
+            @Override
+            public void partidaIniciada() {
+                panel.actualizarTurno();
+            }
+
+            @Override
+            public void avisar(String mensaje) {
+                JOptionPane.showMessageDialog(frame, mensaje, "Partida en red", JOptionPane.WARNING_MESSAGE);
+            }
+        };
+    }
+
+    /**
+     * Abre una ventana que reproduce una repetición. Se ejecuta en el EDT.
+     *
+     * @param repeticion La repetición.
+     */
+    static void abrirRepeticion(ArchivoRepeticion repeticion) {
+        JFrame frame = new JFrame("Timbiriche - Repetición");
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.add(new ReproductorRepeticion(repeticion));
+        frame.pack();
+        frame.setMinimumSize(frame.getSize());
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+    }
+
+    /**
+     * Crea el modelo de la partida local y lo guarda jugada por jugada en un
+     * {@link RegistroJugadas}. Si en el registro quedó una partida local sin terminar
+     * que se pueda jugar con estos jugadores, pregunta si se quiere continuar. Si el
+     * registro no se puede abrir, avisa y la partida se juega sin guardar.
+     *
+     * @param directorio El directorio del registro.
+     * @param jugadores Los jugadores de la configuración.
+     * @return El modelo, nuevo o con las jugadas recuperadas.
+     */
+    private static TableroModelo abrirRegistro(Path directorio, List<Jugador> jugadores) {
+        TableroModelo modelo = new TableroModelo(JuegoConfig.TAMANIO_TABLERO, jugadores);
+        try {
+            RegistroJugadas.PartidaRegistrada anterior = RegistroJugadas.recuperar(directorio).get(PARTIDA_LOCAL);
+            if (anterior != null && !anterior.terminada() && anterior.jugadas().length > 0
+                    && anterior.tamaño() == JuegoConfig.TAMANIO_TABLERO && anterior.numJugadores() == jugadores.size()) {
+                int opcion = JOptionPane.showConfirmDialog(null,
+                        "Hay una partida sin terminar con " + anterior.jugadas().length + " líneas. ¿Continuarla?",
+                        "Partida guardada", JOptionPane.YES_NO_OPTION);
+                if (opcion == JOptionPane.YES_OPTION) modelo = anterior.reconstruir(jugadores);
+            }
+            RegistroJugadas registro = new RegistroJugadas(directorio, RegistroJugadas.Sincronizacion.AGRUPADA,
+                    JuegoConfig.INTERVALO_SINCRONIZACION_MS);
+            registro.seguir(modelo, PARTIDA_LOCAL);
+            Runtime.getRuntime().addShutdownHook(new Thread(registro::close));
+        } catch (IOException | RuntimeException e) {
+            JOptionPane.showMessageDialog(null, "No se pudo abrir el registro de jugadas: " + e.getMessage(),
+                    "Registro de jugadas", JOptionPane.WARNING_MESSAGE);
+        }
+        return modelo;
+    }
+
+    /**
+     * Abre una ventana que solo muestra una partida de un {@link ServidorJuego}. Los
+     * jugadores reciben nombres, colores y avatares genéricos, porque el servidor no
+     * los conoce. Se ejecuta en el EDT.
+     *
+     * @param servidor El servidor como {@code host:puerto}.
+     * @param partida El número de partida que se quiere ver.
+     */
+    private static void espectar(String servidor, int partida) {
+        int separador = servidor.lastIndexOf(':');
+        RedGameActionHandler manejadorRed;
+        try {
+            manejadorRed = RedGameActionHandler.espectar(servidor.substring(0, separador),
+                    Integer.parseInt(servidor.substring(separador + 1)), partida);
+        } catch (IOException | RuntimeException e) {
+            JOptionPane.showMessageDialog(null, "No se pudo conectar al servidor: " + e.getMessage(),
+                    "Error de red", JOptionPane.ERROR_MESSAGE);
+            System.exit(1);
+            return;
+        }
+        List<Color> colores = Recursos.getColoresDisponibles();
+        List<String> avatares = Recursos.getAvataresDisponibles();
+        List<Jugador> jugadores = new ArrayList<>();
+        for (int i = 0; i < manejadorRed.getNumJugadores(); i++) {
+            jugadores.add(new Jugador(i + 1, "Jugador " + (i + 1),
+                    avatares.isEmpty() ? "" : avatares.get(i % avatares.size()), colores.get(i % colores.size())));
+        }
+
+        JFrame frameJuego = new JFrame("Timbiriche - Partida " + partida + " (espectador)");
+        frameJuego.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        TableroModelo modelo = new TableroModelo(manejadorRed.getTamaño(), jugadores);
+        PanelPrincipal panelPrincipal = new PanelPrincipal(modelo);
+        new TableroControlador(modelo, panelPrincipal.getTableroVista(), manejadorRed);
+        cerrarAlDesechar(frameJuego, manejadorRed);
+        manejadorRed.iniciar(modelo, avisosRed(frameJuego, panelPrincipal));
+
+        frameJuego.add(panelPrincipal);
+        frameJuego.pack();
+        frameJuego.setMinimumSize(frameJuego.getSize());
+        frameJuego.setLocationRelativeTo(null);
+        frameJuego.setVisible(true);
+    }
 }
\ No newline at end of file
@@ -31,6 +31,8 @@ public class VentanaConfiguracion extends JDialog {
      * configuración se confirma exitosamente con el botón "Jugar".
      */
     private List<Jugador> jugadoresConfigurados = null;
+    /** Los IDs de los jugadores que controlará la computadora. */
+    private Set<Integer> idsComputadora = Set.of();
 
     /**
      * Construye la ventana de configuración.
@@ -38,7 +40,7 @@ public class VentanaConfiguracion extends JDialog {
      * Crea paneles de configuración para el número especificado de jugadores,
      * asignándoles nombres, avatares y colores predeterminados.
      *
-     * @param owner El {@link JFrame} propietario de este diálogo.
+     * @param owner El {@link JFrame} propietario de este diálogo, o {@code null} si no tiene.
      * @param numJugadores El número de jugadores a configurar.
      */
     public VentanaConfiguracion(JFrame owner, int numJugadores) {
@@ -49,6 +51,7 @@ public class VentanaConfiguracion extends JDialog {
         // Carga los recursos disponibles para asignar valores por defecto
         List<String> avatares = Recursos.getAvataresDisponibles();
         List<Color> colores = Recursos.getColoresDisponibles();
+        TiemposArranque.marcar("recursos");
 
         // Crea configuraciones iniciales para cada jugador
         for (int i = 0; i < numJugadores; i++) {
@@ -76,6 +79,26 @@ public class VentanaConfiguracion extends JDialog {
         add(btnJugar, BorderLayout.SOUTH);
         pack();
         setLocationRelativeTo(owner);
+        TiemposArranque.marcar("configuración construida");
+    }
+
+    /**
+     * Crea el panel raíz del diálogo, que además avisa a {@link TiemposArranque} cuando
+     * se pinta. Al medir el arranque, la configuración se acepta sola en cuanto se pinta.
+     */
+    @Override
+    protected JRootPane createRootPane() {
+        JRootPane raiz = new JRootPane() {
+            @Override
+            public void paint(Graphics g) {
+                super.paint(g);
+                if (TiemposArranque.marcar(TiemposArranque.PRIMER_CUADRO) && TiemposArranque.midiendo()) {
+                    SwingUtilities.invokeLater(VentanaConfiguracion.this::iniciarJuego);
+                }
+            }
+        };
+        raiz.setOpaque(true);
+        return raiz;
     }
 
     /**
@@ -94,6 +117,10 @@ public class VentanaConfiguracion extends JDialog {
             jugadoresConfigurados = IntStream.range(0, configsFinales.size())
                     .mapToObj(i -> new Jugador(i + 1, configsFinales.get(i).getNombre(), configsFinales.get(i).getAvatarPath(), configsFinales.get(i).getColor()))
                     .collect(Collectors.toList());
+            idsComputadora = IntStream.range(0, configsFinales.size())
+                    .filter(i -> configsFinales.get(i).isComputadora())
+                    .mapToObj(i -> i + 1)
+                    .collect(Collectors.toSet());
             setVisible(false); // Cierra el diálogo
             dispose();
         } catch (IllegalArgumentException ex) {
@@ -139,4 +166,14 @@ public class VentanaConfiguracion extends JDialog {
         setVisible(true); // Bloquea hasta que el diálogo se cierre
         return jugadoresConfigurados;
     }
-}
\ No newline at end of file
+
+    /**
+     * Devuelve los IDs de los jugadores marcados como "Controlado por la computadora".
+     * Solo tiene sentido después de que {@link #mostrarDialogo()} devolvió una lista de jugadores.
+     *
+     * @return Un conjunto (posiblemente vacío) de IDs de jugador.
+     */
+    public Set<Integer> getIdsComputadora() {
+        return idsComputadora;
+    }
+}
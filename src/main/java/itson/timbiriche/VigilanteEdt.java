@@ -0,0 +1,381 @@
+package itson.timbiriche;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.KeyboardFocusManager;
+import java.awt.Toolkit;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Vigila el hilo de Swing (EDT): mide cuánto tarda en despacharse cada evento y, cuando uno
+ * pasa de {@link JuegoConfig#UMBRAL_BLOQUEO_EDT_MS}, guarda cuánto duró y la pila del
+ * código que lo tenía ocupado, para encontrar lo que traba la interfaz (un diálogo en
+ * medio de un aviso del modelo, decodificar imágenes, leer archivos o esperar a la red).
+ * <p>
+ * Se instala una cola de eventos propia que toma el tiempo de cada despacho; mientras
+ * el vigilante está apagado solo lee una variable y despacha. Un hilo aparte revisa
+ * varias veces por umbral si el evento actual ya tardó demasiado y, si es así, toma una
+ * muestra de la pila del EDT; del bloqueo se reporta la pila que más se repitió. Si un
+ * evento abre un diálogo modal, el tiempo que el diálogo está abierto no cuenta para ese
+ * evento, porque mientras tanto el EDT sigue despachando los del diálogo o esperándolos.
+ * <p>
+ * Se enciende con {@code --vigilar-edt} ({@link Timbiriche#main}) o en cualquier momento
+ * con Ctrl+Shift+F12, y Ctrl+Shift+F11 imprime el {@link #reporte()}: un histograma de la
+ * duración de los eventos y los últimos bloqueos. Cada bloqueo también se imprime en la
+ * salida de errores y es un evento {@link EventosJuego.BloqueoEdt} para JDK Flight
+ * Recorder.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+final class VigilanteEdt {
+
+    /** Cubetas del histograma: menos de 1 ms, y luego de 1 a 2, de 2 a 4... hasta 1024 ms o más. */
+    static final int NUM_CUBETAS = 12;
+    /** Cuántos bloqueos recientes se guardan para el reporte. */
+    private static final int MAX_BLOQUEOS = 20;
+    /** Cuántos diálogos modales anidados se siguen; los eventos más adentro solo se despachan. */
+    private static final int MAX_PROFUNDIDAD = 16;
+    /** Cuántas muestras de pila se guardan por evento. */
+    private static final int MAX_MUESTRAS = 64;
+    /** Cuántos renglones de la pila se imprimen por bloqueo. */
+    private static final int RENGLONES_PILA = 12;
+
+    private static VigilanteEdt instalado;
+
+    private final long umbral;
+    private final long intervaloMuestreo;
+    private volatile boolean activo;
+    private Thread muestreador;
+
+    // Los escribe el EDT y los lee el muestreador: el evento actual, cuándo empezó su
+    // tramo (0 si el EDT está libre) y un número que cambia cada vez que empieza o
+    // termina un tramo, para saber si una muestra sigue siendo del mismo.
+    private volatile Thread hiloEdt;
+    private volatile long inicioTramo;
+    private volatile long tramo;
+    private volatile int profundidad;
+
+    // Solo los usa el EDT: por cada evento anidado, su inicio, su tiempo propio sin los
+    // diálogos modales y el evento.
+    private final long[] inicios = new long[MAX_PROFUNDIDAD];
+    private final long[] propios = new long[MAX_PROFUNDIDAD];
+    private final AWTEvent[] eventos = new AWTEvent[MAX_PROFUNDIDAD];
+
+    /** Las muestras de pila de cada nivel de anidamiento; protegidas por sí mismas. */
+    private final List<List<StackTraceElement[]>> muestras = new ArrayList<>();
+    private final AtomicLongArray cubetas = new AtomicLongArray(NUM_CUBETAS);
+    /** Los bloqueos más recientes, protegidos por {@code this}. */
+    private final ArrayDeque<Bloqueo> bloqueos = new ArrayDeque<>();
+    private long numBloqueos;
+
+    /**
+     * Un evento que tuvo ocupado al EDT más que el umbral.
+     *
+     * @param duracion Cuánto tardó, en nanosegundos, sin contar los diálogos modales que abrió.
+     * @param evento Qué evento era.
+     * @param pila La pila que más se repitió en las muestras, sin el despacho de Swing,
+     * o vacía si el evento terminó antes de que se tomara una muestra.
+     * @param numMuestras Cuántas muestras de pila se tomaron.
+     */
+    record Bloqueo(long duracion, String evento, StackTraceElement[] pila, int numMuestras) {}
+
+    private VigilanteEdt(long umbralMs) {
+        this.umbral = umbralMs * 1_000_000L;
+        this.intervaloMuestreo = Math.max(1, umbralMs / 4);
+        for (int i = 0; i < MAX_PROFUNDIDAD; i++) muestras.add(new ArrayList<>());
+    }
+
+    /**
+     * Instala el vigilante, apagado, si no se había instalado: pone su cola de eventos y
+     * los atajos de teclado para encenderlo y ver el reporte.
+     *
+     * @return El vigilante instalado.
+     */
+    static synchronized VigilanteEdt instalar() {
+        if (instalado == null) {
+            instalado = new VigilanteEdt(JuegoConfig.UMBRAL_BLOQUEO_EDT_MS);
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(instalado.new Cola());
+            KeyboardFocusManager.getCurrentKeyboardFocusManager().addKeyEventDispatcher(instalado::atajo);
+        }
+        return instalado;
+    }
+
+    /** @return El vigilante, o {@code null} si no se ha instalado. */
+    static synchronized VigilanteEdt instalado() {
+        return instalado;
+    }
+
+    /**
+     * Enciende o apaga el vigilante. Al apagarlo se conservan el histograma y los
+     * bloqueos registrados.
+     *
+     * @param activo Verdadero para encenderlo.
+     */
+    synchronized void setActivo(boolean activo) {
+        this.activo = activo;
+        if (activo && muestreador == null) {
+            muestreador = new Thread(this::muestrear, "timbiriche-vigilante-edt");
+            muestreador.setDaemon(true);
+            // Por encima del EDT, para que pueda tomar muestras aunque el EDT ocupe el procesador.
+            muestreador.setPriority(Thread.NORM_PRIORITY + 1);
+            muestreador.start();
+        }
+        notifyAll();
+    }
+
+    /** @return Verdadero si el vigilante está encendido. */
+    boolean isActivo() {
+        return activo;
+    }
+
+    /** @return Cuántos bloqueos se han registrado desde que se instaló. */
+    synchronized long getNumBloqueos() {
+        return numBloqueos;
+    }
+
+    /** @return Cuántos eventos cayeron en cada cubeta del histograma. */
+    long[] getHistograma() {
+        long[] h = new long[NUM_CUBETAS];
+        for (int i = 0; i < NUM_CUBETAS; i++) h[i] = cubetas.get(i);
+        return h;
+    }
+
+    /** @return Los bloqueos más recientes, del más viejo al más nuevo. */
+    synchronized List<Bloqueo> getBloqueos() {
+        return new ArrayList<>(bloqueos);
+    }
+
+    /** @return La cubeta del histograma de una duración en nanosegundos. */
+    static int cubeta(long nanos) {
+        long ms = nanos / 1_000_000;
+        return ms < 1 ? 0 : Math.min(NUM_CUBETAS - 1, 64 - Long.numberOfLeadingZeros(ms));
+    }
+
+    /** @return El histograma y los últimos bloqueos, listos para imprimir. */
+    String reporte() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Vigilante del EDT (umbral %d ms, %s)%n", umbral / 1_000_000, activo ? "encendido" : "apagado"));
+        sb.append("Eventos despachados por duración:").append(System.lineSeparator());
+        long[] h = getHistograma();
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            String rango = i == 0 ? "< 1 ms"
+                    : i == NUM_CUBETAS - 1 ? ">= " + (1L << (i - 1)) + " ms"
+                    : (1L << (i - 1)) + "-" + (1L << i) + " ms";
+            sb.append(String.format("  %-12s %10d%n", rango, h[i]));
+        }
+        List<Bloqueo> recientes;
+        long total;
+        synchronized (this) {
+            recientes = new ArrayList<>(bloqueos);
+            total = numBloqueos;
+        }
+        sb.append(String.format("Bloqueos: %d (los últimos %d)%n", total, recientes.size()));
+        for (Bloqueo b : recientes) sb.append(describir(b));
+        return sb.toString();
+    }
+
+    /**
+     * Escribe el {@link #reporte()} en un archivo.
+     *
+     * @param archivo El archivo de texto.
+     * @throws IOException si no se puede escribir.
+     */
+    void exportar(Path archivo) throws IOException {
+        ArchivoPartida.escribirArchivo(archivo, reporte().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String describir(Bloqueo b) {
+        StringBuilder sb = new StringBuilder(String.format("  %.1f ms en %s (%d muestras)%n", b.duracion() / 1e6, b.evento(), b.numMuestras()));
+        for (int i = 0; i < Math.min(RENGLONES_PILA, b.pila().length); i++) {
+            sb.append("      at ").append(b.pila()[i]).append(System.lineSeparator());
+        }
+        if (b.pila().length > RENGLONES_PILA) sb.append("      ...").append(System.lineSeparator());
+        return sb.toString();
+    }
+
+    /** Ctrl+Shift+F12 enciende o apaga el vigilante y Ctrl+Shift+F11 imprime el reporte. */
+    private boolean atajo(KeyEvent e) {
+        int modificadores = InputEvent.CTRL_DOWN_MASK | InputEvent.SHIFT_DOWN_MASK;
+        if (e.getID() != KeyEvent.KEY_PRESSED || (e.getModifiersEx() & modificadores) != modificadores) return false;
+        if (e.getKeyCode() == KeyEvent.VK_F12) {
+            setActivo(!activo);
+            System.out.println("Vigilante del EDT " + (activo ? "encendido" : "apagado"));
+            return true;
+        }
+        if (e.getKeyCode() == KeyEvent.VK_F11) {
+            System.out.print(reporte());
+            return true;
+        }
+        return false;
+    }
+
+    // --- En el EDT ---
+
+    /** Empieza a medir un evento; si otro evento lo estaba despachando (un diálogo modal), pausa ese. */
+    private void entrar(AWTEvent evento) {
+        long ahora = System.nanoTime();
+        int p = profundidad;
+        if (p > 0 && p <= MAX_PROFUNDIDAD) propios[p - 1] += ahora - inicios[p - 1];
+        if (p < MAX_PROFUNDIDAD) {
+            inicios[p] = ahora;
+            propios[p] = 0;
+            eventos[p] = evento;
+        }
+        hiloEdt = Thread.currentThread();
+        profundidad = p + 1;
+        tramo++;
+        inicioTramo = ahora;
+    }
+
+    /**
+     * Pausa el evento actual mientras un diálogo modal espera el siguiente evento y lo
+     * reanuda al recibirlo. El EDT está libre mientras espera.
+     */
+    private void esperar(boolean empieza) {
+        int p = profundidad;
+        if (p == 0 || p > MAX_PROFUNDIDAD) return;
+        long ahora = System.nanoTime();
+        tramo++;
+        if (empieza) {
+            propios[p - 1] += ahora - inicios[p - 1];
+            inicioTramo = 0;
+        } else {
+            inicios[p - 1] = ahora;
+            inicioTramo = ahora;
+        }
+    }
+
+    /** Termina de medir el evento actual y, si había otro pausado, lo reanuda. */
+    private void salir() {
+        long ahora = System.nanoTime();
+        int p = profundidad - 1;
+        profundidad = p;
+        // A partir de aquí las muestras que se tomen ya no son de este evento.
+        tramo++;
+        inicioTramo = p > 0 ? ahora : 0;
+        if (p >= MAX_PROFUNDIDAD) return;
+        long duracion = propios[p] + ahora - inicios[p];
+        AWTEvent evento = eventos[p];
+        eventos[p] = null;
+        if (p > 0 && p - 1 < MAX_PROFUNDIDAD) inicios[p - 1] = ahora;
+        cubetas.incrementAndGet(cubeta(duracion));
+        if (duracion >= umbral) registrar(duracion, evento, p);
+    }
+
+    private void registrar(long duracion, AWTEvent evento, int nivel) {
+        List<StackTraceElement[]> tomadas;
+        synchronized (muestras) {
+            tomadas = new ArrayList<>(muestras.get(nivel));
+            muestras.get(nivel).clear();
+        }
+        String descripcion = evento.getClass().getSimpleName() + "[" + evento.paramString() + "]";
+        Bloqueo b = new Bloqueo(duracion, descripcion, masFrecuente(tomadas), tomadas.size());
+        synchronized (this) {
+            if (bloqueos.size() == MAX_BLOQUEOS) bloqueos.removeFirst();
+            bloqueos.addLast(b);
+            numBloqueos++;
+        }
+        System.err.print("EDT bloqueado:" + describir(b).substring(1));
+
+        EventosJuego.BloqueoEdt jfr = new EventosJuego.BloqueoEdt();
+        if (jfr.shouldCommit()) {
+            jfr.duracion = duracion;
+            jfr.evento = descripcion;
+            StringBuilder pila = new StringBuilder();
+            for (StackTraceElement e : b.pila()) pila.append(e).append('\n');
+            jfr.pila = pila.toString();
+            jfr.numMuestras = tomadas.size();
+            jfr.commit();
+        }
+    }
+
+    /** @return La pila que más se repite, sin los renglones del despacho de Swing. */
+    private static StackTraceElement[] masFrecuente(List<StackTraceElement[]> pilas) {
+        Map<List<StackTraceElement>, Integer> cuenta = new HashMap<>();
+        List<StackTraceElement> mejor = List.of();
+        int maxima = 0;
+        for (StackTraceElement[] pila : pilas) {
+            List<StackTraceElement> recortada = Arrays.asList(recortar(pila));
+            int n = cuenta.merge(recortada, 1, Integer::sum);
+            if (n > maxima) {
+                maxima = n;
+                mejor = recortada;
+            }
+        }
+        return mejor.toArray(new StackTraceElement[0]);
+    }
+
+    /** Quita de una pila del EDT todo lo que está debajo del despacho de esta cola. */
+    private static StackTraceElement[] recortar(StackTraceElement[] pila) {
+        String cola = Cola.class.getName();
+        for (int i = 0; i < pila.length; i++) {
+            if (pila[i].getClassName().equals(cola)) return Arrays.copyOf(pila, i);
+        }
+        return pila;
+    }
+
+    // --- En el muestreador ---
+
+    private void muestrear() {
+        while (true) {
+            try {
+                synchronized (this) {
+                    while (!activo) wait();
+                }
+                Thread.sleep(intervaloMuestreo);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long t = tramo, inicio = inicioTramo;
+            int nivel = profundidad - 1;
+            Thread hilo = hiloEdt;
+            if (inicio == 0 || nivel < 0 || nivel >= MAX_PROFUNDIDAD || System.nanoTime() - inicio < umbral) continue;
+            StackTraceElement[] pila = hilo.getStackTrace();
+            synchronized (muestras) {
+                // Si el EDT ya cambió de evento mientras se tomaba la pila, la muestra no sirve.
+                if (tramo == t && muestras.get(nivel).size() < MAX_MUESTRAS) muestras.get(nivel).add(pila);
+            }
+        }
+    }
+
+    /** La cola de eventos que mide cada despacho mientras el vigilante está encendido. */
+    private final class Cola extends EventQueue {
+        @Override
+        public AWTEvent getNextEvent() throws InterruptedException {
+            // Solo hay algo que pausar si se pide desde un diálogo modal, dentro de un evento.
+            if (profundidad == 0) return super.getNextEvent();
+            esperar(true);
+            try {
+                return super.getNextEvent();
+            } finally {
+                esperar(false);
+            }
+        }
+
+        @Override
+        protected void dispatchEvent(AWTEvent evento) {
+            if (!activo) {
+                super.dispatchEvent(evento);
+                return;
+            }
+            entrar(evento);
+            try {
+                super.dispatchEvent(evento);
+            } finally {
+                salir();
+            }
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package itson.timbiriche;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Escribe cada tipo de mensaje de {@link ProtocoloRed} con valores en los bordes (cero,
+ * los cambios de longitud de los varints, la fila y columna máximas, enteros negativos)
+ * y comprueba que se lee exactamente lo que se escribió, y que una trama cortada o mal
+ * formada da un {@link IllegalArgumentException} y no otra excepción.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+class ProtocoloRedTest {
+
+    /** Los enteros donde cambia la longitud de un varint, y los negativos (que ocupan cinco bytes). */
+    private static final int[] BORDES = {
+        0, 1, 127, 128, 16383, 16384, 2097151, 2097152, 268435455, 268435456,
+        Integer.MAX_VALUE, -1, Integer.MIN_VALUE
+    };
+
+    /** Jugadas en las esquinas de la codificación, más enteros que no son jugadas válidas. */
+    private static final int[] JUGADAS = {
+        Jugada.codificar(0, 0, false),
+        Jugada.codificar(0, 0, true),
+        Jugada.codificar(0, 63, true),
+        Jugada.codificar(0, 64, false),
+        Jugada.codificar(127, 0, true),
+        Jugada.codificar(128, 8191, false),
+        Jugada.codificar(8192, 0, true),
+        Jugada.codificar(Jugada.MAX_COORDENADA, Jugada.MAX_COORDENADA, false),
+        Jugada.codificar(Jugada.MAX_COORDENADA, Jugada.MAX_COORDENADA, true),
+        -1, Integer.MIN_VALUE, Integer.MAX_VALUE
+    };
+
+    @Test
+    void varintsDeIdaYVuelta() {
+        for (int valor : BORDES) {
+            ByteBuffer b = ByteBuffer.allocate(8);
+            ProtocoloRed.escribirVarint(b, valor);
+            int bytes = b.position();
+            assertEquals(longitudVarint(valor), bytes, "bytes del varint " + valor);
+            b.flip();
+            assertEquals(valor, ProtocoloRed.leerVarint(b), "varint " + valor);
+            assertFalse(b.hasRemaining(), "varint " + valor);
+        }
+    }
+
+    @Test
+    void unirseEspectarYBienvenida() {
+        for (int x : BORDES) {
+            int y = BORDES[BORDES.length - 1 - indice(x)];
+            MensajeRed m = leerUna(b -> ProtocoloRed.escribirUnirse(b, x, y, x));
+            assertEquals(ProtocoloRed.UNIRSE, m.tipo);
+            assertEquals(ProtocoloRed.VERSION, m.version);
+            assertEquals(x, m.idPartida);
+            assertEquals(y, m.tamaño);
+            assertEquals(x, m.numJugadores);
+
+            m = leerUna(b -> ProtocoloRed.escribirEspectar(b, x));
+            assertEquals(ProtocoloRed.ESPECTAR, m.tipo);
+            assertEquals(ProtocoloRed.VERSION, m.version);
+            assertEquals(x, m.idPartida);
+
+            m = leerUna(b -> ProtocoloRed.escribirBienvenida(b, x, y, ProtocoloRed.MAX_TAMAÑO, x));
+            assertEquals(ProtocoloRed.BIENVENIDA, m.tipo);
+            assertEquals(ProtocoloRed.VERSION, m.version);
+            assertEquals(x, m.idPartida);
+            assertEquals(y, m.jugadorId);
+            assertEquals(ProtocoloRed.MAX_TAMAÑO, m.tamaño);
+            assertEquals(x, m.numJugadores);
+        }
+    }
+
+    @Test
+    void jugadasRechazosAbandonoEInicio() {
+        for (int jugada : JUGADAS) {
+            MensajeRed m = leerUna(b -> ProtocoloRed.escribirJugada(b, jugada));
+            assertEquals(ProtocoloRed.JUGADA, m.tipo);
+            assertEquals(jugada, m.jugada, "jugada " + Integer.toHexString(jugada));
+
+            for (byte motivo = ProtocoloRed.NO_ES_TU_TURNO; motivo <= ProtocoloRed.VERSION_INCOMPATIBLE; motivo++) {
+                byte elMotivo = motivo;
+                m = leerUna(b -> ProtocoloRed.escribirRechazo(b, jugada, elMotivo));
+                assertEquals(ProtocoloRed.RECHAZO, m.tipo);
+                assertEquals(jugada, m.jugada, "rechazo de " + Integer.toHexString(jugada));
+                assertEquals(motivo, m.motivo);
+            }
+        }
+        for (int id : BORDES) {
+            MensajeRed m = leerUna(b -> ProtocoloRed.escribirAbandono(b, id));
+            assertEquals(ProtocoloRed.ABANDONO, m.tipo);
+            assertEquals(id, m.jugadorId);
+        }
+        assertEquals(ProtocoloRed.INICIO, leerUna(ProtocoloRed::escribirInicio).tipo);
+    }
+
+    @Test
+    void deltasDeIdaYVuelta() {
+        List<DeltaEstado> deltas = deltasDePrueba();
+        assertTrue(deltas.size() > ProtocoloRed.MAX_DELTAS_POR_LOTE);
+        // Un delta solo, con escribirDelta.
+        for (DeltaEstado d : deltas) {
+            ByteBuffer b = trama(x -> ProtocoloRed.escribirDelta(x, d));
+            assertEquals(List.of(d), leerDeltas(b));
+        }
+        // Lotes llenos, que no deben pasar de MAX_TRAMA aunque todo ocupe cinco bytes.
+        for (int desde = 0; desde + ProtocoloRed.MAX_DELTAS_POR_LOTE <= deltas.size(); desde++) {
+            int inicio = desde;
+            ByteBuffer b = trama(x -> ProtocoloRed.escribirDeltas(x, deltas, inicio, inicio + ProtocoloRed.MAX_DELTAS_POR_LOTE));
+            assertTrue(b.remaining() <= ProtocoloRed.MAX_TRAMA, "lote de " + b.remaining() + " bytes");
+            assertEquals(deltas.subList(desde, desde + ProtocoloRed.MAX_DELTAS_POR_LOTE), leerDeltas(b));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> ProtocoloRed.escribirDeltas(ByteBuffer.allocate(ProtocoloRed.MAX_TRAMA), deltas, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> ProtocoloRed.escribirDeltas(
+                ByteBuffer.allocate(2 * ProtocoloRed.MAX_TRAMA), deltas, 0, ProtocoloRed.MAX_DELTAS_POR_LOTE + 1));
+    }
+
+    @Test
+    void historiaDeIdaYVuelta() {
+        int[] jugadas = new int[2 * ProtocoloRed.MAX_JUGADAS_POR_HISTORIA];
+        for (int i = 0; i < jugadas.length; i++) jugadas[i] = JUGADAS[i % JUGADAS.length];
+        for (int desde : new int[] {0, 1, 127, 128, ProtocoloRed.MAX_JUGADAS_POR_HISTORIA}) {
+            for (int cantidad : new int[] {0, 1, ProtocoloRed.MAX_JUGADAS_POR_HISTORIA}) {
+                ByteBuffer b = trama(x -> ProtocoloRed.escribirHistoria(x, jugadas, desde, desde + cantidad));
+                assertTrue(b.remaining() <= ProtocoloRed.MAX_TRAMA, "historia de " + b.remaining() + " bytes");
+                MensajeRed m = new MensajeRed();
+                ProtocoloRed.leer(b, m);
+                assertEquals(ProtocoloRed.HISTORIA, m.tipo);
+                int leidas = 0;
+                while (ProtocoloRed.siguienteJugada(b, m)) {
+                    assertEquals(desde + leidas + 1, m.secuencia);
+                    assertEquals(jugadas[desde + leidas], m.jugada);
+                    leidas++;
+                }
+                assertEquals(cantidad, leidas);
+                assertFalse(b.hasRemaining());
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> ProtocoloRed.escribirHistoria(
+                ByteBuffer.allocate(2 * ProtocoloRed.MAX_TRAMA), jugadas, 0, ProtocoloRed.MAX_JUGADAS_POR_HISTORIA + 1));
+    }
+
+    /** Varias tramas seguidas en un buffer se leen una por una, sin mezclarse. */
+    @Test
+    void tramasSeguidas() {
+        List<DeltaEstado> deltas = deltasDePrueba();
+        ByteBuffer b = ByteBuffer.allocate(4 * ProtocoloRed.MAX_TRAMA);
+        ProtocoloRed.escribirDeltas(b, deltas, 0, 3);
+        ProtocoloRed.escribirJugada(b, JUGADAS[7]);
+        ProtocoloRed.escribirHistoria(b, JUGADAS, 2, 5);
+        ProtocoloRed.escribirInicio(b);
+        b.flip();
+
+        assertEquals(deltas.subList(0, 3), leerDeltas(b));
+        MensajeRed m = new MensajeRed();
+        assertTrue(ProtocoloRed.tramaCompleta(b) > 0);
+        ProtocoloRed.leer(b, m);
+        assertEquals(JUGADAS[7], m.jugada);
+        ProtocoloRed.leer(b, m);
+        int leidas = 0;
+        while (ProtocoloRed.siguienteJugada(b, m)) assertEquals(JUGADAS[2 + leidas++], m.jugada);
+        assertEquals(3, leidas);
+        ProtocoloRed.leer(b, m);
+        assertEquals(ProtocoloRed.INICIO, m.tipo);
+        assertFalse(b.hasRemaining());
+    }
+
+    /**
+     * Cada trama de prueba, cortada en cada byte: mientras falte parte, {@link ProtocoloRed#tramaCompleta}
+     * dice que no está completa y {@link ProtocoloRed#leer} falla limpiamente.
+     */
+    @Test
+    void tramasCortadas() {
+        for (ByteBuffer completa : tramasDePrueba()) {
+            int total = completa.remaining();
+            for (int corte = 0; corte < total; corte++) {
+                ByteBuffer b = completa.duplicate().limit(corte);
+                if (corte >= 2) assertEquals(-1, ProtocoloRed.tramaCompleta(b), "trama de " + total + " bytes cortada en " + corte);
+                assertThrows(IllegalArgumentException.class, () -> leerTodo(b), "trama de " + total + " bytes cortada en " + corte);
+            }
+        }
+    }
+
+    /**
+     * Cada trama de prueba con una longitud anunciada menor que sus datos: sola en el buffer,
+     * o seguida de otra trama de la que no debe leer, falla limpiamente al leer la trama o
+     * cualquiera de sus deltas o jugadas.
+     */
+    @Test
+    void tramasMasLargasDeLoAnunciado() {
+        ByteBuffer siguiente = trama(ProtocoloRed::escribirInicio);
+        for (ByteBuffer completa : tramasDePrueba()) {
+            int total = completa.remaining();
+            for (int longitud = 1; longitud + 2 < total; longitud++) {
+                ByteBuffer sola = ByteBuffer.allocate(2 + longitud).put(completa.duplicate().limit(2 + longitud));
+                sola.putShort(0, (short) longitud).flip();
+                assertEquals(2 + longitud, ProtocoloRed.tramaCompleta(sola));
+                assertThrows(IllegalArgumentException.class, () -> leerTodo(sola), "trama de " + total + " bytes que anuncia " + longitud);
+
+                ByteBuffer seguida = ByteBuffer.allocate(total + siguiente.remaining()).put(completa.duplicate()).put(siguiente.duplicate());
+                seguida.putShort(0, (short) longitud).flip();
+                assertThrows(IllegalArgumentException.class, () -> leerTodo(seguida), "trama de " + total + " bytes que anuncia " + longitud + ", seguida de otra");
+            }
+        }
+    }
+
+    @Test
+    void tramasMalFormadas() {
+        ByteBuffer b = ByteBuffer.allocate(8).putShort((short) 0).flip();
+        assertThrows(IllegalArgumentException.class, () -> ProtocoloRed.tramaCompleta(b));
+        ByteBuffer larga = ByteBuffer.allocate(8).putShort((short) (ProtocoloRed.MAX_TRAMA - 1)).flip();
+        assertThrows(IllegalArgumentException.class, () -> ProtocoloRed.tramaCompleta(larga));
+
+        // Un tipo que no existe.
+        assertThrows(IllegalArgumentException.class,
+                () -> ProtocoloRed.leer(ByteBuffer.wrap(new byte[] {0, 1, 99}), new MensajeRed()));
+        // Un varint de seis bytes.
+        assertThrows(IllegalArgumentException.class, () -> ProtocoloRed.leer(ByteBuffer.wrap(
+                new byte[] {0, 7, ProtocoloRed.ABANDONO, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0}), new MensajeRed()));
+        // Una jugada cuya mitad alta no cabe en 16 bits.
+        ByteBuffer jugada = ByteBuffer.allocate(16).putShort((short) 0).put(ProtocoloRed.JUGADA);
+        ProtocoloRed.escribirVarint(jugada, 1 << 16);
+        ProtocoloRed.escribirVarint(jugada, 0);
+        jugada.putShort(0, (short) (jugada.position() - 2)).flip();
+        assertThrows(IllegalArgumentException.class, () -> ProtocoloRed.leer(jugada, new MensajeRed()));
+    }
+
+    // --- Ayudantes ---
+
+    /** @return Una trama escrita por {@code escritor}, lista para leer. */
+    private static ByteBuffer trama(Consumer<ByteBuffer> escritor) {
+        ByteBuffer b = ByteBuffer.allocate(2 * ProtocoloRed.MAX_TRAMA);
+        escritor.accept(b);
+        return b.flip();
+    }
+
+    /** Escribe una trama, comprueba que está completa y que se lee entera, y devuelve el mensaje. */
+    private static MensajeRed leerUna(Consumer<ByteBuffer> escritor) {
+        ByteBuffer b = trama(escritor);
+        assertEquals(b.remaining(), ProtocoloRed.tramaCompleta(b));
+        MensajeRed m = new MensajeRed();
+        ProtocoloRed.leer(b, m);
+        assertFalse(b.hasRemaining(), "la lectura debe terminar al final de la trama");
+        return m;
+    }
+
+    /** Lee un lote y todos sus deltas, y deja el buffer al final de la trama. */
+    private static List<DeltaEstado> leerDeltas(ByteBuffer b) {
+        int fin = b.position() + ProtocoloRed.tramaCompleta(b);
+        MensajeRed m = new MensajeRed();
+        ProtocoloRed.leer(b, m);
+        assertEquals(ProtocoloRed.DELTAS, m.tipo);
+        List<DeltaEstado> leidos = new ArrayList<>();
+        while (ProtocoloRed.siguienteDelta(b, m)) leidos.add(m.aDelta());
+        assertEquals(fin, b.position());
+        return leidos;
+    }
+
+    /** Lee una trama como lo hacen el servidor y los clientes, incluidos sus deltas o jugadas. */
+    private static void leerTodo(ByteBuffer b) {
+        MensajeRed m = new MensajeRed();
+        ProtocoloRed.leer(b, m);
+        if (m.tipo == ProtocoloRed.DELTAS) {
+            while (ProtocoloRed.siguienteDelta(b, m)) { }
+        } else if (m.tipo == ProtocoloRed.HISTORIA) {
+            while (ProtocoloRed.siguienteJugada(b, m)) { }
+        }
+    }
+
+    /** Deltas con cero, uno y dos cuadros, terminados o no, y con campos en los bordes de los varints. */
+    private static List<DeltaEstado> deltasDePrueba() {
+        List<DeltaEstado> deltas = new ArrayList<>();
+        int secuencia = 127;
+        for (int i = 0; deltas.size() < 2 * ProtocoloRed.MAX_DELTAS_POR_LOTE; i++) {
+            int x = BORDES[i % BORDES.length];
+            int y = BORDES[(i / 3 + 5) % BORDES.length];
+            int cerrados = i % 3;
+            int cuadroA = cerrados > 0 ? (x < 0 ? Integer.MAX_VALUE : x) : -1;
+            int cuadroB = cerrados > 1 ? (y < 0 ? 0 : y) : -1;
+            deltas.add(new DeltaEstado(secuencia++, JUGADAS[i % JUGADAS.length], y, cuadroA, cuadroB, x, y, i % 4 == 3));
+        }
+        return deltas;
+    }
+
+    /** Una trama de cada tipo, con valores de varios tamaños. */
+    private static List<ByteBuffer> tramasDePrueba() {
+        List<DeltaEstado> deltas = deltasDePrueba();
+        int[] jugadas = JUGADAS;
+        return List.of(
+                trama(b -> ProtocoloRed.escribirUnirse(b, 128, ProtocoloRed.MAX_TAMAÑO, -1)),
+                trama(b -> ProtocoloRed.escribirJugada(b, jugadas[7])),
+                trama(b -> ProtocoloRed.escribirJugada(b, -1)),
+                trama(b -> ProtocoloRed.escribirEspectar(b, 16384)),
+                trama(b -> ProtocoloRed.escribirBienvenida(b, 0, 127, 128, Integer.MAX_VALUE)),
+                trama(ProtocoloRed::escribirInicio),
+                trama(b -> ProtocoloRed.escribirDelta(b, deltas.get(0))),
+                trama(b -> ProtocoloRed.escribirDelta(b, deltas.get(2))),
+                trama(b -> ProtocoloRed.escribirDeltas(b, deltas, 0, 7)),
+                trama(b -> ProtocoloRed.escribirHistoria(b, jugadas, 0, 0)),
+                trama(b -> ProtocoloRed.escribirHistoria(b, jugadas, 3, jugadas.length)),
+                trama(b -> ProtocoloRed.escribirRechazo(b, Integer.MIN_VALUE, ProtocoloRed.FUERA_DEL_TABLERO)),
+                trama(b -> ProtocoloRed.escribirAbandono(b, 16383)));
+    }
+
+    private static int longitudVarint(int valor) {
+        int bytes = 1;
+        while ((valor & ~0x7F) != 0) {
+            valor >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+
+    private static int indice(int valor) {
+        for (int i = 0; i < BORDES.length; i++) if (BORDES[i] == valor) return i;
+        throw new IllegalArgumentException("No es un borde: " + valor);
+    }
+}
@@ -0,0 +1,113 @@
+package itson.timbiriche;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compara la detección incremental de cuadros de {@link TableroModelo} con una
+ * implementación de referencia que, después de cada línea, revisa todos los cuadros del
+ * tablero, como lo hacía el modelo original.
+ *
+ * @author [Tu Nombre/Equipo]
+ * @version 1.0
+ */
+class TableroModeloTest {
+
+    /** Cuántas partidas aleatorias se juegan; la semilla hace que siempre sean las mismas. */
+    private static final int PARTIDAS = 400;
+    private static final long SEMILLA = 20240601L;
+
+    @Test
+    void partidasAleatoriasIgualesALaReferencia() {
+        SplittableRandom azar = new SplittableRandom(SEMILLA);
+        for (int partida = 0; partida < PARTIDAS; partida++) {
+            int tamaño = 2 + azar.nextInt(11);
+            int numJugadores = 1 + azar.nextInt(4);
+            // IDs no consecutivos, para distinguir el ID de un jugador de su posición.
+            List<Jugador> jugadores = new ArrayList<>();
+            for (int i = 0; i < numJugadores; i++) {
+                jugadores.add(new Jugador(3 * i + 2, "Jugador " + i, "", new Color(40 * i, 0, 0)));
+            }
+            TableroModelo modelo = new TableroModelo(tamaño, jugadores);
+            Referencia ref = new Referencia(tamaño, jugadores);
+            String caso = "partida " + partida + " (tamaño " + tamaño + ", " + numJugadores + " jugadores)";
+
+            // Se intentan también líneas ya puestas, que ambos deben rechazar.
+            int intentos = 0;
+            while (!ref.terminada()) {
+                boolean horizontal = azar.nextBoolean();
+                int fila = azar.nextInt(horizontal ? tamaño : tamaño - 1);
+                int col = azar.nextInt(horizontal ? tamaño - 1 : tamaño);
+                String jugada = caso + ", jugada " + intentos++ + " (" + fila + ", " + col + (horizontal ? ", H)" : ", V)");
+                assertEquals(ref.agregarLinea(fila, col, horizontal), modelo.agregarLinea(fila, col, horizontal), jugada);
+                comparar(ref, modelo, jugada);
+            }
+            assertTrue(modelo.isJuegoTerminado(), caso);
+        }
+    }
+
+    private static void comparar(Referencia ref, TableroModelo modelo, String jugada) {
+        int tamaño = ref.tamaño;
+        for (int f = 0; f < tamaño - 1; f++) {
+            for (int c = 0; c < tamaño - 1; c++) {
+                assertEquals(ref.cuadros[f][c], modelo.getCuadrado(f, c), jugada + ": cuadro (" + f + ", " + c + ")");
+            }
+        }
+        assertArrayEquals(ref.puntajes, modelo.getPuntajes(), jugada + ": puntajes");
+        assertEquals(ref.turno, modelo.getJugadorActualIdx(), jugada + ": turno");
+        assertEquals(ref.terminada(), modelo.isJuegoTerminado(), jugada + ": terminada");
+    }
+
+    /** El modelo original: guarda quién puso cada línea y, tras cada jugada, revisa todos los cuadros. */
+    private static final class Referencia {
+        final int tamaño;
+        final List<Jugador> jugadores;
+        final int[][] horizontales;
+        final int[][] verticales;
+        final int[][] cuadros;
+        final int[] puntajes;
+        int turno;
+        int lineas;
+
+        Referencia(int tamaño, List<Jugador> jugadores) {
+            this.tamaño = tamaño;
+            this.jugadores = jugadores;
+            this.horizontales = new int[tamaño][tamaño - 1];
+            this.verticales = new int[tamaño - 1][tamaño];
+            this.cuadros = new int[tamaño - 1][tamaño - 1];
+            this.puntajes = new int[jugadores.size()];
+        }
+
+        boolean terminada() {
+            return lineas == 2 * tamaño * (tamaño - 1);
+        }
+
+        boolean agregarLinea(int fila, int col, boolean horizontal) {
+            int[][] lineasDe = horizontal ? horizontales : verticales;
+            if (lineasDe[fila][col] != 0) return false;
+            int id = jugadores.get(turno).id();
+            lineasDe[fila][col] = id;
+            lineas++;
+            int nuevos = 0;
+            for (int f = 0; f < tamaño - 1; f++) {
+                for (int c = 0; c < tamaño - 1; c++) {
+                    if (cuadros[f][c] == 0 && horizontales[f][c] != 0 && horizontales[f + 1][c] != 0
+                            && verticales[f][c] != 0 && verticales[f][c + 1] != 0) {
+                        cuadros[f][c] = id;
+                        nuevos++;
+                    }
+                }
+            }
+            puntajes[turno] += nuevos;
+            if (nuevos == 0) turno = (turno + 1) % jugadores.size();
+            return true;
+        }
+    }
+}